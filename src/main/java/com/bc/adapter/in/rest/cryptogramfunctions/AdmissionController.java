@@ -0,0 +1,382 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.application.enumeration.AdmissionPartition;
+import com.bc.utilities.LoggerUtility;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.ws.rs.core.Response;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Adapter class admitting cryptogram requests, so a burst is shed quickly instead of queueing without limit and
+ * raising the latency of every request past the switch timeouts. The controller is configured with the emv.admission
+ * properties and is disabled by default.
+ * - Concurrency limit: at most limit requests are processed at a time. The limit adapts to the observed latency in
+ *   AIMD style, it grows by 1 / limit for each request completed within the target latency while at least half of the
+ *   limit is in use, and is multiplied by the backoff ratio when a request exceeds the target latency, at most once per
+ *   target latency period. The limit stays between the minimum and maximum limit.
+ * - Wait queue: requests above the limit wait up to the maximum wait time for a request to complete, with at most
+ *   queue size requests waiting.
+ * - Rejection: requests finding the queue full, or still waiting after the maximum wait time, are rejected with HTTP
+ *   503, before any cryptographic work is done.
+ * - Partition budgets: when partitioned by caller id header or issuer BIN, a partition may hold at most the partition
+ *   share of the limit, and at most the partition share of the wait queue, further requests of the partition are
+ *   rejected with HTTP 429, so one caller or issuer cannot take the whole capacity or the whole queue. The budget is
+ *   checked again once a waiting request gets a permit, as the partition may have been admitted meanwhile.
+ * Note: The lock is a ReentrantLock rather than a monitor, so waiting virtual threads do not pin their carrier.
+ */
+@Slf4j
+@Singleton
+public class AdmissionController
+        implements LoggerUtility {
+    // Constants
+    private static final int BIN_LENGTH = 6;
+    private static final String UNKNOWN_PARTITION = "";
+    // Variables
+    @Getter
+    private final boolean enabled;
+    @Getter
+    private final AdmissionPartition admissionPartition;
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final int queueSize;
+    private final long maximumWaitNanos;
+    private final double partitionShare;
+    private final LongSupplier nanoTimeSupplier;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private final Map<String, Integer> partitionsInFlight = new HashMap<>();
+    private final Map<String, Integer> partitionsWaiting = new HashMap<>();
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long lastDecreaseNanoTime;
+    // Metrics
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder overloadRejectionCount = new LongAdder();
+    private final LongAdder partitionRejectionCount = new LongAdder();
+    /**
+     * Constructor
+     * @param enabled When set to false, every request is admitted.
+     * @param admissionPartition Request partitioning, NONE, CALLER or BIN.
+     * @param initialLimit Initial concurrency limit.
+     * @param minimumLimit Minimum concurrency limit.
+     * @param maximumLimit Maximum concurrency limit.
+     * @param targetLatency Request latency above which the limit is decreased.
+     * @param backoffRatio Ratio applied to the limit on a decrease, between 0.5 and 1.
+     * @param queueSize Maximum number of requests waiting for admission.
+     * @param maximumWait Maximum time a request waits for admission.
+     * @param partitionShare Share of the limit a single partition may hold, between 0 and 1.
+     */
+    @Inject
+    public AdmissionController(@ConfigProperty(name = "emv.admission.enabled", defaultValue = "false")
+                               boolean enabled,
+                               @ConfigProperty(name = "emv.admission.partition", defaultValue = "NONE")
+                               String admissionPartition,
+                               @ConfigProperty(name = "emv.admission.initial-limit", defaultValue = "32")
+                               int initialLimit,
+                               @ConfigProperty(name = "emv.admission.minimum-limit", defaultValue = "4")
+                               int minimumLimit,
+                               @ConfigProperty(name = "emv.admission.maximum-limit", defaultValue = "512")
+                               int maximumLimit,
+                               @ConfigProperty(name = "emv.admission.target-latency", defaultValue = "PT0.05S")
+                               Duration targetLatency,
+                               @ConfigProperty(name = "emv.admission.backoff-ratio", defaultValue = "0.9")
+                               double backoffRatio,
+                               @ConfigProperty(name = "emv.admission.queue-size", defaultValue = "64")
+                               int queueSize,
+                               @ConfigProperty(name = "emv.admission.maximum-wait", defaultValue = "PT0.1S")
+                               Duration maximumWait,
+                               @ConfigProperty(name = "emv.admission.partition-share", defaultValue = "0.5")
+                               double partitionShare) {
+        this(enabled,
+                parseAdmissionPartition(admissionPartition),
+                initialLimit,
+                minimumLimit,
+                maximumLimit,
+                targetLatency,
+                backoffRatio,
+                queueSize,
+                maximumWait,
+                partitionShare,
+                System::nanoTime
+        );
+    }
+    /**
+     * Constructor with time source.
+     */
+    AdmissionController(boolean enabled,
+                        AdmissionPartition admissionPartition,
+                        int initialLimit,
+                        int minimumLimit,
+                        int maximumLimit,
+                        Duration targetLatency,
+                        double backoffRatio,
+                        int queueSize,
+                        Duration maximumWait,
+                        double partitionShare,
+                        LongSupplier nanoTimeSupplier) {
+        if (minimumLimit <= 0 || initialLimit < minimumLimit || maximumLimit < initialLimit ||
+                targetLatency.isNegative() || targetLatency.isZero() || backoffRatio < 0.5 || backoffRatio >= 1 ||
+                queueSize < 0 || maximumWait.isNegative() || partitionShare <= 0 || partitionShare > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Invalid admission configuration, " +
+                    "limits " + minimumLimit + " <= " + initialLimit + " <= " + maximumLimit + ", target latency " +
+                    targetLatency + ", backoff ratio " + backoffRatio + ", queue size " + queueSize +
+                    ", maximum wait " + maximumWait + ", partition share " + partitionShare + "."
+            );
+        }
+        this.enabled = enabled;
+        this.admissionPartition = admissionPartition;
+        this.limit = initialLimit;
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.queueSize = queueSize;
+        this.maximumWaitNanos = maximumWait.toNanos();
+        this.partitionShare = partitionShare;
+        this.nanoTimeSupplier = nanoTimeSupplier;
+        this.lastDecreaseNanoTime = nanoTimeSupplier.getAsLong() - targetLatencyNanos;
+        logInfo(log,
+                "Admission control enabled: {}, partition: {}, limit: {} ({} to {}), target latency: {}, queue " +
+                        "size: {}, maximum wait: {}.",
+                enabled,
+                admissionPartition,
+                initialLimit,
+                minimumLimit,
+                maximumLimit,
+                targetLatency,
+                queueSize,
+                maximumWait
+        );
+    }
+    /**
+     * Get the partition of a request.
+     * @param callerId Caller id request header, may be null.
+     * @param pan PAN of the request, may be null.
+     * @return Partition name, empty when the request is not partitioned or the partition is unknown.
+     */
+    public String partitionOf(String callerId,
+                              String pan) {
+        if (admissionPartition.isCALLER()) {
+            return callerId == null ? UNKNOWN_PARTITION : callerId;
+        }
+        if (admissionPartition.isBIN()) {
+            return pan == null || pan.length() < BIN_LENGTH ? UNKNOWN_PARTITION : pan.substring(0, BIN_LENGTH);
+        }
+        return UNKNOWN_PARTITION;
+    }
+    /**
+     * Admit a request, waiting for a permit when the limit is reached.
+     * @param partition Partition of the request, see {@link #partitionOf(String, String)}.
+     * @return Permit to be released when the request completes.
+     * @throws AdmissionRejectedException When the request is rejected.
+     */
+    public Permit acquire(String partition) {
+        if (!enabled) {
+            return Permit.UNLIMITED;
+        }
+        lock.lock();
+        try {
+            checkPartitionBudget(partition);
+            if (inFlight >= (int) limit) {
+                awaitPermit(partition);
+                try {
+                    // The lock was released while waiting, the partition may have been admitted meanwhile
+                    checkPartitionBudget(partition);
+                } catch (AdmissionRejectedException admissionRejectedException) {
+                    // Pass the permit this request was signalled for on to the next waiting request
+                    permitReleased.signal();
+                    throw admissionRejectedException;
+                }
+            }
+            inFlight++;
+            partitionsInFlight.merge(partition, 1, Integer::sum);
+            admittedCount.increment();
+            return new Permit(this, partition, nanoTimeSupplier.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Get a snapshot of the admission metrics.
+     * @return Admission statistics.
+     */
+    public Statistics getStatistics() {
+        lock.lock();
+        try {
+            return new Statistics((int) limit,
+                    inFlight,
+                    waiting,
+                    admittedCount.sum(),
+                    overloadRejectionCount.sum(),
+                    partitionRejectionCount.sum()
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Check the concurrency budget of a partition. Called while holding the lock.
+     */
+    private void checkPartitionBudget(String partition) {
+        if (!partition.isEmpty() &&
+                partitionsInFlight.getOrDefault(partition, 0) >= Math.max(1, (int) (limit * partitionShare))) {
+            partitionRejectionCount.increment();
+            throw new AdmissionRejectedException(Response.Status.TOO_MANY_REQUESTS,
+                    "Partition concurrency budget exhausted."
+            );
+        }
+    }
+    /**
+     * Wait for a permit, up to the maximum wait time. Called while holding the lock.
+     */
+    private void awaitPermit(String partition) {
+        if (waiting >= queueSize) {
+            overloadRejectionCount.increment();
+            throw new AdmissionRejectedException(Response.Status.SERVICE_UNAVAILABLE, "Admission queue full.");
+        }
+        if (!partition.isEmpty() &&
+                partitionsWaiting.getOrDefault(partition, 0) >= Math.max(1, (int) (queueSize * partitionShare))) {
+            partitionRejectionCount.increment();
+            throw new AdmissionRejectedException(Response.Status.TOO_MANY_REQUESTS,
+                    "Partition queue budget exhausted."
+            );
+        }
+        waiting++;
+        partitionsWaiting.merge(partition, 1, Integer::sum);
+        try {
+            long remainingNanos = maximumWaitNanos;
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) {
+                    overloadRejectionCount.increment();
+                    throw new AdmissionRejectedException(Response.Status.SERVICE_UNAVAILABLE,
+                            "Admission wait timed out."
+                    );
+                }
+                remainingNanos = permitReleased.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            overloadRejectionCount.increment();
+            throw new AdmissionRejectedException(Response.Status.SERVICE_UNAVAILABLE, "Admission wait interrupted.");
+        } finally {
+            waiting--;
+            partitionsWaiting.computeIfPresent(partition, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+    /**
+     * Release a permit and adapt the limit to the latency of the request.
+     */
+    private void release(String partition,
+                         long startNanoTime) {
+        long nanoTime = nanoTimeSupplier.getAsLong();
+        long latencyNanos = nanoTime - startNanoTime;
+        lock.lock();
+        try {
+            if (latencyNanos > targetLatencyNanos) {
+                if (nanoTime - lastDecreaseNanoTime >= targetLatencyNanos) {
+                    limit = Math.max(minimumLimit, limit * backoffRatio);
+                    lastDecreaseNanoTime = nanoTime;
+                }
+            } else if (2 * inFlight >= limit) {
+                limit = Math.min(maximumLimit, limit + 1 / limit);
+            }
+            inFlight--;
+            partitionsInFlight.computeIfPresent(partition, (key, count) -> count == 1 ? null : count - 1);
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Parse the configured admission partition.
+     */
+    private static AdmissionPartition parseAdmissionPartition(String admissionPartition) {
+        try {
+            return AdmissionPartition.valueOf(admissionPartition.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException illegalArgumentException) {
+            throw new IllegalArgumentException(AdmissionController.class.getName() + " --> Invalid admission " +
+                    "partition " + admissionPartition + ", expected NONE, CALLER or BIN."
+            );
+        }
+    }
+    /**
+     * Permit of an admitted request, released once when the request completes.
+     */
+    public static final class Permit {
+        private static final Permit UNLIMITED = new Permit(null, null, 0);
+        private final AdmissionController admissionController;
+        private final String partition;
+        private final long startNanoTime;
+        private boolean released;
+        private Permit(AdmissionController admissionController,
+                       String partition,
+                       long startNanoTime) {
+            this.admissionController = admissionController;
+            this.partition = partition;
+            this.startNanoTime = startNanoTime;
+        }
+        /**
+         * Release the permit, recording the request latency.
+         */
+        public synchronized void release() {
+            if (admissionController != null && !released) {
+                released = true;
+                admissionController.release(partition, startNanoTime);
+            }
+        }
+    }
+    /**
+     * Snapshot of the admission metrics.
+     */
+    @Getter
+    public static final class Statistics {
+        private final int limit;
+        private final int inFlight;
+        private final int waiting;
+        private final long admittedCount;
+        private final long overloadRejectionCount;
+        private final long partitionRejectionCount;
+        private Statistics(int limit,
+                           int inFlight,
+                           int waiting,
+                           long admittedCount,
+                           long overloadRejectionCount,
+                           long partitionRejectionCount) {
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.waiting = waiting;
+            this.admittedCount = admittedCount;
+            this.overloadRejectionCount = overloadRejectionCount;
+            this.partitionRejectionCount = partitionRejectionCount;
+        }
+        /**
+         * Override method for the object's default toString method.
+         * @return String representing object's attribute values.
+         */
+        @Override
+        public String toString() {
+            return "{" +
+                    "limit=" + limit +
+                    ", inFlight=" + inFlight +
+                    ", waiting=" + waiting +
+                    ", admittedCount=" + admittedCount +
+                    ", overloadRejectionCount=" + overloadRejectionCount +
+                    ", partitionRejectionCount=" + partitionRejectionCount +
+                    '}';
+        }
+    }
+}
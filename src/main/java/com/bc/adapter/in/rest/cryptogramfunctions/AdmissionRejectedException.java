@@ -0,0 +1,25 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import jakarta.ws.rs.core.Response;
+import lombok.Getter;
+
+/**
+ * Exception raised when the admission controller rejects a request, see {@link AdmissionController}.
+ */
+@Getter
+public class AdmissionRejectedException
+        extends RuntimeException {
+    private final Response.Status status;
+    /**
+     * All args constructor
+     * @param status HTTP status of the rejection, 429 when the partition budget is exhausted, 503 when the service is
+     *               overloaded.
+     * @param message Rejection reason.
+     */
+    public AdmissionRejectedException(Response.Status status,
+                                      String message) {
+        // Rejections are part of normal operation under load, so no stack trace is captured
+        super(message, null, false, false);
+        this.status = status;
+    }
+}
@@ -0,0 +1,35 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.utilities.LoggerUtility;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * REST API exception mapper answering requests rejected by the admission controller, see {@link AdmissionController},
+ * with HTTP 429 Too Many Requests or 503 Service Unavailable and a Retry-After header.
+ */
+@Slf4j
+@Provider
+public class AdmissionRejectedExceptionMapper
+        implements ExceptionMapper<AdmissionRejectedException>, LoggerUtility {
+    // Constants
+    private static final String RETRY_AFTER_SECONDS = "1";
+    /**
+     * Map a rejected request to an HTTP 429 or 503 response.
+     * @param admissionRejectedException Exception raised when the request was rejected.
+     * @return HTTP 429 or 503 response.
+     */
+    @Override
+    public Response toResponse(AdmissionRejectedException admissionRejectedException) {
+        logDebug(log,
+                "Request rejected with status {}: {}",
+                admissionRejectedException.getStatus().getStatusCode(),
+                admissionRejectedException.getMessage()
+        );
+        return Response.status(admissionRejectedException.getStatus())
+                .header("Retry-After", RETRY_AFTER_SECONDS)
+                .build();
+    }
+}
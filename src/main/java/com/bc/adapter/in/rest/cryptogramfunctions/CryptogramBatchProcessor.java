@@ -0,0 +1,316 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.model.dto.GenerateACBatchResponse;
+import com.bc.model.dto.GenerateACRequest;
+import com.bc.model.dto.GenerateACResponse;
+import com.bc.utilities.LoggerUtility;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Adapter class processing Application Cryptogram generation batches, received as a JSON array or as NDJSON, i.e.,
+ * one GenerateACRequest JSON object per line. This class performs the following functions:
+ * - Read the batch items one at a time, so the batch is never held in memory.
+ * - Admit each item on the reading thread before it is submitted, so items waiting for admission hold back the reading
+ *   of the batch rather than the threads of the pool, which single requests share in CPU_POOL mode. The permit of an
+ *   item is released when its result is completed or cancelled, and the request record of an item cancelled before
+ *   it started is cleared.
+ * - Generate the cryptograms in parallel on the pool of the configured execution mode, see {@link CryptogramExecutor},
+ *   with at most emv.batch.max-in-flight items queued or in progress, so a large batch cannot exhaust the heap.
+ * - Stream one NDJSON result line per item back in input order, carrying the item index and correlation id.
+ * - Report validation and processing failures in the result line of the item, without failing the batch.
+ */
+@Slf4j
+@ApplicationScoped
+public class CryptogramBatchProcessor
+        implements LoggerUtility {
+    // Constants
+    private static final String INVALID_ITEM_ERROR = "Batch item must be a GenerateACRequest JSON object.";
+    private static final String UNSUPPORTED_PAYMENT_SCHEME_ERROR = "Pan does not belong to a supported payment scheme.";
+    // Variables
+    private final ObjectMapper objectMapper;
+    private final int maximumItemsInFlight;
+    private final ExecutorService workerPool;
+    /**
+     * Constructor
+     * @param objectMapper JSON object mapper.
+     * @param cryptogramExecutor Executor providing the worker pool of the configured execution mode.
+     * @param maximumItemsInFlight Maximum number of batch items queued or in progress per batch.
+     */
+    @Inject
+    public CryptogramBatchProcessor(ObjectMapper objectMapper,
+                                    CryptogramExecutor cryptogramExecutor,
+                                    @ConfigProperty(name = "emv.batch.max-in-flight", defaultValue = "256")
+                                    int maximumItemsInFlight) {
+        if (maximumItemsInFlight <= 0) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Maximum items in flight must be " +
+                    "positive, but received " + maximumItemsInFlight + "."
+            );
+        }
+        this.objectMapper = objectMapper;
+        this.maximumItemsInFlight = maximumItemsInFlight;
+        this.workerPool = cryptogramExecutor.getBatchExecutor();
+        logInfo(log,
+                "Batch maximum items in flight: {}.",
+                maximumItemsInFlight
+        );
+    }
+    /**
+     * Process a batch, writing one NDJSON result line per batch item in input order.
+     * @param batchInput JSON array or NDJSON stream of GenerateACRequest objects.
+     * @param batchOutput Stream receiving the NDJSON result lines.
+     * @param admission Function admitting a single request, called on the reading thread, and throwing when the
+     *                  request is rejected.
+     * @param cryptogramGenerator Function generating the cryptogram of a single request, reusing the single request
+     *                            processing.
+     * @throws IOException When the batch output cannot be written.
+     */
+    public void process(InputStream batchInput,
+                        OutputStream batchOutput,
+                        Function<GenerateACRequest, AdmissionController.Permit> admission,
+                        Function<GenerateACRequest, GenerateACResponse> cryptogramGenerator) throws IOException {
+        Deque<Future<GenerateACBatchResponse>> pendingResults = new ArrayDeque<>();
+        long itemCount = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(batchInput);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(batchOutput)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try {
+                JsonToken token = parser.nextToken();
+                boolean jsonArray = token == JsonToken.START_ARRAY;
+                if (jsonArray) {
+                    token = parser.nextToken();
+                }
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    JsonNode item = parser.readValueAsTree();
+                    long index = itemCount++;
+                    pendingResults.add(admitItem(generator,
+                            pendingResults,
+                            index,
+                            item,
+                            admission,
+                            cryptogramGenerator)
+                    );
+                    while (pendingResults.size() >= maximumItemsInFlight) {
+                        writeResult(generator, pendingResults.poll());
+                    }
+                    writeCompletedResults(generator, pendingResults);
+                    token = parser.nextToken();
+                }
+                if (jsonArray && token == null) {
+                    throw new JsonParseException(parser, "Batch JSON array is not terminated.");
+                }
+            } catch (JsonProcessingException jsonProcessingException) {
+                // Items read so far are still answered, followed by a result line for the unreadable remainder
+                drainResults(generator, pendingResults);
+                writeResult(generator, errorResult(itemCount, null, List.of("Batch input is not valid JSON or " +
+                        "NDJSON: " + jsonProcessingException.getOriginalMessage()))
+                );
+            }
+            drainResults(generator, pendingResults);
+            generator.flush();
+        } finally {
+            pendingResults.forEach(pendingResult -> pendingResult.cancel(true));
+        }
+        logDebug(log,
+                "Batch of {} items processed.",
+                itemCount
+        );
+    }
+    /**
+     * Bind and admit a batch item on the reading thread, and submit the admitted item to the worker pool. An item that
+     * cannot be bound or is rejected is answered with a completed error result.
+     */
+    private Future<GenerateACBatchResponse> admitItem(JsonGenerator generator,
+                                                      Deque<Future<GenerateACBatchResponse>> pendingResults,
+                                                      long index,
+                                                      JsonNode item,
+                                                      Function<GenerateACRequest, AdmissionController.Permit> admission,
+                                                      Function<GenerateACRequest, GenerateACResponse> cryptogramGenerator)
+            throws IOException {
+        if (!item.isObject()) {
+            return CompletableFuture.completedFuture(errorResult(index, null, List.of(INVALID_ITEM_ERROR)));
+        }
+        JsonNode correlationIdNode = item.get("CorrelationId");
+        String correlationId = correlationIdNode == null || correlationIdNode.isNull() ? null : correlationIdNode.asText();
+        GenerateACRequest generateACRequest;
+        try {
+            generateACRequest = objectMapper.treeToValue(item, GenerateACRequest.class);
+        } catch (JsonProcessingException jsonProcessingException) {
+            return CompletableFuture.completedFuture(errorResult(index, correlationId, List.of(INVALID_ITEM_ERROR + " " +
+                    jsonProcessingException.getOriginalMessage()))
+            );
+        }
+        AdmissionController.Permit permit;
+        try {
+            permit = admission.apply(generateACRequest);
+        } catch (RuntimeException runtimeException) {
+            // The request record may hold the Issuer Master Key
+            generateACRequest.requestRecord.clear();
+            return CompletableFuture.completedFuture(errorResult(index,
+                    correlationId,
+                    List.of(String.valueOf(runtimeException.getMessage())))
+            );
+        }
+        // Either the worker or the cancellation of the item claims the request, so only one of them uses the record
+        AtomicBoolean claimed = new AtomicBoolean();
+        FutureTask<GenerateACBatchResponse> itemTask = new FutureTask<>(
+                () -> claimed.compareAndSet(false, true) ?
+                        processItem(index, correlationId, generateACRequest, cryptogramGenerator) :
+                        null) {
+            @Override
+            protected void done() {
+                if (isCancelled() && claimed.compareAndSet(false, true)) {
+                    // The item never started, and its request record may hold the Issuer Master Key
+                    generateACRequest.requestRecord.clear();
+                }
+                permit.release();
+            }
+        };
+        return submitItem(generator, pendingResults, itemTask);
+    }
+    /**
+     * Submit a batch item to the worker pool. When the pool queue is full, which it shares with single requests in
+     * CPU_POOL mode, pending results are written to make progress, and the item is run on the calling thread when none
+     * are left, so batch items are never rejected.
+     */
+    private Future<GenerateACBatchResponse> submitItem(JsonGenerator generator,
+                                                       Deque<Future<GenerateACBatchResponse>> pendingResults,
+                                                       FutureTask<GenerateACBatchResponse> itemTask)
+            throws IOException {
+        while (true) {
+            try {
+                workerPool.execute(itemTask);
+                return itemTask;
+            } catch (RejectedExecutionException rejectedExecutionException) {
+                if (pendingResults.isEmpty()) {
+                    itemTask.run();
+                    return itemTask;
+                }
+                writeResult(generator, pendingResults.poll());
+            }
+        }
+    }
+    /**
+     * Generate the cryptogram of an admitted batch item, turning any failure into item errors.
+     */
+    private GenerateACBatchResponse processItem(long index,
+                                                String correlationId,
+                                                GenerateACRequest generateACRequest,
+                                                Function<GenerateACRequest, GenerateACResponse> cryptogramGenerator) {
+        try {
+            GenerateACResponse generateACResponse = cryptogramGenerator.apply(generateACRequest);
+            if (generateACResponse == null) {
+                return errorResult(index, correlationId, List.of(UNSUPPORTED_PAYMENT_SCHEME_ERROR));
+            }
+            GenerateACBatchResponse batchResponse = new GenerateACBatchResponse();
+            batchResponse.index = index;
+            batchResponse.correlationId = correlationId;
+            batchResponse.applicationCryptogram = generateACResponse.applicationCryptogram;
+            batchResponse.applicationResponseCryptogram = generateACResponse.applicationResponseCryptogram;
+            return batchResponse;
+        } catch (ConstraintViolationException constraintViolationException) {
+            List<String> errors = new ArrayList<>();
+            for (ConstraintViolation<?> constraintViolation : constraintViolationException.getConstraintViolations()) {
+                errors.add(constraintViolation.getPropertyPath() + ": " + constraintViolation.getMessage());
+            }
+            return errorResult(index, correlationId, errors);
+        } catch (RuntimeException runtimeException) {
+            logDebug(log,
+                    "Batch item {} failed: {}.",
+                    index,
+                    runtimeException.getMessage()
+            );
+            return errorResult(index, correlationId, List.of(String.valueOf(runtimeException.getMessage())));
+        }
+    }
+    /**
+     * Build the result line of a failed batch item.
+     */
+    private static GenerateACBatchResponse errorResult(long index,
+                                                       String correlationId,
+                                                       List<String> errors) {
+        GenerateACBatchResponse batchResponse = new GenerateACBatchResponse();
+        batchResponse.index = index;
+        batchResponse.correlationId = correlationId;
+        batchResponse.errors = errors;
+        return batchResponse;
+    }
+    /**
+     * Write the results at the head of the queue that are already completed, keeping the input order.
+     */
+    private void writeCompletedResults(JsonGenerator generator,
+                                       Deque<Future<GenerateACBatchResponse>> pendingResults) throws IOException {
+        boolean written = false;
+        while (!pendingResults.isEmpty() && pendingResults.peek().isDone()) {
+            writeResult(generator, pendingResults.poll());
+            written = true;
+        }
+        if (written) {
+            generator.flush();
+        }
+    }
+    /**
+     * Wait for and write all pending results in input order.
+     */
+    private void drainResults(JsonGenerator generator,
+                              Deque<Future<GenerateACBatchResponse>> pendingResults) throws IOException {
+        while (!pendingResults.isEmpty()) {
+            if (!pendingResults.peek().isDone()) {
+                generator.flush();
+            }
+            writeResult(generator, pendingResults.poll());
+        }
+    }
+    /**
+     * Wait for a pending result and write it as an NDJSON line.
+     */
+    private void writeResult(JsonGenerator generator,
+                             Future<GenerateACBatchResponse> pendingResult) throws IOException {
+        try {
+            writeResult(generator, pendingResult.get());
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IOException(this.getClass().getName() + " --> Batch processing interrupted.",
+                    interruptedException
+            );
+        } catch (ExecutionException executionException) {
+            throw new IllegalStateException(this.getClass().getName() + " --> Batch item processing failed: " +
+                    executionException.getCause()
+            );
+        }
+    }
+    /**
+     * Write a result as an NDJSON line.
+     */
+    private static void writeResult(JsonGenerator generator,
+                                    GenerateACBatchResponse batchResponse) throws IOException {
+        generator.writeObject(batchResponse);
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,169 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.application.enumeration.ExecutionMode;
+import com.bc.utilities.LoggerUtility;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Adapter class running the cryptogram functions REST API requests in the execution mode selected by the
+ * emv.execution.mode configuration property:
+ * - WORKER_THREAD (default) runs each request on the REST API worker thread that received it, so concurrency is capped
+ *   by the worker pool size.
+ * - VIRTUAL_THREAD runs each request on a new virtual thread, releasing the worker thread, so concurrency is not capped
+ *   by a pool and no pool sizing is required. The initialised Cipher objects and transaction data buffers are held in
+ *   pools shared by all threads, not per thread, so they are reused across the virtual threads. Virtual threads
+ *   require a Java 21 runtime, on older runtimes the mode falls back to CPU_POOL with a warning.
+ * - CPU_POOL offloads each request to a fixed pool of emv.execution.cpu-pool-size threads, one per available processor
+ *   by default, the size at which CPU bound Triple DES work has the best throughput. At most emv.execution.queue-size
+ *   requests wait for a thread, further requests are rejected with a RejectedExecutionException, i.e., HTTP 503, so
+ *   queueing delay and p99 latency stay bounded.
+ * Batch requests are always processed on the pool of the mode, i.e., the CPU pool in WORKER_THREAD mode.
+ */
+@Slf4j
+@Singleton
+public class CryptogramExecutor
+        implements LoggerUtility {
+    // Constants
+    private static final String VIRTUAL_THREAD_EXECUTOR_FACTORY = "newVirtualThreadPerTaskExecutor";
+    // Variables
+    @Getter
+    private final ExecutionMode executionMode;
+    private final ExecutorService cpuPool;
+    private final ExecutorService virtualThreadExecutor;
+    /**
+     * Constructor
+     * @param executionMode Configured execution mode, WORKER_THREAD, VIRTUAL_THREAD or CPU_POOL.
+     * @param cpuPoolSize Number of CPU pool threads, 0 to use one thread per available processor.
+     * @param queueSize Maximum number of requests waiting for a CPU pool thread.
+     */
+    @Inject
+    public CryptogramExecutor(@ConfigProperty(name = "emv.execution.mode", defaultValue = "WORKER_THREAD")
+                              String executionMode,
+                              @ConfigProperty(name = "emv.execution.cpu-pool-size", defaultValue = "0")
+                              int cpuPoolSize,
+                              @ConfigProperty(name = "emv.execution.queue-size", defaultValue = "1024")
+                              int queueSize) {
+        if (cpuPoolSize < 0 || queueSize <= 0) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> CPU pool size must not be negative " +
+                    "and queue size must be positive, but received " + cpuPoolSize + " and " + queueSize + "."
+            );
+        }
+        ExecutionMode configuredExecutionMode = parseExecutionMode(executionMode);
+        int threadCount = cpuPoolSize == 0 ? Runtime.getRuntime().availableProcessors() : cpuPoolSize;
+        this.cpuPool = new ThreadPoolExecutor(threadCount,
+                threadCount,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new CpuPoolThreadFactory()
+        );
+        this.virtualThreadExecutor = configuredExecutionMode.isVIRTUAL_THREAD() ? createVirtualThreadExecutor() : null;
+        this.executionMode = configuredExecutionMode.isVIRTUAL_THREAD() && virtualThreadExecutor == null ?
+                ExecutionMode.CPU_POOL : configuredExecutionMode;
+        logInfo(log,
+                "Execution mode: {}, CPU pool threads: {}, queue size: {}.",
+                this.executionMode,
+                threadCount,
+                queueSize
+        );
+    }
+    /**
+     * Run a request in the execution mode.
+     * @param request Request processing, run on the calling thread in WORKER_THREAD mode.
+     * @return Stage completed with the request result, or exceptionally with the exception or error thrown by the
+     *         request.
+     * @throws RejectedExecutionException When the CPU pool queue is full.
+     */
+    public <T> CompletionStage<T> execute(Supplier<T> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                result.complete(request.get());
+            } catch (Throwable throwable) {
+                // Any failure, errors included, must complete the stage, else the HTTP request never completes
+                result.completeExceptionally(throwable);
+            }
+        };
+        if (executionMode.isWORKER_THREAD()) {
+            task.run();
+        } else {
+            getBatchExecutor().execute(task);
+        }
+        return result;
+    }
+    /**
+     * Get the executor processing batch items, the virtual thread executor in VIRTUAL_THREAD mode, else the CPU pool.
+     * @return Batch executor.
+     */
+    public ExecutorService getBatchExecutor() {
+        return executionMode.isVIRTUAL_THREAD() ? virtualThreadExecutor : cpuPool;
+    }
+    /**
+     * Stop the executors on shutdown.
+     */
+    @PreDestroy
+    void shutdown() {
+        cpuPool.shutdownNow();
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdownNow();
+        }
+    }
+    /**
+     * Parse the configured execution mode.
+     */
+    private ExecutionMode parseExecutionMode(String executionMode) {
+        try {
+            return ExecutionMode.valueOf(executionMode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException illegalArgumentException) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Invalid execution mode " +
+                    executionMode + ", expected WORKER_THREAD, VIRTUAL_THREAD or CPU_POOL."
+            );
+        }
+    }
+    /**
+     * Create a virtual thread per task executor. The application is compiled for Java 11, so the Java 21 factory
+     * method is looked up at runtime.
+     * @return Virtual thread executor, or null when the runtime does not support virtual threads.
+     */
+    private ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod(VIRTUAL_THREAD_EXECUTOR_FACTORY).invoke(null);
+        } catch (ReflectiveOperationException reflectiveOperationException) {
+            logWarning(log,
+                    "Virtual threads are not supported by Java {}, falling back to the CPU pool.",
+                    Runtime.version()
+            );
+            return null;
+        }
+    }
+    /**
+     * Thread factory naming the CPU pool threads, created as daemon threads.
+     */
+    private static final class CpuPoolThreadFactory
+            implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "emv-cpu-pool-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
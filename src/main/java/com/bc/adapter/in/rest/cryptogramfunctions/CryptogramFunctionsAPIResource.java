@@ -1,6 +1,8 @@
 package com.bc.adapter.in.rest.cryptogramfunctions;
 
 import com.bc.application.domain.CryptogramResponse;
+import com.bc.application.domain.CryptogramVerificationResponse;
+import com.bc.application.enumeration.CryptogramVerificationResult;
 import com.bc.application.enumeration.PaymentScheme;
 import com.bc.application.enumeration.VisaIadElements;
 import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
@@ -9,17 +11,26 @@ import com.bc.application.service.impl.MastercardCryptogramFunctionsServiceImpl;
 import com.bc.application.service.impl.VisaCryptogramFunctionsServiceImpl;
 import com.bc.model.dto.GenerateACRequest;
 import com.bc.model.dto.GenerateACResponse;
+import com.bc.model.dto.VerifyACRequest;
+import com.bc.model.dto.VerifyACResponse;
 import com.bc.application.port.in.rest.cryptogramfunctions.mapper.GenerateACDomainToResponseMapper;
 import com.bc.application.port.in.rest.cryptogramfunctions.client.CryptogramFunctionsAPI;
 import com.bc.utilities.DeterminePaymentScheme;
+import com.bc.utilities.HexCodec;
 import com.bc.utilities.VisaIADParser;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.io.InputStream;
 import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
 /**
  * REST API interface adaptor implementing the endpoints and methods that will host various EMV cryptogram functions.
@@ -37,6 +48,19 @@ public class CryptogramFunctionsAPIResource implements CryptogramFunctionsAPI {
     GenerateACRequestToCommandMapper generateACRequestToCommandMapper;
     @Inject
     GenerateACDomainToResponseMapper generateACDomainToResponseMapper;
+    // Execution
+    @Inject
+    CryptogramExecutor cryptogramExecutor;
+    @Inject
+    CryptogramResponseCache cryptogramResponseCache;
+    @Inject
+    AdmissionController admissionController;
+    @ConfigProperty(name = "emv.admission.caller-header", defaultValue = "X-Caller-Id")
+    String callerIdHeader;
+    @Context
+    HttpHeaders httpHeaders;
+    @Inject
+    CryptogramBatchProcessor cryptogramBatchProcessor;
     /**
      * Method handling the generation of Application Cryptograms. This method performs the following functions:
      * - Validate the REST API GenerateACRequest payload and return any validation errors.
@@ -45,38 +69,169 @@ public class CryptogramFunctionsAPIResource implements CryptogramFunctionsAPI {
      * - Retrieve the core service's response and:
      *   - Builds a valid response payload, if generateAC was successful.
      *   - Builds an error response payload, if generateAC was unsuccessful.
+     * The request is admitted by the {@link AdmissionController}, then run in the execution mode configured by
+     * emv.execution.mode, see {@link CryptogramExecutor}.
+     * @param generateACRequest REST API request payload containing the GenerateAC request attributes.
+     * @return REST API response payload or error response.
+     */
+    public CompletionStage<Response> generateApplicationCrptogram(GenerateACRequest generateACRequest){
+        return executeAdmittedRequest(generateACRequest, () -> Response.status(Response.Status.CREATED)
+                .entity(generateApplicationCryptogramResponse(generateACRequest))
+                .build()
+        );
+    }
+    /**
+     * Method handling the verification of received Application Cryptograms. The request is validated, admitted and run
+     * as by generateApplicationCrptogram, and the expected cryptogram is compared with the received ARQC in constant
+     * time by the Payment Scheme specific service.
+     * @param verifyACRequest REST API request payload containing the GenerateAC request attributes and the ARQC.
+     * @return REST API response payload with the verification result and reason code, or error response.
+     */
+    public CompletionStage<Response> verifyApplicationCryptogram(VerifyACRequest verifyACRequest){
+        return executeAdmittedRequest(verifyACRequest, () -> Response.ok()
+                .entity(verifyApplicationCryptogramResponse(verifyACRequest))
+                .build()
+        );
+    }
+    /**
+     * Method handling the batch generation of Application Cryptograms. The batch is read and answered as a stream,
+     * see {@link CryptogramBatchProcessor}, and each request is admitted on the thread reading the batch, and processed
+     * as by generateApplicationCrptogram. A rejected request is reported in its result line, without failing the batch.
+     * @param generateACRequests JSON array or NDJSON stream of GenerateAC request payloads.
+     * @return REST API response streaming one NDJSON result line per request, in request order.
+     */
+    public Response generateApplicationCryptogramBatch(InputStream generateACRequests){
+        // The batch items are processed once this method returned, so the caller id is read now
+        String callerId = getCallerId();
+        StreamingOutput batchResponse = batchOutput -> cryptogramBatchProcessor.process(generateACRequests,
+                batchOutput,
+                generateACRequest -> admitRequest(callerId, generateACRequest),
+                this::generateApplicationCryptogramResponse
+        );
+        return Response.ok(batchResponse, NDJSON).build();
+    }
+
+    /**
+     * Get the caller id request header, when the admission controller partitions requests by caller.
+     * @return Caller id, or null when not partitioned by caller or the header is missing.
+     */
+    private String getCallerId(){
+        return admissionController.getAdmissionPartition().isCALLER() ?
+                httpHeaders.getHeaderString(callerIdHeader) :
+                null;
+    }
+
+    /**
+     * Admit a request before any processing, in the partition of its caller id header or issuer BIN.
+     * @param callerId Caller id request header, may be null.
      * @param generateACRequest REST API request payload containing the GenerateAC request attributes.
+     * @return Permit to be released when the request completes.
+     */
+    private AdmissionController.Permit admitRequest(String callerId,
+                                                    GenerateACRequest generateACRequest){
+        return admissionController.acquire(admissionController.partitionOf(callerId, generateACRequest.requestRecord.getPan()));
+    }
+
+    /**
+     * Admit a request and run it in the configured execution mode, releasing the permit when the request completes,
+     * and clearing the request record when the request is rejected before its handler runs.
+     * @param generateACRequest REST API request payload containing the GenerateAC request attributes.
+     * @param requestHandler Request handler building the REST API response.
      * @return REST API response payload or error response.
      */
-    public Response generateApplicationCrptogram(GenerateACRequest generateACRequest){
-        // Command object to validate the Request.
-        GenerateApplicationCryptogramCommand generateApplicationCryptogramCommand =
-                generateACRequestToCommandMapper.mapGenerateACRequestToCommand(generateACRequest);
-        setAmountOtherToZeroIfNull(generateApplicationCryptogramCommand);
-        CryptogramResponse cryptogramResponse =
-                determinePaymentSchemeAndGenerateCryptogram(generateApplicationCryptogramCommand);
-        GenerateACResponse generateACResponse =
-                generateACDomainToResponseMapper.mapFromApplicationCryptogramResponse(cryptogramResponse);
-        return Response.status(Response.Status.CREATED).entity(generateACResponse).build();
+    private CompletionStage<Response> executeAdmittedRequest(GenerateACRequest generateACRequest,
+                                                             Supplier<Response> requestHandler){
+        AdmissionController.Permit permit;
+        try {
+            permit = admitRequest(getCallerId(), generateACRequest);
+        } catch (RuntimeException runtimeException) {
+            // The handler never runs to clear the request record, which may hold the Issuer Master Key
+            generateACRequest.requestRecord.clear();
+            throw runtimeException;
+        }
+        try {
+            return cryptogramExecutor.execute(() -> {
+                try {
+                    return requestHandler.get();
+                } finally {
+                    permit.release();
+                }
+            });
+        } catch (RuntimeException runtimeException) {
+            permit.release();
+            generateACRequest.requestRecord.clear();
+            throw runtimeException;
+        }
+    }
+
+    /**
+     * Map the request to a validated command and verify the received ARQC with the Payment Scheme specific service.
+     * @param verifyACRequest REST API request payload containing the GenerateAC request attributes and the ARQC.
+     * @return REST API response payload with the verification result and reason code, and the ARPC when the ARQC is
+     *         verified and the request holds ARPC data.
+     */
+    private VerifyACResponse verifyApplicationCryptogramResponse(VerifyACRequest verifyACRequest){
+        try {
+            // Command object to validate the Request.
+            GenerateApplicationCryptogramCommand generateApplicationCryptogramCommand =
+                    generateACRequestToCommandMapper.mapGenerateACRequestToCommand(verifyACRequest);
+            byte [] applicationCryptogram = HexCodec.decode(verifyACRequest.applicationCryptogram);
+            CryptogramVerificationResponse verificationResponse;
+            switch (DeterminePaymentScheme.fromPan(generateApplicationCryptogramCommand.getPan())){
+                case VISA:
+                    verificationResponse = visaCryptogramService.verifyApplicationCryptogram(generateApplicationCryptogramCommand,
+                            applicationCryptogram
+                    );
+                    break;
+                case MASTERCARD:
+                    verificationResponse = mastercardCryptogramService.verifyApplicationCryptogram(generateApplicationCryptogramCommand,
+                            applicationCryptogram
+                    );
+                    break;
+                default:
+                    verificationResponse =
+                            new CryptogramVerificationResponse(CryptogramVerificationResult.UNSUPPORTED_PAYMENT_SCHEME);
+            }
+            VerifyACResponse verifyACResponse = new VerifyACResponse();
+            verifyACResponse.verified = verificationResponse.getVerificationResult().isVERIFIED();
+            verifyACResponse.reasonCode = verificationResponse.getVerificationResult().getValue();
+            verifyACResponse.applicationResponseCryptogram = verificationResponse.getResponseCryptogram();
+            return verifyACResponse;
+        } finally {
+            // The request record may hold the Issuer Master Key
+            verifyACRequest.requestRecord.clear();
+        }
     }
 
     /**
-     * Check if AmountOther was provided in the request, if not set it to zeros.
-     * @param generateApplicationCryptogramCommand Command object with a AmountOther attribute with a value.
+     * Map the request to a validated command, generate the cryptogram and map the result to the response payload.
+     * Repeated requests are answered from the response cache, when enabled.
+     * @param generateACRequest REST API request payload containing the GenerateAC request attributes.
+     * @return REST API response payload, or null if the PAN does not belong to a supported payment scheme.
      */
-    private void setAmountOtherToZeroIfNull(GenerateApplicationCryptogramCommand generateApplicationCryptogramCommand){
-        String ZEROS = "0".repeat(12);
-        if (Objects.isNull(generateApplicationCryptogramCommand.amountOther)){
-            generateApplicationCryptogramCommand.amountOther = ZEROS;
+    private GenerateACResponse generateApplicationCryptogramResponse(GenerateACRequest generateACRequest){
+        try {
+            // Command object to validate the Request.
+            GenerateApplicationCryptogramCommand generateApplicationCryptogramCommand =
+                    generateACRequestToCommandMapper.mapGenerateACRequestToCommand(generateACRequest);
+            return cryptogramResponseCache.get(generateApplicationCryptogramCommand, () -> {
+                CryptogramResponse cryptogramResponse =
+                        determinePaymentSchemeAndGenerateCryptogram(generateApplicationCryptogramCommand);
+                return generateACDomainToResponseMapper.mapFromApplicationCryptogramResponse(cryptogramResponse);
+            });
+        } finally {
+            // The request record may hold the Issuer Master Key
+            generateACRequest.requestRecord.clear();
         }
     }
+
     /**
      * Determine payment scheme from PAN and call corresponding application cryptogram generation service.
      * @param generateApplicationCryptogramCommand Command object mapped from request.
      * @return Cryptogram response object.
      */
     private CryptogramResponse determinePaymentSchemeAndGenerateCryptogram(GenerateApplicationCryptogramCommand generateApplicationCryptogramCommand){
-        PaymentScheme paymentScheme = DeterminePaymentScheme.fromPan(generateApplicationCryptogramCommand.pan);
+        PaymentScheme paymentScheme = DeterminePaymentScheme.fromPan(generateApplicationCryptogramCommand.getPan());
         switch (paymentScheme){
             case VISA:
                 return generateVisaApplicationCryptogram(generateApplicationCryptogramCommand);
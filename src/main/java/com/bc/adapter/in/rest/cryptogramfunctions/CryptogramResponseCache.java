@@ -0,0 +1,332 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.model.dto.GenerateACResponse;
+import com.bc.utilities.HexCodec;
+import com.bc.utilities.LoggerUtility;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Short lived cache of Application Cryptogram responses, so retried requests that repeat a request exactly are
+ * answered without running the key derivation and cryptogram generation again. The cache is configured with the
+ * emv.cache.response properties and is disabled by default.
+ * - Requests are keyed by the SHA-256 hash of the canonical form of the validated command, i.e., the key id and the
+ *   decoded fields of the request record in a fixed order, so neither the Issuer Master Key nor any other request field
+ *   is held by the cache.
+ * - Responses expire after a fixed time to live and the least recently used response is evicted when the cache is
+ *   full.
+ * - Concurrent identical requests are coalesced, i.e., only the first one generates the cryptogram and the others wait
+ *   for its response (single flight). Failures are not cached, and are reported to all coalesced requests.
+ * - Hit, miss, coalesced, eviction and expiration counts are recorded for monitoring.
+ */
+@Slf4j
+@Singleton
+public class CryptogramResponseCache
+        implements LoggerUtility {
+    // Constants
+    private static final char FIELD_SEPARATOR = '|';
+    private static final char ABSENT_FIELD = '\u0000';
+    private static final CryptogramRequestField[] RECORD_FIELDS = CryptogramRequestField.values();
+    // Variables
+    private final boolean enabled;
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoTimeSupplier;
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<CachedResponse>> inFlightRequests =
+            new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    // Metrics
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+    /**
+     * Constructor
+     * @param enabled When set to false, every request generates its cryptogram.
+     * @param maximumSize Maximum number of cached responses.
+     * @param timeToLive Time after which a cached response expires.
+     */
+    @Inject
+    public CryptogramResponseCache(@ConfigProperty(name = "emv.cache.response.enabled", defaultValue = "false")
+                                   boolean enabled,
+                                   @ConfigProperty(name = "emv.cache.response.maximum-size", defaultValue = "10000")
+                                   int maximumSize,
+                                   @ConfigProperty(name = "emv.cache.response.time-to-live", defaultValue = "PT30S")
+                                   Duration timeToLive) {
+        this(enabled, maximumSize, timeToLive, System::nanoTime);
+    }
+    /**
+     * Constructor with time source.
+     */
+    CryptogramResponseCache(boolean enabled,
+                            int maximumSize,
+                            Duration timeToLive,
+                            LongSupplier nanoTimeSupplier) {
+        if (enabled && (maximumSize <= 0 || timeToLive.isNegative() || timeToLive.isZero())) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Response cache requires a positive " +
+                    "maximum size and time to live, but received " + maximumSize + " and " + timeToLive + "."
+            );
+        }
+        this.enabled = enabled;
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoTimeSupplier = nanoTimeSupplier;
+        logInfo(log,
+                "Response cache enabled: {}, maximum size: {}, time to live: {}.",
+                enabled,
+                maximumSize,
+                timeToLive
+        );
+    }
+    /**
+     * Get the cached response of an identical request, wait for an identical request in progress, or generate the
+     * response and cache it.
+     * @param command Validated command, with defaults applied.
+     * @param responseGenerator Function generating the response on a cache miss.
+     * @return Copy of the cached response, or the generated response.
+     */
+    public GenerateACResponse get(GenerateApplicationCryptogramCommand command,
+                                  Supplier<GenerateACResponse> responseGenerator) {
+        if (!enabled) {
+            return responseGenerator.get();
+        }
+        String requestHash = hash(command);
+        CachedResponse cachedResponse = getIfPresent(requestHash);
+        if (cachedResponse != null) {
+            hitCount.increment();
+            return cachedResponse.toResponse();
+        }
+        CompletableFuture<CachedResponse> inFlightRequest = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> identicalRequest = inFlightRequests.putIfAbsent(requestHash, inFlightRequest);
+        if (identicalRequest != null) {
+            coalescedCount.increment();
+            return awaitResponse(identicalRequest);
+        }
+        try {
+            // An identical request may have completed between the lookup and the registration
+            cachedResponse = getIfPresent(requestHash);
+            if (cachedResponse == null) {
+                missCount.increment();
+                GenerateACResponse generateACResponse = responseGenerator.get();
+                if (generateACResponse == null) {
+                    inFlightRequest.complete(null);
+                    return null;
+                }
+                cachedResponse = new CachedResponse(generateACResponse, nanoTimeSupplier.getAsLong() + timeToLiveNanos);
+                put(requestHash, cachedResponse);
+            } else {
+                hitCount.increment();
+            }
+            inFlightRequest.complete(cachedResponse);
+            return cachedResponse.toResponse();
+        } catch (Throwable throwable) {
+            // Any failure, errors included, must release the coalesced requests
+            inFlightRequest.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            inFlightRequests.remove(requestHash, inFlightRequest);
+        }
+    }
+    /**
+     * Remove all cached responses.
+     */
+    @PreDestroy
+    public void invalidateAll() {
+        if (enabled) {
+            logInfo(log,
+                    "Response cache statistics: {}.",
+                    getStatistics()
+            );
+        }
+        synchronized (lock) {
+            entries.clear();
+        }
+    }
+    /**
+     * Get a snapshot of the cache metrics.
+     * @return Cache statistics.
+     */
+    public Statistics getStatistics() {
+        int size;
+        synchronized (lock) {
+            size = entries.size();
+        }
+        return new Statistics(size,
+                hitCount.sum(),
+                missCount.sum(),
+                coalescedCount.sum(),
+                evictionCount.sum(),
+                expirationCount.sum()
+        );
+    }
+    /**
+     * Get the cached response, removing it when expired.
+     */
+    private CachedResponse getIfPresent(String requestHash) {
+        synchronized (lock) {
+            CachedResponse cachedResponse = entries.get(requestHash);
+            if (cachedResponse != null && cachedResponse.isExpired(nanoTimeSupplier.getAsLong())) {
+                entries.remove(requestHash);
+                expirationCount.increment();
+                return null;
+            }
+            return cachedResponse;
+        }
+    }
+    /**
+     * Cache a response, evicting the least recently used response when the cache is full.
+     */
+    private void put(String requestHash,
+                     CachedResponse cachedResponse) {
+        synchronized (lock) {
+            entries.put(requestHash, cachedResponse);
+            if (entries.size() > maximumSize) {
+                Map.Entry<String, CachedResponse> eldest = entries.entrySet().iterator().next();
+                entries.remove(eldest.getKey());
+                if (eldest.getValue().isExpired(nanoTimeSupplier.getAsLong())) {
+                    expirationCount.increment();
+                } else {
+                    evictionCount.increment();
+                }
+            }
+        }
+    }
+    /**
+     * Wait for the response of an identical request in progress, rethrowing its failure.
+     */
+    private GenerateACResponse awaitResponse(CompletableFuture<CachedResponse> identicalRequest) {
+        try {
+            CachedResponse cachedResponse = identicalRequest.join();
+            return cachedResponse == null ? null : cachedResponse.toResponse();
+        } catch (CompletionException completionException) {
+            if (completionException.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) completionException.getCause();
+            }
+            if (completionException.getCause() instanceof Error) {
+                throw (Error) completionException.getCause();
+            }
+            throw completionException;
+        }
+    }
+    /**
+     * Hash the canonical form of a command.
+     * @param command Validated command.
+     * @return Hexadecimal SHA-256 hash of the request fields.
+     */
+    static String hash(GenerateApplicationCryptogramCommand command) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            throw new IllegalStateException(CryptogramResponseCache.class.getName() + " --> SHA-256 is not " +
+                    "available: " + noSuchAlgorithmException.getMessage()
+            );
+        }
+        updateField(messageDigest, command.getIssuerKeyId());
+        // The record fields are hashed as decoded, each preceded by its length, 0 when absent
+        CryptogramRequestRecord requestRecord = command.getRequestRecord();
+        byte [] recordData = requestRecord.getData();
+        for (CryptogramRequestField field : RECORD_FIELDS) {
+            int fieldLength = requestRecord.getLength(field);
+            messageDigest.update((byte) fieldLength);
+            messageDigest.update(recordData, field.getOffset(), fieldLength);
+        }
+        return HexCodec.encode(messageDigest.digest());
+    }
+    /**
+     * Hash a text field of the canonical request.
+     */
+    private static void updateField(MessageDigest messageDigest,
+                                    String field) {
+        if (field == null) {
+            messageDigest.update((byte) ABSENT_FIELD);
+        } else {
+            messageDigest.update(field.getBytes(StandardCharsets.UTF_8));
+        }
+        messageDigest.update((byte) FIELD_SEPARATOR);
+    }
+    /**
+     * Cached response with its expiry time.
+     */
+    private static final class CachedResponse {
+        private final String applicationCryptogram;
+        private final String applicationResponseCryptogram;
+        private final long expiryNanoTime;
+        private CachedResponse(GenerateACResponse generateACResponse,
+                               long expiryNanoTime) {
+            this.applicationCryptogram = generateACResponse.applicationCryptogram;
+            this.applicationResponseCryptogram = generateACResponse.applicationResponseCryptogram;
+            this.expiryNanoTime = expiryNanoTime;
+        }
+        private boolean isExpired(long nanoTime) {
+            return nanoTime - expiryNanoTime >= 0;
+        }
+        private GenerateACResponse toResponse() {
+            GenerateACResponse generateACResponse = new GenerateACResponse();
+            generateACResponse.applicationCryptogram = applicationCryptogram;
+            generateACResponse.applicationResponseCryptogram = applicationResponseCryptogram;
+            return generateACResponse;
+        }
+    }
+    /**
+     * Snapshot of the cache metrics.
+     */
+    @Getter
+    public static final class Statistics {
+        private final int size;
+        private final long hitCount;
+        private final long missCount;
+        private final long coalescedCount;
+        private final long evictionCount;
+        private final long expirationCount;
+        private Statistics(int size,
+                           long hitCount,
+                           long missCount,
+                           long coalescedCount,
+                           long evictionCount,
+                           long expirationCount) {
+            this.size = size;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.coalescedCount = coalescedCount;
+            this.evictionCount = evictionCount;
+            this.expirationCount = expirationCount;
+        }
+        /**
+         * Override method for the object's default toString method.
+         * @return String representing object's attribute values.
+         */
+        @Override
+        public String toString() {
+            return "{" +
+                    "size=" + size +
+                    ", hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", coalescedCount=" + coalescedCount +
+                    ", evictionCount=" + evictionCount +
+                    ", expirationCount=" + expirationCount +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.utilities.LoggerUtility;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import lombok.extern.slf4j.Slf4j;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * REST API exception mapper answering requests rejected by a full CPU pool queue, see {@link CryptogramExecutor}, with
+ * HTTP 503 Service Unavailable and a Retry-After header, so clients back off instead of waiting in an unbounded queue.
+ */
+@Slf4j
+@Provider
+public class RejectedExecutionExceptionMapper
+        implements ExceptionMapper<RejectedExecutionException>, LoggerUtility {
+    // Constants
+    private static final String RETRY_AFTER_SECONDS = "1";
+    /**
+     * Map a rejected request to an HTTP 503 response.
+     * @param rejectedExecutionException Exception raised when the request was rejected.
+     * @return HTTP 503 response.
+     */
+    @Override
+    public Response toResponse(RejectedExecutionException rejectedExecutionException) {
+        logDebug(log,
+                "Request rejected: {}.",
+                rejectedExecutionException.getMessage()
+        );
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", RETRY_AFTER_SECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,262 @@
+package com.bc.adapter.in.tcp;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.domain.CryptogramResponse;
+import com.bc.application.domain.CryptogramVerificationResponse;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.CryptogramVerificationResult;
+import com.bc.application.enumeration.PaymentScheme;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.application.service.impl.MastercardCryptogramFunctionsServiceImpl;
+import com.bc.application.service.impl.VisaCryptogramFunctionsServiceImpl;
+import com.bc.utilities.DeterminePaymentScheme;
+import com.bc.utilities.HexCodec;
+import com.bc.utilities.LoggerUtility;
+import com.bc.utilities.UnsupportedCryptogramVersionException;
+import io.vertx.core.buffer.Buffer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Adapter class processing the commands of the HSM style binary TCP interface, see {@link HsmCommandServer}, with the
+ * same domain services as the REST API.
+ * A command message, following the 2 byte length prefix, is made of:
+ * - Header: 4 bytes, opaque correlation data echoed in the response, so pipelined responses can be matched.
+ * - Command code: 2 ASCII characters, AG (generate ARQC) or AV (verify ARQC).
+ * - Key specifier: 1 byte, followed by the key reference:
+ *   - 00: Issuer Master Key, 1 byte length and 8, 16 or 24 key bytes.
+ *   - 01: Issuer key id, 1 byte length and ASCII key id.
+ *   - 02: None, the key is resolved from the issuer key registry by BIN and IAD Derivation Key Index.
+ * - PAN: 1 byte number of digits and BCD digits, padded with F when odd.
+ * - PAN Sequence Number: 1 byte BCD.
+ * - Amount Authorised and Amount Other: 6 bytes BCD each.
+ * - Terminal Country Code: 2 bytes BCD.
+ * - Terminal Verification Results: 5 bytes.
+ * - Transaction Currency Code: 2 bytes BCD.
+ * - Transaction Date: 3 bytes BCD, YYMMDD.
+ * - Transaction Type: 1 byte.
+ * - Unpredictable Number: 4 bytes.
+ * - Application Interchange Profile: 2 bytes.
+ * - Application Transaction Counter: 2 bytes.
+ * - Issuer Application Data: 1 byte length and IAD bytes.
+ * - ARQC to verify, AV only: 8 bytes.
+ * A response message is made of the header, the response code, i.e., the command code with its second character
+ * incremented (AH or AW), a 2 ASCII digit error code and, for AH with error code 00, the 8 byte ARQC. Error codes:
+ * - 00: No error.
+ * - 01: ARQC verification failure.
+ * - 15: Input data error, e.g., a malformed field, a validation failure, an unsupported CVN or no issuer key found.
+ * - 68: Command not supported.
+ * - 90: Busy, the command was not processed and can be retried.
+ * - 99: Processing error.
+ */
+@Slf4j
+@ApplicationScoped
+public class HsmCommandProcessor
+        implements LoggerUtility {
+    // Constants
+    static final int HEADER_LENGTH = 4;
+    static final int COMMAND_CODE_LENGTH = 2;
+    static final String GENERATE_ARQC = "AG";
+    static final String VERIFY_ARQC = "AV";
+    static final String NO_ERROR = "00";
+    static final String VERIFICATION_FAILURE = "01";
+    static final String INPUT_DATA_ERROR = "15";
+    static final String COMMAND_NOT_SUPPORTED = "68";
+    static final String BUSY = "90";
+    static final String PROCESSING_ERROR = "99";
+    private static final int ISSUER_MASTER_KEY_SPECIFIER = 0x00;
+    private static final int ISSUER_KEY_ID_SPECIFIER = 0x01;
+    private static final int ISSUER_KEY_REGISTRY_SPECIFIER = 0x02;
+    private static final int ARQC_LENGTH = 8;
+    private static final List<CryptogramRequestField> FIXED_LENGTH_FIELDS = List.of(
+            CryptogramRequestField.PAN_SEQUENCE_NUMBER,
+            CryptogramRequestField.AMOUNT_AUTHORISED,
+            CryptogramRequestField.AMOUNT_OTHER,
+            CryptogramRequestField.TERMINAL_COUNTRY_CODE,
+            CryptogramRequestField.TERMINAL_VERIFICATION_RESULTS,
+            CryptogramRequestField.TRANSACTION_CURRENCY_CODE,
+            CryptogramRequestField.TRANSACTION_DATE,
+            CryptogramRequestField.TRANSACTION_TYPE,
+            CryptogramRequestField.UNPREDICTABLE_NUMBER,
+            CryptogramRequestField.APPLICATION_INTERCHANGE_PROFILE,
+            CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER
+    );
+    // Services
+    @Inject
+    VisaCryptogramFunctionsServiceImpl visaCryptogramService;
+    @Inject
+    MastercardCryptogramFunctionsServiceImpl mastercardCryptogramService;
+    /**
+     * Process a command message.
+     * @param message Command message, without the length prefix.
+     * @return Response message, without the length prefix.
+     * @throws IllegalArgumentException When the message is too short to hold a header and command code.
+     */
+    public Buffer process(Buffer message) {
+        ensureCommandMessage(message);
+        String commandCode = message.getString(HEADER_LENGTH,
+                HEADER_LENGTH + COMMAND_CODE_LENGTH,
+                StandardCharsets.US_ASCII.name()
+        );
+        CryptogramRequestRecord requestRecord = new CryptogramRequestRecord();
+        try {
+            switch (commandCode) {
+                case GENERATE_ARQC:
+                    CryptogramResponse cryptogramResponse =
+                            determinePaymentSchemeAndGenerateCryptogram(readCommand(message, false, requestRecord));
+                    return response(message, NO_ERROR)
+                            .appendBytes(HexCodec.decode(cryptogramResponse.getRequestCryptogram()));
+                case VERIFY_ARQC:
+                    CryptogramVerificationResult verificationResult =
+                            determinePaymentSchemeAndVerifyCryptogram(readCommand(message, true, requestRecord),
+                                    message.getBytes(message.length() - ARQC_LENGTH, message.length())
+                            ).getVerificationResult();
+                    return response(message, verificationResult.isVERIFIED() ? NO_ERROR :
+                            verificationResult == CryptogramVerificationResult.ARQC_MISMATCH ? VERIFICATION_FAILURE :
+                            INPUT_DATA_ERROR
+                    );
+                default:
+                    return response(message, COMMAND_NOT_SUPPORTED);
+            }
+        } catch (ConstraintViolationException |
+                 IllegalArgumentException |
+                 UnsupportedCryptogramVersionException exception) {
+            logDebug(log,
+                    "Command {} input data error: {}.",
+                    commandCode,
+                    exception.getMessage()
+            );
+            return response(message, INPUT_DATA_ERROR);
+        } catch (RuntimeException runtimeException) {
+            logWarning(log,
+                    "Command {} processing error: {}.",
+                    commandCode,
+                    runtimeException.getMessage()
+            );
+            return response(message, PROCESSING_ERROR);
+        } finally {
+            // The request record may hold the Issuer Master Key
+            requestRecord.clear();
+        }
+    }
+    /**
+     * Build the response of a command that was not processed because the server is busy.
+     * @param message Command message, without the length prefix.
+     * @return Response message, without the length prefix.
+     */
+    public Buffer busy(Buffer message) {
+        ensureCommandMessage(message);
+        return response(message, BUSY);
+    }
+    /**
+     * Build the response of a command whose processing failed unexpectedly, e.g., with an error.
+     * @param message Command message, without the length prefix.
+     * @return Response message, without the length prefix.
+     */
+    public Buffer processingError(Buffer message) {
+        ensureCommandMessage(message);
+        return response(message, PROCESSING_ERROR);
+    }
+    /**
+     * Decode the command fields into a request record, and build the validated command.
+     */
+    private GenerateApplicationCryptogramCommand readCommand(Buffer message,
+                                                             boolean verification,
+                                                             CryptogramRequestRecord requestRecord) {
+        int fieldsEnd = verification ? message.length() - ARQC_LENGTH : message.length();
+        if (fieldsEnd < HEADER_LENGTH + COMMAND_CODE_LENGTH) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Message too short to hold an ARQC.");
+        }
+        HsmMessageReader reader = new HsmMessageReader(message.getBuffer(0, fieldsEnd),
+                HEADER_LENGTH + COMMAND_CODE_LENGTH
+        );
+        String issuerKeyId = null;
+        int keySpecifier = reader.readUnsignedByte();
+        if (keySpecifier == ISSUER_MASTER_KEY_SPECIFIER) {
+            putField(requestRecord, CryptogramRequestField.ISSUER_MASTER_KEY, reader.readVariableBinary());
+        } else if (keySpecifier == ISSUER_KEY_ID_SPECIFIER) {
+            issuerKeyId = reader.readVariableAscii();
+        } else if (keySpecifier != ISSUER_KEY_REGISTRY_SPECIFIER) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Unknown key specifier " +
+                    keySpecifier + "."
+            );
+        }
+        requestRecord.put(CryptogramRequestField.PAN, reader.readVariableBcd());
+        // The fixed length fields follow the PAN, from the PAN Sequence Number to the ATC
+        for (CryptogramRequestField field : FIXED_LENGTH_FIELDS) {
+            putField(requestRecord, field, reader.readBinary(field.getLength()));
+        }
+        putField(requestRecord, CryptogramRequestField.ISSUER_APPLICATION_DATA, reader.readVariableBinary());
+        reader.ensureFullyRead();
+        return new GenerateApplicationCryptogramCommand(issuerKeyId,
+                requestRecord
+        );
+    }
+    /**
+     * Put a field read from the message into the request record, zeroizing the bytes read, e.g., the Issuer Master Key.
+     */
+    private static void putField(CryptogramRequestRecord requestRecord,
+                                 CryptogramRequestField field,
+                                 byte[] fieldBytes) {
+        requestRecord.put(field, fieldBytes, 0, fieldBytes.length);
+        Arrays.fill(fieldBytes, (byte) 0);
+    }
+    /**
+     * Determine payment scheme from PAN and call corresponding application cryptogram generation service.
+     */
+    private CryptogramResponse determinePaymentSchemeAndGenerateCryptogram(GenerateApplicationCryptogramCommand command) {
+        PaymentScheme paymentScheme = DeterminePaymentScheme.fromPan(command.getPan());
+        if (paymentScheme.isVisa()) {
+            return visaCryptogramService.getApplicationCryptogram(command);
+        }
+        if (paymentScheme.isMastercard()) {
+            return mastercardCryptogramService.getApplicationCryptogram(command);
+        }
+        throw new IllegalArgumentException(this.getClass().getName() + " --> Pan does not belong to a supported " +
+                "payment scheme."
+        );
+    }
+    /**
+     * Determine payment scheme from PAN and call corresponding application cryptogram verification service.
+     */
+    private CryptogramVerificationResponse determinePaymentSchemeAndVerifyCryptogram(GenerateApplicationCryptogramCommand command,
+                                                                                     byte[] applicationCryptogram) {
+        PaymentScheme paymentScheme = DeterminePaymentScheme.fromPan(command.getPan());
+        if (paymentScheme.isVisa()) {
+            return visaCryptogramService.verifyApplicationCryptogram(command, applicationCryptogram);
+        }
+        if (paymentScheme.isMastercard()) {
+            return mastercardCryptogramService.verifyApplicationCryptogram(command, applicationCryptogram);
+        }
+        return new CryptogramVerificationResponse(CryptogramVerificationResult.UNSUPPORTED_PAYMENT_SCHEME);
+    }
+    /**
+     * Build a response message with the header of the command message.
+     */
+    private static Buffer response(Buffer message,
+                                   String errorCode) {
+        char[] responseCode = {
+                (char) message.getUnsignedByte(HEADER_LENGTH),
+                (char) (message.getUnsignedByte(HEADER_LENGTH + 1) + 1)
+        };
+        return Buffer.buffer(HEADER_LENGTH + 2 * COMMAND_CODE_LENGTH + ARQC_LENGTH)
+                .appendBuffer(message, 0, HEADER_LENGTH)
+                .appendString(new String(responseCode), StandardCharsets.US_ASCII.name())
+                .appendString(errorCode, StandardCharsets.US_ASCII.name());
+    }
+    /**
+     * Check that a message holds a header and a command code.
+     */
+    private void ensureCommandMessage(Buffer message) {
+        if (message.length() < HEADER_LENGTH + COMMAND_CODE_LENGTH) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Message of " + message.length() +
+                    " bytes is too short to hold a header and command code."
+            );
+        }
+    }
+}
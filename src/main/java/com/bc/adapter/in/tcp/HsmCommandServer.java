@@ -0,0 +1,215 @@
+package com.bc.adapter.in.tcp;
+
+import com.bc.adapter.in.rest.cryptogramfunctions.CryptogramExecutor;
+import com.bc.utilities.LoggerUtility;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetServer;
+import io.vertx.core.net.NetServerOptions;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapter class serving the HSM style binary TCP interface, so the service can stand in for an HSM, see
+ * {@link HsmCommandProcessor} for the command messages. This class performs the following functions:
+ * - Listen on emv.hsm.host and emv.hsm.port when emv.hsm.enabled is set to true.
+ * - Split the stream into messages, each preceded by a 2 byte big endian length. Zero length messages are ignored and
+ *   may be used as keep alives.
+ * - Process pipelined messages in parallel on the pool of the configured execution mode, see
+ *   {@link CryptogramExecutor}, so the event loop never runs cryptographic work. Responses are written as they
+ *   complete and may be out of order, clients match them with the echoed header.
+ * - Stop reading from a connection with emv.hsm.max-in-flight messages in progress, until one completes.
+ * - Close the connection on a message too short to hold a header and command code.
+ */
+@Slf4j
+@ApplicationScoped
+public class HsmCommandServer
+        implements LoggerUtility {
+    // Constants
+    private static final int LENGTH_PREFIX_SIZE = 2;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(30);
+    // Variables
+    @Inject
+    Vertx vertx;
+    @Inject
+    HsmCommandProcessor hsmCommandProcessor;
+    @Inject
+    CryptogramExecutor cryptogramExecutor;
+    @ConfigProperty(name = "emv.hsm.enabled", defaultValue = "false")
+    boolean enabled;
+    @ConfigProperty(name = "emv.hsm.host", defaultValue = "0.0.0.0")
+    String host;
+    @ConfigProperty(name = "emv.hsm.port", defaultValue = "1500")
+    int port;
+    @ConfigProperty(name = "emv.hsm.max-in-flight", defaultValue = "64")
+    int maximumMessagesInFlight;
+    private NetServer netServer;
+    /**
+     * Start the server on application startup, when enabled.
+     * @param startupEvent Application startup event.
+     */
+    void onStart(@Observes StartupEvent startupEvent) {
+        if (!enabled) {
+            return;
+        }
+        if (maximumMessagesInFlight <= 0) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Maximum messages in flight must be " +
+                    "positive, but received " + maximumMessagesInFlight + "."
+            );
+        }
+        netServer = vertx.createNetServer(new NetServerOptions()
+                .setHost(host)
+                .setPort(port)
+                .setTcpNoDelay(true)
+        );
+        netServer.connectHandler(this::handleConnection);
+        try {
+            netServer.listen()
+                    .toCompletionStage()
+                    .toCompletableFuture()
+                    .get(STARTUP_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        } catch (Exception exception) {
+            throw new IllegalStateException(this.getClass().getName() + " --> HSM command server failed to listen " +
+                    "on " + host + ":" + port + ": " + exception.getMessage()
+            );
+        }
+        logInfo(log,
+                "HSM command server listening on {}:{}.",
+                host,
+                netServer.actualPort()
+        );
+    }
+    /**
+     * Stop the server on application shutdown.
+     * @param shutdownEvent Application shutdown event.
+     */
+    void onStop(@Observes ShutdownEvent shutdownEvent) {
+        if (netServer != null) {
+            netServer.close();
+        }
+    }
+    /**
+     * Get the port the server listens on, e.g., when configured with port 0.
+     * @return Listening port, or -1 when the server is not started.
+     */
+    public int getActualPort() {
+        return netServer == null ? -1 : netServer.actualPort();
+    }
+    /**
+     * Set up the message parsing of a new connection.
+     */
+    private void handleConnection(NetSocket socket) {
+        Connection connection = new Connection(socket,
+                RecordParser.newFixed(LENGTH_PREFIX_SIZE, socket),
+                vertx.getOrCreateContext()
+        );
+        RecordParser parser = connection.parser;
+        parser.handler(new Handler<>() {
+            private boolean readingLengthPrefix = true;
+            @Override
+            public void handle(Buffer record) {
+                if (readingLengthPrefix) {
+                    int messageLength = record.getUnsignedShort(0);
+                    if (messageLength > 0) {
+                        readingLengthPrefix = false;
+                        parser.fixedSizeMode(messageLength);
+                    }
+                    return;
+                }
+                readingLengthPrefix = true;
+                parser.fixedSizeMode(LENGTH_PREFIX_SIZE);
+                if (record.length() < HsmCommandProcessor.HEADER_LENGTH + HsmCommandProcessor.COMMAND_CODE_LENGTH) {
+                    logDebug(log,
+                            "Closing connection from {} after a {} byte message.",
+                            socket.remoteAddress(),
+                            record.length()
+                    );
+                    socket.close();
+                    return;
+                }
+                if (++connection.messagesInFlight == maximumMessagesInFlight) {
+                    parser.pause();
+                }
+                submit(connection, record);
+            }
+        });
+        parser.exceptionHandler(throwable -> {
+            logDebug(log,
+                    "Connection from {} failed: {}.",
+                    socket.remoteAddress(),
+                    throwable.getMessage()
+            );
+            socket.close();
+        });
+    }
+    /**
+     * Process a message on the execution pool and write its response, answering busy when the pool rejects it. A
+     * response is always written, so the message is no longer counted in flight, with a processing error when the
+     * processing failed with an error.
+     */
+    private void submit(Connection connection,
+                        Buffer message) {
+        try {
+            cryptogramExecutor.getBatchExecutor().execute(() -> {
+                Buffer response = null;
+                try {
+                    response = hsmCommandProcessor.process(message);
+                } finally {
+                    if (response == null) {
+                        logWarning(log,
+                                "Message from {} failed, answering with a processing error.",
+                                connection.socket.remoteAddress()
+                        );
+                        response = hsmCommandProcessor.processingError(message);
+                    }
+                    Buffer completedResponse = response;
+                    connection.context.runOnContext(ignored -> write(connection, completedResponse));
+                }
+            });
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            write(connection, hsmCommandProcessor.busy(message));
+        }
+    }
+    /**
+     * Write a response with its length prefix, and resume reading when the connection was paused. Called on the
+     * connection's event loop, which also counts and pauses incoming messages.
+     */
+    private void write(Connection connection,
+                       Buffer response) {
+        connection.socket.write(Buffer.buffer(LENGTH_PREFIX_SIZE + response.length())
+                .appendUnsignedShort(response.length())
+                .appendBuffer(response)
+        );
+        if (connection.messagesInFlight-- == maximumMessagesInFlight) {
+            connection.parser.resume();
+        }
+    }
+    /**
+     * State of a connection, only accessed on its event loop.
+     */
+    private static final class Connection {
+        private final NetSocket socket;
+        private final RecordParser parser;
+        private final Context context;
+        private int messagesInFlight;
+        private Connection(NetSocket socket,
+                           RecordParser parser,
+                           Context context) {
+            this.socket = socket;
+            this.parser = parser;
+            this.context = context;
+        }
+    }
+}
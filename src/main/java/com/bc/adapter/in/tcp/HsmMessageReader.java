@@ -0,0 +1,114 @@
+package com.bc.adapter.in.tcp;
+
+import com.bc.utilities.HexCodec;
+import io.vertx.core.buffer.Buffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class reading the packed binary fields of an HSM command message, from a start position to the end of the buffer.
+ * Reading past the end of the message, non decimal BCD digits in a variable length BCD field or unread trailing bytes
+ * raise an exception, which is answered with the input data error code. Fixed length fields are returned as read, and
+ * are checked by the cryptogram request record they are put in.
+ */
+class HsmMessageReader {
+    // Variables
+    private final Buffer message;
+    private int position;
+    /**
+     * Constructor
+     * @param message Command message.
+     * @param position Position of the first field.
+     */
+    HsmMessageReader(Buffer message,
+                     int position) {
+        this.message = message;
+        this.position = position;
+    }
+    /**
+     * Read an unsigned byte.
+     * @return Byte value, 0 to 255.
+     */
+    int readUnsignedByte() {
+        ensureAvailable(1);
+        return message.getUnsignedByte(position++);
+    }
+    /**
+     * Read a fixed length binary field, e.g., a packed BCD field.
+     * @param length Field length in bytes.
+     * @return Field bytes.
+     */
+    byte[] readBinary(int length) {
+        ensureAvailable(length);
+        byte[] field = message.getBytes(position, position + length);
+        position += length;
+        return field;
+    }
+    /**
+     * Read a binary field preceded by its length in bytes.
+     * @return Field bytes.
+     */
+    byte[] readVariableBinary() {
+        return readBinary(readUnsignedByte());
+    }
+    /**
+     * Read a BCD field preceded by its number of digits, left justified with trailing F padding when the number of
+     * digits is odd, e.g., a PAN.
+     * @return Decimal digits of the field.
+     */
+    String readVariableBcd() {
+        int digits = readUnsignedByte();
+        String field = HexCodec.encode(readBinary((digits + 1) / 2));
+        ensureDecimal(field, digits);
+        if (digits % 2 != 0 && field.charAt(digits) != 'f') {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Odd length BCD field must be padded " +
+                    "with F."
+            );
+        }
+        return field.substring(0, digits);
+    }
+    /**
+     * Read an ASCII field preceded by its length in bytes.
+     * @return Field value.
+     */
+    String readVariableAscii() {
+        int length = readUnsignedByte();
+        ensureAvailable(length);
+        String field = message.getString(position, position + length, StandardCharsets.US_ASCII.name());
+        position += length;
+        return field;
+    }
+    /**
+     * Check that all fields of the message were read.
+     */
+    void ensureFullyRead() {
+        if (position != message.length()) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> " + (message.length() - position) +
+                    " unexpected trailing bytes."
+            );
+        }
+    }
+    /**
+     * Check that the message holds at least the number of bytes after the current position.
+     */
+    private void ensureAvailable(int length) {
+        if (message.length() - position < length) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Message too short, expected " +
+                    length + " more bytes at position " + position + "."
+            );
+        }
+    }
+    /**
+     * Check that the leading characters of a field are decimal digits.
+     */
+    private void ensureDecimal(String field,
+                               int digits) {
+        for (int i = 0; i < digits; i++) {
+            char digit = field.charAt(i);
+            if (digit < '0' || digit > '9') {
+                throw new IllegalArgumentException(this.getClass().getName() + " --> BCD field contains a non " +
+                        "decimal digit."
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.bc.application.domain;
+
+import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.PaymentScheme;
+import lombok.Getter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+/**
+ * Core domain class holding the per request state of an Application Cryptogram generation, passed through the IAD
+ * parsing, UDK derivation, Session Key derivation and cryptogram generation stages.
+ * The context is immutable, each stage returns a new context with the values it derived, so the cryptogram services
+ * keep no request state and can be shared by concurrent requests.
+ * Note: The derived keys are held as raw key bytes owned by the request, they are not copied from stage to stage and
+ * are zeroized with clearKeys once the cryptogram is done.
+ */
+@Getter
+public final class CryptogramContext {
+
+    private final Map<String, String> mappedIad;
+    private final PaymentScheme paymentScheme;
+    private final CryptogramVersionNumber cryptogramVersionNumber;
+    private final String cardVerificationResults;
+    private final byte [] uniqueDerivationKey;
+    private final String uniqueDerivationKeyFingerprint;
+    private final byte [] applicationCryptogramKey;
+    /**
+     * Constructor for the context of a parsed Issuer Application Data.
+     * @param mappedIad Issuer Application Data parsed by the Payment Scheme specific parser.
+     * @param paymentScheme Payment Scheme determined from the PAN.
+     * @param cryptogramVersionNumber Cryptogram Version Number from the parsed IAD.
+     * @param cardVerificationResults Card Verification Results from the parsed IAD.
+     */
+    public CryptogramContext(Map<String, String> mappedIad,
+                             PaymentScheme paymentScheme,
+                             CryptogramVersionNumber cryptogramVersionNumber,
+                             String cardVerificationResults) {
+        this(Collections.unmodifiableMap(mappedIad),
+                paymentScheme,
+                cryptogramVersionNumber,
+                cardVerificationResults,
+                null,
+                null,
+                null
+        );
+    }
+    /**
+     * All args constructor
+     */
+    private CryptogramContext(Map<String, String> mappedIad,
+                              PaymentScheme paymentScheme,
+                              CryptogramVersionNumber cryptogramVersionNumber,
+                              String cardVerificationResults,
+                              byte [] uniqueDerivationKey,
+                              String uniqueDerivationKeyFingerprint,
+                              byte [] applicationCryptogramKey) {
+        this.mappedIad = mappedIad;
+        this.paymentScheme = paymentScheme;
+        this.cryptogramVersionNumber = cryptogramVersionNumber;
+        this.cardVerificationResults = cardVerificationResults;
+        this.uniqueDerivationKey = uniqueDerivationKey;
+        this.uniqueDerivationKeyFingerprint = uniqueDerivationKeyFingerprint;
+        this.applicationCryptogramKey = applicationCryptogramKey;
+    }
+    /**
+     * Get a copy of the context with the derived Unique Derivation Key.
+     * @param uniqueDerivationKey UDK derived from the Issuer Master Key, as raw key bytes.
+     * @param uniqueDerivationKeyFingerprint Fingerprint identifying the UDK in the derived key caches, or null when the
+     *                                       keys are not cached.
+     * @return New context holding the UDK.
+     */
+    public CryptogramContext withUniqueDerivationKey(byte [] uniqueDerivationKey,
+                                                     String uniqueDerivationKeyFingerprint) {
+        return new CryptogramContext(mappedIad,
+                paymentScheme,
+                cryptogramVersionNumber,
+                cardVerificationResults,
+                uniqueDerivationKey,
+                uniqueDerivationKeyFingerprint,
+                applicationCryptogramKey
+        );
+    }
+    /**
+     * Get a copy of the context with the derived Session Key.
+     * @param applicationCryptogramKey Session Key derived from the UDK, as raw key bytes.
+     * @return New context holding the Session Key.
+     */
+    public CryptogramContext withApplicationCryptogramKey(byte [] applicationCryptogramKey) {
+        return new CryptogramContext(mappedIad,
+                paymentScheme,
+                cryptogramVersionNumber,
+                cardVerificationResults,
+                uniqueDerivationKey,
+                uniqueDerivationKeyFingerprint,
+                applicationCryptogramKey
+        );
+    }
+    /**
+     * Zeroize the derived keys held by the context.
+     */
+    public void clearKeys() {
+        if (uniqueDerivationKey != null) {
+            Arrays.fill(uniqueDerivationKey, (byte) 0);
+        }
+        if (applicationCryptogramKey != null) {
+            Arrays.fill(applicationCryptogramKey, (byte) 0);
+        }
+    }
+    /**
+     * Override method for the object's default toString method, derived keys are never included.
+     * @return String representing object's attribute values.
+     */
+    @Override
+    public String toString() {
+        return "{" +
+                "mappedIad=" + mappedIad +
+                ", paymentScheme=" + paymentScheme +
+                ", cryptogramVersionNumber=" + cryptogramVersionNumber +
+                ", cardVerificationResults='" + cardVerificationResults + '\'' +
+                '}';
+    }
+
+}
@@ -1,53 +1,15 @@
 package com.bc.application.domain;
 
-import lombok.Getter;
-import lombok.Setter;
-
 /**
- * Core domain class defining attributes for Application Cryptogram.
+ * Core domain interface defining attributes for Application Cryptogram.
+ * The interface is implemented by the validated inbound command, so the request is bound once from the inbound
+ * payload and read by the domain services without being copied into a separate domain object. The hexadecimal and BCD
+ * fields are read in place from the request record, see {@link CryptogramRequestRecord}.
  */
+public interface CryptogramRequest {
 
-@Getter
-@Setter
-public class CryptogramRequest {
-
-    private String pan;
-    private String panSequenceNumber;
-    private String issuerMasterKey;
-    private String amountAuthorised;
-    private String amountOther;
-    private String terminalCountryCode;
-    private String terminalVerificationResults;
-    private String transactionCurrencyCode;
-    private String transactionDate;
-    private String transactionType;
-    private String unpredictableNumber;
-    private String applicationInterchangeProfile;
-    private String applicationTransactionCounter;
-    private String issuerApplicationData;
-
-    /**
-     * Override method for the object's default toString method.
-     * @return String representing object's attribute values.
-     */
-    @Override
-    public String toString() {
-        return "{" +
-                "pan='" + pan + '\'' +
-                ", panSequenceNumber='" + panSequenceNumber + '\'' +
-                ", cryptogramMasterKey='" + issuerMasterKey + '\'' +
-                ", amountAuthorised='" + amountAuthorised + '\'' +
-                ", amountOther='" + amountOther + '\'' +
-                ", terminalCountryCode='" + terminalCountryCode + '\'' +
-                ", terminalVerificationResults='" + terminalVerificationResults + '\'' +
-                ", transactionCurrencyCode='" + transactionCurrencyCode + '\'' +
-                ", transactionDate='" + transactionDate + '\'' +
-                ", transactionType='" + transactionType + '\'' +
-                ", unpredictableNumber='" + unpredictableNumber + '\'' +
-                ", applicationInterchangeProfile='" + applicationInterchangeProfile + '\'' +
-                ", applicationTransactionCounter='" + applicationTransactionCounter + '\'' +
-                ", issuerApplicationData='" + issuerApplicationData + '\'' +
-                '}';
-    }
+    String getPan();
+    String getIssuerKeyId();
+    CryptogramRequestRecord getRequestRecord();
 
 }
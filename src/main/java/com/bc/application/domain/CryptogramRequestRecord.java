@@ -0,0 +1,305 @@
+package com.bc.application.domain;
+
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.FieldEncoding;
+import com.bc.utilities.HexCodec;
+import com.bc.utilities.LoggerUtility;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import static com.bc.application.enumeration.CryptogramRequestField.RECORD_LENGTH;
+
+/**
+ * Core domain class holding the hexadecimal and BCD fields of a cryptogram request as a fixed layout byte record, see
+ * {@link CryptogramRequestField}. The fields are decoded once at the edge, i.e., by the streaming JSON deserializer or
+ * the HSM command reader, and are read in place by the transaction data assembler and the key derivators.
+ * - Numeric fields are packed as BCD, and fixed length fields are right aligned and left padded with zeros, e.g., an
+ *   ATC of 1 to 4 digits. Variable length fields, e.g., the IAD, are left aligned and their length is kept.
+ * - A field that is not of a valid length or holds an invalid digit is marked invalid rather than raising an exception,
+ *   so the request command reports it as a constraint violation named after the field.
+ * - The PAN and the IAD are kept as text as well, the PAN as the routing key of the request, e.g., for the payment scheme
+ *   and the admission partition, and the IAD for the Payment Scheme IAD parsers.
+ * Note: An instance is not thread safe, it is filled by the thread binding the request and is only read once the
+ * request is validated. The record holds the Issuer Master Key when provided, so it is zeroized with clear once the
+ * request is done.
+ */
+public final class CryptogramRequestRecord {
+    // Constants
+    private static final CryptogramRequestField[] FIELDS = CryptogramRequestField.values();
+    private static final int INVALID_DIGIT = -1;
+    // Variables
+    private final byte [] data = new byte[RECORD_LENGTH];
+    private final byte [] fieldLengths = new byte[FIELDS.length];
+    private int invalidFields;
+    private String pan;
+    private String issuerApplicationData;
+    /**
+     * Put a field given as text, decoding it into the record. A null value leaves the field absent.
+     * @param field Request field.
+     * @param value Decimal digits, hexadecimal digits or ISO date, depending on the field encoding.
+     * @return This record.
+     */
+    public CryptogramRequestRecord put(CryptogramRequestField field,
+                                       CharSequence value) {
+        if (value == null) {
+            return this;
+        }
+        resetField(field);
+        if (field == CryptogramRequestField.PAN) {
+            pan = value.toString();
+        } else if (field == CryptogramRequestField.ISSUER_APPLICATION_DATA) {
+            issuerApplicationData = value.toString();
+        }
+        int byteLength = field.getEncoding().isDATE() ? packDate(field, value) : packDigits(field, value);
+        return setFieldLength(field, byteLength);
+    }
+    /**
+     * Put a field given as text held in a character buffer, e.g., the parser buffer of the JSON deserializer, without
+     * building a String for it.
+     * @param field Request field.
+     * @param characters Character buffer.
+     * @param offset Offset of the value in the buffer.
+     * @param length Length of the value.
+     * @return This record.
+     */
+    public CryptogramRequestRecord put(CryptogramRequestField field,
+                                       char [] characters,
+                                       int offset,
+                                       int length) {
+        return put(field, CharBuffer.wrap(characters, offset, length));
+    }
+    /**
+     * Put a field given as packed bytes, e.g., a field of an HSM command message. Numeric and date fields must hold BCD
+     * digits, and fixed length fields must be given in full, e.g., a 6 byte amount.
+     * @param field Request field.
+     * @param source Buffer holding the field.
+     * @param offset Offset of the field in the buffer.
+     * @param length Length of the field in bytes.
+     * @return This record.
+     */
+    public CryptogramRequestRecord put(CryptogramRequestField field,
+                                       byte [] source,
+                                       int offset,
+                                       int length) {
+        resetField(field);
+        boolean validLength = field.getEncoding().isVARIABLE_BINARY() ?
+                field.isValidDigitCount(2 * length) :
+                length == field.getLength();
+        if (!validLength || !isPackedFieldValid(field, source, offset, length)) {
+            return setFieldLength(field, INVALID_DIGIT);
+        }
+        System.arraycopy(source, offset, data, field.getOffset(), length);
+        if (field == CryptogramRequestField.ISSUER_APPLICATION_DATA) {
+            issuerApplicationData = HexCodec.encode(source, offset, length, new StringBuilder(2 * length)).toString();
+        }
+        return setFieldLength(field, length);
+    }
+    /**
+     * Put a field given as text when the field is absent, e.g., a default value.
+     * @param field Request field.
+     * @param value Default value.
+     * @return This record.
+     */
+    public CryptogramRequestRecord putIfAbsent(CryptogramRequestField field,
+                                               CharSequence value) {
+        return isPresent(field) || !isValid(field) ? this : put(field, value);
+    }
+    /**
+     * Get the record buffer, in which each field is found at the offset of the field. The buffer is owned by the
+     * record, and must not be modified by the caller.
+     * @return Record buffer.
+     */
+    public byte [] getData() {
+        return data;
+    }
+    /**
+     * Check whether a field was provided with a valid value.
+     * @param field Request field.
+     * @return True when the field is present.
+     */
+    public boolean isPresent(CryptogramRequestField field) {
+        return fieldLengths[field.ordinal()] > 0;
+    }
+    /**
+     * Check whether a field is valid, i.e., absent or of a valid length and digits.
+     * @param field Request field.
+     * @return True when the field is valid.
+     */
+    public boolean isValid(CryptogramRequestField field) {
+        return (invalidFields & (1 << field.ordinal())) == 0;
+    }
+    /**
+     * Get the length of a field in bytes.
+     * @param field Request field.
+     * @return Length of the field, 0 when the field is absent or invalid.
+     */
+    public int getLength(CryptogramRequestField field) {
+        return fieldLengths[field.ordinal()];
+    }
+    /**
+     * Copy a field out of the record, e.g., the Issuer Master Key into a key array owned by the caller.
+     * @param field Request field.
+     * @return Field bytes, empty when the field is absent.
+     */
+    public byte [] copy(CryptogramRequestField field) {
+        return Arrays.copyOfRange(data, field.getOffset(), field.getOffset() + getLength(field));
+    }
+    /**
+     * Get the PAN as decimal digits.
+     * @return PAN, or null when not provided.
+     */
+    public String getPan() {
+        return pan;
+    }
+    /**
+     * Get the Issuer Application Data as hexadecimal digits.
+     * @return Issuer Application Data, or null when not provided.
+     */
+    public String getIssuerApplicationData() {
+        return issuerApplicationData;
+    }
+    /**
+     * Zeroize the record, e.g., the Issuer Master Key, once the request is done.
+     */
+    public void clear() {
+        Arrays.fill(data, (byte) 0);
+        Arrays.fill(fieldLengths, (byte) 0);
+    }
+    /**
+     * Clear a field before it is put, so a repeated field replaces the earlier value.
+     */
+    private void resetField(CryptogramRequestField field) {
+        Arrays.fill(data, field.getOffset(), field.getOffset() + field.getLength(), (byte) 0);
+        invalidFields &= ~(1 << field.ordinal());
+        fieldLengths[field.ordinal()] = 0;
+    }
+    /**
+     * Record the length of a field put, or mark the field invalid when the length is negative.
+     */
+    private CryptogramRequestRecord setFieldLength(CryptogramRequestField field,
+                                                   int byteLength) {
+        if (byteLength < 0) {
+            Arrays.fill(data, field.getOffset(), field.getOffset() + field.getLength(), (byte) 0);
+            invalidFields |= 1 << field.ordinal();
+        } else {
+            fieldLengths[field.ordinal()] = (byte) byteLength;
+        }
+        return this;
+    }
+    /**
+     * Pack decimal or hexadecimal digits into a field, right aligned for fixed length fields and left aligned for
+     * variable length fields.
+     * @return Length of the field in bytes, or -1 when the value is invalid.
+     */
+    private int packDigits(CryptogramRequestField field,
+                           CharSequence value) {
+        int digits = value.length();
+        if (!field.isValidDigitCount(digits)) {
+            return INVALID_DIGIT;
+        }
+        int radix = field.getEncoding().isNUMERIC() ? 10 : 16;
+        int byteLength = field.getEncoding().isVARIABLE_BINARY() ? digits / 2 : field.getLength();
+        int padding = 2 * byteLength - digits;
+        int position = field.getOffset();
+        for (int nibble = padding; nibble < 2 * byteLength; nibble++) {
+            int digit = digitValue(value.charAt(nibble - padding), radix);
+            if (digit == INVALID_DIGIT) {
+                return INVALID_DIGIT;
+            }
+            data[position + nibble / 2] |= (byte) ((nibble & 1) == 0 ? digit << 4 : digit);
+        }
+        return byteLength;
+    }
+    /**
+     * Pack an ISO date (YYYY-MM-DD) as a BCD YYMMDD date.
+     * @return Length of the field in bytes, or -1 when the value is not a valid ISO date.
+     */
+    private int packDate(CryptogramRequestField field,
+                         CharSequence value) {
+        if (!field.isValidDigitCount(value.length()) || value.charAt(4) != '-' || value.charAt(7) != '-' ||
+                digitValue(value.charAt(0), 10) == INVALID_DIGIT || digitValue(value.charAt(1), 10) == INVALID_DIGIT) {
+            return INVALID_DIGIT;
+        }
+        int position = field.getOffset();
+        for (int digitOffset = 2; digitOffset < value.length(); digitOffset += 3) {
+            int highDigit = digitValue(value.charAt(digitOffset), 10);
+            int lowDigit = digitValue(value.charAt(digitOffset + 1), 10);
+            if (highDigit == INVALID_DIGIT || lowDigit == INVALID_DIGIT) {
+                return INVALID_DIGIT;
+            }
+            data[position++] = (byte) (highDigit << 4 | lowDigit);
+        }
+        return isValidDate(data, field.getOffset()) ? field.getLength() : INVALID_DIGIT;
+    }
+    /**
+     * Check that the digits of a packed field are valid, i.e., BCD digits for numeric and date fields, within the
+     * number of digits of the field, and a valid month and day for date fields.
+     */
+    private static boolean isPackedFieldValid(CryptogramRequestField field,
+                                              byte [] source,
+                                              int offset,
+                                              int length) {
+        FieldEncoding encoding = field.getEncoding();
+        if (encoding.isBINARY() || encoding.isVARIABLE_BINARY()) {
+            return true;
+        }
+        // Leading nibbles beyond the maximum number of digits must be zero padding
+        int padding = 2 * length - field.getMaximumDigits();
+        for (int nibble = 0; nibble < 2 * length; nibble++) {
+            int digit = (nibble & 1) == 0 ? (source[offset + nibble / 2] >> 4) & 0x0F : source[offset + nibble / 2] & 0x0F;
+            if (digit > 9 || (nibble < padding && digit != 0)) {
+                return false;
+            }
+        }
+        return !encoding.isDATE() || isValidDate(source, offset);
+    }
+    /**
+     * Check the month (01 to 12) and day (01 to 31) of a packed YYMMDD date.
+     */
+    private static boolean isValidDate(byte [] source,
+                                       int offset) {
+        int month = source[offset + 1] & 0xFF;
+        int day = source[offset + 2] & 0xFF;
+        return month >= 0x01 && month <= 0x12 && day >= 0x01 && day <= 0x31 && (day & 0x0F) <= 9 && (month & 0x0F) <= 9;
+    }
+    /**
+     * Get the value of an ASCII digit of the given radix, hexadecimal digits being accepted in either case.
+     */
+    private static int digitValue(char character,
+                                  int radix) {
+        if (character >= '0' && character <= '9') {
+            return character - '0';
+        }
+        // Folding to lowercase maps A-F onto a-f
+        char folded = (char) (character | 0x20);
+        if (radix == 16 && folded >= 'a' && folded <= 'f') {
+            return folded - 'a' + 10;
+        }
+        return INVALID_DIGIT;
+    }
+    /**
+     * Override method for the object's default toString method.
+     * @return Present fields as hexadecimal digits, with the PAN and the Issuer Master Key masked.
+     */
+    @Override
+    public String toString() {
+        StringBuilder fields = new StringBuilder("{");
+        for (CryptogramRequestField field : FIELDS) {
+            if (!isPresent(field)) {
+                continue;
+            }
+            fields.append(fields.length() > 1 ? ", " : "")
+                    .append(field.getPropertyName())
+                    .append("='");
+            if (field == CryptogramRequestField.PAN) {
+                fields.append(LoggerUtility.maskPan(pan));
+            } else if (field == CryptogramRequestField.ISSUER_MASTER_KEY) {
+                fields.append(LoggerUtility.maskKey(copy(field)));
+            } else {
+                HexCodec.encode(data, field.getOffset(), getLength(field), fields);
+            }
+            fields.append('\'');
+        }
+        return fields.append('}').toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.bc.application.domain;
+
+import com.bc.application.enumeration.CryptogramVerificationResult;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Core domain class defining attributes for Application Cryptogram verification response.
+ */
+@Getter
+@Setter
+public class CryptogramVerificationResponse {
+
+    private CryptogramVerificationResult verificationResult;
+    private String responseCryptogram;
+    /**
+     * Constructor
+     * @param verificationResult Verification result with its reason code.
+     */
+    public CryptogramVerificationResponse(CryptogramVerificationResult verificationResult) {
+        this.verificationResult = verificationResult;
+    }
+    /**
+     * Override method for the object's default toString method.
+     * @return String representing object's attribute values.
+     */
+    @Override
+    public String toString() {
+        return "CryptogramVerificationResponse{" +
+                "verificationResult='" + verificationResult + '\'' +
+                ", responseCryptogram='" + responseCryptogram + '\'' +
+                '}';
+    }
+}
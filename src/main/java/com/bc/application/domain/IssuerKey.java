@@ -0,0 +1,58 @@
+package com.bc.application.domain;
+
+import lombok.Getter;
+import java.util.Arrays;
+/**
+ * Core domain class defining an Issuer Master Key (IMK) held by the issuer key registry. The key is validated, decoded
+ * and fingerprinted once when the registry is loaded, so requests referencing the key skip key parsing.
+ * Note: The key bytes are owned by the registry, which zeroizes them on shutdown, callers use them in place and must not
+ * modify them.
+ */
+@Getter
+public class IssuerKey {
+
+    private final String keyId;
+    private final String bin;
+    private final String derivationKeyIndex;
+    private final byte [] issuerMasterKey;
+    private final String fingerprint;
+    /**
+     * All args constructor
+     * @param keyId Key identifier referenced by requests.
+     * @param bin Issuer BIN the key belongs to.
+     * @param derivationKeyIndex Derivation Key Index (DKI) carried in the Issuer Application Data.
+     * @param issuerMasterKey Issuer Master Key, as raw key bytes.
+     * @param fingerprint Fingerprint of the Issuer Master Key used in derived key cache keys.
+     */
+    public IssuerKey(String keyId,
+                     String bin,
+                     String derivationKeyIndex,
+                     byte [] issuerMasterKey,
+                     String fingerprint) {
+        this.keyId = keyId;
+        this.bin = bin;
+        this.derivationKeyIndex = derivationKeyIndex;
+        this.issuerMasterKey = issuerMasterKey;
+        this.fingerprint = fingerprint;
+    }
+    /**
+     * Zeroize the Issuer Master Key.
+     */
+    public void clearKey() {
+        Arrays.fill(issuerMasterKey, (byte) 0);
+    }
+    /**
+     * Override method for the object's default toString method, the key itself is never included.
+     * @return String representing object's attribute values.
+     */
+    @Override
+    public String toString() {
+        return "{" +
+                "keyId='" + keyId + '\'' +
+                ", bin='" + bin + '\'' +
+                ", derivationKeyIndex='" + derivationKeyIndex + '\'' +
+                ", fingerprint='" + fingerprint + '\'' +
+                '}';
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.bc.application.enumeration;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This class defines the EMV Authorisation Response Cryptogram (ARPC) generation methods.
+ */
+@RequiredArgsConstructor
+public enum ARPCMethod {
+
+    METHOD_1("METHOD_1"),
+    METHOD_2("METHOD_2");
+
+    private final String value;
+
+    /**
+     * Method to check if the enum object value is set to METHOD_1 (ARQC Xor Authorisation Response Code).
+     * @return True when value is set to METHOD_1.
+     */
+    public boolean isMETHOD_1(){
+        return this.equals(METHOD_1);
+    }
+
+    /**
+     * Method to check if the enum object value is set to METHOD_2 (MAC over ARQC, CSU and Proprietary Authentication
+     * Data).
+     * @return True when value is set to METHOD_2.
+     */
+    public boolean isMETHOD_2(){
+        return this.equals(METHOD_2);
+    }
+
+}
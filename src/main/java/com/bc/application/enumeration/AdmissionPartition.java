@@ -0,0 +1,39 @@
+package com.bc.application.enumeration;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enumeration defines how the admission controller partitions requests into separate budgets.
+ */
+@RequiredArgsConstructor
+public enum AdmissionPartition {
+
+    NONE("NONE"),
+    CALLER("CALLER"),
+    BIN("BIN");
+
+    private final String value;
+
+    /**
+     * Method to check if the enum object value is set to NONE (single budget shared by all requests).
+     * @return True when value is set to NONE.
+     */
+    public boolean isNONE(){
+        return this.equals(NONE);
+    }
+    /**
+     * Method to check if the enum object value is set to CALLER (budget per caller id request header).
+     * @return True when value is set to CALLER.
+     */
+    public boolean isCALLER(){
+        return this.equals(CALLER);
+    }
+    /**
+     * Method to check if the enum object value is set to BIN (budget per issuer BIN, the first 6 PAN digits).
+     * @return True when value is set to BIN.
+     */
+    public boolean isBIN(){
+        return this.equals(BIN);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.bc.application.enumeration;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enumeration defines the hexadecimal and BCD fields of a cryptogram request, with their position in the fixed
+ * layout of the cryptogram request record, their encoding, their valid number of digits and their validation message.
+ * The transaction data elements, Amount Authorised to Application Transaction Counter, are laid out first and in
+ * transaction data order, so they are copied into the transaction data in one piece.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CryptogramRequestField {
+
+    AMOUNT_AUTHORISED("amountAuthorised", 0, 6, FieldEncoding.NUMERIC, 1, 12, 1, true,
+            "AmountAuthorised must be numeric, and 1 to 12 digits long."),
+    AMOUNT_OTHER("amountOther", 6, 6, FieldEncoding.NUMERIC, 1, 12, 1, false,
+            "AmountOther must be numeric, and 1 to 12 digits long."),
+    //No country code validation is performed at this time
+    TERMINAL_COUNTRY_CODE("terminalCountryCode", 12, 2, FieldEncoding.NUMERIC, 3, 3, 1, true,
+            "TerminalCountryCode must be an ISO 3166-1 numeric code."),
+    TERMINAL_VERIFICATION_RESULTS("terminalVerificationResults", 14, 5, FieldEncoding.BINARY, 10, 10, 1, true,
+            "TerminalVerificationResults must be exactly 10 hexadecimal digits."),
+    //No currency code validation is performed at this time
+    TRANSACTION_CURRENCY_CODE("transactionCurrencyCode", 19, 2, FieldEncoding.NUMERIC, 3, 3, 1, true,
+            "TransactionCurrencyCode must be an ISO 3166-1 numeric code."),
+    TRANSACTION_DATE("transactionDate", 21, 3, FieldEncoding.DATE, 10, 10, 1, true,
+            "Date must be in ISO Date Format (YYYY-MM-DD)."),
+    TRANSACTION_TYPE("transactionType", 24, 1, FieldEncoding.BINARY, 2, 2, 1, true,
+            "TransactionType must be exactly 2 hexadecimal digits."),
+    UNPREDICTABLE_NUMBER("unpredictableNumber", 25, 4, FieldEncoding.BINARY, 8, 8, 1, true,
+            "UnpredictableNumber must be exactly 8 hexadecimal digits."),
+    APPLICATION_INTERCHANGE_PROFILE("applicationInterchangeProfile", 29, 2, FieldEncoding.BINARY, 4, 4, 1, true,
+            "ApplicationInterchangeProfile must be exactly 4 hexadecimal digits."),
+    APPLICATION_TRANSACTION_COUNTER("applicationTransactionCounter", 31, 2, FieldEncoding.BINARY, 1, 4, 1, true,
+            "ApplicationTransactionCounter must be between 1 to 4 hexadecimal digits long."),
+    PAN("pan", 33, 8, FieldEncoding.NUMERIC, 16, 16, 1, true,
+            "Pan must be numeric, and exactly 16 digits long."),
+    PAN_SEQUENCE_NUMBER("panSequenceNumber", 41, 1, FieldEncoding.NUMERIC, 1, 2, 1, true,
+            "PanSequenceNumber must be numeric, and 1 to 2 digits long."),
+    // Optional, ARPC Method 1 is applied when provided
+    AUTHORISATION_RESPONSE_CODE("authorisationResponseCode", 42, 2, FieldEncoding.BINARY, 4, 4, 1, false,
+            "AuthorisationResponseCode must be exactly 4 hexadecimal digits, e.g., 3030 for response code 00."),
+    // Optional, ARPC Method 2 is applied when provided
+    CARD_STATUS_UPDATE("cardStatusUpdate", 44, 4, FieldEncoding.BINARY, 8, 8, 1, false,
+            "CardStatusUpdate must be exactly 8 hexadecimal digits."),
+    PROPRIETARY_AUTHENTICATION_DATA("proprietaryAuthenticationData", 48, 8, FieldEncoding.VARIABLE_BINARY, 2, 16, 2,
+            false,
+            "ProprietaryAuthenticationData must be between 2 to 16 hexadecimal digits long, and contain an even number of hexadecimal digits."),
+    ISSUER_APPLICATION_DATA("issuerApplicationData", 56, 32, FieldEncoding.VARIABLE_BINARY, 14, 64, 2, true,
+            "IssuerApplicationData must be between 14 to 64 hexadecimal digits long, and contain an even number of hexadecimal digits."),
+    // Optional, the key is resolved from the issuer key registry when not provided
+    ISSUER_MASTER_KEY("issuerMasterKey", 88, 24, FieldEncoding.VARIABLE_BINARY, 16, 48, 16, false,
+            "IssuerMasterKey must be a single, double or triple length TDEA key, comprised of hexadecimal digits only.");
+
+    // Length of the transaction data elements at the start of the record
+    public static final int TRANSACTION_DATA_LENGTH = 33;
+    // Length of the record
+    public static final int RECORD_LENGTH = 112;
+
+    private final String propertyName;
+    private final int offset;
+    private final int length;
+    private final FieldEncoding encoding;
+    private final int minimumDigits;
+    private final int maximumDigits;
+    private final int digitStep;
+    private final boolean mandatory;
+    private final String message;
+
+    /**
+     * Check a number of digits against the minimum, maximum and step of the field.
+     * @param digits Number of digits.
+     * @return True when the field can hold the number of digits.
+     */
+    public boolean isValidDigitCount(int digits){
+        return digits >= minimumDigits && digits <= maximumDigits && (digits - minimumDigits) % digitStep == 0;
+    }
+
+}
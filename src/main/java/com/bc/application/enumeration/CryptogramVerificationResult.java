@@ -0,0 +1,30 @@
+package com.bc.application.enumeration;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enumeration defines the results of an Application Cryptogram verification, with their reason codes.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CryptogramVerificationResult {
+
+    VERIFIED("ARQC_VERIFIED"),
+    ARQC_MISMATCH("ARQC_MISMATCH"),
+    ISSUER_KEY_NOT_FOUND("ISSUER_KEY_NOT_FOUND"),
+    UNSUPPORTED_PAYMENT_SCHEME("UNSUPPORTED_PAYMENT_SCHEME"),
+    UNSUPPORTED_CVN("UNSUPPORTED_CVN"),
+    INVALID_IAD("INVALID_IAD");
+
+    private final String value;
+
+    /**
+     * Method to check if the enum object value is set to ARQC_VERIFIED (received ARQC matches).
+     * @return True when value is set to ARQC_VERIFIED.
+     */
+    public boolean isVERIFIED(){
+        return this.equals(VERIFIED);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.bc.application.enumeration;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This class defines the Session Key Derivation (SKD) methods used to derive Application Cryptogram session keys.
+ */
+@RequiredArgsConstructor
+public enum EMVSessionKeyDerivationMethod {
+
+    EMV_CSK("EMV_CSK"),
+    MASTERCARD_PROPRIETARY("MC_SKD");
+
+    private final String value;
+
+    /**
+     * Method to check if the enum object value is set to EMV_CSK (EMV Common Session Key derivation).
+     * @return True when value is set to EMV_CSK.
+     */
+    public boolean isEMV_CSK(){
+        return this.equals(EMV_CSK);
+    }
+
+    /**
+     * Method to check if the enum object value is set to MC_SKD (Mastercard Proprietary Session Key derivation).
+     * @return True when value is set to MC_SKD.
+     */
+    public boolean isMASTERCARD_PROPRIETARY(){
+        return this.equals(MASTERCARD_PROPRIETARY);
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.bc.application.enumeration;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enumeration defines the execution modes of the cryptogram functions REST API that can be selected by
+ * configuration.
+ */
+@RequiredArgsConstructor
+public enum ExecutionMode {
+
+    WORKER_THREAD("WORKER_THREAD"),
+    VIRTUAL_THREAD("VIRTUAL_THREAD"),
+    CPU_POOL("CPU_POOL");
+
+    private final String value;
+
+    /**
+     * Method to check if the enum object value is set to WORKER_THREAD (run on the REST API worker thread).
+     * @return True when value is set to WORKER_THREAD.
+     */
+    public boolean isWORKER_THREAD(){
+        return this.equals(WORKER_THREAD);
+    }
+    /**
+     * Method to check if the enum object value is set to VIRTUAL_THREAD (run on a new virtual thread per request).
+     * @return True when value is set to VIRTUAL_THREAD.
+     */
+    public boolean isVIRTUAL_THREAD(){
+        return this.equals(VIRTUAL_THREAD);
+    }
+    /**
+     * Method to check if the enum object value is set to CPU_POOL (offload to a fixed pool sized to the processors).
+     * @return True when value is set to CPU_POOL.
+     */
+    public boolean isCPU_POOL(){
+        return this.equals(CPU_POOL);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.bc.application.enumeration;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enumeration defines the encodings of the request fields held by the cryptogram request record.
+ */
+@RequiredArgsConstructor
+public enum FieldEncoding {
+
+    NUMERIC("NUMERIC"),
+    BINARY("BINARY"),
+    VARIABLE_BINARY("VARIABLE_BINARY"),
+    DATE("DATE");
+
+    private final String value;
+
+    /**
+     * Method to check if the enum object value is set to NUMERIC (decimal digits packed as right aligned BCD).
+     * @return True when value is set to NUMERIC.
+     */
+    public boolean isNUMERIC(){
+        return this.equals(NUMERIC);
+    }
+    /**
+     * Method to check if the enum object value is set to BINARY (hexadecimal digits packed right aligned).
+     * @return True when value is set to BINARY.
+     */
+    public boolean isBINARY(){
+        return this.equals(BINARY);
+    }
+    /**
+     * Method to check if the enum object value is set to VARIABLE_BINARY (an even number of hexadecimal digits packed
+     * left aligned, with the length kept).
+     * @return True when value is set to VARIABLE_BINARY.
+     */
+    public boolean isVARIABLE_BINARY(){
+        return this.equals(VARIABLE_BINARY);
+    }
+    /**
+     * Method to check if the enum object value is set to DATE (ISO date, YYYY-MM-DD, packed as a BCD YYMMDD date).
+     * @return True when value is set to DATE.
+     */
+    public boolean isDATE(){
+        return this.equals(DATE);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.bc.application.enumeration;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enumeration defines the ISO/IEC 9797-1 padding methods supported for Application Cryptogram generation.
+ */
+@RequiredArgsConstructor
+public enum ISOIEC97971PaddingMethod {
+
+    METHOD_1("METHOD_1"),
+    METHOD_2("METHOD_2");
+
+    private final String value;
+
+    /**
+     * Method to check if the enum object value is set to METHOD_1 (pad with '0' bits only when required).
+     * @return True when value is set to METHOD_1.
+     */
+    public boolean isMETHOD_1(){
+        return this.equals(METHOD_1);
+    }
+
+    /**
+     * Method to check if the enum object value is set to METHOD_2 (mandatory '1' bit followed by '0' bits).
+     * @return True when value is set to METHOD_2.
+     */
+    public boolean isMETHOD_2(){
+        return this.equals(METHOD_2);
+    }
+
+}
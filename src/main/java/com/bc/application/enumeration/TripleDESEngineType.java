@@ -0,0 +1,31 @@
+package com.bc.application.enumeration;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enumeration defines the Triple DES engine implementations that can be selected by configuration.
+ */
+@RequiredArgsConstructor
+public enum TripleDESEngineType {
+
+    JCE("JCE"),
+    TABLE("TABLE");
+
+    private final String value;
+
+    /**
+     * Method to check if the enum object value is set to JCE (Java Cryptography Extension provider).
+     * @return True when value is set to JCE.
+     */
+    public boolean isJCE(){
+        return this.equals(JCE);
+    }
+    /**
+     * Method to check if the enum object value is set to TABLE (in process table driven DES).
+     * @return True when value is set to TABLE.
+     */
+    public boolean isTABLE(){
+        return this.equals(TABLE);
+    }
+
+}
@@ -1,7 +1,10 @@
 package com.bc.application.port.in.rest.cryptogramfunctions.client;
 
 import com.bc.model.dto.GenerateACRequest;
+import com.bc.model.dto.VerifyACRequest;
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.util.concurrent.CompletionStage;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
@@ -16,14 +19,37 @@ import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 @RegisterRestClient
 @Path("/CryptogramFunctions")
 public interface CryptogramFunctionsAPI {
+    // Constants
+    String NDJSON = "application/x-ndjson";
 
     /**
-     * Method signature definition for EMV Application Cryptogram generation.
+     * Method signature definition for EMV Application Cryptogram generation, completed in the configured execution
+     * mode.
      */
     @POST
     @Path("/GenerateCryptogram/Request")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    Response generateApplicationCrptogram(@Valid GenerateACRequest generateACRequest);
+    CompletionStage<Response> generateApplicationCrptogram(@Valid GenerateACRequest generateACRequest);
+
+    /**
+     * Method signature definition for EMV Application Cryptogram verification, completed in the configured execution
+     * mode.
+     */
+    @POST
+    @Path("/VerifyCryptogram/Request")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    CompletionStage<Response> verifyApplicationCryptogram(@Valid VerifyACRequest verifyACRequest);
+
+    /**
+     * Method signature definition for EMV Application Cryptogram batch generation, accepting a JSON array or NDJSON
+     * stream of requests and streaming one NDJSON result line per request, in request order.
+     */
+    @POST
+    @Path("/GenerateCryptogram/Batch")
+    @Consumes({MediaType.APPLICATION_JSON, NDJSON})
+    @Produces(NDJSON)
+    Response generateApplicationCryptogramBatch(InputStream generateACRequests);
 
 }
@@ -1,109 +1,50 @@
 package com.bc.application.port.in.rest.cryptogramfunctions.command;
 
+import com.bc.application.domain.CryptogramRequest;
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
 import com.bc.utilities.LoggerUtility;
 import com.bc.utilities.AbstractSelfValidator;
-import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
-import jakarta.validation.constraints.Size;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import static com.bc.model.pattern.CommonPattern.*;
 /**
  * Application Cryptogram Generation command class with selfvalidator.
+ * Once validated, the command is passed to the domain services as the {@link CryptogramRequest}, so the request is not
+ * mapped into a second object.
+ * The hexadecimal and BCD fields are held by the request record decoded at the edge, and each invalid or missing field
+ * is reported as a constraint violation named after the field, see {@link ValidRequestRecord}.
+ * The command is immutable once validated, the request record is only read by the domain services.
  */
 @Slf4j
+@Getter
+@ValidRequestRecord
 public class GenerateApplicationCryptogramCommand
         extends AbstractSelfValidator<GenerateApplicationCryptogramCommand>
-        implements LoggerUtility {
-    @NotEmpty
-    @Pattern(regexp = IS_A_16_DIGIT_HEXADECIMAL_NUMBER, message = "Pan must be numeric, and exactly 16 digits long.")
-    public String pan;
-    @NotEmpty
-    @Pattern(regexp = IS_A_1_OR_2_DIGIT_DECIMAL_NUMBER, message = "PanSequenceNumber must be numeric, and 1 to 2 digits long.")
-    public String panSequenceNumber;
-    @NotEmpty
-    @Pattern(regexp = IS_A_VALID_TDEA_KEY, message = "IssuerMasterKey must be a single, double or triple length TDEA key, comprised of hexadecimal digits only.")
-    public String issuerMasterKey;
-    @NotEmpty
-    @Pattern(regexp = IS_A_1_TO_12_DIGIT_DECIMAL_NUMBER, message = "AmountAuthorised must be numeric, and 1 to 12 digits long.")
-    public String amountAuthorised;
-    @Pattern(regexp = IS_A_1_TO_12_DIGIT_DECIMAL_NUMBER, message = "AmountOther must be numeric, and 1 to 12 digits long.")
-    public String amountOther;
-    //No country code validation is performed at this time
-    @NotEmpty
-    @Pattern(regexp = IS_A_3_DIGIT_DECIMAL_NUMBER, message = "TerminalCountryCode must be an ISO 3166-1 numeric code.")
-    public String terminalCountryCode;
-    @NotEmpty
-    @Pattern(regexp = IS_A_10_DIGIT_HEXADECIMAL_NUMBER, message = "TerminalVerificationResults must be exactly 10 hexadecimal digits.")
-    public String terminalVerificationResults;
-    //No country code validation is performed at this time
-    @NotEmpty
-    @Pattern(regexp = IS_A_3_DIGIT_DECIMAL_NUMBER, message = "TransactionCurrencyCode must be an ISO 3166-1 numeric code.")
-    public String transactionCurrencyCode;
-    //No date validation is performed at this time
-    @NotEmpty
-    @Size(min = 10, max = 10, message = "Date must be in ISO Date Format (YYYY-MM-DD).")
-    @Pattern(regexp = IS_VALID_ISO_DATE_YYYY_MM_DD)
-    public String transactionDate;
-    @NotEmpty
-    @Pattern(regexp = IS_A_2_DIGIT_HEXADECIMAL_NUMBER, message = "TransactionType must be exactly 2 hexadecimal digits.")
-    public String transactionType;
-    @NotEmpty
-    @Pattern(regexp = IS_A_8_DIGIT_HEXADECIMAL_NUMBER, message = "UnpredictableNumber must be exactly 8 hexadecimal digits.")
-    public String unpredictableNumber;
-    @NotEmpty
-    @Pattern(regexp = IS_A_4_DIGIT_HEXADECIMAL_NUMBER, message = "UnpredictableNumber must be exactly 4 hexadecimal digits.")
-    public String applicationInterchangeProfile;
-    @NotEmpty
-    @Pattern(regexp = IS_A_1_TO_4_DIGIT_HEXADECIMAL_NUMBER, message = "UnpredictableNumber must be between 1 to 4 hexadecimal digits long.")
-    public String applicationTransactionCounter;
-    @NotEmpty
-    @Pattern(regexp = IS_VALID_IAD_FORMAT, message = "IssuerApplicationData must be between 14 to 64 hexadecimal digits long, and contain an even number of hexadecimal digits.")
-    public String issuerApplicationData;
+        implements CryptogramRequest, LoggerUtility {
+    @Pattern(regexp = IS_A_VALID_KEY_ID, message = "IssuerKeyId must be 1 to 64 letters, digits, hyphens, underscores or periods.")
+    private final String issuerKeyId;
+    @NotNull
+    private final CryptogramRequestRecord requestRecord;
+    // Constants
+    private static final String AMOUNT_OTHER_DEFAULT = "0".repeat(12);
     /**
-     * All args constructor for creating GenerateApplicationCryptogramCommand
-     * @param pan PAN.
-     * @param panSequenceNumber PAN Sequence number.
-     * @param issuerMasterKey Issuer Master Key.
-     * @param amountAuthorised Amount authorised.
-     * @param amountOther Amount other.
-     * @param terminalCountryCode Terminal Country Code.
-     * @param terminalVerificationResults Terminal Verification Results.
-     * @param transactionCurrencyCode Transaction Currency Code.
-     * @param transactionDate Transaction Date.
-     * @param transactionType Transaction Type.
-     * @param unpredictableNumber Unpredictable Number.
-     * @param applicationInterchangeProfile Application Interchange Profile.
-     * @param applicationTransactionCounter Application Transaction Counter.
-     * @param issuerApplicationData Issuer Application Data.
+     * All args constructor for creating GenerateApplicationCryptogramCommand. An absent AmountOther defaults to zeros
+     * before the command is validated, so the REST, batch and HSM requests are validated and processed alike.
+     * @param issuerKeyId Issuer key registry key id, optional.
+     * @param requestRecord Request record holding the PAN, the transaction data, the IAD, the optional Issuer Master
+     *                      Key and the optional ARPC data.
      */
-    public GenerateApplicationCryptogramCommand(String pan,
-                                                String panSequenceNumber,
-                                                String issuerMasterKey,
-                                                String amountAuthorised,
-                                                String amountOther,
-                                                String terminalCountryCode,
-                                                String terminalVerificationResults,
-                                                String transactionCurrencyCode,
-                                                String transactionDate,
-                                                String transactionType,
-                                                String unpredictableNumber,
-                                                String applicationInterchangeProfile,
-                                                String applicationTransactionCounter,
-                                                String issuerApplicationData) {
-        this.pan = pan;
-        this.panSequenceNumber = panSequenceNumber;
-        this.issuerMasterKey = issuerMasterKey;
-        this.amountAuthorised = amountAuthorised;
-        this.amountOther = amountOther;
-        this.terminalCountryCode = terminalCountryCode;
-        this.terminalVerificationResults = terminalVerificationResults;
-        this.transactionCurrencyCode = transactionCurrencyCode;
-        this.transactionDate = transactionDate;
-        this.transactionType = transactionType;
-        this.unpredictableNumber = unpredictableNumber;
-        this.applicationInterchangeProfile = applicationInterchangeProfile;
-        this.applicationTransactionCounter = applicationTransactionCounter;
-        this.issuerApplicationData = issuerApplicationData;
+    public GenerateApplicationCryptogramCommand(String issuerKeyId,
+                                                CryptogramRequestRecord requestRecord) {
+        this.issuerKeyId = issuerKeyId;
+        this.requestRecord = requestRecord;
+        if (requestRecord != null) {
+            requestRecord.putIfAbsent(CryptogramRequestField.AMOUNT_OTHER, AMOUNT_OTHER_DEFAULT);
+        }
         // Call self validate
         selfValidate();
         logDebug(log,
@@ -111,6 +52,28 @@ public class GenerateApplicationCryptogramCommand
                 this
         );
     }
+    /**
+     * Get the PAN, the routing key of the request.
+     * @return PAN.
+     */
+    @Override
+    public String getPan() {
+        return requestRecord.getPan();
+    }
+    /**
+     * Check that the ARPC data selects at most one ARPC method, i.e., the Authorisation Response Code for Method 1, or
+     * the Card Status Update and optional Proprietary Authentication Data for Method 2.
+     * @return True when the ARPC data is consistent.
+     */
+    @AssertTrue(message = "AuthorisationResponseCode (ARPC Method 1) and CardStatusUpdate (ARPC Method 2) are mutually exclusive, and ProprietaryAuthenticationData requires CardStatusUpdate.")
+    public boolean isResponseCryptogramDataConsistent() {
+        if (requestRecord == null) {
+            return true;
+        }
+        return requestRecord.isPresent(CryptogramRequestField.CARD_STATUS_UPDATE) ?
+                !requestRecord.isPresent(CryptogramRequestField.AUTHORISATION_RESPONSE_CODE) :
+                !requestRecord.isPresent(CryptogramRequestField.PROPRIETARY_AUTHENTICATION_DATA);
+    }
     /**
      * Override method to return a string representation of the class.
      * @return Attributes converted to string.
@@ -118,20 +81,8 @@ public class GenerateApplicationCryptogramCommand
     @Override
     public String toString() {
         return "GenerateApplicationCryptogramCommand{" +
-                "pan='" + pan + '\'' +
-                ", panSequenceNumber='" + panSequenceNumber + '\'' +
-                ", issuerMasterKey='" + issuerMasterKey + '\'' +
-                ", amountAuthorised='" + amountAuthorised + '\'' +
-                ", amountOther='" + amountOther + '\'' +
-                ", terminalCountryCode='" + terminalCountryCode + '\'' +
-                ", terminalVerificationResults='" + terminalVerificationResults + '\'' +
-                ", transactionCurrencyCode='" + transactionCurrencyCode + '\'' +
-                ", transactionDate='" + transactionDate + '\'' +
-                ", transactionType='" + transactionType + '\'' +
-                ", unpredictableNumber='" + unpredictableNumber + '\'' +
-                ", applicationInterchangeProfile='" + applicationInterchangeProfile + '\'' +
-                ", applicationTransactionCounter='" + applicationTransactionCounter + '\'' +
-                ", issuerApplicationData='" + issuerApplicationData + '\'' +
+                "issuerKeyId='" + issuerKeyId + '\'' +
+                ", requestRecord=" + requestRecord +
                 '}';
     }
 
@@ -0,0 +1,23 @@
+package com.bc.application.port.in.rest.cryptogramfunctions.command;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+/**
+ * Constraint checking the fields of the cryptogram request record, i.e., that the mandatory fields are present and that
+ * no field failed to decode. Each violation is reported on the property of the field, with the message of the field,
+ * see {@link com.bc.application.enumeration.CryptogramRequestField}.
+ */
+@Documented
+@Constraint(validatedBy = ValidRequestRecordValidator.class)
+@Target({TYPE})
+@Retention(RUNTIME)
+public @interface ValidRequestRecord {
+    String message() default "must hold a valid cryptogram request record";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,54 @@
+package com.bc.application.port.in.rest.cryptogramfunctions.command;
+
+import com.bc.application.domain.CryptogramRequest;
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+/**
+ * Validator of the {@link ValidRequestRecord} constraint, reporting a violation named after the field for each invalid
+ * field, and for each mandatory field that is absent.
+ */
+public class ValidRequestRecordValidator
+        implements ConstraintValidator<ValidRequestRecord, CryptogramRequest> {
+    // Constants
+    private static final String NOT_EMPTY_MESSAGE = "{jakarta.validation.constraints.NotEmpty.message}";
+    private static final CryptogramRequestField[] FIELDS = CryptogramRequestField.values();
+    /**
+     * Check the request record against the constraint.
+     * @param cryptogramRequest Request to check.
+     * @param context Validation context.
+     * @return True when the record is null, or holds all mandatory fields and no invalid field.
+     */
+    @Override
+    public boolean isValid(CryptogramRequest cryptogramRequest,
+                           ConstraintValidatorContext context) {
+        CryptogramRequestRecord requestRecord = cryptogramRequest == null ? null : cryptogramRequest.getRequestRecord();
+        if (requestRecord == null) {
+            return true;
+        }
+        context.disableDefaultConstraintViolation();
+        boolean valid = true;
+        for (CryptogramRequestField field : FIELDS) {
+            if (!requestRecord.isValid(field)) {
+                addViolation(context, field, field.getMessage());
+                valid = false;
+            }
+            if (field.isMandatory() && !requestRecord.isPresent(field)) {
+                addViolation(context, field, NOT_EMPTY_MESSAGE);
+                valid = false;
+            }
+        }
+        return valid;
+    }
+    /**
+     * Report a violation on the property of a field.
+     */
+    private static void addViolation(ConstraintValidatorContext context,
+                                     CryptogramRequestField field,
+                                     String message) {
+        context.buildConstraintViolationWithTemplate(message)
+                .addPropertyNode(field.getPropertyName())
+                .addConstraintViolation();
+    }
+}
@@ -1,33 +1,46 @@
 package com.bc.application.service;
 
+import com.bc.application.domain.CryptogramContext;
 import com.bc.application.domain.CryptogramRequest;
+import com.bc.application.domain.CryptogramRequestRecord;
 import com.bc.application.domain.CryptogramResponse;
+import com.bc.application.domain.CryptogramVerificationResponse;
+import com.bc.application.domain.IssuerKey;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.CryptogramVerificationResult;
 import com.bc.application.enumeration.CryptogramVersionNumber;
 import com.bc.application.enumeration.EMVUDKDerivationMethod;
 import com.bc.application.enumeration.PaymentScheme;
 import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
-import com.bc.application.port.in.rest.cryptogramfunctions.mapper.GenerateACCommandToDomainMapper;
 import com.bc.utilities.*;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 /**
  * Core domain service hosting the methods for performing Visa Payment scheme specific cryptogram related functions.
+ * Note: The service is shared by concurrent requests, so it keeps no request state, the state of a request is held by
+ * the immutable {@link CryptogramContext} passed from stage to stage.
+ * Note: The request is validated once by the command object, so the key derivators are created through their trusted
+ * factory methods, skipping the validation of request data and internally derived keys.
  */
 @Slf4j
 @ApplicationScoped
 public abstract class AbstractCryptogramFunctionsService
         implements LoggerUtility {
+    // Constants
+    private static final int APPLICATION_CRYPTOGRAM_LENGTH = 8;
+    // Variables
     @Inject
-    GenerateACCommandToDomainMapper mapper;
-    private Map<String, String> mappedIad = new LinkedHashMap<>();
-    private String uniqueDerivationKey;
-    private String applicationCryptogramKey;
-    private CryptogramVersionNumber cryptogramVersionNumber;
-    private String cardVerificationResults;
-    private PaymentScheme paymentScheme;
+    UniqueDerivationKeyCache uniqueDerivationKeyCache;
+    @Inject
+    SessionKeyCache sessionKeyCache;
+    @Inject
+    IssuerKeyRegistry issuerKeyRegistry;
     /**
      * Driver method for generating an Application Cryptogram.
      * @param command command object with the Application Cryptogram generation request.
@@ -39,40 +52,94 @@ public abstract class AbstractCryptogramFunctionsService
         );
     }
     /**
-     * Method to build and map the command object to Cryptogram Request domain object.
-     * @param command Application Cryptogram Request command object.
-     * @return CryptogramRequest domain object generated by mapping command object.
+     * Driver method for verifying a received Application Cryptogram, the expected cryptogram is generated through the same
+     * key derivation pipeline as getApplicationCryptogram and compared in constant time.
+     * @param command command object with the Application Cryptogram request data.
+     * @param applicationCryptogram Received Application Cryptogram, 8 bytes.
+     * @return Verification response with the result and reason code, and the Response Cryptogram (ARPC) when the
+     *         cryptogram is verified and the command holds ARPC data.
      */
-    protected CryptogramRequest buildDomainObjectFromCommand(GenerateApplicationCryptogramCommand command) {
-        return mapper.mapGenerateACCommandToDomain(command);
+    public CryptogramVerificationResponse verifyApplicationCryptogram(GenerateApplicationCryptogramCommand command,
+                                                                      byte [] applicationCryptogram){
+        logDebug(log, "Command object received for verification: {}.", command);
+        if (applicationCryptogram == null || applicationCryptogram.length != APPLICATION_CRYPTOGRAM_LENGTH) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Application Cryptogram must be " +
+                    APPLICATION_CRYPTOGRAM_LENGTH + " bytes long."
+            );
+        }
+        // The validated command is the domain request
+        CryptogramRequest cryptogramRequest = command;
+        CryptogramContext context;
+        try {
+            context = initialiseCryptogramRequirements(cryptogramRequest.getRequestRecord(),
+                    cryptogramRequest.getIssuerKeyId()
+            );
+        } catch (IssuerKeyNotFoundException issuerKeyNotFoundException) {
+            return notVerified(CryptogramVerificationResult.ISSUER_KEY_NOT_FOUND, issuerKeyNotFoundException);
+        } catch (UnsupportedCryptogramVersionException unsupportedCryptogramVersionException) {
+            return notVerified(CryptogramVerificationResult.UNSUPPORTED_CVN, unsupportedCryptogramVersionException);
+        } catch (ConstraintViolationException | InvalidIssuerApplicationDataException invalidIadException) {
+            // The IAD parsers validate the format and length of the IAD
+            return notVerified(CryptogramVerificationResult.INVALID_IAD, invalidIadException);
+        }
+        CryptogramVerificationResponse verificationResponse;
+        try {
+            verificationResponse = verifyCryptogram(cryptogramRequest,
+                    context.getApplicationCryptogramKey(),
+                    context.getCryptogramVersionNumber(),
+                    context.getCardVerificationResults(),
+                    context.getPaymentScheme(),
+                    applicationCryptogram
+            );
+        } catch (UnsupportedCryptogramVersionException unsupportedCryptogramVersionException) {
+            return notVerified(CryptogramVerificationResult.UNSUPPORTED_CVN, unsupportedCryptogramVersionException);
+        } catch (InvalidIssuerApplicationDataException invalidIadException) {
+            return notVerified(CryptogramVerificationResult.INVALID_IAD, invalidIadException);
+        } finally {
+            context.clearKeys();
+        }
+        logDebug(log,
+                "Verification response generated: {}.",
+                verificationResponse
+        );
+        return verificationResponse;
     }
     /**
-     * Initialise all required class variables and derive the application cryptogram generation key.
-     * @param issuerMasterKey Issuer Master Key for Cryptogram Generation.
-     * @param pan Primary Account Number from request.
-     * @param panSequenceNumber Primary Account Number from request.
-     * @param applicationTransactionCounter Application Transaction Counter from request.
-     * @param unpredictableNumber Unpredictable Number from request.
+     * Build the response of a cryptogram that cannot be verified, logging the reason.
+     * @param verificationResult Verification result with the reason code.
+     * @param exception Exception raised while verifying the cryptogram.
+     * @return Verification response without Response Cryptogram.
      */
-    protected void initialiseCryptogramRequirements(String issuerMasterKey,
-                                                    String pan,
-                                                    String panSequenceNumber,
-                                                    String applicationTransactionCounter,
-                                                    String unpredictableNumber,
-                                                    String issuerApplicationData){
-        mappedIad = parseIssuerApplicationData(issuerApplicationData); // Parse IAD
-        setPaymentScheme(pan); // Determine Payment Scheme from PAN
-        parsedIadAndSetCvnCvr(); // Set CVN and CVR from parsed IAD
-        setApplicationCryptogramGenerationKey(issuerMasterKey,
-                pan,
-                panSequenceNumber,
-                applicationTransactionCounter,
-                unpredictableNumber
+    private CryptogramVerificationResponse notVerified(CryptogramVerificationResult verificationResult,
+                                                       RuntimeException exception) {
+        logWarning(log,
+                "ARQC not verified, {}: {}",
+                verificationResult,
+                exception.getMessage()
+        );
+        return new CryptogramVerificationResponse(verificationResult);
+    }
+    /**
+     * Parse the IAD and derive the application cryptogram generation key.
+     * @param requestRecord Validated request record, holding the Issuer Master Key for Cryptogram Generation unless the
+     *                      key is held by the issuer key registry.
+     * @param issuerKeyId Issuer key registry key id from request, optional.
+     * @return Request context holding the parsed IAD and the derived keys, which the caller zeroizes with clearKeys.
+     */
+    protected CryptogramContext initialiseCryptogramRequirements(CryptogramRequestRecord requestRecord,
+                                                                 String issuerKeyId){
+        Map<String, String> mappedIad = parseIssuerApplicationData(requestRecord.getIssuerApplicationData()); // Parse IAD
+        PaymentScheme paymentScheme = getPaymentScheme(requestRecord.getPan()); // Determine Payment Scheme from PAN
+        CryptogramContext context = buildContextFromMappedIad(mappedIad, paymentScheme); // Set CVN and CVR from parsed IAD
+        return setApplicationCryptogramGenerationKey(context,
+                requestRecord,
+                issuerKeyId
         );
     }
     /**
      * Method to parse Issuer Application Data based on the Payment Scheme specific implementation of IAD.
-     * This method will set the parsed IAD to the mappedIad class variable.
+     * @param issuerApplicationData Issuer Application Data from request.
+     * @return Parsed IAD.
      */
     protected Map<String, String> parseIssuerApplicationData(String issuerApplicationData){
         throw new UnsupportedOperationException(this.getClass().getName() + " --> Subclass must override and implement " +
@@ -80,174 +147,309 @@ public abstract class AbstractCryptogramFunctionsService
         );
     }
     /**
-     * Set Payment Scheme based on the first digit of PAN.
+     * Determine Payment Scheme based on the first digit of PAN.
      */
-    private void setPaymentScheme(String pan){
-        paymentScheme = DeterminePaymentScheme.fromPan(pan);
+    private PaymentScheme getPaymentScheme(String pan){
+        PaymentScheme paymentScheme = DeterminePaymentScheme.fromPan(pan);
         logDebug(log,
                 "Payment Scheme set based on PAN: {}.",
                 paymentScheme
         );
+        return paymentScheme;
     }
     /**
-     * Call Payment Scheme specific IAD parser with IAD from request as input and get a parsed IAD map, and setup CVN and CVR
-     * from the parsed IAD.
+     * Build the request context from the parsed IAD, setting up CVN and CVR from the parsed IAD.
      */
-    private void parsedIadAndSetCvnCvr(){
+    private CryptogramContext buildContextFromMappedIad(Map<String, String> mappedIad,
+                                                        PaymentScheme paymentScheme){
         logDebug(log,
                 "Parsed IAD: {}.",
                 mappedIad
         );
-        setCvnFromMappedIad();
-        setCvrFromMappedIad();
+        return new CryptogramContext(mappedIad,
+                paymentScheme,
+                getCvnFromMappedIad(mappedIad),
+                getCvrFromMappedIad(mappedIad)
+        );
     }
     /**
-     * Search mapped IAD data using key "CVN" and set the Cryptogram Version Number based on the value.
+     * Search mapped IAD data using key "CVN" and get the Cryptogram Version Number based on the value.
      */
-    private void setCvnFromMappedIad(){
+    private CryptogramVersionNumber getCvnFromMappedIad(Map<String, String> mappedIad){
         final String CVN_NAME = "CVN";
-        cryptogramVersionNumber = CryptogramVersionNumber.valueOf(
-                mappedIad.get(CVN_NAME)
-        );
+        CryptogramVersionNumber cryptogramVersionNumber;
+        try {
+            cryptogramVersionNumber = CryptogramVersionNumber.valueOf(
+                    mappedIad.get(CVN_NAME)
+            );
+        } catch (IllegalArgumentException illegalArgumentException) {
+            throw new UnsupportedCryptogramVersionException(this.getClass().getName() + " --> CVN: " +
+                    mappedIad.get(CVN_NAME) + " is currently not supported."
+            );
+        }
         logDebug(log,
                 "CVN set based on mapped IAD: {}.",
                 cryptogramVersionNumber
         );
+        return cryptogramVersionNumber;
     }
     /**
-     * Search mapped IAD data using key "CVR" and set the Card Verification Results based on the value.
+     * Search mapped IAD data using key "CVR" and get the Card Verification Results based on the value.
      */
-    private void setCvrFromMappedIad(){
+    private String getCvrFromMappedIad(Map<String, String> mappedIad){
         final String CVR_NAME = "CVR";
-        cardVerificationResults = mappedIad.get(
+        String cardVerificationResults = mappedIad.get(
                 CVR_NAME
         );
         logDebug(log,
                 "CVR set based on mapped IAD: {}.",
                 cardVerificationResults
         );
+        return cardVerificationResults;
     }
     /**
      * Driver method which derives Unique Derivation Key from Issuer Master Key, and subsequently derives a Session Key
      * from the derives Unique Derivation Key.
-     * @param issuerMasterKey Issuer Master Key for Cryptogram Generation.
-     * @param pan Primary Account Number from request.
-     * @param panSequenceNumber Primary Account Sequence Number from request.
-     * @param applicationTransactionCounter Application Transaction Counter from request.
-     * @param unpredictableNumber Unpredictable Number from request.
+     * @param context Request context holding the parsed IAD.
+     * @param requestRecord Validated request record.
+     * @param issuerKeyId Issuer key registry key id from request.
+     * @return Request context holding the derived keys.
      */
-    private void setApplicationCryptogramGenerationKey(String issuerMasterKey,
-                                             String pan,
-                                             String panSequenceNumber,
-                                             String applicationTransactionCounter,
-                                             String unpredictableNumber){
+    private CryptogramContext setApplicationCryptogramGenerationKey(CryptogramContext context,
+                                                                    CryptogramRequestRecord requestRecord,
+                                                                    String issuerKeyId){
         // Build UDK from IMK
-        buildUniqueDerivationKeyFromIssuerMasterKey(issuerMasterKey,
-                pan,
-                panSequenceNumber);
+        if (requestRecord.isPresent(CryptogramRequestField.ISSUER_MASTER_KEY)) {
+            context = buildUniqueDerivationKeyFromIssuerMasterKey(context,
+                    requestRecord);
+        } else {
+            context = buildUniqueDerivationKeyFromIssuerKey(context,
+                    resolveIssuerKey(context, issuerKeyId, requestRecord.getPan()),
+                    requestRecord);
+        }
         //Build SK from UDK
-        buildSessionKeyFromUniqueDerivationKey(applicationTransactionCounter,
-                unpredictableNumber
+        return buildSessionKeyFromUniqueDerivationKey(context,
+                requestRecord
         );
     }
     /**
      * Build Unique Derivation Key from the Issuer Master Key received from input.
-     * @param issuerMasterKey Issuer Master Key for Cryptogram Generation.
-     * @param pan Primary Account Number from request.
-     * @param panSequenceNumber Primary Account Sequence Number from request.
+     * @param context Request context holding the parsed IAD.
+     * @param requestRecord Validated request record holding the Issuer Master Key for Cryptogram Generation.
+     * @return Request context holding the UDK.
      */
-    private void buildUniqueDerivationKeyFromIssuerMasterKey(String issuerMasterKey,
-                                                             String pan,
-                                                             String panSequenceNumber){
-        uniqueDerivationKey = getUniqueDerivationKey(issuerMasterKey,
-                pan,
-                panSequenceNumber,
-                cryptogramVersionNumber
-        );
+    private CryptogramContext buildUniqueDerivationKeyFromIssuerMasterKey(CryptogramContext context,
+                                                                          CryptogramRequestRecord requestRecord){
+        EMVUDKDerivationMethod derivationMethod =
+                getUniqueDerivationKeyDerivationMethod(context.getCryptogramVersionNumber());
+        byte [] issuerMasterKey = requestRecord.copy(CryptogramRequestField.ISSUER_MASTER_KEY);
+        String uniqueDerivationKeyFingerprint;
+        byte [] uniqueDerivationKey;
+        try {
+            uniqueDerivationKeyFingerprint = getUniqueDerivationKeyFingerprint(
+                    () -> UniqueDerivationKeyCache.fingerprintIssuerMasterKey(issuerMasterKey),
+                    requestRecord,
+                    derivationMethod
+            );
+            uniqueDerivationKey = getUniqueDerivationKey(uniqueDerivationKeyFingerprint,
+                    issuerMasterKey,
+                    requestRecord,
+                    context.getPaymentScheme(),
+                    context.getCryptogramVersionNumber(),
+                    derivationMethod
+            );
+        } finally {
+            Arrays.fill(issuerMasterKey, (byte) 0);
+        }
         logDebug(log,
                 "UDK generated: {}.",
-                uniqueDerivationKey
+                LoggerUtility.lazy(() -> LoggerUtility.maskKey(uniqueDerivationKey))
+        );
+        return context.withUniqueDerivationKey(uniqueDerivationKey,
+                uniqueDerivationKeyFingerprint
         );
     }
     /**
-     * Build Session Key from the derived Unique Derivation Key and set class variable applicationCryptogramKey.
-     * @param applicationTransactionCounter ApplicationTransactionCounter from input.
+     * Build Unique Derivation Key from an Issuer Master Key held by the issuer key registry.
+     * @param context Request context holding the parsed IAD.
+     * @param issuerKey Issuer Master Key from the issuer key registry.
+     * @param requestRecord Validated request record holding the PAN and PAN Sequence Number.
+     * @return Request context holding the UDK.
      */
-    private void buildSessionKeyFromUniqueDerivationKey(String applicationTransactionCounter, String unpredictableNumber){
-        applicationCryptogramKey = getSessionKey(uniqueDerivationKey,
-                applicationTransactionCounter,
-                unpredictableNumber,
-                cryptogramVersionNumber
+    private CryptogramContext buildUniqueDerivationKeyFromIssuerKey(CryptogramContext context,
+                                                                    IssuerKey issuerKey,
+                                                                    CryptogramRequestRecord requestRecord){
+        EMVUDKDerivationMethod derivationMethod =
+                getUniqueDerivationKeyDerivationMethod(context.getCryptogramVersionNumber());
+        String uniqueDerivationKeyFingerprint = getUniqueDerivationKeyFingerprint(issuerKey::getFingerprint,
+                requestRecord,
+                derivationMethod
+        );
+        byte [] uniqueDerivationKey = getUniqueDerivationKey(uniqueDerivationKeyFingerprint,
+                issuerKey.getIssuerMasterKey(),
+                requestRecord,
+                context.getPaymentScheme(),
+                context.getCryptogramVersionNumber(),
+                derivationMethod
         );
         logDebug(log,
-                "Session Key generated: {}.",
-                applicationCryptogramKey
+                "UDK generated from issuer key {}: {}.",
+                issuerKey.getKeyId(),
+                LoggerUtility.lazy(() -> LoggerUtility.maskKey(uniqueDerivationKey))
+        );
+        return context.withUniqueDerivationKey(uniqueDerivationKey,
+                uniqueDerivationKeyFingerprint
         );
     }
     /**
-     * Method to derive Unique Derivation Key (UDK) from Issuer Master Key (IMK) for cryptogram generation.
-     * @param issuerMasterKey Issuer Master Key from request.
+     * Resolve the Issuer Master Key from the issuer key registry, by the key id from request, or else by the PAN and the
+     * Derivation Key Index of the Issuer Application Data.
+     * @param context Request context holding the parsed IAD.
+     * @param issuerKeyId Issuer key registry key id from request.
      * @param pan Primary Account Number from request.
-     * @param panSequenceNumber PAN sequence number from request.
+     * @return Issuer Master Key from the issuer key registry.
+     * @throws IssuerKeyNotFoundException When no issuer key is registered for the request.
+     */
+    private IssuerKey resolveIssuerKey(CryptogramContext context,
+                                       String issuerKeyId,
+                                       String pan){
+        final String DKI_NAME = "DKI";
+        String derivationKeyIndex = context.getMappedIad().get(DKI_NAME);
+        Optional<IssuerKey> issuerKey = issuerKeyId != null ?
+                issuerKeyRegistry.findByKeyId(issuerKeyId) :
+                issuerKeyRegistry.findByPanAndDerivationKeyIndex(pan, derivationKeyIndex);
+        return issuerKey.orElseThrow(() -> new IssuerKeyNotFoundException(this.getClass().getName() + " --> No " +
+                "IssuerMasterKey provided, and no issuer key registered for " +
+                (issuerKeyId != null ? "key id " + issuerKeyId : "the card BIN and DKI " + derivationKeyIndex) +
+                "."
+        ));
+    }
+    /**
+     * Build Session Key from the derived Unique Derivation Key.
+     * @param context Request context holding the UDK.
+     * @param requestRecord Validated request record holding the ATC and Unpredictable Number.
+     * @return Request context holding the Session Key.
+     */
+    private CryptogramContext buildSessionKeyFromUniqueDerivationKey(CryptogramContext context,
+                                                                     CryptogramRequestRecord requestRecord){
+        byte [] applicationCryptogramKey;
+        try {
+            applicationCryptogramKey = getSessionKey(context.getUniqueDerivationKey(),
+                    context.getUniqueDerivationKeyFingerprint(),
+                    requestRecord,
+                    context.getCryptogramVersionNumber(),
+                    context.getPaymentScheme()
+            );
+        } finally {
+            // The UDK is only needed to derive the Session Key
+            context.clearKeys();
+        }
+        logDebug(log,
+                "Session Key generated: {}.",
+                LoggerUtility.lazy(() -> LoggerUtility.maskKey(applicationCryptogramKey))
+        );
+        return context.withApplicationCryptogramKey(applicationCryptogramKey);
+    }
+    /**
+     * Determine the UDK derivation method for the Cryptogram Version Number.
+     * Note: The UDK derivation must be enhanced for CVN 22, as CVN 22 uses METHOD_B.
      * @param cryptogramVersionNumber Cryptogram version number determined from Issuer Application Data.
-     * @return UDK generated from IMK.
+     * @return UDK derivation method.
      */
-    private String getUniqueDerivationKey(String issuerMasterKey,
-                                            String pan,
-                                            String panSequenceNumber,
-                                            CryptogramVersionNumber cryptogramVersionNumber) {
-        EMVUniqueDerivationKeyDerivator emvUdkDerivator = new EMVUniqueDerivationKeyDerivator(issuerMasterKey,
-                pan,
-                panSequenceNumber,
-                paymentScheme,
-                cryptogramVersionNumber,
-                EMVUDKDerivationMethod.METHOD_A
+    private EMVUDKDerivationMethod getUniqueDerivationKeyDerivationMethod(
+            CryptogramVersionNumber cryptogramVersionNumber) {
+        return EMVUDKDerivationMethod.METHOD_A;
+    }
+    /**
+     * Build the fingerprint identifying the UDK in the UDK and Session Key caches once per request, from the UDK
+     * derivation method, the IMK fingerprint, the PAN and the PAN Sequence Number, see
+     * UniqueDerivationKeyCache.fingerprint.
+     * @param issuerMasterKeyFingerprint Supplier of the IMK fingerprint, only called when a cache is enabled.
+     * @param requestRecord Validated request record holding the PAN and PAN Sequence Number.
+     * @param derivationMethod UDK derivation method.
+     * @return UDK fingerprint, or null when neither cache is enabled.
+     */
+    private String getUniqueDerivationKeyFingerprint(Supplier<String> issuerMasterKeyFingerprint,
+                                                     CryptogramRequestRecord requestRecord,
+                                                     EMVUDKDerivationMethod derivationMethod) {
+        if (!uniqueDerivationKeyCache.isEnabled() && sessionKeyCache.getDerivedKeyCache() == null) {
+            return null;
+        }
+        return UniqueDerivationKeyCache.fingerprint(issuerMasterKeyFingerprint.get(),
+                requestRecord,
+                derivationMethod
         );
-        // The UDK derivation must be enhanced for CVN 22, as CVN 22 uses METHOD_B.
-        return emvUdkDerivator.generateUniqueDerivationKey();
     }
     /**
-     * Method to derive Unique Derivation Key (UDK) from Issuer Master Key (IMK) for cryptogram generation.
-     * @param uniqueDerivationKey UDK derived from IMK.
-     * @param applicationTransactionCounter Application Transaction Counter from request.
-     * @param unpredictableNumber Unpredictable Number from input.
+     * Method to derive Unique Derivation Key (UDK) from Issuer Master Key (IMK) for cryptogram generation, the UDK is
+     * taken from the UDK cache when the card was seen before.
+     * @param uniqueDerivationKeyFingerprint UDK fingerprint, or null when the keys are not cached.
+     * @param issuerMasterKey Issuer Master Key from request or from the issuer key registry, as raw key bytes.
+     * @param requestRecord Validated request record holding the PAN and PAN Sequence Number.
+     * @param paymentScheme Payment Scheme determined from PAN.
      * @param cryptogramVersionNumber Cryptogram version number determined from Issuer Application Data.
-     * @return Session Key generated from UDK.
+     * @param derivationMethod UDK derivation method, which is part of the UDK fingerprint.
+     * @return UDK generated from IMK, as raw key bytes owned by the caller.
      */
-    private String getSessionKey(String uniqueDerivationKey,
-                                   String applicationTransactionCounter,
-                                   String unpredictableNumber,
-                                   CryptogramVersionNumber cryptogramVersionNumber) {
-        EMVSessionKeyDerivator emvSessionKeyDerivator = new EMVSessionKeyDerivator(uniqueDerivationKey,
-                applicationTransactionCounter,
-                unpredictableNumber,
-                cryptogramVersionNumber,
-                paymentScheme
+    private byte [] getUniqueDerivationKey(String uniqueDerivationKeyFingerprint,
+                                           byte [] issuerMasterKey,
+                                           CryptogramRequestRecord requestRecord,
+                                           PaymentScheme paymentScheme,
+                                           CryptogramVersionNumber cryptogramVersionNumber,
+                                           EMVUDKDerivationMethod derivationMethod) {
+        return uniqueDerivationKeyCache.get(uniqueDerivationKeyFingerprint,
+                () -> EMVUniqueDerivationKeyDerivator.fromValidatedInput(issuerMasterKey,
+                        requestRecord,
+                        paymentScheme,
+                        cryptogramVersionNumber,
+                        derivationMethod
+                ).generateUniqueDerivationKeyBytes()
         );
-        return emvSessionKeyDerivator.generateSessionKey();
     }
-
     /**
-     * Generate the application cryptogram after deriving the session key using the cryptogram generation request data.
-     * @param cryptogramRequest Cryptogram generation request domain object.
-     * @return Application Cryptogram generated.
+     * Method to derive Session Key from Unique Derivation Key (UDK) for cryptogram generation, retried requests are
+     * served from the Session Key cache.
+     * @param uniqueDerivationKey UDK derived from IMK, as raw key bytes.
+     * @param uniqueDerivationKeyFingerprint UDK fingerprint, or null when the keys are not cached.
+     * @param requestRecord Validated request record holding the ATC and Unpredictable Number.
+     * @param cryptogramVersionNumber Cryptogram version number determined from Issuer Application Data.
+     * @param paymentScheme Payment Scheme determined from PAN.
+     * @return Session Key generated from UDK, as raw key bytes owned by the caller.
      */
-    protected CryptogramResponse generateCryptogram(CryptogramRequest cryptogramRequest){
-        String arqc = generateCryptogram(cryptogramRequest,
-                applicationCryptogramKey,
+    private byte [] getSessionKey(byte [] uniqueDerivationKey,
+                                  String uniqueDerivationKeyFingerprint,
+                                  CryptogramRequestRecord requestRecord,
+                                  CryptogramVersionNumber cryptogramVersionNumber,
+                                  PaymentScheme paymentScheme) {
+        EMVSessionKeyDerivator emvSessionKeyDerivator = EMVSessionKeyDerivator.fromValidatedInput(uniqueDerivationKey,
+                requestRecord,
                 cryptogramVersionNumber,
-                cardVerificationResults,
-                paymentScheme);
-        return buildResponseObjectFromDomain(arqc);
+                paymentScheme,
+                sessionKeyCache.getDerivedKeyCache(),
+                uniqueDerivationKeyFingerprint
+        );
+        return emvSessionKeyDerivator.generateSessionKeyBytes();
     }
+
     /**
-     * Method to build and map the Cryptogram Response domain object to Response DTO class.
-     * @param arqc Application Cryptogram generated.
-     * @return CryptogramResponse object containing generated Application Cryptogram.
+     * Generate the application cryptogram, and the response cryptogram when requested, after deriving the session key
+     * using the cryptogram generation request data. The keys of the context are zeroized once the cryptogram is done.
+     * @param cryptogramRequest Cryptogram generation request domain object.
+     * @param context Request context holding the Session Key, CVN and CVR.
+     * @return Application Cryptogram generated.
      */
-    private CryptogramResponse buildResponseObjectFromDomain(String arqc) {
-        CryptogramResponse cryptogramResponse = new CryptogramResponse();
-        cryptogramResponse.setRequestCryptogram(arqc);
+    protected CryptogramResponse generateCryptogram(CryptogramRequest cryptogramRequest,
+                                                    CryptogramContext context){
+        CryptogramResponse cryptogramResponse;
+        try {
+            cryptogramResponse = generateCryptogram(cryptogramRequest,
+                    context.getApplicationCryptogramKey(),
+                    context.getCryptogramVersionNumber(),
+                    context.getCardVerificationResults(),
+                    context.getPaymentScheme());
+        } finally {
+            context.clearKeys();
+        }
         logDebug(log,
                 "Response object generated: {}.",
                 cryptogramResponse
@@ -257,15 +459,32 @@ public abstract class AbstractCryptogramFunctionsService
     /**
      * Method to call the Payment Scheme specific cryptogram generation request.
      * @param cryptogramRequest Cryptogram Request domain object.
-     * @return Application Cryptogram generated by Payment Scheme specific service.
+     * @return Application Cryptogram, and Response Cryptogram when requested, generated by Payment Scheme specific
+     *         service.
      */
-    protected String generateCryptogram(CryptogramRequest cryptogramRequest,
-                                                 String sessionKey,
-                                                 CryptogramVersionNumber cryptogramVersionNumber,
-                                                 String cardVerificationResults,
-                                                 PaymentScheme paymentScheme){
+    protected CryptogramResponse generateCryptogram(CryptogramRequest cryptogramRequest,
+                                                    byte [] sessionKey,
+                                                    CryptogramVersionNumber cryptogramVersionNumber,
+                                                    String cardVerificationResults,
+                                                    PaymentScheme paymentScheme){
         throw new UnsupportedOperationException(this.getClass().getName() + " --> Subclass must override and implement " +
                 "the method \"generateCryptogram\" before use."
         );
     }
-}
\ No newline at end of file
+    /**
+     * Method to call the Payment Scheme specific cryptogram verification.
+     * @param cryptogramRequest Cryptogram Request domain object.
+     * @param applicationCryptogram Received Application Cryptogram.
+     * @return Verification response of the Payment Scheme specific service.
+     */
+    protected CryptogramVerificationResponse verifyCryptogram(CryptogramRequest cryptogramRequest,
+                                                              byte [] sessionKey,
+                                                              CryptogramVersionNumber cryptogramVersionNumber,
+                                                              String cardVerificationResults,
+                                                              PaymentScheme paymentScheme,
+                                                              byte [] applicationCryptogram){
+        throw new UnsupportedOperationException(this.getClass().getName() + " --> Subclass must override and implement " +
+                "the method \"verifyCryptogram\" before use."
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.bc.application.service;
+
+/**
+ * Exception thrown when no Issuer Master Key is provided in the request and no issuer key is registered for the request
+ * in the issuer key registry.
+ */
+public class IssuerKeyNotFoundException
+        extends IllegalArgumentException {
+    /**
+     * Constructor
+     * @param message Exception message.
+     */
+    public IssuerKeyNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,172 @@
+package com.bc.application.service;
+
+import com.bc.application.domain.IssuerKey;
+import com.bc.utilities.DerivedKeyCache;
+import com.bc.utilities.HexCodec;
+import com.bc.utilities.LoggerUtility;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.Config;
+import java.util.*;
+import static com.bc.model.pattern.CommonPattern.*;
+/**
+ * Registry of Issuer Master Keys (IMK), loaded once at startup from the emv.issuer-keys properties, so requests can
+ * reference a key by its key id, or have the key resolved from the card BIN and the Derivation Key Index (DKI) of the
+ * Issuer Application Data, instead of sending the clear IMK with every request.
+ * A key is configured with the following properties, where the key id is the property name segment after the prefix:
+ * - emv.issuer-keys.[key id].key - Single, double or triple length TDEA key as hexadecimal digits.
+ * - emv.issuer-keys.[key id].bin - Issuer BIN, 6 to 11 decimal digits.
+ * - emv.issuer-keys.[key id].dki - Derivation Key Index, 2 hexadecimal digits.
+ * Note: BIN resolution uses the longest configured BIN matching the PAN.
+ * Note: The keys are decoded to raw key bytes once when the registry is loaded, and zeroized on shutdown.
+ */
+@Slf4j
+@Singleton
+public class IssuerKeyRegistry
+        implements LoggerUtility {
+    // Constants
+    private static final String PROPERTY_PREFIX = "emv.issuer-keys.";
+    private static final String KEY_PROPERTY = "key";
+    private static final String BIN_PROPERTY = "bin";
+    private static final String DKI_PROPERTY = "dki";
+    private static final int MINIMUM_BIN_LENGTH = 6;
+    private static final int MAXIMUM_BIN_LENGTH = 11;
+    // Variables
+    private final Map<String, IssuerKey> issuerKeysById = new HashMap<>();
+    private final Map<String, IssuerKey> issuerKeysByBinAndDki = new HashMap<>();
+    /**
+     * Constructor loading the registry from the application configuration.
+     * @param config Application configuration.
+     */
+    @Inject
+    public IssuerKeyRegistry(Config config) {
+        this(readIssuerKeyProperties(config));
+    }
+    /**
+     * Constructor loading the registry from the emv.issuer-keys properties.
+     * @param properties Property names and values, properties without the emv.issuer-keys prefix are ignored.
+     */
+    IssuerKeyRegistry(Map<String, String> properties) {
+        Map<String, Map<String, String>> keyProperties = new TreeMap<>();
+        properties.forEach((name, value) -> {
+            if (name.startsWith(PROPERTY_PREFIX)) {
+                int separator = name.lastIndexOf('.');
+                if (separator > PROPERTY_PREFIX.length()) {
+                    keyProperties.computeIfAbsent(name.substring(PROPERTY_PREFIX.length(), separator),
+                                    keyId -> new HashMap<>())
+                            .put(name.substring(separator + 1), value.trim());
+                }
+            }
+        });
+        keyProperties.forEach(this::register);
+        logInfo(log,
+                "Issuer key registry loaded {} keys: {}.",
+                issuerKeysById.size(),
+                issuerKeysById.values()
+        );
+    }
+    /**
+     * Find a registered Issuer Master Key by its key id.
+     * @param keyId Key id from request.
+     * @return Issuer Master Key, or empty when the key id is not registered.
+     */
+    public Optional<IssuerKey> findByKeyId(String keyId) {
+        return Optional.ofNullable(issuerKeysById.get(keyId));
+    }
+    /**
+     * Find the Issuer Master Key of a card from its PAN and the Derivation Key Index of the Issuer Application Data.
+     * @param pan Primary Account Number from request.
+     * @param derivationKeyIndex Derivation Key Index parsed from the Issuer Application Data.
+     * @return Issuer Master Key of the longest BIN matching the PAN, or empty when no key is registered.
+     */
+    public Optional<IssuerKey> findByPanAndDerivationKeyIndex(String pan,
+                                                               String derivationKeyIndex) {
+        if (pan == null || derivationKeyIndex == null || issuerKeysByBinAndDki.isEmpty()) {
+            return Optional.empty();
+        }
+        String dki = derivationKeyIndex.toUpperCase(Locale.ROOT);
+        for (int binLength = Math.min(MAXIMUM_BIN_LENGTH, pan.length()); binLength >= MINIMUM_BIN_LENGTH; binLength--) {
+            IssuerKey issuerKey = issuerKeysByBinAndDki.get(binAndDkiKey(pan.substring(0, binLength), dki));
+            if (issuerKey != null) {
+                return Optional.of(issuerKey);
+            }
+        }
+        return Optional.empty();
+    }
+    /**
+     * Validate the properties of a key and add the key to the registry indexes.
+     */
+    private void register(String keyId,
+                          Map<String, String> properties) {
+        String issuerMasterKey = properties.get(KEY_PROPERTY);
+        String bin = properties.get(BIN_PROPERTY);
+        String dki = properties.get(DKI_PROPERTY);
+        if (issuerMasterKey == null || !issuerMasterKey.matches(IS_A_VALID_TDEA_KEY)) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Issuer key " + keyId + " must be a " +
+                    "single, double or triple length TDEA key, comprised of hexadecimal digits only."
+            );
+        }
+        if (bin != null && !bin.matches(IS_A_VALID_BIN)) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Issuer key " + keyId + " BIN must " +
+                    "be numeric, and 6 to 11 digits long, but received " + bin + "."
+            );
+        }
+        if (dki != null && !dki.matches(IS_A_2_DIGIT_HEXADECIMAL_NUMBER)) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Issuer key " + keyId + " DKI must " +
+                    "be exactly 2 hexadecimal digits, but received " + dki + "."
+            );
+        }
+        byte [] decodedIssuerMasterKey = HexCodec.decode(issuerMasterKey);
+        IssuerKey issuerKey = new IssuerKey(keyId,
+                bin,
+                dki == null ? null : dki.toUpperCase(Locale.ROOT),
+                decodedIssuerMasterKey,
+                DerivedKeyCache.fingerprint(decodedIssuerMasterKey)
+        );
+        issuerKeysById.put(keyId, issuerKey);
+        if (bin != null && dki != null) {
+            IssuerKey duplicateKey = issuerKeysByBinAndDki.putIfAbsent(binAndDkiKey(bin, issuerKey.getDerivationKeyIndex()),
+                    issuerKey
+            );
+            if (duplicateKey != null) {
+                throw new IllegalArgumentException(this.getClass().getName() + " --> Issuer keys " +
+                        duplicateKey.getKeyId() + " and " + keyId + " are both registered for BIN " + bin +
+                        " and DKI " + dki + "."
+                );
+            }
+        }
+    }
+    /**
+     * Zeroize the registered keys on shutdown.
+     */
+    @PreDestroy
+    void clearKeys() {
+        issuerKeysById.values().forEach(IssuerKey::clearKey);
+        logInfo(log,
+                "Issuer key registry cleared {} keys.",
+                issuerKeysById.size()
+        );
+    }
+    /**
+     * Build the index key of a BIN and DKI.
+     */
+    private static String binAndDkiKey(String bin,
+                                       String derivationKeyIndex) {
+        return bin + ':' + derivationKeyIndex;
+    }
+    /**
+     * Read the emv.issuer-keys properties from the application configuration.
+     */
+    private static Map<String, String> readIssuerKeyProperties(Config config) {
+        Map<String, String> properties = new HashMap<>();
+        for (String name : config.getPropertyNames()) {
+            if (name.startsWith(PROPERTY_PREFIX)) {
+                config.getOptionalValue(name, String.class)
+                        .ifPresent(value -> properties.put(name, value));
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,77 @@
+package com.bc.application.service;
+
+import com.bc.utilities.DerivedKeyCache;
+import com.bc.utilities.LoggerUtility;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.time.Duration;
+/**
+ * Short lived cache of Session Keys, used by the Session Key derivator to serve network retries, reversals and
+ * stand-in replays of the same card and ATC. The cache is configured with the emv.cache.session-key properties.
+ * Note: Retried requests repeat only a few times, so frequency admission is disabled by default, otherwise a session
+ * key would only be admitted after it was already requested several times.
+ */
+@Slf4j
+@Singleton
+public class SessionKeyCache
+        implements LoggerUtility {
+    private final DerivedKeyCache<String> derivedKeyCache;
+    /**
+     * Constructor
+     * @param enabled When set to false, every Session Key is derived.
+     * @param maximumSize Maximum number of cached Session Keys.
+     * @param timeToLive Time after which a cached Session Key is derived again.
+     * @param frequencyAdmission When set to true, a new Session Key only replaces a cached Session Key that is used
+     *                           less often.
+     */
+    @Inject
+    public SessionKeyCache(@ConfigProperty(name = "emv.cache.session-key.enabled", defaultValue = "true")
+                           boolean enabled,
+                           @ConfigProperty(name = "emv.cache.session-key.maximum-size", defaultValue = "10000")
+                           int maximumSize,
+                           @ConfigProperty(name = "emv.cache.session-key.time-to-live", defaultValue = "PT1M")
+                           Duration timeToLive,
+                           @ConfigProperty(name = "emv.cache.session-key.frequency-admission", defaultValue = "false")
+                           boolean frequencyAdmission) {
+        this.derivedKeyCache = enabled ?
+                new DerivedKeyCache<>("Session Key", maximumSize, timeToLive, frequencyAdmission) :
+                null;
+        logInfo(log,
+                "Session Key cache enabled: {}, maximum size: {}, time to live: {}, frequency admission: {}.",
+                enabled,
+                maximumSize,
+                timeToLive,
+                frequencyAdmission
+        );
+    }
+    /**
+     * Get the cache to be supplied to the Session Key derivator.
+     * @return Session Key cache, or null when the cache is disabled.
+     */
+    public DerivedKeyCache<String> getDerivedKeyCache() {
+        return derivedKeyCache;
+    }
+    /**
+     * Get a snapshot of the Session Key cache metrics.
+     * @return Cache statistics, or null when the cache is disabled.
+     */
+    public DerivedKeyCache.Statistics getStatistics() {
+        return derivedKeyCache == null ? null : derivedKeyCache.getStatistics();
+    }
+    /**
+     * Zeroize the cached Session Keys on shutdown.
+     */
+    @PreDestroy
+    void invalidateAll() {
+        if (derivedKeyCache != null) {
+            logInfo(log,
+                    "Session Key cache statistics: {}.",
+                    derivedKeyCache.getStatistics()
+            );
+            derivedKeyCache.invalidateAll();
+        }
+    }
+}
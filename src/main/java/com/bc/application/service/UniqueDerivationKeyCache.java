@@ -0,0 +1,141 @@
+package com.bc.application.service;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.EMVUDKDerivationMethod;
+import com.bc.utilities.DerivedKeyCache;
+import com.bc.utilities.LoggerUtility;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+/**
+ * Cache of Unique Derivation Keys (UDK), keyed by the UDK derivation method and a hash of the Issuer Master Key (IMK)
+ * fingerprint, the PAN and the PAN Sequence Number, as the UDK only depends on these values. The cache is configured
+ * with the emv.cache.udk properties.
+ * Note: Requests with invalid input never populate the cache, since the UDK is only cached after the derivator
+ * validated its input.
+ */
+@Slf4j
+@Singleton
+public class UniqueDerivationKeyCache
+        implements LoggerUtility {
+    // Length of the packed PAN and PAN Sequence Number in the request record
+    private static final int CARD_DATA_LENGTH = CryptogramRequestField.PAN.getLength() +
+            CryptogramRequestField.PAN_SEQUENCE_NUMBER.getLength();
+    private final boolean enabled;
+    private final DerivedKeyCache<String> derivedKeyCache;
+    /**
+     * Constructor
+     * @param enabled When set to false, every UDK is derived.
+     * @param maximumSize Maximum number of cached UDKs.
+     * @param timeToLive Time after which a cached UDK is derived again.
+     * @param frequencyAdmission When set to true, a new UDK only replaces a cached UDK of a card that is used less often.
+     */
+    @Inject
+    public UniqueDerivationKeyCache(@ConfigProperty(name = "emv.cache.udk.enabled", defaultValue = "true")
+                                    boolean enabled,
+                                    @ConfigProperty(name = "emv.cache.udk.maximum-size", defaultValue = "10000")
+                                    int maximumSize,
+                                    @ConfigProperty(name = "emv.cache.udk.time-to-live", defaultValue = "PT1H")
+                                    Duration timeToLive,
+                                    @ConfigProperty(name = "emv.cache.udk.frequency-admission", defaultValue = "true")
+                                    boolean frequencyAdmission) {
+        this.enabled = enabled;
+        this.derivedKeyCache = enabled ?
+                new DerivedKeyCache<>("UDK", maximumSize, timeToLive, frequencyAdmission) :
+                null;
+        logInfo(log,
+                "UDK cache enabled: {}, maximum size: {}, time to live: {}, frequency admission: {}.",
+                enabled,
+                maximumSize,
+                timeToLive,
+                frequencyAdmission
+        );
+    }
+    /**
+     * Build the fingerprint identifying the UDK of a card, i.e., the UDK derivation method and the hash of the IMK
+     * fingerprint, the PAN and the PAN Sequence Number the UDK is derived from, so the cache keys hold no clear PAN.
+     * The fingerprint is the UDK cache key and identifies the UDK in the Session Key cache, so neither cache hashes the
+     * UDK.
+     * @param issuerMasterKeyFingerprint Fingerprint of the Issuer Master Key, see fingerprintIssuerMasterKey.
+     * @param requestRecord Validated request record holding the PAN and PAN Sequence Number.
+     * @param derivationMethod UDK derivation method.
+     * @return UDK fingerprint.
+     */
+    public static String fingerprint(String issuerMasterKeyFingerprint,
+                                     CryptogramRequestRecord requestRecord,
+                                     EMVUDKDerivationMethod derivationMethod) {
+        // The IMK fingerprint is of fixed length, and the packed PAN is directly followed by the packed PSN
+        byte [] imkFingerprint = issuerMasterKeyFingerprint.getBytes(StandardCharsets.US_ASCII);
+        byte [] cardData = new byte[imkFingerprint.length + CARD_DATA_LENGTH];
+        System.arraycopy(imkFingerprint, 0, cardData, 0, imkFingerprint.length);
+        System.arraycopy(requestRecord.getData(),
+                CryptogramRequestField.PAN.getOffset(),
+                cardData,
+                imkFingerprint.length,
+                CARD_DATA_LENGTH
+        );
+        try {
+            return derivationMethod.name() + ':' + DerivedKeyCache.fingerprint(cardData);
+        } finally {
+            Arrays.fill(cardData, (byte) 0);
+        }
+    }
+    /**
+     * Build the fingerprint of an Issuer Master Key received in a request, which matches the fingerprint of the same key
+     * held by the issuer key registry.
+     * @param issuerMasterKey Issuer Master Key as raw key bytes.
+     * @return IMK fingerprint.
+     */
+    public static String fingerprintIssuerMasterKey(byte [] issuerMasterKey) {
+        return DerivedKeyCache.fingerprint(issuerMasterKey);
+    }
+    /**
+     * Get the cached UDK, or derive and cache the UDK.
+     * @param uniqueDerivationKeyFingerprint UDK fingerprint, see fingerprint, may be null when the cache is disabled.
+     * @param uniqueDerivationKeyDerivator Function deriving the UDK on a cache miss.
+     * @return UDK as raw key bytes, owned by the caller.
+     */
+    public byte [] get(String uniqueDerivationKeyFingerprint,
+                       Supplier<byte []> uniqueDerivationKeyDerivator) {
+        if (!enabled) {
+            return uniqueDerivationKeyDerivator.get();
+        }
+        return derivedKeyCache.get(uniqueDerivationKeyFingerprint,
+                key -> uniqueDerivationKeyDerivator.get()
+        );
+    }
+    /**
+     * Check whether UDKs are cached.
+     * @return True when the cache is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    /**
+     * Get a snapshot of the UDK cache metrics.
+     * @return Cache statistics, or null when the cache is disabled.
+     */
+    public DerivedKeyCache.Statistics getStatistics() {
+        return enabled ? derivedKeyCache.getStatistics() : null;
+    }
+    /**
+     * Zeroize the cached UDKs on shutdown.
+     */
+    @PreDestroy
+    void invalidateAll() {
+        if (enabled) {
+            logInfo(log,
+                    "UDK cache statistics: {}.",
+                    derivedKeyCache.getStatistics()
+            );
+            derivedKeyCache.invalidateAll();
+        }
+    }
+}
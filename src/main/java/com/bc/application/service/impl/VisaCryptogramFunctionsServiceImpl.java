@@ -1,7 +1,9 @@
 package com.bc.application.service.impl;
 
+import com.bc.application.domain.CryptogramContext;
 import com.bc.application.domain.CryptogramRequest;
 import com.bc.application.domain.CryptogramResponse;
+import com.bc.application.domain.CryptogramVerificationResponse;
 import com.bc.application.enumeration.CryptogramVersionNumber;
 import com.bc.application.enumeration.PaymentScheme;
 import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
@@ -27,20 +29,17 @@ public class VisaCryptogramFunctionsServiceImpl
     @Override
     public CryptogramResponse getApplicationCryptogram(GenerateApplicationCryptogramCommand command) {
         logDebug(log, "Command object received: {}.", command);
-        CryptogramRequest cryptogramRequest = buildDomainObjectFromCommand(command);
-        logDebug(log, "Domain objectCommand mapped from command: {}.", cryptogramRequest);
-        initialiseCryptogramRequirements(cryptogramRequest.getIssuerMasterKey(),
-                cryptogramRequest.getPan(),
-                cryptogramRequest.getPanSequenceNumber(),
-                cryptogramRequest.getApplicationTransactionCounter(),
-                cryptogramRequest.getUnpredictableNumber(),
-                cryptogramRequest.getIssuerApplicationData()
+        // The validated command is the domain request
+        CryptogramRequest cryptogramRequest = command;
+        CryptogramContext context = initialiseCryptogramRequirements(cryptogramRequest.getRequestRecord(),
+                cryptogramRequest.getIssuerKeyId()
         );
-        return generateCryptogram(cryptogramRequest);
+        return generateCryptogram(cryptogramRequest, context);
     }
     /**
      * Method to parse Issuer Application Data based on the Payment Scheme specific implementation of IAD.
-     * This method will set the parsed IAD to the mappedIad class variable.
+     * @param issuerApplicationData Issuer Application Data from request.
+     * @return Parsed IAD.
      */
     @Override
     protected Map<String, String> parseIssuerApplicationData(String issuerApplicationData) {
@@ -50,17 +49,18 @@ public class VisaCryptogramFunctionsServiceImpl
      * Method to call the Payment Scheme specific cryptogram generation request.
      *
      * @param cryptogramRequest Cryptogram Request domain object.
-     * @param sessionKey Session key to be used for cryptogram generation.
+     * @param sessionKey Session key to be used for cryptogram generation, as raw key bytes.
      * @param cryptogramVersionNumber Cryptogram Version Number.
      * @param cardVerificationResults Card Verification results.
-     * @return Application Cryptogram generated by Payment Scheme specific service.
+     * @return Application Cryptogram, and Response Cryptogram when requested, generated by Payment Scheme specific
+     *         service.
      */
     @Override
-    protected String generateCryptogram(CryptogramRequest cryptogramRequest,
-                                        String sessionKey,
-                                        CryptogramVersionNumber cryptogramVersionNumber,
-                                        String cardVerificationResults,
-                                        PaymentScheme paymentScheme) {
+    protected CryptogramResponse generateCryptogram(CryptogramRequest cryptogramRequest,
+                                                    byte [] sessionKey,
+                                                    CryptogramVersionNumber cryptogramVersionNumber,
+                                                    String cardVerificationResults,
+                                                    PaymentScheme paymentScheme) {
         VisaApplicationCryptogramGenerator visaApplicationCryptogramGenerator = new VisaApplicationCryptogramGenerator();
         return visaApplicationCryptogramGenerator
                 .generateApplicationCryptogram(cryptogramRequest,
@@ -70,4 +70,31 @@ public class VisaCryptogramFunctionsServiceImpl
                         paymentScheme
                 );
     }
-}
\ No newline at end of file
+    /**
+     * Method to call the Payment Scheme specific cryptogram verification.
+     *
+     * @param cryptogramRequest Cryptogram Request domain object.
+     * @param sessionKey Session key to be used for cryptogram generation, as raw key bytes.
+     * @param cryptogramVersionNumber Cryptogram Version Number.
+     * @param cardVerificationResults Card Verification results.
+     * @param applicationCryptogram Received Application Cryptogram.
+     * @return Verification response, with the Response Cryptogram when verified and requested.
+     */
+    @Override
+    protected CryptogramVerificationResponse verifyCryptogram(CryptogramRequest cryptogramRequest,
+                                                              byte [] sessionKey,
+                                                              CryptogramVersionNumber cryptogramVersionNumber,
+                                                              String cardVerificationResults,
+                                                              PaymentScheme paymentScheme,
+                                                              byte [] applicationCryptogram) {
+        VisaApplicationCryptogramGenerator visaApplicationCryptogramGenerator = new VisaApplicationCryptogramGenerator();
+        return visaApplicationCryptogramGenerator
+                .verifyApplicationCryptogram(cryptogramRequest,
+                        sessionKey,
+                        cryptogramVersionNumber,
+                        cardVerificationResults,
+                        paymentScheme,
+                        applicationCryptogram
+                );
+    }
+}
@@ -0,0 +1,31 @@
+package com.bc.model.constraint;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+/**
+ * Constraint checking that a string only contains decimal digits, i.e., 0-9, and is between the minimum and maximum
+ * length. Null values are valid.
+ * Note: The check is performed without regular expressions, see {@link DecimalStringValidator}.
+ */
+@Documented
+@Constraint(validatedBy = DecimalStringValidator.class)
+@Target({FIELD, PARAMETER, ANNOTATION_TYPE})
+@Retention(RUNTIME)
+public @interface DecimalString {
+    String message() default "must only contain decimal digits, and have a valid length";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+    /**
+     * @return Minimum length.
+     */
+    int min() default 1;
+    /**
+     * @return Maximum length.
+     */
+    int max() default Integer.MAX_VALUE;
+}
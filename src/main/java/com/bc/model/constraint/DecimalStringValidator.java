@@ -0,0 +1,46 @@
+package com.bc.model.constraint;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+/**
+ * Validator of the {@link DecimalString} constraint, checking the length and then each character against the decimal
+ * digit range, so no regular expression is compiled or matched.
+ */
+public class DecimalStringValidator
+        implements ConstraintValidator<DecimalString, CharSequence> {
+    private int min;
+    private int max;
+    /**
+     * Read the length rules of the constraint.
+     * @param constraintAnnotation Constraint annotation.
+     */
+    @Override
+    public void initialize(DecimalString constraintAnnotation) {
+        min = constraintAnnotation.min();
+        max = constraintAnnotation.max();
+    }
+    /**
+     * Check the value against the constraint.
+     * @param value Value to check.
+     * @param context Validation context.
+     * @return True when the value is null or a decimal string of a valid length.
+     */
+    @Override
+    public boolean isValid(CharSequence value,
+                           ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+        int length = value.length();
+        if (length < min || length > max) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char character = value.charAt(i);
+            if (character < '0' || character > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
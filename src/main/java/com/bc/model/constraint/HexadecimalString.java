@@ -0,0 +1,40 @@
+package com.bc.model.constraint;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+/**
+ * Constraint checking that a string only contains hexadecimal digits, i.e., 0-9, a-f and A-F, and has a valid length.
+ * The length is valid when it is one of the listed lengths, or when no lengths are listed, when it is between the minimum
+ * and maximum length in steps of the given size from the minimum length. Null values are valid.
+ * Note: The check is performed without regular expressions, see {@link HexadecimalStringValidator}.
+ */
+@Documented
+@Constraint(validatedBy = HexadecimalStringValidator.class)
+@Target({FIELD, PARAMETER, ANNOTATION_TYPE})
+@Retention(RUNTIME)
+public @interface HexadecimalString {
+    String message() default "must only contain hexadecimal digits, and have a valid length";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+    /**
+     * @return Minimum length.
+     */
+    int min() default 1;
+    /**
+     * @return Maximum length.
+     */
+    int max() default Integer.MAX_VALUE;
+    /**
+     * @return Length step from the minimum length, e.g., 2 for an even number of digits from an even minimum length.
+     */
+    int step() default 1;
+    /**
+     * @return Valid lengths, overriding the minimum, maximum and step when not empty.
+     */
+    int[] lengths() default {};
+}
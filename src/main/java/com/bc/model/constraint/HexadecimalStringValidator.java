@@ -0,0 +1,70 @@
+package com.bc.model.constraint;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+/**
+ * Validator of the {@link HexadecimalString} constraint, checking the length and then each character against the
+ * hexadecimal digit ranges, so no regular expression is compiled or matched.
+ */
+public class HexadecimalStringValidator
+        implements ConstraintValidator<HexadecimalString, CharSequence> {
+    private int min;
+    private int max;
+    private int step;
+    private int[] lengths;
+    /**
+     * Read the length rules of the constraint.
+     * @param constraintAnnotation Constraint annotation.
+     */
+    @Override
+    public void initialize(HexadecimalString constraintAnnotation) {
+        min = constraintAnnotation.min();
+        max = constraintAnnotation.max();
+        step = Math.max(1, constraintAnnotation.step());
+        lengths = constraintAnnotation.lengths().clone();
+    }
+    /**
+     * Check the value against the constraint.
+     * @param value Value to check.
+     * @param context Validation context.
+     * @return True when the value is null or a hexadecimal string of a valid length.
+     */
+    @Override
+    public boolean isValid(CharSequence value,
+                           ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+        return isValidLength(value.length()) && isHexadecimal(value);
+    }
+    /**
+     * Check a length against the listed lengths, or the minimum, maximum and step.
+     */
+    private boolean isValidLength(int length) {
+        if (lengths.length > 0) {
+            for (int validLength : lengths) {
+                if (length == validLength) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return length >= min && length <= max && (length - min) % step == 0;
+    }
+    /**
+     * Check that all characters are hexadecimal digits.
+     * @param value Value to check.
+     * @return True when all characters are 0-9, a-f or A-F.
+     */
+    private static boolean isHexadecimal(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            // Folding to lowercase maps A-F onto a-f, and leaves 0-9 unchanged
+            char folded = (char) (character | 0x20);
+            if (!((character >= '0' && character <= '9') || (folded >= 'a' && folded <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bc.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.util.List;
+
+/**
+ * DTO class defining REST API attributes for one result line of an Application Cryptogram generation batch response.
+ * The result carries either the generated cryptogram, or the errors of the batch item.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"Index", "CorrelationId", "ARQC", "ARPC", "Errors"})
+public class GenerateACBatchResponse {
+    @JsonProperty("Index")
+    public long index;
+    @JsonProperty("CorrelationId")
+    public String correlationId;
+    @JsonProperty("ARQC")
+    public String applicationCryptogram;
+    @JsonProperty("ARPC")
+    public String applicationResponseCryptogram;
+    @JsonProperty("Errors")
+    public List<String> errors;
+
+}
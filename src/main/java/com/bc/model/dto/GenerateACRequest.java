@@ -1,38 +1,29 @@
 package com.bc.model.dto;
 
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.model.json.GenerateACRequestDeserializer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 /**
  * DTO class defining REST API attributes for Application Cryptogram generation request payload.
+ * The payload is bound by the streaming {@link GenerateACRequestDeserializer}, which must be updated with the fields.
+ * The hexadecimal and BCD attributes, i.e., Pan, PanSequenceNumber, IssuerMasterKey, AmountAuthorised, AmountOther,
+ * TerminalCountryCode, TerminalVerificationResults, TransactionCurrencyCode, TransactionDate, TransactionType,
+ * UnpredictableNumber, ApplicationInterchangeProfile, ApplicationTransactionCounter, IssuerApplicationData and the
+ * optional ARPC inputs AuthorisationResponseCode, CardStatusUpdate and ProprietaryAuthenticationData, are decoded into
+ * the request record while the payload is read.
  */
+@JsonDeserialize(using = GenerateACRequestDeserializer.class)
 public class GenerateACRequest {
 
-    @JsonProperty("Pan")
-    public String pan;
-    @JsonProperty("PanSequenceNumber")
-    public String panSequenceNumber;
-    @JsonProperty("IssuerMasterKey")
-    public String issuerMasterKey;
-    @JsonProperty("AmountAuthorised")
-    public String amountAuthorised;
-    @JsonProperty("AmountOther")
-    public String amountOther;
-    @JsonProperty("TerminalCountryCode")
-    public String terminalCountryCode;
-    @JsonProperty("TerminalVerificationResults")
-    public String terminalVerificationResults;
-    @JsonProperty("TransactionCurrencyCode")
-    public String transactionCurrencyCode;
-    @JsonProperty("TransactionDate")
-    public String transactionDate;
-    @JsonProperty("TransactionType")
-    public String transactionType;
-    @JsonProperty("UnpredictableNumber")
-    public String unpredictableNumber;
-    @JsonProperty("ApplicationInterchangeProfile")
-    public String applicationInterchangeProfile;
-    @JsonProperty("ApplicationTransactionCounter")
-    public String applicationTransactionCounter;
-    @JsonProperty("IssuerApplicationData")
-    public String issuerApplicationData;
+    @JsonProperty("IssuerKeyId")
+    public String issuerKeyId;
+    // Optional, echoed in batch responses to correlate results with requests
+    @JsonProperty("CorrelationId")
+    public String correlationId;
+    // Hexadecimal and BCD attributes decoded by the deserializer, never serialized as the record may hold the IMK
+    @JsonIgnore
+    public final CryptogramRequestRecord requestRecord = new CryptogramRequestRecord();
 
 }
@@ -1,12 +1,16 @@
 package com.bc.model.dto;
 
+import com.bc.model.json.GenerateACResponseSerializer;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 /**
  * DTO class defining REST API attributes for Application Cryptogram generation response payload.
+ * The payload is written by the streaming {@link GenerateACResponseSerializer}, which must be updated with the fields.
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonSerialize(using = GenerateACResponseSerializer.class)
 public class GenerateACResponse {
     @JsonProperty("ARQC")
     public String applicationCryptogram;
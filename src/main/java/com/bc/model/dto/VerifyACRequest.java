@@ -0,0 +1,22 @@
+package com.bc.model.dto;
+
+import com.bc.model.constraint.HexadecimalString;
+import com.bc.model.json.VerifyACRequestDeserializer;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.constraints.NotEmpty;
+/**
+ * DTO class defining REST API attributes for Application Cryptogram verification request payload, i.e., the
+ * Application Cryptogram generation request attributes and the received Application Cryptogram.
+ * The payload is bound by the streaming {@link VerifyACRequestDeserializer}, which must be updated with the fields.
+ */
+@JsonDeserialize(using = VerifyACRequestDeserializer.class)
+public class VerifyACRequest
+        extends GenerateACRequest {
+
+    @NotEmpty(message = "ARQC is mandatory.")
+    @HexadecimalString(min = 16, max = 16, message = "ARQC must be 16 hexadecimal digits.")
+    @JsonProperty("ARQC")
+    public String applicationCryptogram;
+
+}
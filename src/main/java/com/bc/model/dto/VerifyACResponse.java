@@ -0,0 +1,18 @@
+package com.bc.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO class defining REST API attributes for Application Cryptogram verification response payload.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VerifyACResponse {
+    @JsonProperty("Verified")
+    public boolean verified;
+    @JsonProperty("ReasonCode")
+    public String reasonCode;
+    @JsonProperty("ARPC")
+    public String applicationResponseCryptogram;
+
+}
@@ -0,0 +1,162 @@
+package com.bc.model.json;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.model.dto.GenerateACRequest;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streaming JSON deserializer binding a GenerateACRequest field by field from the parser tokens, without the
+ * reflective bean deserializer:
+ * - The hexadecimal and BCD fields are decoded straight from the parser buffer into the fixed layout request record,
+ *   see {@link CryptogramRequestRecord}, so the transaction data and key derivation inputs are copied from the record
+ *   rather than decoded again per request. A field that fails to decode is marked invalid in the record, and is
+ *   reported by the request command as a constraint violation named after the field.
+ * - The other fields are bound as text. Scalar values are bound as text, e.g., a numeric AmountAuthorised, and null
+ *   values leave the field absent.
+ * - Object and array values are rejected with a mismatched input error.
+ * - Unknown fields are skipped, or rejected when FAIL_ON_UNKNOWN_PROPERTIES is enabled.
+ */
+public class GenerateACRequestDeserializer
+        extends StdDeserializer<GenerateACRequest> {
+    // Constants
+    private static final Map<String, CryptogramRequestField> RECORD_FIELDS = Map.ofEntries(
+            Map.entry("Pan", CryptogramRequestField.PAN),
+            Map.entry("PanSequenceNumber", CryptogramRequestField.PAN_SEQUENCE_NUMBER),
+            Map.entry("IssuerMasterKey", CryptogramRequestField.ISSUER_MASTER_KEY),
+            Map.entry("AmountAuthorised", CryptogramRequestField.AMOUNT_AUTHORISED),
+            Map.entry("AmountOther", CryptogramRequestField.AMOUNT_OTHER),
+            Map.entry("TerminalCountryCode", CryptogramRequestField.TERMINAL_COUNTRY_CODE),
+            Map.entry("TerminalVerificationResults", CryptogramRequestField.TERMINAL_VERIFICATION_RESULTS),
+            Map.entry("TransactionCurrencyCode", CryptogramRequestField.TRANSACTION_CURRENCY_CODE),
+            Map.entry("TransactionDate", CryptogramRequestField.TRANSACTION_DATE),
+            Map.entry("TransactionType", CryptogramRequestField.TRANSACTION_TYPE),
+            Map.entry("UnpredictableNumber", CryptogramRequestField.UNPREDICTABLE_NUMBER),
+            Map.entry("ApplicationInterchangeProfile", CryptogramRequestField.APPLICATION_INTERCHANGE_PROFILE),
+            Map.entry("ApplicationTransactionCounter", CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER),
+            Map.entry("IssuerApplicationData", CryptogramRequestField.ISSUER_APPLICATION_DATA),
+            Map.entry("AuthorisationResponseCode", CryptogramRequestField.AUTHORISATION_RESPONSE_CODE),
+            Map.entry("CardStatusUpdate", CryptogramRequestField.CARD_STATUS_UPDATE),
+            Map.entry("ProprietaryAuthenticationData", CryptogramRequestField.PROPRIETARY_AUTHENTICATION_DATA)
+    );
+    /**
+     * Constructor
+     */
+    public GenerateACRequestDeserializer() {
+        super(GenerateACRequest.class);
+    }
+    /**
+     * Constructor for deserializers of request payloads extending GenerateACRequest.
+     * @param requestClass Request payload class.
+     */
+    protected GenerateACRequestDeserializer(Class<? extends GenerateACRequest> requestClass) {
+        super(requestClass);
+    }
+    /**
+     * Deserialize a GenerateACRequest JSON object.
+     * @param parser Parser positioned on the start of the object.
+     * @param context Deserialization context.
+     * @return Bound request.
+     * @throws IOException When the JSON is malformed or a field value is not a scalar.
+     */
+    @Override
+    public GenerateACRequest deserialize(JsonParser parser,
+                                         DeserializationContext context) throws IOException {
+        return deserializeFields(parser, context, new GenerateACRequest());
+    }
+    /**
+     * Bind the fields of a JSON object to the request.
+     * @param parser Parser positioned on the start of the object.
+     * @param context Deserialization context.
+     * @param request Request to bind the fields to.
+     * @return Bound request.
+     * @throws IOException When the JSON is malformed or a field value is not a scalar.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T extends GenerateACRequest> T deserializeFields(JsonParser parser,
+                                                                DeserializationContext context,
+                                                                T request) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME) {
+            return (T) context.handleUnexpectedToken(handledType(), parser);
+        }
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            if (!bindField(parser, context, request, fieldName)) {
+                handleUnknownProperty(parser, context, request, fieldName);
+            }
+        }
+        return request;
+    }
+    /**
+     * Bind a field value to the request, decoding the hexadecimal and BCD fields into the request record.
+     * @param parser Parser positioned on the field value.
+     * @param context Deserialization context.
+     * @param generateACRequest Request to bind the field to.
+     * @param fieldName Field name.
+     * @return False when the field is unknown.
+     * @throws IOException When the field value is not a scalar.
+     */
+    protected boolean bindField(JsonParser parser,
+                                DeserializationContext context,
+                                GenerateACRequest generateACRequest,
+                                String fieldName) throws IOException {
+        switch (fieldName) {
+            case "IssuerKeyId":
+                generateACRequest.issuerKeyId = readText(parser, context);
+                return true;
+            case "CorrelationId":
+                generateACRequest.correlationId = readText(parser, context);
+                return true;
+            default:
+                CryptogramRequestField field = RECORD_FIELDS.get(fieldName);
+                if (field == null) {
+                    return false;
+                }
+                bindRecordField(parser, context, generateACRequest.requestRecord, field);
+                return true;
+        }
+    }
+    /**
+     * Decode a field value into the request record, from the parser buffer for string values.
+     */
+    private static void bindRecordField(JsonParser parser,
+                                        DeserializationContext context,
+                                        CryptogramRequestRecord requestRecord,
+                                        CryptogramRequestField field) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            requestRecord.put(field,
+                    parser.getTextCharacters(),
+                    parser.getTextOffset(),
+                    parser.getTextLength()
+            );
+        } else {
+            requestRecord.put(field, readText(parser, context));
+        }
+    }
+    /**
+     * Read a scalar field value as text.
+     */
+    protected static String readText(JsonParser parser,
+                                   DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getValueAsString();
+        }
+        return (String) context.handleUnexpectedToken(String.class, parser);
+    }
+}
@@ -0,0 +1,41 @@
+package com.bc.model.json;
+
+import com.bc.model.dto.GenerateACResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * Streaming JSON serializer writing a GenerateACResponse field by field, without the reflective bean serializer.
+ * Null fields are omitted, as with the NON_NULL inclusion of the response.
+ */
+public class GenerateACResponseSerializer
+        extends StdSerializer<GenerateACResponse> {
+    /**
+     * Constructor
+     */
+    public GenerateACResponseSerializer() {
+        super(GenerateACResponse.class);
+    }
+    /**
+     * Serialize a GenerateACResponse as a JSON object.
+     * @param generateACResponse Response to serialize.
+     * @param generator JSON generator.
+     * @param provider Serializer provider.
+     * @throws IOException When the JSON cannot be written.
+     */
+    @Override
+    public void serialize(GenerateACResponse generateACResponse,
+                          JsonGenerator generator,
+                          SerializerProvider provider) throws IOException {
+        generator.writeStartObject(generateACResponse);
+        if (generateACResponse.applicationCryptogram != null) {
+            generator.writeStringField("ARQC", generateACResponse.applicationCryptogram);
+        }
+        if (generateACResponse.applicationResponseCryptogram != null) {
+            generator.writeStringField("ARPC", generateACResponse.applicationResponseCryptogram);
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,47 @@
+package com.bc.model.json;
+
+import com.bc.model.dto.GenerateACRequest;
+import com.bc.model.dto.VerifyACRequest;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import java.io.IOException;
+
+/**
+ * Streaming JSON deserializer binding a VerifyACRequest, i.e., the GenerateACRequest fields bound as by
+ * {@link GenerateACRequestDeserializer} and the received ARQC.
+ */
+public class VerifyACRequestDeserializer
+        extends GenerateACRequestDeserializer {
+    /**
+     * Constructor
+     */
+    public VerifyACRequestDeserializer() {
+        super(VerifyACRequest.class);
+    }
+    /**
+     * Deserialize a VerifyACRequest JSON object.
+     * @param parser Parser positioned on the start of the object.
+     * @param context Deserialization context.
+     * @return Bound request.
+     * @throws IOException When the JSON is malformed or a field value is not a scalar.
+     */
+    @Override
+    public VerifyACRequest deserialize(JsonParser parser,
+                                       DeserializationContext context) throws IOException {
+        return deserializeFields(parser, context, new VerifyACRequest());
+    }
+    /**
+     * Bind a field value to the request, the ARQC or a GenerateACRequest field.
+     */
+    @Override
+    protected boolean bindField(JsonParser parser,
+                                DeserializationContext context,
+                                GenerateACRequest generateACRequest,
+                                String fieldName) throws IOException {
+        if ("ARQC".equals(fieldName)) {
+            ((VerifyACRequest) generateACRequest).applicationCryptogram = readText(parser, context);
+            return true;
+        }
+        return super.bindField(parser, context, generateACRequest, fieldName);
+    }
+}
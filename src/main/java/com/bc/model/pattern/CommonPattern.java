@@ -14,6 +14,8 @@ public class CommonPattern {
     public static final String IS_A_1_OR_2_DIGIT_DECIMAL_NUMBER = "^[\\d]{1,2}$";
     // 1 or 12 Digit decimal number
     public static final String IS_A_1_TO_12_DIGIT_DECIMAL_NUMBER = "^[\\d]{1,12}$";
+    // Issuer BIN, 6 to 11 Digit decimal number
+    public static final String IS_A_VALID_BIN = "^[\\d]{6,11}$";
     // Hexadecimal numbers
     // 10 Digit hexadecimal number
     public static final String IS_A_10_DIGIT_HEXADECIMAL_NUMBER = "^[\\da-fA-F]{10}$";
@@ -33,6 +35,8 @@ public class CommonPattern {
     public static final String IS_VALID_IAD_FORMAT = "^[\\da-fA-F]{14}(?:[\\da-fA-F]{2}){0,25}$";
     // Visa IAD starting character, i.e., must begin with "06" or "1F".
     public static final String CONTAINS_VALID_VISA_IAD_START_BYTE = "^(06|1F|1f).*";
+    // Key identifier, 1 to 64 letters, digits, hyphens, underscores or periods
+    public static final String IS_A_VALID_KEY_ID = "^[\\w.-]{1,64}$";
     // Date Pattern
     // ISO Date - YYYY-MM-DD format
     public static final String IS_VALID_ISO_DATE_YYYY_MM_DD = "^(\\d{4})-(0[1-9]|1[0-2])-(0[1-9]|[12]\\d|3[01])$";
@@ -1,319 +1,343 @@
 package com.bc.utilities;
 
 import com.bc.application.domain.CryptogramRequest;
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.domain.CryptogramResponse;
+import com.bc.application.domain.CryptogramVerificationResponse;
+import com.bc.application.enumeration.ARPCMethod;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.CryptogramVerificationResult;
 import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.ISOIEC97971PaddingMethod;
 import com.bc.application.enumeration.PaymentScheme;
 import lombok.extern.slf4j.Slf4j;
-import java.util.ArrayList;
-import java.util.List;
+import java.security.MessageDigest;
+import java.util.Arrays;
 
 /**
  * Class defining methods for generating Payment Scheme specific Application Cryptogram (ARQC) and Response Cryptogram (ARPC).
- * Note: ARPC derivation implementation is pending.
+ * The ARPC is generated with the Session Key and the MAC engine prepared for the ARQC of the same request, so a request
+ * with an ARPC costs no further key derivation or key preparation.
+ * Note: The Session Key is passed as raw key bytes owned by the caller, who zeroizes it once the cryptogram is done.
  */
 @Slf4j
 public abstract class AbstractApplicationCryptogramGenerator
         implements LoggerUtility {
+    // Constants
+    private static final int ARPC_METHOD_2_LENGTH = 4;
+    private static final int MAXIMUM_IDLE_TRANSACTION_DATA_ASSEMBLERS = 2 * Runtime.getRuntime().availableProcessors();
+    // Transaction data buffers shared by all threads, reused by the cryptogram computations
+    private static final BoundedPool<TransactionDataAssembler> TRANSACTION_DATA_ASSEMBLERS =
+            new BoundedPool<>(MAXIMUM_IDLE_TRANSACTION_DATA_ASSEMBLERS,
+                    TransactionDataAssembler::new,
+                    TransactionDataAssembler::clear
+            );
     /**
      * Driver method for generating Application Cryptogram based on Cryptogram Version Number (CVN),
-     * based on Payment Scheme and will call CVN specific methods to generate the Application Cryptogram.
-     * @return Application Cryptogram (ARQC).
+     * based on Payment Scheme and will call CVN specific methods to generate the Application Cryptogram. The Response
+     * Cryptogram is generated as well when the request holds ARPC data, see generateArpc.
+     * @return Cryptogram response holding the Application Cryptogram (ARQC), and the Response Cryptogram (ARPC) or null.
      */
-    public String generateApplicationCryptogram(CryptogramRequest cryptogramRequest,
-                                                          String sessionKey,
-                                                          CryptogramVersionNumber cryptogramVersionNumber,
-                                                          String cardVerificationResults,
-                                                          PaymentScheme paymentScheme){
-        // Build Application Cryptogram transaction data
-        String transactionData = buildTransactionData(cryptogramRequest,
-                cryptogramVersionNumber,
-                cardVerificationResults
-        );
-        logDebug(log,
-                "{} Cryptogram Transaction data generated: {}",
-                paymentScheme.toString(),
-                transactionData
+    public CryptogramResponse generateApplicationCryptogram(CryptogramRequest cryptogramRequest,
+                                                            byte [] sessionKey,
+                                                            CryptogramVersionNumber cryptogramVersionNumber,
+                                                            String cardVerificationResults,
+                                                            PaymentScheme paymentScheme){
+        // Generate the ARQC using the ISO 9797-1 padding method based on CVN
+        ISOIEC97971PaddingMethod paddingMethod = getIsoPaddingMethod(cryptogramVersionNumber);
+        ISOIEC97971MacAlgorithm3 mac = new ISOIEC97971MacAlgorithm3(sessionKey,
+                paddingMethod
         );
-        // PAD transaction data based on CVN
-        transactionData = isoPadTransactionData(transactionData,
-                cryptogramVersionNumber
+        TransactionDataAssembler transactionData = TRANSACTION_DATA_ASSEMBLERS.borrow();
+        try {
+            // Build Application Cryptogram transaction data
+            buildTransactionData(transactionData,
+                    cryptogramRequest,
+                    sessionKey,
+                    cryptogramVersionNumber,
+                    cardVerificationResults
+            );
+            logDebug(log,
+                    "{} Cryptogram Transaction data generated: {}",
+                    paymentScheme.toString(),
+                    transactionData
+            );
+            logDebug(log,
+                    "{} transaction data to be padded using ISO 97971 padding: {}",
+                    paymentScheme.toString(),
+                    paddingMethod);
+            byte [] applicationCryptogram = computeArqc(mac, transactionData);
+            CryptogramResponse cryptogramResponse = new CryptogramResponse();
+            cryptogramResponse.setRequestCryptogram(generateArqc(applicationCryptogram));
+            cryptogramResponse.setResponseCryptogram(generateArpc(cryptogramRequest,
+                    sessionKey,
+                    mac,
+                    applicationCryptogram
+            ));
+            return cryptogramResponse;
+        } finally {
+            mac.clear();
+            TRANSACTION_DATA_ASSEMBLERS.release(transactionData);
+        }
+    }
+
+    /**
+     * Driver method for verifying a received Application Cryptogram, generating the expected cryptogram as
+     * generateApplicationCryptogram and comparing it in constant time, without encoding it. When the cryptogram is
+     * verified and the request holds ARPC data, the Response Cryptogram is generated over the received cryptogram.
+     * @return Verification response holding the verification result, and the Response Cryptogram (ARPC) or null.
+     */
+    public CryptogramVerificationResponse verifyApplicationCryptogram(CryptogramRequest cryptogramRequest,
+                                                                      byte [] sessionKey,
+                                                                      CryptogramVersionNumber cryptogramVersionNumber,
+                                                                      String cardVerificationResults,
+                                                                      PaymentScheme paymentScheme,
+                                                                      byte[] applicationCryptogram){
+        ISOIEC97971MacAlgorithm3 mac = new ISOIEC97971MacAlgorithm3(sessionKey,
+                getIsoPaddingMethod(cryptogramVersionNumber)
         );
-        logDebug(log,
-                "{} transaction data with ISO 97971 padding: {}",
-                paymentScheme.toString(),
-                transactionData);
-        return generateArqc(transactionData, sessionKey);
+        TransactionDataAssembler transactionData = TRANSACTION_DATA_ASSEMBLERS.borrow();
+        try {
+            buildTransactionData(transactionData,
+                    cryptogramRequest,
+                    sessionKey,
+                    cryptogramVersionNumber,
+                    cardVerificationResults
+            );
+            byte [] expectedApplicationCryptogram = computeArqc(mac, transactionData);
+            boolean verified = MessageDigest.isEqual(expectedApplicationCryptogram, applicationCryptogram);
+            Arrays.fill(expectedApplicationCryptogram, (byte) 0);
+            logDebug(log,
+                    "{} ARQC verified: {}.",
+                    paymentScheme,
+                    verified
+            );
+            if (!verified) {
+                return new CryptogramVerificationResponse(CryptogramVerificationResult.ARQC_MISMATCH);
+            }
+            CryptogramVerificationResponse verificationResponse =
+                    new CryptogramVerificationResponse(CryptogramVerificationResult.VERIFIED);
+            verificationResponse.setResponseCryptogram(generateArpc(cryptogramRequest,
+                    sessionKey,
+                    mac,
+                    applicationCryptogram
+            ));
+            return verificationResponse;
+        } finally {
+            mac.clear();
+            TRANSACTION_DATA_ASSEMBLERS.release(transactionData);
+        }
     }
 
     /**
-     * Perform transaction data padding based on ISO 97971 padding method based on payment scheme.
-     * or Method2 padding.
+     * Determine the ISO 97971 padding method (Method1 or Method2 padding) to be applied to the transaction data based
+     * on payment scheme and Cryptogram Version Number.
      *
      * @param cryptogramVersionNumber Cryptogram Version Number.
-     * @param transactionData         Transaction data to be padded.
-     * @return Padded transaction data.
+     * @return ISO 97971 padding method.
      */
-    protected String isoPadTransactionData(String transactionData,
-                                                   CryptogramVersionNumber cryptogramVersionNumber){
+    protected ISOIEC97971PaddingMethod getIsoPaddingMethod(CryptogramVersionNumber cryptogramVersionNumber){
         throw new UnsupportedOperationException(this.getClass().getName() + " --> Subclass must override and implement " +
-                "the method \"appendFinalDataElementToTransactionData\" before use."
+                "the method \"getIsoPaddingMethod\" before use."
         );
     }
     /**
-     * Generate Payment Scheme specific transaction data for Application Cryptogram generation.
+     * Generate Payment Scheme specific transaction data for Application Cryptogram generation, packed into a transaction
+     * data buffer borrowed from the shared pool.
+     * @param transactionData Transaction data buffer, reset before the data is packed.
      * @param cryptogramRequest Application cryptogram generation request received.
+     * @param sessionKey Session Key of the Application Cryptogram.
      * @param cryptogramVersionNumber Cryptogram Version Number.
      * @param cardVerificationResults Card Verification Results.
-     * @return Formatted Payment Scheme specific transaction data generation for generating Application Cryptogram.
      */
-    private String buildTransactionData(CryptogramRequest cryptogramRequest,
-                                                  CryptogramVersionNumber cryptogramVersionNumber,
-                                                  String cardVerificationResults){
-        StringBuilder transactionDataBuilder = new StringBuilder();
-        // Pad and build transaction data
-        //  1. Amount authorised                - Length: 12 characters
-        transactionDataBuilder.append(getAndFormatAmount(cryptogramRequest.getAmountAuthorised()));
-        //  2. Amount Other                     - Length: 12 characters
-        transactionDataBuilder.append(getAndFormatAmount(cryptogramRequest.getAmountOther()));
-        //  3. Terminal Country Code            - Length: 4 characters
-        transactionDataBuilder.append(getAndFormatCountryCode(cryptogramRequest.getTerminalCountryCode()));
-        //  4. Terminal Verification Results    - Length: 10 characters
-        transactionDataBuilder.append(cryptogramRequest.getTerminalVerificationResults());
-        //  5. Transaction Currency Code        - Length: 4 characters
-        transactionDataBuilder.append(getAndFormatCurrencyCode(cryptogramRequest.getTransactionCurrencyCode()));
-        //  6. Transaction Date (YYMMDD format) - Length: 6 characters
-        transactionDataBuilder.append(getAndFormatTransactionDateToYYMMDD(cryptogramRequest.getTransactionDate()));
-        //  7. Transaction Type                 - Length: 2 characters
-        transactionDataBuilder.append(cryptogramRequest.getTransactionType());
-        //  8. Unpredictable Number             - Length: 8 characters
-        transactionDataBuilder.append(cryptogramRequest.getUnpredictableNumber());
-        //  9. Application Interchange Profile  - Length: 4 characters
-        transactionDataBuilder.append(cryptogramRequest.getApplicationInterchangeProfile());
-        // 10. Application Transaction Counter  - Length: 4 characters
-        transactionDataBuilder.append(getAndFormatApplicationTransactionCounter(cryptogramRequest.getApplicationTransactionCounter()));
-        // 11. CVR  or IAD (Based on Payment Scheme and CVN) - Length 8 or 12 characters for CVR,
-        // or Length between 14 and 64 characters for IAD
-        return appendFinalDataElementToTransactionData(transactionDataBuilder,
+    private void buildTransactionData(TransactionDataAssembler transactionData,
+                                      CryptogramRequest cryptogramRequest,
+                                      byte [] sessionKey,
+                                      CryptogramVersionNumber cryptogramVersionNumber,
+                                      String cardVerificationResults){
+        transactionData.reset();
+        CryptogramRequestRecord requestRecord = cryptogramRequest.getRequestRecord();
+        // Copy the transaction data elements, laid out in transaction data order at the start of the request record
+        //  1. Amount authorised                - Length: 6 bytes BCD
+        //  2. Amount Other                     - Length: 6 bytes BCD
+        //  3. Terminal Country Code            - Length: 2 bytes BCD
+        //  4. Terminal Verification Results    - Length: 5 bytes
+        //  5. Transaction Currency Code        - Length: 2 bytes BCD
+        //  6. Transaction Date (YYMMDD format) - Length: 3 bytes BCD
+        //  7. Transaction Type                 - Length: 1 byte
+        //  8. Unpredictable Number             - Length: 4 bytes
+        //  9. Application Interchange Profile  - Length: 2 bytes
+        // 10. Application Transaction Counter  - Length: 2 bytes
+        transactionData.append(requestRecord.getData(),
+                0,
+                CryptogramRequestField.TRANSACTION_DATA_LENGTH
+        );
+        // 11. CVR  or IAD (Based on Payment Scheme and CVN) - Length 4 or 6 bytes for CVR,
+        // or Length between 7 and 32 bytes for IAD, followed by 8 or 16 bytes of offline counters for Mastercard CVN17
+        // and CVN21
+        appendFinalDataElementToTransactionData(transactionData,
+                sessionKey,
                 cryptogramVersionNumber,
                 cardVerificationResults,
-                cryptogramRequest.getIssuerApplicationData()).toString();
+                requestRecord);
     }
     /**
-     * Pad transaction data for Application Cryptogram generation based on payment scheme.
-     * @param transactionDataBuilder Transaction data for cryptogram generation.
+     * Append the Payment Scheme specific final data element to the transaction data for Application Cryptogram
+     * generation.
+     * @param transactionData Transaction data for cryptogram generation.
+     * @param sessionKey Session Key of the Application Cryptogram, e.g., to decrypt encrypted Issuer Application Data
+     *                   elements.
      * @param cryptogramVersionNumber Cryptogram Version Number from Issuer Application Data.
      * @param cardVerificationResults Card Verification Results from Issuer Application Data.
-     * @param issuerApplicationData Issuer Application Data.
-     * @return Padded transaction data for Application Cryptogram generation.
+     * @param requestRecord Request record holding the Issuer Application Data.
      */
-    protected StringBuilder appendFinalDataElementToTransactionData(StringBuilder transactionDataBuilder,
-                                                                   CryptogramVersionNumber cryptogramVersionNumber,
-                                                                   String cardVerificationResults,
-                                                                   String issuerApplicationData){
+    protected void appendFinalDataElementToTransactionData(TransactionDataAssembler transactionData,
+                                                           byte [] sessionKey,
+                                                           CryptogramVersionNumber cryptogramVersionNumber,
+                                                           String cardVerificationResults,
+                                                           CryptogramRequestRecord requestRecord){
         throw new UnsupportedOperationException(this.getClass().getName() + " --> Subclass must override and implement " +
                 "the method \"appendFinalDataElementToTransactionData\" before use."
         );
     }
     /**
-     * Format amount and ensure that they are 12 characters long.
-     * @param amount Amount Authorised or Amount Other values received from input.
-     * @return Left padded amount with 12 character length.
-     */
-    private String getAndFormatAmount(String amount){
-        return Padding.padString(amount,
-                "0",
-                12,
-                true
-        );
-    }
-    /**
-     * Format country code and ensure that it is 4 characters long.
-     * @param countryCode Terminal country code value received from input.
-     * @return Left padded country code with 4 character length.
+     * Encode the Application Cryptogram computed by computeArqc to hexadecimal digits.
+     * @param applicationCryptogram Application Cryptogram bytes.
+     * @return Generated Application Cryptogram.
      */
-    private String getAndFormatCountryCode(String countryCode){
-        return Padding.padString(countryCode,
-                "0",
-                4,
-                true
+    private String generateArqc(byte [] applicationCryptogram) {
+        String encodedApplicationCryptogram = HexCodec.encode(applicationCryptogram);
+        logDebug(log,
+                "ARQC generated: {}.",
+                encodedApplicationCryptogram
         );
+        return encodedApplicationCryptogram;
     }
     /**
-     * Format currency code and ensure that it is 4 characters long.
-     * @param currencyCode Transaction currency code value received from input.
-     * @return Left padded currency code with 4 character length.
+     * Compute the Application Cryptogram using ISO/IEC 9797-1 MAC Algorithm 3 over the transaction data, i.e., single
+     * DES CBC encryption of the 8 byte blocks under Session Key A, followed by decryption under Session Key B and
+     * encryption under Session Key A of the final block.
+     * The padding is applied in place by the MAC engine.
+     * @param mac MAC engine prepared with the Session Key and the CVN specific padding method.
+     * @param transactionData Transaction data built based on CVN.
+     * @return Application Cryptogram bytes.
      */
-    private String getAndFormatCurrencyCode(String currencyCode){
-        return Padding.padString(currencyCode,
-                "0",
-                4,
-                true
+    private byte [] computeArqc(ISOIEC97971MacAlgorithm3 mac,
+                                TransactionDataAssembler transactionData) {
+        mac.update(transactionData.getData(),
+                0,
+                transactionData.getLength()
         );
+        return mac.doFinal();
     }
     /**
-     * Format transaction date from ISO Format (YYYY-MM-DD) to YYMMDD format.
-     * @param transactionDate Transaction date value received from input.
-     * @return Transaction date in YYMMDD format.
+     * Generate the Authorisation Response Cryptogram (ARPC) with the ARPC method selected by the request data:
+     * - Method 1, when the Authorisation Response Code (ARC) is provided: ARQC Xor (ARC || '00' padding) encrypted under
+     *   the double length Session Key, 8 bytes.
+     * - Method 2, when the Card Status Update (CSU) is provided: MAC Algorithm 3 with padding Method 2 over the ARQC, CSU
+     *   and optional Proprietary Authentication Data under the Session Key, leftmost 4 bytes.
+     * @param cryptogramRequest Application cryptogram generation request received.
+     * @param sessionKey Session Key of the ARQC.
+     * @param mac MAC engine prepared with the Session Key for the ARQC.
+     * @param applicationCryptogram Application Cryptogram the response is computed over.
+     * @return Generated Response Cryptogram, or null when the request holds no ARPC data.
      */
-    private String getAndFormatTransactionDateToYYMMDD(String transactionDate){
-        // Parse the YYYY-MM-DD date to YYMMDD format date
-        return (transactionDate.substring(2, 4) +  // Extract 2 Year
-                transactionDate.substring(5, 7) + // Extract Month
-                transactionDate.substring(8, 10) // Extract Date
+    private String generateArpc(CryptogramRequest cryptogramRequest,
+                                byte [] sessionKey,
+                                ISOIEC97971MacAlgorithm3 mac,
+                                byte [] applicationCryptogram) {
+        CryptogramRequestRecord requestRecord = cryptogramRequest.getRequestRecord();
+        ARPCMethod arpcMethod = getArpcMethod(requestRecord);
+        if (arpcMethod == null) {
+            return null;
+        }
+        byte [] responseCryptogram = arpcMethod.isMETHOD_1() ?
+                computeArpcMethod1(sessionKey,
+                        applicationCryptogram,
+                        requestRecord
+                ) :
+                computeArpcMethod2(mac,
+                        applicationCryptogram,
+                        requestRecord
+                );
+        String encodedResponseCryptogram = HexCodec.encode(responseCryptogram);
+        logDebug(log,
+                "ARPC generated using {}: {}.",
+                arpcMethod,
+                encodedResponseCryptogram
         );
+        return encodedResponseCryptogram;
     }
     /**
-     * Format Application Transaction Counter (ATC) and ensure that it is 4 characters long.
-     * @param applicationTransactionCounter ATC value received from input.
-     * @return Left padded ATC with 4 character length.
+     * Determine the ARPC method from the request data, see generateArpc.
+     * @param requestRecord Request record of the application cryptogram generation request received.
+     * @return ARPC method, or null when the request holds no ARPC data.
      */
-    private String getAndFormatApplicationTransactionCounter(String applicationTransactionCounter){
-        return Padding.padString(applicationTransactionCounter,
-                "0",
-                4,
-                true
-        );
+    private ARPCMethod getArpcMethod(CryptogramRequestRecord requestRecord) {
+        if (requestRecord.isPresent(CryptogramRequestField.CARD_STATUS_UPDATE)) {
+            return ARPCMethod.METHOD_2;
+        }
+        if (requestRecord.isPresent(CryptogramRequestField.AUTHORISATION_RESPONSE_CODE)) {
+            return ARPCMethod.METHOD_1;
+        }
+        return null;
     }
     /**
-     * Generate Application Cryptogram by segmenting the formatted transaction data into 8 byte blocks or 16 hexadecimal characters each.
-     * @param formattedTransactionData Transaction data padded and formatted based on CVN.
-     * @param sessionKey Session Key to be used in Application Cryptogram generation.
-     * @return Generated Application Cryptogram.
+     * Compute an ARPC Method 1, see generateArpc.
      */
-    private String generateArqc(String formattedTransactionData,
-                                String sessionKey) {
-//        List<String> splitArqcData = splitTransactionData(formattedTransactionData);
-        String sessionKeyA = sessionKey
-                .substring(0,
-                        16
-                );
-        String sessionKeyB = sessionKey
-                .substring(16,
-                        32
-                );
-        String encryptedData = encryptArqcData(formattedTransactionData,
-                "0".repeat(16),
-                sessionKeyA,
-                0);
-        logDebug(log, "==========> Last encrypted block returned: {}.", encryptedData);
-//        int loopCounter = 0;
-//        String encryptedData = null;
-//        for (String arqcData : splitArqcData) {
-//            // Skip XOR operation for first segment of ARQC data.
-//            if (loopCounter == 0) {
-//                encryptedData = tripleDESEncrypt(arqcData,
-//                        sessionKeyA
-//                );
-//            } else { // Perform XOR operation with previously encrypted data segment for all remaining segments, prior to doing encryption.
-//                encryptedData = performXor(encryptedData,
-//                        arqcData
-//                );
-//                encryptedData = tripleDESEncrypt(encryptedData,
-//                        sessionKeyA
-//                );
-//            }
-//            loopCounter += 1;
-//        }
-        // All data segments have been processed, now decrypt the encryptedData using sessionKeyB
-        encryptedData = tripleDESDecrypt(encryptedData,
-                sessionKeyB
+    private byte [] computeArpcMethod1(byte [] sessionKey,
+                                       byte [] applicationCryptogram,
+                                       CryptogramRequestRecord requestRecord) {
+        // ARC left aligned and padded with '00' bytes to a block
+        byte [] responseCryptogram = new byte[TripleDES.TDEA_BLOCK_SIZE];
+        System.arraycopy(requestRecord.getData(),
+                CryptogramRequestField.AUTHORISATION_RESPONSE_CODE.getOffset(),
+                responseCryptogram,
+                0,
+                CryptogramRequestField.AUTHORISATION_RESPONSE_CODE.getLength()
         );
-        // Encrypt the SessionKeyB decrypted data using SessionKeyA to generate the ARQC.
-        encryptedData = tripleDESEncrypt(encryptedData,
-                sessionKeyA
+        Xor.xor(responseCryptogram,
+                0,
+                applicationCryptogram,
+                0,
+                responseCryptogram,
+                0,
+                TripleDES.TDEA_BLOCK_SIZE
         );
-        logInfo(log,
-                "ARQC generated: {}.",
-                encryptedData
+        TripleDES.encryptBlock(sessionKey,
+                responseCryptogram,
+                0,
+                responseCryptogram,
+                0
         );
-        return encryptedData;
+        return responseCryptogram;
     }
     /**
-     * Recursive processing for ARQC data blocks for encryption using Session Key A
-     * @param arqcData Arqc data to be encrypted.
-     * @param lastEncryptedBlock Last encrypted block, initially set to "0000000000000000" by caller.
-     * @param sessionKeyA Session Key A.
-     * @param startOffset Starting offset for arqc data block extraction, initially set to 0 by caller.
-     * @return
+     * Compute an ARPC Method 2 with the MAC engine prepared for the ARQC, see generateArpc.
      */
-    private String encryptArqcData(String arqcData, String lastEncryptedBlock, String sessionKeyA, int startOffset) {
-        if (startOffset < arqcData.length()) {
-            String blockToEncrypt = splitTransactionData(arqcData, startOffset);
-            startOffset += 16;
-            blockToEncrypt = performXor(lastEncryptedBlock,
-                    blockToEncrypt
-            );
-            lastEncryptedBlock = tripleDESEncrypt(blockToEncrypt,
-                    sessionKeyA
-            );
-            lastEncryptedBlock = encryptArqcData(arqcData, lastEncryptedBlock, sessionKeyA, startOffset);
-        }
-        return lastEncryptedBlock;
-    }
-    /**
-     * Split transaction data into 8 byte blocks/16 hexadecimal characters each.
-     * @param formattedTransactionData ISO/IEC-9797 formatted transaction data.
-     * @return Transaction data split into 8 byte blocks/16 hexadecimal characters.
-     */
-    private String splitTransactionData(String formattedTransactionData, int startOffset) {
-        logDebug(log, "startOffset: {}, Substring: {}.", startOffset, formattedTransactionData.substring(startOffset, startOffset + 16));
-        return formattedTransactionData.substring(startOffset, startOffset + 16);
-    }
-    private List<String> splitTransactionData(String formattedTransactionData){
-        List<String> splitTransactionData = new ArrayList<>();
-        int stringLength = formattedTransactionData.length();
-        int parsedData = 0;
-        do {
-            splitTransactionData.add(formattedTransactionData
-                    .substring(parsedData,
-                            parsedData + 16
-                    )
-            );
-            parsedData = parsedData + 16;
-        } while(parsedData < stringLength);
-        logDebug(log,
-                "Split transaction data: {}.",
-                splitTransactionData
+    private byte [] computeArpcMethod2(ISOIEC97971MacAlgorithm3 mac,
+                                       byte [] applicationCryptogram,
+                                       CryptogramRequestRecord requestRecord) {
+        mac.update(applicationCryptogram,
+                0,
+                applicationCryptogram.length
         );
-        return splitTransactionData;
-    }
-    /**
-     * Perform Triple DES Encryption.
-     * @param inputData Input data to be encrypted.
-     * @param inputKey Triple DES Key to encrypt the data.
-     * @return Encrypted data String.
-     */
-    private String tripleDESEncrypt(String inputData,
-                                    String inputKey) {
-        TripleDES tripleDES = new TripleDES();
-        tripleDES.setInputData(inputData);
-        tripleDES.setKey(inputKey);
-        return tripleDES.encrypt();
-    }
-    /**
-     * Perform Triple DES Decryption.
-     * @param inputData Input data to be decrypted.
-     * @param inputKey Triple DES Key to decrypt the data.
-     * @return Decrypted data String.
-     */
-    private String tripleDESDecrypt(String inputData,
-                                    String inputKey) {
-        TripleDES tripleDES = new TripleDES();
-        tripleDES.setInputData(inputData);
-        tripleDES.setKey(inputKey);
-        return tripleDES.decrypt();
-    }
-    /**
-     * Perform Xor operation on transaction data.
-     * @param leftOperand Left operand for Xor operation.
-     * @param rightOperand Right operand for Xor operation.
-     * @return Xor'ed data string.
-     */
-    private String performXor(String leftOperand,
-                              String rightOperand) {
-        Xor xor = new Xor(leftOperand,
-                rightOperand
+        mac.update(requestRecord.getData(),
+                CryptogramRequestField.CARD_STATUS_UPDATE.getOffset(),
+                requestRecord.getLength(CryptogramRequestField.CARD_STATUS_UPDATE)
+        );
+        // The optional Proprietary Authentication Data is of length 0 when absent
+        mac.update(requestRecord.getData(),
+                CryptogramRequestField.PROPRIETARY_AUTHENTICATION_DATA.getOffset(),
+                requestRecord.getLength(CryptogramRequestField.PROPRIETARY_AUTHENTICATION_DATA)
+        );
+        byte [] responseMac = new byte[TripleDES.TDEA_BLOCK_SIZE];
+        mac.doFinal(responseMac,
+                0,
+                ISOIEC97971PaddingMethod.METHOD_2
         );
-        return xor.doXor();
+        byte [] responseCryptogram = Arrays.copyOf(responseMac, ARPC_METHOD_2_LENGTH);
+        Arrays.fill(responseMac, (byte) 0);
+        return responseCryptogram;
     }
-}
\ No newline at end of file
+}
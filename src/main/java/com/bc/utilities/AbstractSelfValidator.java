@@ -6,24 +6,24 @@ import java.util.Set;
 /**
  * Class defining the methods for performing bean validation and raising constraint violation, if invalid attributes
  * are detected.
+ * Note: All instances share one thread safe validator, as building a validator factory is expensive and the validator
+ * caches the constraint metadata of each validated class.
  */
 public abstract class AbstractSelfValidator<T> {
-    private final Validator validator;
     /**
-     * Constructor
+     * Holder of the shared validator, built on first use.
      */
-    public AbstractSelfValidator(){
-        ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
-        validator = validatorFactory.getValidator();
+    private static final class ValidatorHolder {
+        private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
     }
     /**
      * This method checks if an object passes all constraints validations configured on the class
      * and raise exception on failure.
      */
     public void selfValidate(){
-        Set<ConstraintViolation<T>> constraintViolations = validator.validate((T) this);
+        Set<ConstraintViolation<T>> constraintViolations = ValidatorHolder.VALIDATOR.validate((T) this);
         if(!constraintViolations.isEmpty()){
             throw new ConstraintViolationException(constraintViolations);
         }
     }
-}
\ No newline at end of file
+}
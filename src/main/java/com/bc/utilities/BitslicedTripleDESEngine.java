@@ -0,0 +1,833 @@
+package com.bc.utilities;
+
+import lombok.extern.slf4j.Slf4j;
+import java.util.Arrays;
+import static com.bc.utilities.DESTables.*;
+
+/**
+ * Class implementing a bitsliced Triple DES engine, encrypting up to 64 independent blocks, each under its own key, in
+ * a single pass. It is intended for bulk key derivation, e.g., deriving the UDKs of a card portfolio, where thousands
+ * of unrelated single block operations are performed.
+ * - Blocks and keys are transposed so that the 64 lanes of a long hold the same bit of 64 blocks (bit slices).
+ * - The initial, final, expansion, P and key schedule permutations are performed as slice index renaming.
+ * - Each S-box is evaluated as a boolean circuit over the bit slices, i.e., a shared multiplexer tree of its 4 output
+ *   functions, with the variable order chosen to minimise the number of operations.
+ * Note: Bitslicing only pays off for full batches, single block operations should use {@link TripleDES}.
+ */
+@Slf4j
+public class BitslicedTripleDESEngine
+        implements LoggerUtility {
+    // Constants
+    public static final int LANES = Long.SIZE;
+    private static final int BLOCK_BITS = 64;
+    private static final int HALF_BLOCK_BITS = 32;
+    private static final int ROUND_KEY_BITS = 48;
+    private static final int DES_KEY_LENGTH = 8;
+    private static final int TDEA_DES_OPERATIONS = 3;
+    private static final int TDEA_BLOCK_SIZE = 8;
+    // Key slice indexes of the round key bits for the 48 rounds of E(K1), D(K2), E(K3).
+    private static final int[][] ROUND_KEY_SLICES = buildRoundKeySlices();
+    /**
+     * Encrypt independent 8 byte blocks, each under its own single, double or triple length TDEA key.
+     * @param keys TDEA keys, one per block.
+     * @param blocks Clear text blocks.
+     * @return Cipher text blocks, in the order of the clear text blocks.
+     */
+    public byte[][] encryptBlocks(byte[][] keys,
+                                  byte[][] blocks) {
+        if (keys.length != blocks.length) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Number of keys (" + keys.length +
+                    ") must be equal to the number of blocks (" + blocks.length + ")."
+            );
+        }
+        byte[][] outputBlocks = new byte[blocks.length][TDEA_BLOCK_SIZE];
+        long[] dataSlices = new long[BLOCK_BITS];
+        long[] keySlices = new long[TDEA_DES_OPERATIONS * BLOCK_BITS];
+        for (int batchOffset = 0; batchOffset < blocks.length; batchOffset += LANES) {
+            int batchLength = Math.min(LANES, blocks.length - batchOffset);
+            loadBatch(keys, blocks, batchOffset, batchLength, dataSlices, keySlices);
+            encryptSlices(dataSlices, keySlices);
+            storeBatch(dataSlices, outputBlocks, batchOffset, batchLength);
+        }
+        Arrays.fill(keySlices, 0L);
+        logDebug(log,
+                "Bitsliced TDEA encryption of {} blocks processed!",
+                blocks.length
+        );
+        return outputBlocks;
+    }
+    /**
+     * Load a batch of blocks and keys into bit slices. Unused lanes are left as zero.
+     */
+    private void loadBatch(byte[][] keys,
+                           byte[][] blocks,
+                           int batchOffset,
+                           int batchLength,
+                           long[] dataSlices,
+                           long[] keySlices) {
+        long[] keyRows = new long[LANES];
+        Arrays.fill(dataSlices, 0L);
+        for (int lane = 0; lane < batchLength; lane++) {
+            byte[] block = blocks[batchOffset + lane];
+            if (block.length != TDEA_BLOCK_SIZE) {
+                throw new IllegalArgumentException(this.getClass().getName() + " --> Block " + (batchOffset + lane) +
+                        " must be 8 bytes, but received " + block.length + " bytes."
+                );
+            }
+            dataSlices[lane] = toLong(block, 0);
+        }
+        transpose(dataSlices);
+        for (int desOperation = 0; desOperation < TDEA_DES_OPERATIONS; desOperation++) {
+            for (int lane = 0; lane < batchLength; lane++) {
+                byte[] key = keys[batchOffset + lane];
+                keyRows[lane] = toLong(key, desKeyOffset(key, desOperation, batchOffset + lane));
+            }
+            transpose(keyRows);
+            System.arraycopy(keyRows, 0, keySlices, desOperation * BLOCK_BITS, BLOCK_BITS);
+            Arrays.fill(keyRows, 0L);
+        }
+    }
+    /**
+     * Transpose the encrypted bit slices back to blocks and store the batch.
+     */
+    private static void storeBatch(long[] dataSlices,
+                                   byte[][] outputBlocks,
+                                   int batchOffset,
+                                   int batchLength) {
+        transpose(dataSlices);
+        for (int lane = 0; lane < batchLength; lane++) {
+            fromLong(dataSlices[lane], outputBlocks[batchOffset + lane], 0);
+        }
+    }
+    /**
+     * Get the offset of the DES key used for a DES operation of a TDEA key, i.e., K1, K2 and K3 for a triple length
+     * key, K1, K2 and K1 for a double length key, and K1 for all operations of a single length key.
+     */
+    private int desKeyOffset(byte[] key,
+                             int desOperation,
+                             int blockIndex) {
+        switch (key.length) {
+            case DES_KEY_LENGTH:
+                return 0;
+            case 2 * DES_KEY_LENGTH:
+                return desOperation == 1 ? DES_KEY_LENGTH : 0;
+            case 3 * DES_KEY_LENGTH:
+                return desOperation * DES_KEY_LENGTH;
+            default:
+                throw new IllegalArgumentException(this.getClass().getName() + " --> Invalid TDEA key length for block " +
+                        blockIndex + ": " + key.length + " bytes. Expected 8, 16 or 24 bytes."
+                );
+        }
+    }
+    /**
+     * Encrypt the bit sliced blocks in place, as E(K1), D(K2), E(K3).
+     * @param dataSlices Bit slices of the blocks, bit slice n holds bit n + 1 of each block.
+     * @param keySlices Bit slices of K1, K2 and K3.
+     */
+    private static void encryptSlices(long[] dataSlices,
+                                      long[] keySlices) {
+        long[] left = new long[HALF_BLOCK_BITS];
+        long[] right = new long[HALF_BLOCK_BITS];
+        // Initial permutation
+        for (int i = 0; i < HALF_BLOCK_BITS; i++) {
+            left[i] = dataSlices[INITIAL_PERMUTATION[i] - 1];
+            right[i] = dataSlices[INITIAL_PERMUTATION[HALF_BLOCK_BITS + i] - 1];
+        }
+        for (int round = 0; round < ROUND_KEY_SLICES.length; round++) {
+            feistel(right, keySlices, ROUND_KEY_SLICES[round], left);
+            long[] swap = left;
+            left = right;
+            right = swap;
+            if ((round + 1) % DES_ROUNDS == 0) {
+                // Output of the DES operation is R16 || L16, which is the input of the next DES operation.
+                swap = left;
+                left = right;
+                right = swap;
+            }
+        }
+        // Final permutation, the inverse of the initial permutation, applied to R16 || L16 held in left || right
+        for (int i = 0; i < HALF_BLOCK_BITS; i++) {
+            dataSlices[INITIAL_PERMUTATION[i] - 1] = left[i];
+            dataSlices[INITIAL_PERMUTATION[HALF_BLOCK_BITS + i] - 1] = right[i];
+        }
+    }
+    /**
+     * DES round function, Xor'ing f(R, K) into the left half slices. The expansion and P permutations are applied
+     * through the S-box input and output slice indexes.
+     */
+    private static void feistel(long[] right,
+                                long[] keySlices,
+                                int[] roundKeySlices,
+                                long[] left) {
+        s1(right[31] ^ keySlices[roundKeySlices[0]],
+                right[0] ^ keySlices[roundKeySlices[1]],
+                right[1] ^ keySlices[roundKeySlices[2]],
+                right[2] ^ keySlices[roundKeySlices[3]],
+                right[3] ^ keySlices[roundKeySlices[4]],
+                right[4] ^ keySlices[roundKeySlices[5]],
+                left, 8, 16, 22, 30);
+        s2(right[3] ^ keySlices[roundKeySlices[6]],
+                right[4] ^ keySlices[roundKeySlices[7]],
+                right[5] ^ keySlices[roundKeySlices[8]],
+                right[6] ^ keySlices[roundKeySlices[9]],
+                right[7] ^ keySlices[roundKeySlices[10]],
+                right[8] ^ keySlices[roundKeySlices[11]],
+                left, 12, 27, 1, 17);
+        s3(right[7] ^ keySlices[roundKeySlices[12]],
+                right[8] ^ keySlices[roundKeySlices[13]],
+                right[9] ^ keySlices[roundKeySlices[14]],
+                right[10] ^ keySlices[roundKeySlices[15]],
+                right[11] ^ keySlices[roundKeySlices[16]],
+                right[12] ^ keySlices[roundKeySlices[17]],
+                left, 23, 15, 29, 5);
+        s4(right[11] ^ keySlices[roundKeySlices[18]],
+                right[12] ^ keySlices[roundKeySlices[19]],
+                right[13] ^ keySlices[roundKeySlices[20]],
+                right[14] ^ keySlices[roundKeySlices[21]],
+                right[15] ^ keySlices[roundKeySlices[22]],
+                right[16] ^ keySlices[roundKeySlices[23]],
+                left, 25, 19, 9, 0);
+        s5(right[15] ^ keySlices[roundKeySlices[24]],
+                right[16] ^ keySlices[roundKeySlices[25]],
+                right[17] ^ keySlices[roundKeySlices[26]],
+                right[18] ^ keySlices[roundKeySlices[27]],
+                right[19] ^ keySlices[roundKeySlices[28]],
+                right[20] ^ keySlices[roundKeySlices[29]],
+                left, 7, 13, 24, 2);
+        s6(right[19] ^ keySlices[roundKeySlices[30]],
+                right[20] ^ keySlices[roundKeySlices[31]],
+                right[21] ^ keySlices[roundKeySlices[32]],
+                right[22] ^ keySlices[roundKeySlices[33]],
+                right[23] ^ keySlices[roundKeySlices[34]],
+                right[24] ^ keySlices[roundKeySlices[35]],
+                left, 3, 28, 10, 18);
+        s7(right[23] ^ keySlices[roundKeySlices[36]],
+                right[24] ^ keySlices[roundKeySlices[37]],
+                right[25] ^ keySlices[roundKeySlices[38]],
+                right[26] ^ keySlices[roundKeySlices[39]],
+                right[27] ^ keySlices[roundKeySlices[40]],
+                right[28] ^ keySlices[roundKeySlices[41]],
+                left, 31, 11, 21, 6);
+        s8(right[27] ^ keySlices[roundKeySlices[42]],
+                right[28] ^ keySlices[roundKeySlices[43]],
+                right[29] ^ keySlices[roundKeySlices[44]],
+                right[30] ^ keySlices[roundKeySlices[45]],
+                right[31] ^ keySlices[roundKeySlices[46]],
+                right[0] ^ keySlices[roundKeySlices[47]],
+                left, 4, 26, 14, 20);
+    }
+    /**
+     * Transpose a 64 x 64 bit matrix in place, i.e., bit j of row i is exchanged with bit i of row j, with bits
+     * numbered from the most significant bit.
+     * @param rows Matrix rows.
+     */
+    static void transpose(long[] rows) {
+        long mask = 0x00000000FFFFFFFFL;
+        for (int width = 32; width != 0; width >>>= 1, mask ^= mask << width) {
+            for (int row = 0; row < LANES; row = (row + width + 1) & ~width) {
+                long swap = (rows[row] ^ (rows[row + width] >>> width)) & mask;
+                rows[row] ^= swap;
+                rows[row + width] ^= swap << width;
+            }
+        }
+    }
+    /**
+     * Build the key slice indexes of the round key bits for each round of E(K1), D(K2), E(K3), by applying PC-1, the
+     * key rotations and PC-2 to the key bit positions.
+     */
+    private static int[][] buildRoundKeySlices() {
+        final int REGISTER_BITS = 28;
+        int[] c = new int[REGISTER_BITS];
+        int[] d = new int[REGISTER_BITS];
+        for (int i = 0; i < REGISTER_BITS; i++) {
+            c[i] = PERMUTED_CHOICE_1[i] - 1;
+            d[i] = PERMUTED_CHOICE_1[REGISTER_BITS + i] - 1;
+        }
+        int[][] desRoundKeyBits = new int[DES_ROUNDS][ROUND_KEY_BITS];
+        for (int round = 0; round < DES_ROUNDS; round++) {
+            for (int rotation = 0; rotation < KEY_ROTATIONS[round]; rotation++) {
+                c = rotateLeft(c);
+                d = rotateLeft(d);
+            }
+            for (int bit = 0; bit < ROUND_KEY_BITS; bit++) {
+                int registerBit = PERMUTED_CHOICE_2[bit] - 1;
+                desRoundKeyBits[round][bit] = registerBit < REGISTER_BITS ? c[registerBit] : d[registerBit - REGISTER_BITS];
+            }
+        }
+        int[][] roundKeySlices = new int[TDEA_DES_OPERATIONS * DES_ROUNDS][ROUND_KEY_BITS];
+        for (int desOperation = 0; desOperation < TDEA_DES_OPERATIONS; desOperation++) {
+            boolean decrypt = desOperation == 1;
+            for (int round = 0; round < DES_ROUNDS; round++) {
+                int[] desRoundKey = desRoundKeyBits[decrypt ? DES_ROUNDS - 1 - round : round];
+                for (int bit = 0; bit < ROUND_KEY_BITS; bit++) {
+                    roundKeySlices[desOperation * DES_ROUNDS + round][bit] = desOperation * BLOCK_BITS + desRoundKey[bit];
+                }
+            }
+        }
+        return roundKeySlices;
+    }
+    /**
+     * Rotate the key bit positions of a key schedule register left by one position.
+     */
+    private static int[] rotateLeft(int[] register) {
+        int[] rotated = new int[register.length];
+        System.arraycopy(register, 1, rotated, 0, register.length - 1);
+        rotated[register.length - 1] = register[0];
+        return rotated;
+    }
+    /**
+     * S-box S1 circuit, Xor'ing the 4 output bits into the output slices.
+     */
+    private static void s1(long x0, long x1, long x2, long x3, long x4, long x5,
+                           long[] output, int o0, int o1, int o2, int o3) {
+        long t0 = ~x4;
+        long t1 = t0 ^ x2;
+        long t2 = t1 ^ ((t1 ^ x4) & x1);
+        long t3 = x2 & t0;
+        long t4 = ~t3;
+        long t5 = t3 ^ x1;
+        long t6 = t2 ^ ((t2 ^ t5) & x0);
+        long t7 = ~t2;
+        long t8 = ~t1;
+        long t9 = t4 ^ ((t4 ^ t8) & x1);
+        long t10 = t7 ^ ((t7 ^ t9) & x0);
+        long t11 = t6 ^ ((t6 ^ t10) & x5);
+        long t12 = t0 | x2;
+        long t13 = ~t12;
+        long t14 = t12 ^ x1;
+        long t15 = t0 & ~x2;
+        long t16 = t4 ^ ((t4 ^ t15) & x1);
+        long t17 = t14 ^ ((t14 ^ t16) & x0);
+        long t18 = t15 ^ ((t15 ^ x4) & x1);
+        long t19 = t5 ^ ((t5 ^ t18) & x0);
+        long t20 = t17 ^ ((t17 ^ t19) & x5);
+        long t21 = t11 ^ ((t11 ^ t20) & x3);
+        long t22 = ~t5;
+        long t23 = ~x2;
+        long t24 = t12 ^ ((t12 ^ t23) & x1);
+        long t25 = t22 ^ ((t22 ^ t24) & x0);
+        long t26 = t8 ^ ((t8 ^ x4) & x1);
+        long t27 = ~x2 | t0;
+        long t28 = t27 ^ ((t27 ^ t15) & x1);
+        long t29 = t26 ^ ((t26 ^ t28) & x0);
+        long t30 = t25 ^ ((t25 ^ t29) & x5);
+        long t31 = t15 ^ ((t15 ^ t4) & x1);
+        long t32 = t15 ^ ((t15 ^ t8) & x1);
+        long t33 = t31 ^ ((t31 ^ t32) & x0);
+        long t34 = ~t28;
+        long t35 = t28 ^ x0;
+        long t36 = t33 ^ ((t33 ^ t35) & x5);
+        long t37 = t30 ^ ((t30 ^ t36) & x3);
+        long t38 = ~t27;
+        long t39 = t38 ^ ((t38 ^ t12) & x1);
+        long t40 = t24 ^ ((t24 ^ t39) & x0);
+        long t41 = ~t15;
+        long t42 = t41 ^ ((t41 ^ t23) & x1);
+        long t43 = t42 ^ ((t42 ^ t32) & x0);
+        long t44 = t40 ^ ((t40 ^ t43) & x5);
+        long t45 = ~t9;
+        long t46 = t45 ^ ((t45 ^ t14) & x0);
+        long t47 = x4 ^ ((x4 ^ t27) & x1);
+        long t48 = t32 ^ ((t32 ^ t47) & x0);
+        long t49 = t46 ^ ((t46 ^ t48) & x5);
+        long t50 = t44 ^ ((t44 ^ t49) & x3);
+        long t51 = t39 ^ ((t39 ^ t7) & x0);
+        long t52 = ~t24;
+        long t53 = t1 ^ ((t1 ^ t23) & x1);
+        long t54 = t52 ^ ((t52 ^ t53) & x0);
+        long t55 = t51 ^ ((t51 ^ t54) & x5);
+        long t56 = t27 ^ x1;
+        long t57 = ~t56;
+        long t58 = t56 ^ x0;
+        long t59 = t12 ^ ((t12 ^ t8) & x1);
+        long t60 = x2 ^ ((x2 ^ t1) & x1);
+        long t61 = t59 ^ ((t59 ^ t60) & x0);
+        long t62 = t58 ^ ((t58 ^ t61) & x5);
+        long t63 = t55 ^ ((t55 ^ t62) & x3);
+        output[o0] ^= t21;
+        output[o1] ^= t37;
+        output[o2] ^= t50;
+        output[o3] ^= t63;
+    }
+    /**
+     * S-box S2 circuit, Xor'ing the 4 output bits into the output slices.
+     */
+    private static void s2(long x0, long x1, long x2, long x3, long x4, long x5,
+                           long[] output, int o0, int o1, int o2, int o3) {
+        long t0 = ~x3;
+        long t1 = ~x1 | t0;
+        long t2 = x1 & t0;
+        long t3 = t1 ^ ((t1 ^ t2) & x2);
+        long t4 = t0 ^ x1;
+        long t5 = x3 ^ ((x3 ^ t4) & x2);
+        long t6 = t3 ^ ((t3 ^ t5) & x4);
+        long t7 = ~t1;
+        long t8 = t7 ^ x2;
+        long t9 = ~t8;
+        long t10 = t8 ^ x4;
+        long t11 = t6 ^ ((t6 ^ t10) & x0);
+        long t12 = ~t2;
+        long t13 = t2 ^ x2;
+        long t14 = ~t4;
+        long t15 = t4 ^ x2;
+        long t16 = t13 ^ ((t13 ^ t15) & x4);
+        long t17 = t9 ^ ((t9 ^ t4) & x4);
+        long t18 = t16 ^ ((t16 ^ t17) & x0);
+        long t19 = t11 ^ ((t11 ^ t18) & x5);
+        long t20 = t0 & ~x1;
+        long t21 = t0 | x1;
+        long t22 = t20 ^ ((t20 ^ t21) & x2);
+        long t23 = ~t22;
+        long t24 = t22 ^ x4;
+        long t25 = t23 ^ ((t23 ^ t4) & x4);
+        long t26 = t24 ^ ((t24 ^ t25) & x0);
+        long t27 = t14 ^ ((t14 ^ t0) & x2);
+        long t28 = ~x1;
+        long t29 = t28 ^ ((t28 ^ x3) & x2);
+        long t30 = t27 ^ ((t27 ^ t29) & x4);
+        long t31 = ~t30;
+        long t32 = t30 ^ x0;
+        long t33 = t26 ^ ((t26 ^ t32) & x5);
+        long t34 = t4 ^ ((t4 ^ t28) & x2);
+        long t35 = ~t15;
+        long t36 = t34 ^ ((t34 ^ t35) & x4);
+        long t37 = ~t21;
+        long t38 = t37 ^ ((t37 ^ t4) & x2);
+        long t39 = t12 ^ ((t12 ^ x1) & x2);
+        long t40 = t38 ^ ((t38 ^ t39) & x4);
+        long t41 = t36 ^ ((t36 ^ t40) & x0);
+        long t42 = x3 ^ ((x3 ^ t28) & x2);
+        long t43 = t22 ^ ((t22 ^ t42) & x4);
+        long t44 = ~t20;
+        long t45 = t44 ^ ((t44 ^ t4) & x2);
+        long t46 = ~t39;
+        long t47 = t45 ^ ((t45 ^ t46) & x4);
+        long t48 = t43 ^ ((t43 ^ t47) & x0);
+        long t49 = t41 ^ ((t41 ^ t48) & x5);
+        long t50 = t0 ^ x2;
+        long t51 = t21 ^ ((t21 ^ t20) & x2);
+        long t52 = t50 ^ ((t50 ^ t51) & x4);
+        long t53 = ~t51;
+        long t54 = t14 ^ ((t14 ^ t53) & x4);
+        long t55 = t52 ^ ((t52 ^ t54) & x0);
+        long t56 = t28 ^ x2;
+        long t57 = t4 ^ ((t4 ^ t56) & x4);
+        long t58 = t37 ^ x2;
+        long t59 = t51 ^ ((t51 ^ t58) & x4);
+        long t60 = t57 ^ ((t57 ^ t59) & x0);
+        long t61 = t55 ^ ((t55 ^ t60) & x5);
+        output[o0] ^= t19;
+        output[o1] ^= t33;
+        output[o2] ^= t49;
+        output[o3] ^= t61;
+    }
+    /**
+     * S-box S3 circuit, Xor'ing the 4 output bits into the output slices.
+     */
+    private static void s3(long x0, long x1, long x2, long x3, long x4, long x5,
+                           long[] output, int o0, int o1, int o2, int o3) {
+        long t0 = ~x2;
+        long t1 = ~x5;
+        long t2 = t0 ^ ((t0 ^ t1) & x3);
+        long t3 = ~x2 | x5;
+        long t4 = x3 & t3;
+        long t5 = t2 ^ ((t2 ^ t4) & x4);
+        long t6 = t1 ^ x2;
+        long t7 = x2 ^ ((x2 ^ t6) & x3);
+        long t8 = ~t6;
+        long t9 = t3 ^ ((t3 ^ t8) & x3);
+        long t10 = t7 ^ ((t7 ^ t9) & x4);
+        long t11 = t5 ^ ((t5 ^ t10) & x1);
+        long t12 = t1 ^ x3;
+        long t13 = x5 | x2;
+        long t14 = ~t13;
+        long t15 = t13 ^ x3;
+        long t16 = t12 ^ ((t12 ^ t15) & x4);
+        long t17 = t6 ^ x3;
+        long t18 = ~t17;
+        long t19 = t17 ^ x4;
+        long t20 = t16 ^ ((t16 ^ t19) & x1);
+        long t21 = t11 ^ ((t11 ^ t20) & x0);
+        long t22 = t8 ^ ((t8 ^ x2) & x3);
+        long t23 = ~t12;
+        long t24 = t22 ^ ((t22 ^ t23) & x4);
+        long t25 = x2 & x5;
+        long t26 = t25 ^ ((t25 ^ t3) & x3);
+        long t27 = t1 ^ ((t1 ^ t0) & x3);
+        long t28 = t26 ^ ((t26 ^ t27) & x4);
+        long t29 = t24 ^ ((t24 ^ t28) & x1);
+        long t30 = ~t22;
+        long t31 = t1 ^ ((t1 ^ t25) & x3);
+        long t32 = t30 ^ ((t30 ^ t31) & x4);
+        long t33 = t1 | x2;
+        long t34 = x5 ^ ((x5 ^ t33) & x3);
+        long t35 = t8 ^ ((t8 ^ t34) & x4);
+        long t36 = t32 ^ ((t32 ^ t35) & x1);
+        long t37 = t29 ^ ((t29 ^ t36) & x0);
+        long t38 = t33 ^ ((t33 ^ x2) & x3);
+        long t39 = t38 ^ ((t38 ^ t18) & x4);
+        long t40 = t25 ^ ((t25 ^ t0) & x3);
+        long t41 = t22 ^ ((t22 ^ t40) & x4);
+        long t42 = t39 ^ ((t39 ^ t41) & x1);
+        long t43 = ~t3;
+        long t44 = t25 ^ ((t25 ^ t43) & x3);
+        long t45 = ~t25;
+        long t46 = t45 ^ x3;
+        long t47 = t44 ^ ((t44 ^ t46) & x4);
+        long t48 = t6 | x3;
+        long t49 = t48 ^ ((t48 ^ t8) & x4);
+        long t50 = t47 ^ ((t47 ^ t49) & x1);
+        long t51 = t42 ^ ((t42 ^ t50) & x0);
+        long t52 = t23 ^ ((t23 ^ t8) & x4);
+        long t53 = ~t52;
+        long t54 = t52 ^ x1;
+        long t55 = ~t7;
+        long t56 = t55 ^ x4;
+        long t57 = t33 & ~x3;
+        long t58 = t57 ^ ((t57 ^ t9) & x4);
+        long t59 = t56 ^ ((t56 ^ t58) & x1);
+        long t60 = t54 ^ ((t54 ^ t59) & x0);
+        output[o0] ^= t21;
+        output[o1] ^= t37;
+        output[o2] ^= t51;
+        output[o3] ^= t60;
+    }
+    /**
+     * S-box S4 circuit, Xor'ing the 4 output bits into the output slices.
+     */
+    private static void s4(long x0, long x1, long x2, long x3, long x4, long x5,
+                           long[] output, int o0, int o1, int o2, int o3) {
+        long t0 = ~x3;
+        long t1 = x3 ^ x4;
+        long t2 = t1 ^ ((t1 ^ x3) & x2);
+        long t3 = ~x4;
+        long t4 = t0 | x4;
+        long t5 = t3 ^ ((t3 ^ t4) & x2);
+        long t6 = t2 ^ ((t2 ^ t5) & x0);
+        long t7 = ~t4;
+        long t8 = t7 ^ x2;
+        long t9 = ~t1;
+        long t10 = t9 ^ ((t9 ^ t7) & x2);
+        long t11 = t8 ^ ((t8 ^ t10) & x0);
+        long t12 = t6 ^ ((t6 ^ t11) & x1);
+        long t13 = ~x4 | t0;
+        long t14 = x4 & t0;
+        long t15 = t13 ^ ((t13 ^ t14) & x2);
+        long t16 = ~t14;
+        long t17 = t14 ^ x2;
+        long t18 = t15 ^ ((t15 ^ t17) & x0);
+        long t19 = ~t13;
+        long t20 = x3 | x4;
+        long t21 = t19 ^ ((t19 ^ t20) & x2);
+        long t22 = t21 ^ ((t21 ^ t9) & x0);
+        long t23 = t18 ^ ((t18 ^ t22) & x1);
+        long t24 = t12 ^ ((t12 ^ t23) & x5);
+        long t25 = ~t12;
+        long t26 = t23 ^ ((t23 ^ t25) & x5);
+        long t27 = t16 ^ ((t16 ^ x4) & x2);
+        long t28 = t0 ^ ((t0 ^ t1) & x2);
+        long t29 = t27 ^ ((t27 ^ t28) & x0);
+        long t30 = t14 ^ ((t14 ^ t9) & x2);
+        long t31 = ~t17;
+        long t32 = t30 ^ ((t30 ^ t31) & x0);
+        long t33 = t29 ^ ((t29 ^ t32) & x1);
+        long t34 = ~t20;
+        long t35 = t4 ^ ((t4 ^ t34) & x2);
+        long t36 = t8 ^ ((t8 ^ t35) & x0);
+        long t37 = t1 ^ ((t1 ^ t21) & x0);
+        long t38 = t36 ^ ((t36 ^ t37) & x1);
+        long t39 = t33 ^ ((t33 ^ t38) & x5);
+        long t40 = ~t38;
+        long t41 = t40 ^ ((t40 ^ t33) & x5);
+        output[o0] ^= t24;
+        output[o1] ^= t26;
+        output[o2] ^= t39;
+        output[o3] ^= t41;
+    }
+    /**
+     * S-box S5 circuit, Xor'ing the 4 output bits into the output slices.
+     */
+    private static void s5(long x0, long x1, long x2, long x3, long x4, long x5,
+                           long[] output, int o0, int o1, int o2, int o3) {
+        long t0 = ~x0;
+        long t1 = x4 & t0;
+        long t2 = ~t1;
+        long t3 = t1 ^ x1;
+        long t4 = x0 | x4;
+        long t5 = ~t4;
+        long t6 = t4 ^ x1;
+        long t7 = t3 ^ ((t3 ^ t6) & x2);
+        long t8 = x4 & x0;
+        long t9 = ~x1 | t8;
+        long t10 = x0 ^ x4;
+        long t11 = t8 ^ ((t8 ^ t10) & x1);
+        long t12 = t9 ^ ((t9 ^ t11) & x2);
+        long t13 = t7 ^ ((t7 ^ t12) & x5);
+        long t14 = ~t10;
+        long t15 = t0 | x4;
+        long t16 = t14 ^ ((t14 ^ t15) & x1);
+        long t17 = t11 ^ ((t11 ^ t16) & x2);
+        long t18 = t10 ^ ((t10 ^ t15) & x1);
+        long t19 = t14 ^ ((t14 ^ t5) & x1);
+        long t20 = t18 ^ ((t18 ^ t19) & x2);
+        long t21 = t17 ^ ((t17 ^ t20) & x5);
+        long t22 = t13 ^ ((t13 ^ t21) & x3);
+        long t23 = ~x4;
+        long t24 = t14 ^ ((t14 ^ t23) & x1);
+        long t25 = t10 ^ ((t10 ^ t24) & x2);
+        long t26 = t5 ^ ((t5 ^ t2) & x1);
+        long t27 = t15 ^ ((t15 ^ t8) & x1);
+        long t28 = t26 ^ ((t26 ^ t27) & x2);
+        long t29 = t25 ^ ((t25 ^ t28) & x5);
+        long t30 = ~t6;
+        long t31 = t10 ^ x1;
+        long t32 = t30 ^ ((t30 ^ t31) & x2);
+        long t33 = ~t32;
+        long t34 = t32 ^ x5;
+        long t35 = t29 ^ ((t29 ^ t34) & x3);
+        long t36 = ~t18;
+        long t37 = ~t8;
+        long t38 = t37 ^ ((t37 ^ x0) & x1);
+        long t39 = t36 ^ ((t36 ^ t38) & x2);
+        long t40 = x4 ^ x1;
+        long t41 = t38 ^ ((t38 ^ t40) & x2);
+        long t42 = t39 ^ ((t39 ^ t41) & x5);
+        long t43 = ~t38;
+        long t44 = ~t11;
+        long t45 = t43 ^ ((t43 ^ t44) & x2);
+        long t46 = t14 ^ ((t14 ^ t0) & x1);
+        long t47 = ~t15;
+        long t48 = t47 ^ ((t47 ^ x4) & x1);
+        long t49 = t46 ^ ((t46 ^ t48) & x2);
+        long t50 = t45 ^ ((t45 ^ t49) & x5);
+        long t51 = t42 ^ ((t42 ^ t50) & x3);
+        long t52 = x1 & t4;
+        long t53 = t52 ^ ((t52 ^ t14) & x2);
+        long t54 = t10 ^ ((t10 ^ t0) & x1);
+        long t55 = t31 ^ ((t31 ^ t54) & x2);
+        long t56 = t53 ^ ((t53 ^ t55) & x5);
+        long t57 = t4 ^ ((t4 ^ t15) & x1);
+        long t58 = t23 ^ ((t23 ^ t1) & x1);
+        long t59 = t57 ^ ((t57 ^ t58) & x2);
+        long t60 = t8 ^ ((t8 ^ t14) & x1);
+        long t61 = t15 ^ ((t15 ^ x0) & x1);
+        long t62 = t60 ^ ((t60 ^ t61) & x2);
+        long t63 = t59 ^ ((t59 ^ t62) & x5);
+        long t64 = t56 ^ ((t56 ^ t63) & x3);
+        output[o0] ^= t22;
+        output[o1] ^= t35;
+        output[o2] ^= t51;
+        output[o3] ^= t64;
+    }
+    /**
+     * S-box S6 circuit, Xor'ing the 4 output bits into the output slices.
+     */
+    private static void s6(long x0, long x1, long x2, long x3, long x4, long x5,
+                           long[] output, int o0, int o1, int o2, int o3) {
+        long t0 = ~x4;
+        long t1 = ~x2;
+        long t2 = x2 ^ x4;
+        long t3 = t0 ^ ((t0 ^ t2) & x1);
+        long t4 = t1 | x4;
+        long t5 = x4 & x2;
+        long t6 = t4 ^ ((t4 ^ t5) & x1);
+        long t7 = t3 ^ ((t3 ^ t6) & x5);
+        long t8 = ~t4;
+        long t9 = t8 ^ x1;
+        long t10 = t6 ^ ((t6 ^ t9) & x5);
+        long t11 = t7 ^ ((t7 ^ t10) & x3);
+        long t12 = t8 ^ ((t8 ^ t1) & x1);
+        long t13 = t6 ^ ((t6 ^ t12) & x5);
+        long t14 = x2 | x4;
+        long t15 = t14 ^ ((t14 ^ x2) & x1);
+        long t16 = t3 ^ ((t3 ^ t15) & x5);
+        long t17 = t13 ^ ((t13 ^ t16) & x3);
+        long t18 = t11 ^ ((t11 ^ t17) & x0);
+        long t19 = ~t14;
+        long t20 = t19 ^ x1;
+        long t21 = ~t20;
+        long t22 = t20 ^ x5;
+        long t23 = ~t2;
+        long t24 = t23 ^ ((t23 ^ t1) & x1);
+        long t25 = t2 ^ ((t2 ^ t24) & x5);
+        long t26 = t22 ^ ((t22 ^ t25) & x3);
+        long t27 = x4 & t1;
+        long t28 = t27 ^ ((t27 ^ t23) & x1);
+        long t29 = t23 ^ x1;
+        long t30 = t28 ^ ((t28 ^ t29) & x5);
+        long t31 = ~t5;
+        long t32 = t31 ^ ((t31 ^ t23) & x1);
+        long t33 = t2 ^ ((t2 ^ x4) & x1);
+        long t34 = t32 ^ ((t32 ^ t33) & x5);
+        long t35 = t30 ^ ((t30 ^ t34) & x3);
+        long t36 = t26 ^ ((t26 ^ t35) & x0);
+        long t37 = t5 ^ ((t5 ^ x2) & x1);
+        long t38 = t37 ^ ((t37 ^ t32) & x5);
+        long t39 = t27 ^ ((t27 ^ t2) & x1);
+        long t40 = t32 ^ ((t32 ^ t39) & x5);
+        long t41 = t38 ^ ((t38 ^ t40) & x3);
+        long t42 = t2 ^ ((t2 ^ t19) & x1);
+        long t43 = t27 ^ ((t27 ^ t31) & x1);
+        long t44 = t42 ^ ((t42 ^ t43) & x5);
+        long t45 = ~t42;
+        long t46 = ~t27;
+        long t47 = t46 ^ x1;
+        long t48 = t45 ^ ((t45 ^ t47) & x5);
+        long t49 = t44 ^ ((t44 ^ t48) & x3);
+        long t50 = t41 ^ ((t41 ^ t49) & x0);
+        long t51 = ~t47;
+        long t52 = x2 ^ ((x2 ^ t0) & x1);
+        long t53 = t51 ^ ((t51 ^ t52) & x5);
+        long t54 = t33 ^ ((t33 ^ t53) & x3);
+        long t55 = t19 ^ ((t19 ^ t46) & x1);
+        long t56 = t55 ^ ((t55 ^ t21) & x5);
+        long t57 = ~t9;
+        long t58 = t57 ^ x5;
+        long t59 = t56 ^ ((t56 ^ t58) & x3);
+        long t60 = t54 ^ ((t54 ^ t59) & x0);
+        output[o0] ^= t18;
+        output[o1] ^= t36;
+        output[o2] ^= t50;
+        output[o3] ^= t60;
+    }
+    /**
+     * S-box S7 circuit, Xor'ing the 4 output bits into the output slices.
+     */
+    private static void s7(long x0, long x1, long x2, long x3, long x4, long x5,
+                           long[] output, int o0, int o1, int o2, int o3) {
+        long t0 = x3 & x1;
+        long t1 = ~t0;
+        long t2 = t0 ^ x4;
+        long t3 = ~x1;
+        long t4 = x1 ^ x3;
+        long t5 = t3 ^ ((t3 ^ t4) & x4);
+        long t6 = t2 ^ ((t2 ^ t5) & x2);
+        long t7 = x1 | x3;
+        long t8 = t4 ^ ((t4 ^ t7) & x4);
+        long t9 = ~t4;
+        long t10 = x3 & t3;
+        long t11 = t9 ^ ((t9 ^ t10) & x4);
+        long t12 = t8 ^ ((t8 ^ t11) & x2);
+        long t13 = t6 ^ ((t6 ^ t12) & x0);
+        long t14 = ~t2;
+        long t15 = t14 ^ x2;
+        long t16 = t3 | x3;
+        long t17 = t4 ^ ((t4 ^ t16) & x4);
+        long t18 = t4 ^ ((t4 ^ t0) & x4);
+        long t19 = t17 ^ ((t17 ^ t18) & x2);
+        long t20 = t15 ^ ((t15 ^ t19) & x0);
+        long t21 = t13 ^ ((t13 ^ t20) & x5);
+        long t22 = ~t7;
+        long t23 = t22 ^ x4;
+        long t24 = ~t10;
+        long t25 = t24 ^ x4;
+        long t26 = t23 ^ ((t23 ^ t25) & x2);
+        long t27 = t26 ^ ((t26 ^ t6) & x0);
+        long t28 = t24 ^ ((t24 ^ x3) & x4);
+        long t29 = t22 ^ ((t22 ^ x1) & x4);
+        long t30 = t28 ^ ((t28 ^ t29) & x2);
+        long t31 = t3 ^ x4;
+        long t32 = ~t16;
+        long t33 = t32 ^ x4;
+        long t34 = t31 ^ ((t31 ^ t33) & x2);
+        long t35 = t30 ^ ((t30 ^ t34) & x0);
+        long t36 = t27 ^ ((t27 ^ t35) & x5);
+        long t37 = ~t17;
+        long t38 = t17 ^ x2;
+        long t39 = t7 ^ ((t7 ^ t32) & x4);
+        long t40 = t10 ^ ((t10 ^ t16) & x4);
+        long t41 = t39 ^ ((t39 ^ t40) & x2);
+        long t42 = t38 ^ ((t38 ^ t41) & x0);
+        long t43 = t32 ^ ((t32 ^ t7) & x4);
+        long t44 = t4 ^ ((t4 ^ t43) & x2);
+        long t45 = t22 ^ ((t22 ^ t9) & x4);
+        long t46 = ~t45;
+        long t47 = t45 ^ x2;
+        long t48 = t44 ^ ((t44 ^ t47) & x0);
+        long t49 = t42 ^ ((t42 ^ t48) & x5);
+        long t50 = ~t5;
+        long t51 = ~x3;
+        long t52 = t51 ^ x4;
+        long t53 = t50 ^ ((t50 ^ t52) & x2);
+        long t54 = ~t53;
+        long t55 = t53 ^ x0;
+        long t56 = t16 ^ ((t16 ^ t4) & x4);
+        long t57 = ~t28;
+        long t58 = t56 ^ ((t56 ^ t57) & x2);
+        long t59 = ~t11;
+        long t60 = t59 ^ x2;
+        long t61 = t58 ^ ((t58 ^ t60) & x0);
+        long t62 = t55 ^ ((t55 ^ t61) & x5);
+        output[o0] ^= t21;
+        output[o1] ^= t36;
+        output[o2] ^= t49;
+        output[o3] ^= t62;
+    }
+    /**
+     * S-box S8 circuit, Xor'ing the 4 output bits into the output slices.
+     */
+    private static void s8(long x0, long x1, long x2, long x3, long x4, long x5,
+                           long[] output, int o0, int o1, int o2, int o3) {
+        long t0 = ~x1;
+        long t1 = ~x3 | t0;
+        long t2 = t1 ^ ((t1 ^ x3) & x2);
+        long t3 = t0 & ~x3;
+        long t4 = x1 ^ ((x1 ^ t3) & x2);
+        long t5 = t2 ^ ((t2 ^ t4) & x4);
+        long t6 = ~t1;
+        long t7 = t6 ^ x2;
+        long t8 = t0 ^ x3;
+        long t9 = t7 ^ ((t7 ^ t8) & x4);
+        long t10 = t5 ^ ((t5 ^ t9) & x0);
+        long t11 = ~t8;
+        long t12 = t11 ^ x2;
+        long t13 = t0 | x3;
+        long t14 = ~t13;
+        long t15 = t13 ^ x2;
+        long t16 = t12 ^ ((t12 ^ t15) & x4);
+        long t17 = ~t3;
+        long t18 = x3 & t0;
+        long t19 = t17 ^ ((t17 ^ t18) & x2);
+        long t20 = ~t15;
+        long t21 = t19 ^ ((t19 ^ t20) & x4);
+        long t22 = t16 ^ ((t16 ^ t21) & x0);
+        long t23 = t10 ^ ((t10 ^ t22) & x5);
+        long t24 = ~t19;
+        long t25 = x3 ^ ((x3 ^ t8) & x2);
+        long t26 = t24 ^ ((t24 ^ t25) & x4);
+        long t27 = ~t4;
+        long t28 = t27 ^ x4;
+        long t29 = t26 ^ ((t26 ^ t28) & x0);
+        long t30 = ~t26;
+        long t31 = t12 ^ ((t12 ^ t11) & x4);
+        long t32 = t30 ^ ((t30 ^ t31) & x0);
+        long t33 = t29 ^ ((t29 ^ t32) & x5);
+        long t34 = x1 ^ x2;
+        long t35 = t34 ^ ((t34 ^ t8) & x4);
+        long t36 = ~t12;
+        long t37 = ~t25;
+        long t38 = t36 ^ ((t36 ^ t37) & x4);
+        long t39 = t35 ^ ((t35 ^ t38) & x0);
+        long t40 = t6 ^ ((t6 ^ t0) & x2);
+        long t41 = ~t18;
+        long t42 = t8 ^ ((t8 ^ t41) & x2);
+        long t43 = t40 ^ ((t40 ^ t42) & x4);
+        long t44 = ~t40;
+        long t45 = t18 ^ ((t18 ^ t8) & x2);
+        long t46 = t44 ^ ((t44 ^ t45) & x4);
+        long t47 = t43 ^ ((t43 ^ t46) & x0);
+        long t48 = t39 ^ ((t39 ^ t47) & x5);
+        long t49 = ~t22;
+        long t50 = t0 ^ ((t0 ^ x3) & x2);
+        long t51 = t41 ^ ((t41 ^ t3) & x2);
+        long t52 = t50 ^ ((t50 ^ t51) & x4);
+        long t53 = x1 ^ ((x1 ^ t14) & x2);
+        long t54 = t53 ^ ((t53 ^ t27) & x4);
+        long t55 = t52 ^ ((t52 ^ t54) & x0);
+        long t56 = t49 ^ ((t49 ^ t55) & x5);
+        output[o0] ^= t23;
+        output[o1] ^= t33;
+        output[o2] ^= t48;
+        output[o3] ^= t56;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bc.utilities;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Class implementing a bounded pool of reusable, non thread safe instances, e.g., initialised Cipher objects and
+ * transaction data buffers, shared by all threads. Unlike a ThreadLocal, the instances survive short-lived threads,
+ * e.g., one virtual thread per request, and the number of idle instances does not grow with the number of threads.
+ * - An instance is borrowed by one thread at a time, and a new instance is created when no idle instance is available.
+ * - Released instances are reused most recently released first, so a thread releasing and borrowing again usually gets
+ *   the instance it just used back.
+ * - At most the maximum number of idle instances is kept, further released instances are discarded.
+ * @param <T> Pooled instance type.
+ */
+public final class BoundedPool<T> {
+    // Variables
+    private final ConcurrentLinkedDeque<T> idleInstances = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int maximumIdle;
+    private final Supplier<T> instanceFactory;
+    private final Consumer<T> discardAction;
+    /**
+     * Constructor
+     * @param maximumIdle Maximum number of idle instances kept for reuse.
+     * @param instanceFactory Factory creating a new instance when no idle instance is available.
+     * @param discardAction Action run on an instance discarded because the pool is full, e.g., to clear key material.
+     */
+    public BoundedPool(int maximumIdle,
+                       Supplier<T> instanceFactory,
+                       Consumer<T> discardAction) {
+        if (maximumIdle <= 0) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Maximum number of idle instances must " +
+                    "be positive, but received " + maximumIdle + "."
+            );
+        }
+        this.maximumIdle = maximumIdle;
+        this.instanceFactory = instanceFactory;
+        this.discardAction = discardAction;
+    }
+    /**
+     * Borrow an instance, which must be released once the caller is done with it.
+     * @return Idle instance, or a new instance when no idle instance is available.
+     */
+    public T borrow() {
+        T instance = idleInstances.pollFirst();
+        if (instance == null) {
+            return instanceFactory.get();
+        }
+        idleCount.decrementAndGet();
+        return instance;
+    }
+    /**
+     * Release a borrowed instance for reuse, or discard it when the pool already holds the maximum number of idle
+     * instances.
+     * @param instance Borrowed instance, which the caller must no longer use.
+     */
+    public void release(T instance) {
+        if (idleCount.incrementAndGet() <= maximumIdle) {
+            idleInstances.offerFirst(instance);
+        } else {
+            idleCount.decrementAndGet();
+            discardAction.accept(instance);
+        }
+    }
+    /**
+     * Get the number of idle instances.
+     * @return Number of idle instances held by the pool.
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+}
@@ -0,0 +1,184 @@
+package com.bc.utilities;
+
+/**
+ * Class defining the Data Encryption Standard (DES) permutation, key schedule and substitution tables as published in
+ * FIPS 46-3. Bit positions are numbered from 1, starting at the most significant bit, as in the standard.
+ * Note: The tables are used to build the lookup tables of the in-process DES engines at class initialisation and are
+ * not used directly on the encryption path.
+ */
+final class DESTables {
+    // Initial Permutation (IP), the Final Permutation (FP) is the inverse of IP.
+    static final int[] INITIAL_PERMUTATION = {
+            58, 50, 42, 34, 26, 18, 10, 2,
+            60, 52, 44, 36, 28, 20, 12, 4,
+            62, 54, 46, 38, 30, 22, 14, 6,
+            64, 56, 48, 40, 32, 24, 16, 8,
+            57, 49, 41, 33, 25, 17, 9, 1,
+            59, 51, 43, 35, 27, 19, 11, 3,
+            61, 53, 45, 37, 29, 21, 13, 5,
+            63, 55, 47, 39, 31, 23, 15, 7
+    };
+    // Permuted Choice 1 (PC-1), selects the 56 key bits from the 64 bit key, dropping the parity bits.
+    static final int[] PERMUTED_CHOICE_1 = {
+            57, 49, 41, 33, 25, 17, 9,
+            1, 58, 50, 42, 34, 26, 18,
+            10, 2, 59, 51, 43, 35, 27,
+            19, 11, 3, 60, 52, 44, 36,
+            63, 55, 47, 39, 31, 23, 15,
+            7, 62, 54, 46, 38, 30, 22,
+            14, 6, 61, 53, 45, 37, 29,
+            21, 13, 5, 28, 20, 12, 4
+    };
+    // Permuted Choice 2 (PC-2), selects the 48 bit round key from the 56 bit C and D registers.
+    static final int[] PERMUTED_CHOICE_2 = {
+            14, 17, 11, 24, 1, 5,
+            3, 28, 15, 6, 21, 10,
+            23, 19, 12, 4, 26, 8,
+            16, 7, 27, 20, 13, 2,
+            41, 52, 31, 37, 47, 55,
+            30, 40, 51, 45, 33, 48,
+            44, 49, 39, 56, 34, 53,
+            46, 42, 50, 36, 29, 32
+    };
+    // Number of left rotations of the C and D registers for each round.
+    static final int[] KEY_ROTATIONS = {
+            1, 1, 2, 2, 2, 2, 2, 2, 1, 2, 2, 2, 2, 2, 2, 1
+    };
+    // Permutation (P) applied to the S-box outputs.
+    static final int[] PERMUTATION = {
+            16, 7, 20, 21, 29, 12, 28, 17,
+            1, 15, 23, 26, 5, 18, 31, 10,
+            2, 8, 24, 14, 32, 27, 3, 9,
+            19, 13, 30, 6, 22, 11, 4, 25
+    };
+    // Substitution boxes S1 to S8, each indexed by row * 16 + column.
+    static final int[][] SUBSTITUTION_BOXES = {
+            {
+                    14, 4, 13, 1, 2, 15, 11, 8, 3, 10, 6, 12, 5, 9, 0, 7,
+                    0, 15, 7, 4, 14, 2, 13, 1, 10, 6, 12, 11, 9, 5, 3, 8,
+                    4, 1, 14, 8, 13, 6, 2, 11, 15, 12, 9, 7, 3, 10, 5, 0,
+                    15, 12, 8, 2, 4, 9, 1, 7, 5, 11, 3, 14, 10, 0, 6, 13
+            },
+            {
+                    15, 1, 8, 14, 6, 11, 3, 4, 9, 7, 2, 13, 12, 0, 5, 10,
+                    3, 13, 4, 7, 15, 2, 8, 14, 12, 0, 1, 10, 6, 9, 11, 5,
+                    0, 14, 7, 11, 10, 4, 13, 1, 5, 8, 12, 6, 9, 3, 2, 15,
+                    13, 8, 10, 1, 3, 15, 4, 2, 11, 6, 7, 12, 0, 5, 14, 9
+            },
+            {
+                    10, 0, 9, 14, 6, 3, 15, 5, 1, 13, 12, 7, 11, 4, 2, 8,
+                    13, 7, 0, 9, 3, 4, 6, 10, 2, 8, 5, 14, 12, 11, 15, 1,
+                    13, 6, 4, 9, 8, 15, 3, 0, 11, 1, 2, 12, 5, 10, 14, 7,
+                    1, 10, 13, 0, 6, 9, 8, 7, 4, 15, 14, 3, 11, 5, 2, 12
+            },
+            {
+                    7, 13, 14, 3, 0, 6, 9, 10, 1, 2, 8, 5, 11, 12, 4, 15,
+                    13, 8, 11, 5, 6, 15, 0, 3, 4, 7, 2, 12, 1, 10, 14, 9,
+                    10, 6, 9, 0, 12, 11, 7, 13, 15, 1, 3, 14, 5, 2, 8, 4,
+                    3, 15, 0, 6, 10, 1, 13, 8, 9, 4, 5, 11, 12, 7, 2, 14
+            },
+            {
+                    2, 12, 4, 1, 7, 10, 11, 6, 8, 5, 3, 15, 13, 0, 14, 9,
+                    14, 11, 2, 12, 4, 7, 13, 1, 5, 0, 15, 10, 3, 9, 8, 6,
+                    4, 2, 1, 11, 10, 13, 7, 8, 15, 9, 12, 5, 6, 3, 0, 14,
+                    11, 8, 12, 7, 1, 14, 2, 13, 6, 15, 0, 9, 10, 4, 5, 3
+            },
+            {
+                    12, 1, 10, 15, 9, 2, 6, 8, 0, 13, 3, 4, 14, 7, 5, 11,
+                    10, 15, 4, 2, 7, 12, 9, 5, 6, 1, 13, 14, 0, 11, 3, 8,
+                    9, 14, 15, 5, 2, 8, 12, 3, 7, 0, 4, 10, 1, 13, 11, 6,
+                    4, 3, 2, 12, 9, 5, 15, 10, 11, 14, 1, 7, 6, 0, 8, 13
+            },
+            {
+                    4, 11, 2, 14, 15, 0, 8, 13, 3, 12, 9, 7, 5, 10, 6, 1,
+                    13, 0, 11, 7, 4, 9, 1, 10, 14, 3, 5, 12, 2, 15, 8, 6,
+                    1, 4, 11, 13, 12, 3, 7, 14, 10, 15, 6, 8, 0, 5, 9, 2,
+                    6, 11, 13, 8, 1, 4, 10, 7, 9, 5, 0, 15, 14, 2, 3, 12
+            },
+            {
+                    13, 2, 8, 4, 6, 15, 11, 1, 10, 9, 3, 14, 5, 0, 12, 7,
+                    1, 15, 13, 8, 10, 3, 7, 4, 12, 5, 6, 11, 0, 14, 9, 2,
+                    7, 11, 4, 1, 9, 12, 14, 2, 0, 6, 10, 13, 15, 3, 5, 8,
+                    2, 1, 14, 7, 4, 10, 8, 13, 15, 12, 9, 0, 3, 5, 6, 11
+            }
+    };
+    // Constants
+    static final int DES_ROUNDS = 16;
+    static final int SUBSTITUTION_BOX_COUNT = 8;
+    /**
+     * Private constructor, the class only holds static tables.
+     */
+    private DESTables() {
+    }
+    /**
+     * Permute the bits of the input value using a permutation table.
+     * @param input Input value, right aligned.
+     * @param inputBits Number of significant bits in the input value.
+     * @param table Permutation table, each entry is the 1 based input bit position for the output bit.
+     * @return Permuted value, right aligned with table length significant bits.
+     */
+    static long permute(long input,
+                        int inputBits,
+                        int[] table) {
+        long output = 0;
+        for (int inputBitPosition : table) {
+            output = (output << 1) | ((input >>> (inputBits - inputBitPosition)) & 1L);
+        }
+        return output;
+    }
+    /**
+     * Look up the S-box output for a 6 bit input, where the outer bits select the row and the inner bits the column.
+     * @param substitutionBox Index of the S-box, 0 to 7.
+     * @param sixBitInput S-box input.
+     * @return 4 bit S-box output.
+     */
+    static int substitute(int substitutionBox,
+                          int sixBitInput) {
+        int row = ((sixBitInput >>> 4) & 0x02) | (sixBitInput & 0x01);
+        int column = (sixBitInput >>> 1) & 0x0F;
+        return SUBSTITUTION_BOXES[substitutionBox][row * 16 + column];
+    }
+    /**
+     * Compute the 16 round keys for a single DES key, each round key is returned as 48 bits right aligned.
+     * @param key Buffer holding the 8 byte DES key.
+     * @param keyOffset Offset of the DES key in the buffer.
+     * @return Round keys for rounds 1 to 16.
+     */
+    static long[] roundKeys(byte[] key,
+                            int keyOffset) {
+        final long MASK_28_BITS = 0x0FFFFFFFL;
+        long permutedKey = permute(toLong(key, keyOffset), 64, PERMUTED_CHOICE_1);
+        long c = permutedKey >>> 28;
+        long d = permutedKey & MASK_28_BITS;
+        long[] roundKeys = new long[DES_ROUNDS];
+        for (int round = 0; round < DES_ROUNDS; round++) {
+            int rotation = KEY_ROTATIONS[round];
+            c = ((c << rotation) | (c >>> (28 - rotation))) & MASK_28_BITS;
+            d = ((d << rotation) | (d >>> (28 - rotation))) & MASK_28_BITS;
+            roundKeys[round] = permute((c << 28) | d, 56, PERMUTED_CHOICE_2);
+        }
+        return roundKeys;
+    }
+    /**
+     * Read 8 bytes as a big endian long.
+     */
+    static long toLong(byte[] data,
+                       int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (data[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+    /**
+     * Write a long as 8 big endian bytes.
+     */
+    static void fromLong(long value,
+                         byte[] data,
+                         int offset) {
+        for (int i = 7; i >= 0; i--) {
+            data[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.bc.utilities;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Class implementing a bounded cache of derived cryptographic keys, e.g., Unique Derivation Keys and Session Keys.
+ * - Entries expire after a fixed time to live, counted from the time the key was derived.
+ * - When the cache is full, a new key is only admitted if it was requested more often than the least recently used
+ *   entry it would replace (TinyLFU admission), so one-off keys do not flush frequently used keys. The request
+ *   frequencies are estimated with a {@link FrequencySketch}.
+ * - Cached keys are held as copies and zeroized when they expire, are evicted or are invalidated, and callers always
+ *   receive a copy, which they may zeroize.
+ * - Hit, miss, eviction, expiration and admission rejection counts are recorded for monitoring.
+ * Note: Keys are derived outside the lock, so concurrent misses for the same key may derive it more than once.
+ * @param <K> Cache key type, which must not hold clear key material, see {@link #fingerprint(byte[])}.
+ */
+@Slf4j
+public class DerivedKeyCache<K>
+        implements LoggerUtility {
+    // Constants
+    private static final int FINGERPRINT_LENGTH = 16;
+    // Variables
+    private final String name;
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final boolean frequencyAdmission;
+    private final LongSupplier nanoTimeSupplier;
+    private final LinkedHashMap<K, CachedKey> entries;
+    private final FrequencySketch frequencySketch;
+    private final Object lock = new Object();
+    // Metrics
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+    private final LongAdder rejectionCount = new LongAdder();
+    /**
+     * Constructor
+     * @param name Cache name used in log messages.
+     * @param maximumSize Maximum number of cached keys.
+     * @param timeToLive Time after which a cached key expires.
+     * @param frequencyAdmission When set to true, TinyLFU admission is applied when the cache is full, else the least
+     *                           recently used key is always replaced.
+     */
+    public DerivedKeyCache(String name,
+                           int maximumSize,
+                           Duration timeToLive,
+                           boolean frequencyAdmission) {
+        this(name, maximumSize, timeToLive, frequencyAdmission, System::nanoTime);
+    }
+    /**
+     * Constructor with time source.
+     */
+    DerivedKeyCache(String name,
+                    int maximumSize,
+                    Duration timeToLive,
+                    boolean frequencyAdmission,
+                    LongSupplier nanoTimeSupplier) {
+        if (maximumSize <= 0 || timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Cache " + name + " requires a " +
+                    "positive maximum size and time to live, but received " + maximumSize + " and " + timeToLive + "."
+            );
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.frequencyAdmission = frequencyAdmission;
+        this.nanoTimeSupplier = nanoTimeSupplier;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.frequencySketch = new FrequencySketch(maximumSize);
+    }
+    /**
+     * Get the cached key, or derive the key and offer it to the cache.
+     * @param key Cache key.
+     * @param keyDerivator Function deriving the key on a cache miss.
+     * @return Copy of the cached or derived key.
+     */
+    public byte[] get(K key,
+                      Function<K, byte[]> keyDerivator) {
+        byte[] cachedKey = getIfPresent(key);
+        if (cachedKey != null) {
+            return cachedKey;
+        }
+        byte[] derivedKey = keyDerivator.apply(key);
+        if (derivedKey != null) {
+            put(key, derivedKey);
+        }
+        return derivedKey;
+    }
+    /**
+     * Get the cached key and count the request in the frequency sketch.
+     * @param key Cache key.
+     * @return Copy of the cached key, or null when the key is not cached or expired.
+     */
+    public byte[] getIfPresent(K key) {
+        synchronized (lock) {
+            frequencySketch.increment(key);
+            CachedKey cachedKey = entries.get(key);
+            if (cachedKey == null) {
+                missCount.increment();
+                return null;
+            }
+            if (cachedKey.isExpired(nanoTimeSupplier.getAsLong())) {
+                entries.remove(key);
+                cachedKey.clear();
+                expirationCount.increment();
+                missCount.increment();
+                return null;
+            }
+            hitCount.increment();
+            return cachedKey.value.clone();
+        }
+    }
+    /**
+     * Offer a derived key to the cache. The cache keeps a copy of the key when it is admitted.
+     * @param key Cache key.
+     * @param derivedKey Derived key.
+     */
+    public void put(K key,
+                    byte[] derivedKey) {
+        long nanoTime = nanoTimeSupplier.getAsLong();
+        CachedKey cachedKey = new CachedKey(derivedKey.clone(), nanoTime + timeToLiveNanos);
+        synchronized (lock) {
+            CachedKey existingKey = entries.get(key);
+            if (existingKey != null) {
+                if (!existingKey.isExpired(nanoTime)) {
+                    // Derived by a concurrent miss, keep the cached key
+                    cachedKey.clear();
+                    return;
+                }
+                entries.remove(key);
+                existingKey.clear();
+                expirationCount.increment();
+            }
+            if (entries.size() >= maximumSize && !makeRoomFor(key, nanoTime)) {
+                cachedKey.clear();
+                rejectionCount.increment();
+                return;
+            }
+            entries.put(key, cachedKey);
+        }
+    }
+    /**
+     * Remove and zeroize all cached keys.
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            entries.values().forEach(CachedKey::clear);
+            entries.clear();
+        }
+    }
+    /**
+     * Get a snapshot of the cache metrics.
+     * @return Cache statistics.
+     */
+    public Statistics getStatistics() {
+        int size;
+        synchronized (lock) {
+            size = entries.size();
+        }
+        return new Statistics(name,
+                size,
+                hitCount.sum(),
+                missCount.sum(),
+                evictionCount.sum(),
+                expirationCount.sum(),
+                rejectionCount.sum()
+        );
+    }
+    /**
+     * Build a fingerprint of key material for use in cache keys, i.e., the first 16 bytes of its SHA-256 hash, so
+     * clear keys are not held in the cache keys.
+     * @param keyMaterial Key material.
+     * @return Hexadecimal fingerprint of the key material.
+     */
+    public static String fingerprint(byte[] keyMaterial) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(keyMaterial);
+            String fingerprint = new String(hexFingerprint(hash), StandardCharsets.ISO_8859_1);
+            Arrays.fill(hash, (byte) 0);
+            return fingerprint;
+        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            throw new IllegalStateException(DerivedKeyCache.class.getName() + " --> SHA-256 is not available: " +
+                    noSuchAlgorithmException.getMessage()
+            );
+        }
+    }
+    /**
+     * Make room for a new key when the cache is full. Expired keys at the least recently used end are removed first,
+     * otherwise the least recently used key is evicted, if the new key is requested more often or frequency admission
+     * is disabled.
+     * @return True when there is room for the new key.
+     */
+    private boolean makeRoomFor(K key,
+                                long nanoTime) {
+        Iterator<Map.Entry<K, CachedKey>> iterator = entries.entrySet().iterator();
+        Map.Entry<K, CachedKey> victim = iterator.next();
+        if (victim.getValue().isExpired(nanoTime)) {
+            do {
+                iterator.remove();
+                victim.getValue().clear();
+                expirationCount.increment();
+            } while (iterator.hasNext() && (victim = iterator.next()).getValue().isExpired(nanoTime));
+            return true;
+        }
+        if (frequencyAdmission &&
+                frequencySketch.frequency(key) <= frequencySketch.frequency(victim.getKey())) {
+            return false;
+        }
+        entries.remove(victim.getKey());
+        victim.getValue().clear();
+        evictionCount.increment();
+        logDebug(log,
+                "Key evicted from cache {}.",
+                name
+        );
+        return true;
+    }
+    /**
+     * Encode the leading bytes of a hash as lowercase hexadecimal ASCII.
+     */
+    private static byte[] hexFingerprint(byte[] hash) {
+        byte[] fingerprint = new byte[2 * FINGERPRINT_LENGTH];
+        HexCodec.encodeAscii(hash,
+                0,
+                FINGERPRINT_LENGTH,
+                fingerprint,
+                0
+        );
+        return fingerprint;
+    }
+    /**
+     * Cached key with its expiry time.
+     */
+    private static final class CachedKey {
+        private final byte[] value;
+        private final long expiryNanoTime;
+        private CachedKey(byte[] value,
+                          long expiryNanoTime) {
+            this.value = value;
+            this.expiryNanoTime = expiryNanoTime;
+        }
+        private boolean isExpired(long nanoTime) {
+            return nanoTime - expiryNanoTime >= 0;
+        }
+        private void clear() {
+            Arrays.fill(value, (byte) 0);
+        }
+    }
+    /**
+     * Snapshot of the cache metrics.
+     */
+    @Getter
+    public static final class Statistics {
+        private final String name;
+        private final int size;
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long expirationCount;
+        private final long rejectionCount;
+        private Statistics(String name,
+                           int size,
+                           long hitCount,
+                           long missCount,
+                           long evictionCount,
+                           long expirationCount,
+                           long rejectionCount) {
+            this.name = name;
+            this.size = size;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.expirationCount = expirationCount;
+            this.rejectionCount = rejectionCount;
+        }
+        /**
+         * Get the ratio of hits to requests.
+         * @return Hit ratio, or 0 when no requests were made.
+         */
+        public double getHitRatio() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+        }
+        /**
+         * Override method for the object's default toString method.
+         * @return String representing object's attribute values.
+         */
+        @Override
+        public String toString() {
+            return "{" +
+                    "name='" + name + '\'' +
+                    ", size=" + size +
+                    ", hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", evictionCount=" + evictionCount +
+                    ", expirationCount=" + expirationCount +
+                    ", rejectionCount=" + rejectionCount +
+                    '}';
+        }
+    }
+}
@@ -15,7 +15,12 @@ public class DeterminePaymentScheme {
      * @return Returns the derived Payment Scheme or UNKNOWN, if unsupported or pan is invalid.
      */
     public static PaymentScheme fromPan(String pan){
-        log.debug("com.bc.utilities.DeterminePaymentScheme --> PAN input: {}/Length of PAN: {}.", pan, pan.length());
+        if (log.isDebugEnabled()) {
+            log.debug("com.bc.utilities.DeterminePaymentScheme --> PAN input: {}/Length of PAN: {}.",
+                    LoggerUtility.maskPan(pan),
+                    pan.length()
+            );
+        }
         if (pan.length() == DEFAULT_PAN_LENGTH) {
             switch (pan.substring(0,1)){
                 case PAN_FIRST_DIGIT_IS_FOUR:
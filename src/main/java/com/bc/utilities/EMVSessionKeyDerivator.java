@@ -1,17 +1,31 @@
 package com.bc.utilities;
 
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.model.constraint.HexadecimalString;
 import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.EMVSessionKeyDerivationMethod;
 import com.bc.application.enumeration.PaymentScheme;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import static com.bc.model.pattern.CommonPattern.*;
+import java.util.Objects;
+import java.util.function.Supplier;
+import static com.bc.utilities.TripleDES.TDEA_BLOCK_SIZE;
 /**
  * This class implements the methods for deriving EMV Session Key derivation methods.
+ * Note: When a session key cache is supplied, derived session keys are cached by UDK fingerprint, SKD method, ATC and,
+ * for the Mastercard Proprietary SKD method, the Unpredictable Number, so retried and replayed requests do not derive
+ * the same session key again. Trusted callers pass the UDK fingerprint computed where the UDK was produced, so a cache
+ * lookup does not hash the UDK.
+ * Note: The Unique Derivation Key is passed as raw key bytes owned by the caller, who zeroizes it once the session key
+ * is derived. The session key returned is a new array owned by the caller, also for Visa CVN10 where the UDK itself is
+ * the session key.
+ * Note: The ATC and UN are packed once, from the validated digits, or copied from the request record for trusted
+ * callers, so the session key components and the cache key are built from bytes.
  */
-@Setter
 @Getter
 @Slf4j
 public class EMVSessionKeyDerivator
@@ -19,50 +33,153 @@ public class EMVSessionKeyDerivator
         implements LoggerUtility {
     //Input attributes
     @NotNull
-    @Pattern(regexp = IS_A_VALID_TDEA_KEY)
-    private String inputKey;
+    @Size(min = 8, max = 24)
+    @Getter(AccessLevel.NONE)
+    private byte [] inputKey;
     @NotNull
-    @Pattern(regexp = IS_A_1_TO_4_DIGIT_HEXADECIMAL_NUMBER)
+    @HexadecimalString(min = 1, max = 4)
+    @Getter(AccessLevel.NONE)
     private String applicationTransactionCounter;
     @NotNull
-    @Pattern(regexp = IS_A_8_DIGIT_HEXADECIMAL_NUMBER)
+    @HexadecimalString(min = 8, max = 8)
+    @Getter(AccessLevel.NONE)
     private String unpredictableNumber;
     @NotNull
     private CryptogramVersionNumber cryptogramVersionNumber;
     @NotNull
     private PaymentScheme paymentScheme;
+    private DerivedKeyCache<String> sessionKeyCache;
+    @Getter(AccessLevel.NONE)
+    private String inputKeyFingerprint;
+    // Diversification data, i.e., the ATC followed by the UN
+    @Getter(AccessLevel.NONE)
+    private final byte [] diversificationData = new byte[ATC_LENGTH + UNPREDICTABLE_NUMBER_LENGTH];
+    // Constants
+    private static final int SESSION_KEY_LENGTH = 2 * TDEA_BLOCK_SIZE;
+    private static final int ATC_LENGTH = 2;
+    private static final int UNPREDICTABLE_NUMBER_LENGTH = 4;
+    private static final byte KEY_A_DIVERSIFIER = (byte) 0xF0;
+    private static final byte KEY_B_DIVERSIFIER = (byte) 0x0F;
     /**
      * All args constructor
      */
-    public EMVSessionKeyDerivator(String inputKey,
+    public EMVSessionKeyDerivator(byte [] inputKey,
                                   String applicationTransactionCounter,
                                   String unpredictableNumber,
                                   CryptogramVersionNumber cryptogramVersionNumber,
                                   PaymentScheme paymentScheme){
+        this(inputKey,
+                applicationTransactionCounter,
+                unpredictableNumber,
+                cryptogramVersionNumber,
+                paymentScheme,
+                null,
+                null,
+                true
+        );
+    }
+    /**
+     * All args constructor with session key cache.
+     */
+    public EMVSessionKeyDerivator(byte [] inputKey,
+                                  String applicationTransactionCounter,
+                                  String unpredictableNumber,
+                                  CryptogramVersionNumber cryptogramVersionNumber,
+                                  PaymentScheme paymentScheme,
+                                  DerivedKeyCache<String> sessionKeyCache){
+        this(inputKey,
+                applicationTransactionCounter,
+                unpredictableNumber,
+                cryptogramVersionNumber,
+                paymentScheme,
+                sessionKeyCache,
+                sessionKeyCache == null ? null : DerivedKeyCache.fingerprint(inputKey),
+                true
+        );
+    }
+    /**
+     * All args constructor, validating the input when requested. The input is packed into bytes once validated.
+     */
+    private EMVSessionKeyDerivator(byte [] inputKey,
+                                   String applicationTransactionCounter,
+                                   String unpredictableNumber,
+                                   CryptogramVersionNumber cryptogramVersionNumber,
+                                   PaymentScheme paymentScheme,
+                                   DerivedKeyCache<String> sessionKeyCache,
+                                   String inputKeyFingerprint,
+                                   boolean validate){
         this.inputKey = inputKey;
         this.applicationTransactionCounter = applicationTransactionCounter;
         this.unpredictableNumber = unpredictableNumber;
         this.cryptogramVersionNumber = cryptogramVersionNumber;
         this.paymentScheme = paymentScheme;
-        // Call self validate
-        selfValidate();
-        logDebug(log,
-                "Self validation successful for object {}.",
-                this
+        this.sessionKeyCache = sessionKeyCache;
+        this.inputKeyFingerprint = inputKeyFingerprint;
+        if (validate) {
+            // Call self validate
+            selfValidate();
+            packDiversificationData();
+            logDebug(log,
+                    "Self validation successful for object {}.",
+                    this
+            );
+        }
+    }
+    /**
+     * Factory method for trusted internal callers, skipping the constraint validation of the input. The ATC and UN
+     * are copied from the request record validated at the edge, e.g., by the request command, and the key must be an
+     * internally derived UDK, which is used in place and not copied.
+     * @param inputKey Unique Derivation Key derived from the Issuer Master Key, as raw key bytes owned by the caller.
+     * @param requestRecord Validated request record holding the Application Transaction Counter and Unpredictable Number.
+     * @param cryptogramVersionNumber Cryptogram Version Number.
+     * @param paymentScheme Payment Scheme.
+     * @param sessionKeyCache Session key cache, or null to always derive the session key.
+     * @param inputKeyFingerprint Fingerprint identifying the UDK in the session key cache, required with a cache.
+     * @return Session Key derivator.
+     */
+    public static EMVSessionKeyDerivator fromValidatedInput(byte [] inputKey,
+                                                            CryptogramRequestRecord requestRecord,
+                                                            CryptogramVersionNumber cryptogramVersionNumber,
+                                                            PaymentScheme paymentScheme,
+                                                            DerivedKeyCache<String> sessionKeyCache,
+                                                            String inputKeyFingerprint){
+        EMVSessionKeyDerivator sessionKeyDerivator =
+                new EMVSessionKeyDerivator(Objects.requireNonNull(inputKey, "inputKey"),
+                        null,
+                        null,
+                        cryptogramVersionNumber,
+                        paymentScheme,
+                        sessionKeyCache,
+                        sessionKeyCache == null ? null : Objects.requireNonNull(inputKeyFingerprint, "inputKeyFingerprint"),
+                        false
+                );
+        byte [] recordData = requestRecord.getData();
+        System.arraycopy(recordData,
+                CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER.getOffset(),
+                sessionKeyDerivator.diversificationData,
+                0,
+                ATC_LENGTH
+        );
+        System.arraycopy(recordData,
+                CryptogramRequestField.UNPREDICTABLE_NUMBER.getOffset(),
+                sessionKeyDerivator.diversificationData,
+                ATC_LENGTH,
+                UNPREDICTABLE_NUMBER_LENGTH
         );
+        return sessionKeyDerivator;
     }
     /**
-     * Driver method for generating the requested Session Key from the Master key.
+     * Driver method for generating the requested Session Key from the Master key as raw key bytes.
      */
-    public String generateSessionKey() {
+    public byte [] generateSessionKeyBytes() {
         return getSessionKey();
     }
     /**
      * Driver method used to derive a Session Key from a Master Key based on Payment Scheme.
      * @return Generated Session Key
      */
-    private String getSessionKey() {
-        String sessionKey = null;
+    private byte [] getSessionKey() {
+        byte [] sessionKey = null;
         switch (paymentScheme){
             case VISA:
                 sessionKey = getVisaSessionKey();
@@ -79,22 +196,22 @@ public class EMVSessionKeyDerivator
      * Method used to derive a Mastercard Payment Scheme Session Key from a Master Key.
      * @return Generated Session Key
      */
-    private String getMastercardSessionKey() {
-        String sessionKey = null;
+    private byte [] getMastercardSessionKey() {
+        byte [] sessionKey = null;
         switch (cryptogramVersionNumber){
             case CVN10:
             case CVN16:
             case CVN17:
-                logInfo(log, paymentScheme + " - CVN10/CVN16/CVN17: Session Key derivation using Mastercard Proprietary method.");
+                logDebug(log, "{} - CVN10/CVN16/CVN17: Session Key derivation using Mastercard Proprietary method.", paymentScheme);
                 sessionKey = getMastercardProprietarySessionKeyDerivationMethodBasedKey();
-                logDebug(log, paymentScheme + " - Session Key derived using Mastercard Proprietary method: {}.", sessionKey);
+                logDebug(log, "{} - Session Key derived using Mastercard Proprietary method.", paymentScheme);
                 break;
             case CVN14:
             case CVN20:
             case CVN21:
-                logInfo(log, paymentScheme + " - CVN14/CVN20/CVN21: Session Key derivation using EMV CSK method.");
+                logDebug(log, "{} - CVN14/CVN20/CVN21: Session Key derivation using EMV CSK method.", paymentScheme);
                 sessionKey = getEMVCommonSessionKeyDerivationMethodBasedKey();
-                logDebug(log, paymentScheme + " - Session Key derived using EMV CSK method: {}.", sessionKey);
+                logDebug(log, "{} - Session Key derived using EMV CSK method.", paymentScheme);
                 break;
             default:
                 unsupportedCvnException();
@@ -105,22 +222,22 @@ public class EMVSessionKeyDerivator
      * Method used to derive a Visa Payment Scheme Session Key from a Master Key.
      * @return Generated Session Key
      */
-    private String getVisaSessionKey() {
-        String sessionKey = null;
+    private byte [] getVisaSessionKey() {
+        byte [] sessionKey = null;
         switch (cryptogramVersionNumber){
             case CVN10:
-                logInfo(log, paymentScheme + " - CVN10: UDK itself to be used as session key.");
+                logDebug(log, "{} - CVN10: UDK itself to be used as session key.", paymentScheme);
                 sessionKey = udkAsSessionKey();
-                logDebug(log, paymentScheme + "UDK used as session key: {}.", sessionKey);
+                logDebug(log, "{} - UDK used as session key.", paymentScheme);
                 break;
             case CVN14:
             case CVN18:
             case CVN22: // CVN 22 will not work correctly,
                         // since the CVN 22 UDK derivation mechanism uses EMV Option B UDK derivation.
                         // This has not been implemented yet.
-                logInfo(log, paymentScheme + " - CVN14/CVN18/CVN22: Session Key derived using EMV CSK method.");
+                logDebug(log, "{} - CVN14/CVN18/CVN22: Session Key derived using EMV CSK method.", paymentScheme);
                 sessionKey = getEMVCommonSessionKeyDerivationMethodBasedKey();
-                logDebug(log, " - Session Key derived using EMV CSK method: {}.", sessionKey);
+                logDebug(log, "{} - Session Key derived using EMV CSK method.", paymentScheme);
                 break;
             default:
                 unsupportedCvnException();
@@ -139,7 +256,7 @@ public class EMVSessionKeyDerivator
      * Throw exception when an unsupported CVN is received in the IAD.
      */
     private void unsupportedCvnException() {
-        throw new IllegalStateException(this.getClass().getName() + " --> CVN: " + cryptogramVersionNumber +
+        throw new UnsupportedCryptogramVersionException(this.getClass().getName() + " --> CVN: " + cryptogramVersionNumber +
                 " is currently not supported. Only CVNs: \"10\", \"14\", \"16\", \"17\", \"20\", and \"21\" are supported."
         );
     }
@@ -147,9 +264,9 @@ public class EMVSessionKeyDerivator
      * Return Unique Derivation Key itself as session key.
      * @return Session Key generated using EMV CSK method.
      */
-    private String udkAsSessionKey(){
+    private byte [] udkAsSessionKey(){
 
-        return inputKey;
+        return inputKey.clone();
 
     }
     /**
@@ -157,61 +274,30 @@ public class EMVSessionKeyDerivator
      * details provided in EMV Book 2 and VIS 1.6 - D.7.2.
      * @return Session Key generated using EMV CSK method.
      */
-    private String getEMVCommonSessionKeyDerivationMethodBasedKey(){
+    private byte [] getEMVCommonSessionKeyDerivationMethodBasedKey(){
 
-        String emvCskKeyAComponent, emvCskKeyBComponent;
-        String emvCskKeyA, emvCskKeyB;
-        // Get UDK Key A and build EMV CS Key A Component
-        emvCskKeyAComponent = getEMVCommonSessionKeyAComponent();
-        emvCskKeyA = tripleDESEncrypt(emvCskKeyAComponent,
-                inputKey);
-        // Get UDK Key B and build EMV CS Key B Component
-        emvCskKeyBComponent = getEMVCommonSessionKeyBComponent();
-        emvCskKeyB = tripleDESEncrypt(emvCskKeyBComponent,
-                inputKey);
-        // Return generated EMV CSK method session key
-        logDebug(log,
-                "Session Key components generated: Component A {} / Component B {}.",
-                emvCskKeyAComponent,
-                emvCskKeyBComponent
-        );
-        logDebug(log,
-                "Session Key generated: Key A {} / Key B {}.",
-                emvCskKeyA,
-                emvCskKeyB
-        );
-        return emvCskKeyA +
-                emvCskKeyB;
+        return getCachedSessionKey(EMVSessionKeyDerivationMethod.EMV_CSK, () -> {
+            byte [] sessionKeyComponents = new byte[SESSION_KEY_LENGTH];
+            // Build EMV CS Key A Component and EMV CS Key B Component
+            buildEMVCommonSessionKeyComponents(sessionKeyComponents);
+            // Return generated EMV CSK method session key
+            return deriveSessionKeyFromComponents(sessionKeyComponents);
+        });
 
     }
     /**
-     * Method used to build the EMV Common Session Key Derivation Key A component.
-     * @return EMV CSK A component.
+     * Method used to build the EMV Common Session Key Derivation Key A and Key B components, i.e.,
+     * ATC || "F00000000000" and ATC || "0F0000000000".
+     * @param sessionKeyComponents Buffer receiving the Key A component followed by the Key B component.
      */
-    private String getEMVCommonSessionKeyAComponent(){
+    private void buildEMVCommonSessionKeyComponents(byte [] sessionKeyComponents){
 
-        String paddedAtc = Padding.padString(applicationTransactionCounter,
-                "0",
-                4,
-                true
-        );
-        return paddedAtc +
-                "F00000000000";
+        writeApplicationTransactionCounter(sessionKeyComponents, 0);
+        sessionKeyComponents[ATC_LENGTH] = KEY_A_DIVERSIFIER;
+        writeApplicationTransactionCounter(sessionKeyComponents, TDEA_BLOCK_SIZE);
+        sessionKeyComponents[TDEA_BLOCK_SIZE + ATC_LENGTH] = KEY_B_DIVERSIFIER;
 
     }
-    /**
-     * Method used to build the EMV Common Session Key Derivation Key B component.
-     * @return EMV CSK B component.
-     */
-    private String getEMVCommonSessionKeyBComponent(){
-        String paddedAtc = Padding.padString(applicationTransactionCounter,
-                "0",
-                4,
-                true
-        );
-        return paddedAtc +
-                "0F0000000000";
-    }
     /**
      * Generate a Session Key using Mastercard Proprietary Session Key (Proprietary SKD) derivation method,
      * this implementation is similar to the EMV Book 2 and VIS 1.6 - D.7.2 EMV CSK method, i.e., uses ATC as a
@@ -219,74 +305,115 @@ public class EMVSessionKeyDerivator
      * also as a diversification factor in session key generation.
      * @return Session Key generated using Mastercard Proprietary SKD method.
      */
-    private String getMastercardProprietarySessionKeyDerivationMethodBasedKey(){
+    private byte [] getMastercardProprietarySessionKeyDerivationMethodBasedKey(){
 
-        String mcProprietarySkdKeyAComponent, mcProprietarySkdKeyBComponent;
-        String mcProprietarySkdKeyA, mcProprietarySkdKeyB;
-        // Get UDK Key A and build MC Proprietary SKD Key A Component
-        mcProprietarySkdKeyAComponent = getMastercardProprietarySessionKeyAComponent();
-        mcProprietarySkdKeyA = tripleDESEncrypt(mcProprietarySkdKeyAComponent,
-                inputKey);
-        // Get UDK Key B and build MC Proprietary SKD Key B Component
-        mcProprietarySkdKeyBComponent = getMastercardProprietarySessionKeyBComponent();
-        mcProprietarySkdKeyB = tripleDESEncrypt(mcProprietarySkdKeyBComponent,
-                inputKey);
-        // Return generated MC Proprietary SKD method based session key
-        logDebug(log,
-                "Session Key components generated: Component A {} / Component B {}.",
-                mcProprietarySkdKeyAComponent,
-                mcProprietarySkdKeyBComponent
-        );
-        logDebug(log,
-                "Session Key generated: Key A {} / Key B {}.",
-                mcProprietarySkdKeyA,
-                mcProprietarySkdKeyB
-        );
-        return mcProprietarySkdKeyA +
-                mcProprietarySkdKeyB;
+        return getCachedSessionKey(EMVSessionKeyDerivationMethod.MASTERCARD_PROPRIETARY, () -> {
+            byte [] sessionKeyComponents = new byte[SESSION_KEY_LENGTH];
+            // Build MC Proprietary SKD Key A Component and MC Proprietary SKD Key B Component
+            buildMastercardProprietarySessionKeyComponents(sessionKeyComponents);
+            // Return generated MC Proprietary SKD method based session key
+            return deriveSessionKeyFromComponents(sessionKeyComponents);
+        });
 
     }
     /**
-     * Method used to build the Mastercard Proprietary SKD method Key A component.
-     * @return EMV CSK A component.
+     * Get the session key from the session key cache, or derive the session key and offer it to the cache. The
+     * session key is derived directly when no cache is supplied.
+     * @param sessionKeyDerivationMethod Session Key Derivation method, part of the cache key.
+     * @param sessionKeyDerivator Session key derivation on a cache miss.
+     * @return Session Key.
      */
-    private String getMastercardProprietarySessionKeyAComponent(){
-        String paddedAtc = Padding.padString(applicationTransactionCounter,
-                "0",
-                4,
-                true
+    private byte [] getCachedSessionKey(EMVSessionKeyDerivationMethod sessionKeyDerivationMethod,
+                                        Supplier<byte []> sessionKeyDerivator){
+        if (sessionKeyCache == null) {
+            return sessionKeyDerivator.get();
+        }
+        StringBuilder cacheKey = new StringBuilder(inputKeyFingerprint)
+                .append(':')
+                .append(sessionKeyDerivationMethod)
+                .append(':')
+                .append(((diversificationData[0] & 0xFF) << 8) | (diversificationData[1] & 0xFF));
+        if (sessionKeyDerivationMethod.isMASTERCARD_PROPRIETARY()) {
+            HexCodec.encode(diversificationData,
+                    ATC_LENGTH,
+                    UNPREDICTABLE_NUMBER_LENGTH,
+                    cacheKey.append(':')
+            );
+        }
+        return sessionKeyCache.get(cacheKey.toString(),
+                key -> sessionKeyDerivator.get()
         );
-        return paddedAtc +
-                "F000" +
-                unpredictableNumber;
     }
     /**
-     * Method used to build the Mastercard Proprietary SKD method Key A component.
-     * @return EMV CSK B component.
+     * Method used to build the Mastercard Proprietary SKD method Key A and Key B components, i.e.,
+     * ATC || "F000" || UN and ATC || "0F00" || UN.
+     * @param sessionKeyComponents Buffer receiving the Key A component followed by the Key B component.
      */
-    private String getMastercardProprietarySessionKeyBComponent(){
-        String paddedAtc = Padding.padString(applicationTransactionCounter,
-                "0",
-                4,
-                true
+    private void buildMastercardProprietarySessionKeyComponents(byte [] sessionKeyComponents){
+        final int UNPREDICTABLE_NUMBER_OFFSET = 4;
+        writeApplicationTransactionCounter(sessionKeyComponents, 0);
+        sessionKeyComponents[ATC_LENGTH] = KEY_A_DIVERSIFIER;
+        System.arraycopy(diversificationData, ATC_LENGTH, sessionKeyComponents, UNPREDICTABLE_NUMBER_OFFSET,
+                UNPREDICTABLE_NUMBER_LENGTH);
+        writeApplicationTransactionCounter(sessionKeyComponents, TDEA_BLOCK_SIZE);
+        sessionKeyComponents[TDEA_BLOCK_SIZE + ATC_LENGTH] = KEY_B_DIVERSIFIER;
+        System.arraycopy(diversificationData, ATC_LENGTH, sessionKeyComponents, TDEA_BLOCK_SIZE + UNPREDICTABLE_NUMBER_OFFSET,
+                UNPREDICTABLE_NUMBER_LENGTH);
+    }
+    /**
+     * Write the left zero padded 2 byte Application Transaction Counter into the buffer.
+     * @param buffer Buffer receiving the ATC.
+     * @param offset Offset of the ATC in the buffer.
+     */
+    private void writeApplicationTransactionCounter(byte [] buffer,
+                                                    int offset){
+        System.arraycopy(diversificationData, 0, buffer, offset, ATC_LENGTH);
+    }
+    /**
+     * Pack the validated ATC and UN given as hexadecimal digits into the diversification data, the ATC left padded
+     * with zeros.
+     */
+    private void packDiversificationData(){
+        int atc = Integer.parseInt(applicationTransactionCounter, 16);
+        diversificationData[0] = (byte) (atc >>> 8);
+        diversificationData[1] = (byte) atc;
+        HexCodec.decode(unpredictableNumber,
+                0,
+                unpredictableNumber.length(),
+                diversificationData,
+                ATC_LENGTH
         );
-        return paddedAtc +
-                "0F00" +
-                unpredictableNumber;
     }
     /**
-     * Perform Triple DES Encryption.
-     * @param inputData Input data to be encrypted.
-     * @param inputKey Triple DES Key to encrypt the data.
-     * @return Encrypted data String.
+     * Encrypt the Key A and Key B components under the Unique Derivation Key to build the Session Key.
+     * @param sessionKeyComponents Key A component followed by the Key B component.
+     * @return Session Key A followed by Session Key B.
      */
-    private String tripleDESEncrypt(String inputData, String inputKey) {
-
-        TripleDES tripleDES = new TripleDES();
-        tripleDES.setInputData(inputData);
-        tripleDES.setKey(inputKey);
-        return tripleDES.encrypt();
-
+    private byte [] deriveSessionKeyFromComponents(byte [] sessionKeyComponents){
+        byte [] sessionKey = new byte[SESSION_KEY_LENGTH];
+        TripleDES.encryptBlock(inputKey,
+                sessionKeyComponents,
+                0,
+                sessionKey,
+                0
+        );
+        TripleDES.encryptBlock(inputKey,
+                sessionKeyComponents,
+                TDEA_BLOCK_SIZE,
+                sessionKey,
+                TDEA_BLOCK_SIZE
+        );
+        if (log.isDebugEnabled()) {
+            logDebug(log,
+                    "Session Key components generated: Component A || Component B {}.",
+                    HexCodec.encode(sessionKeyComponents)
+            );
+            logDebug(log,
+                    "Session Key generated: Key A || Key B {}.",
+                    LoggerUtility.maskKey(sessionKey)
+            );
+        }
+        return sessionKey;
     }
     /**
      * Override method for the object's default toString method.
@@ -295,10 +422,12 @@ public class EMVSessionKeyDerivator
     @Override
     public String toString() {
         return "{" +
-                "inputKey='" + inputKey + '\'' +
-                "applicationTransactionCounter='" + applicationTransactionCounter + '\'' +
-                "unpredictableNumber='" + unpredictableNumber + '\'' +
-                "cryptogramVersionNumber='" + cryptogramVersionNumber + '\'' +
+                "inputKey='" + LoggerUtility.maskKey(inputKey) + '\'' +
+                ", applicationTransactionCounter='" +
+                HexCodec.encode(diversificationData, 0, ATC_LENGTH, new StringBuilder()) + '\'' +
+                ", unpredictableNumber='" +
+                HexCodec.encode(diversificationData, ATC_LENGTH, UNPREDICTABLE_NUMBER_LENGTH, new StringBuilder()) + '\'' +
+                ", cryptogramVersionNumber='" + cryptogramVersionNumber + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -1,17 +1,28 @@
 package com.bc.utilities;
 
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.model.constraint.DecimalString;
 import com.bc.application.enumeration.CryptogramVersionNumber;
 import com.bc.application.enumeration.EMVUDKDerivationMethod;
 import com.bc.application.enumeration.PaymentScheme;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import static com.bc.model.pattern.CommonPattern.*;
-import static com.bc.model.constants.PaymentSchemeConstants.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import static com.bc.utilities.TripleDES.TDEA_BLOCK_SIZE;
 /**
  * This class implements the methods for deriving various cryptographic keys used in the EMV functions.
  * Note: All attributes except the key are mandatory input for the proper functioning of the key derivation methods.
+ * Note: The Issuer Master Key is passed as raw key bytes owned by the caller, e.g., the issuer key registry, which
+ * zeroizes it. The key is used in place, and is never copied nor modified by the derivator.
+ * Note: The UDK Key A component is packed once, from the validated digits, or copied from the BCD PAN and PAN Sequence
+ * Number of the request record for trusted callers.
  */
 @Getter
 @Slf4j
@@ -20,13 +31,14 @@ public class EMVUniqueDerivationKeyDerivator
         implements LoggerUtility {
     //Input attributes
     @NotNull
-    @Pattern(regexp = IS_A_VALID_TDEA_KEY)
-    private String inputKey;
+    @Size(min = 8, max = 24)
+    @Getter(AccessLevel.NONE)
+    private byte [] inputKey;
     @NotNull
-    @Pattern(regexp = IS_A_16_DIGIT_DECIMAL_NUMBER)
+    @DecimalString(min = 16, max = 16)
     private String pan;
     @NotNull
-    @Pattern(regexp = IS_A_1_OR_2_DIGIT_DECIMAL_NUMBER)
+    @DecimalString(min = 1, max = 2)
     private String panSequenceNumber;
     @NotNull
     private PaymentScheme paymentScheme;
@@ -34,32 +46,95 @@ public class EMVUniqueDerivationKeyDerivator
     private CryptogramVersionNumber cryptogramVersionNumber;
     @NotNull
     private EMVUDKDerivationMethod emvudkDerivationMethod;
+    // UDK Key A component, i.e., the rightmost 16 digits of the PAN and the two digit PAN Sequence Number
+    @Getter(AccessLevel.NONE)
+    private final byte [] udkKeyAComponent = new byte[TDEA_BLOCK_SIZE];
+    // Constants
+    private static final int UDK_LENGTH = 2 * TDEA_BLOCK_SIZE;
+    private static final int PAN_BYTES_SKIPPED = 1;
     /**
      * All args constructor
      */
-    public EMVUniqueDerivationKeyDerivator(String inputKey,
+    public EMVUniqueDerivationKeyDerivator(byte [] inputKey,
                                            String pan,
                                            String panSequenceNumber,
                                            PaymentScheme paymentScheme,
                                            CryptogramVersionNumber cryptogramVersionNumber,
                                            EMVUDKDerivationMethod emvudkDerivationMethod) {
+        this(inputKey,
+                pan,
+                panSequenceNumber,
+                paymentScheme,
+                cryptogramVersionNumber,
+                emvudkDerivationMethod,
+                true
+        );
+    }
+    /**
+     * All args constructor, validating the input when requested. The input is packed into bytes once validated.
+     */
+    private EMVUniqueDerivationKeyDerivator(byte [] inputKey,
+                                            String pan,
+                                            String panSequenceNumber,
+                                            PaymentScheme paymentScheme,
+                                            CryptogramVersionNumber cryptogramVersionNumber,
+                                            EMVUDKDerivationMethod emvudkDerivationMethod,
+                                            boolean validate) {
         this.inputKey = inputKey;
         this.pan = pan;
         this.panSequenceNumber = panSequenceNumber;
         this.paymentScheme = paymentScheme;
         this.cryptogramVersionNumber = cryptogramVersionNumber;
         this.emvudkDerivationMethod = emvudkDerivationMethod;
-        // Call self validate
-        selfValidate();
-        logDebug(log,
-                "Self validation successful for object {}.",
-                this
+        if (validate) {
+            // Call self validate
+            selfValidate();
+            packUdkKeyAComponent();
+            logDebug(log,
+                    "Self validation successful for object {}.",
+                    this
+            );
+        }
+    }
+    /**
+     * Factory method for trusted internal callers, skipping the constraint validation of the input. The PAN and PAN
+     * Sequence Number are copied from the validated request record, already packed as BCD.
+     * @param inputKey Single, double or triple length Issuer Master Key, as raw key bytes owned by the caller.
+     * @param requestRecord Validated request record holding the PAN and PAN Sequence Number.
+     * @param paymentScheme Payment Scheme.
+     * @param cryptogramVersionNumber Cryptogram Version Number.
+     * @param emvudkDerivationMethod UDK derivation method.
+     * @return Unique Derivation Key derivator.
+     */
+    public static EMVUniqueDerivationKeyDerivator fromValidatedInput(byte [] inputKey,
+                                                                     CryptogramRequestRecord requestRecord,
+                                                                     PaymentScheme paymentScheme,
+                                                                     CryptogramVersionNumber cryptogramVersionNumber,
+                                                                     EMVUDKDerivationMethod emvudkDerivationMethod) {
+        byte [] recordData = requestRecord.getData();
+        int panSequenceNumberOffset = CryptogramRequestField.PAN_SEQUENCE_NUMBER.getOffset();
+        EMVUniqueDerivationKeyDerivator udkDerivator =
+                new EMVUniqueDerivationKeyDerivator(Objects.requireNonNull(inputKey, "inputKey"),
+                        requestRecord.getPan(),
+                        HexCodec.encode(recordData, panSequenceNumberOffset, 1, new StringBuilder(2)).toString(),
+                        paymentScheme,
+                        cryptogramVersionNumber,
+                        emvudkDerivationMethod,
+                        false
+                );
+        System.arraycopy(recordData,
+                CryptogramRequestField.PAN.getOffset() + PAN_BYTES_SKIPPED,
+                udkDerivator.udkKeyAComponent,
+                0,
+                TDEA_BLOCK_SIZE - 1
         );
+        udkDerivator.udkKeyAComponent[TDEA_BLOCK_SIZE - 1] = recordData[panSequenceNumberOffset];
+        return udkDerivator;
     }
     /**
-     * Driver method for generating the requested TDEA key from the Master key.
+     * Driver method for generating the requested TDEA key from the Master key as raw key bytes.
      */
-    public String generateUniqueDerivationKey() {
+    public byte [] generateUniqueDerivationKeyBytes() {
         logDebug(log,
                 "Class data {}.",
                 this
@@ -67,15 +142,60 @@ public class EMVUniqueDerivationKeyDerivator
         return generateUdk();
 
     }
+    /**
+     * Batch method for generating the TDEA keys of several cards, e.g., for a card portfolio. The Option A
+     * derivations of all cards are performed in a single pass of the bitsliced TDEA engine.
+     * Note: The REST batch endpoint streams its items through the single request path and the UDK cache, so this
+     * method serves callers holding a whole card portfolio, e.g., key preloading.
+     * @param udkDerivators Validated derivators, one per card.
+     * @return UDKs as raw key bytes in the order of the derivators, null for derivators with an unsupported
+     * derivation method.
+     */
+    public static List<byte []> generateUniqueDerivationKeysBytes(List<EMVUniqueDerivationKeyDerivator> udkDerivators) {
+        int derivatorCount = udkDerivators.size();
+        byte [][] keys = new byte[2 * derivatorCount][];
+        byte [][] blocks = new byte[2 * derivatorCount][];
+        int blockCount = 0;
+        for (EMVUniqueDerivationKeyDerivator udkDerivator : udkDerivators) {
+            if (udkDerivator.emvudkDerivationMethod.isMETHOD_A()) {
+                byte [] udkComponents = new byte[UDK_LENGTH];
+                udkDerivator.buildUdkKeyAComponent(udkComponents);
+                udkDerivator.buildUdkKeyBComponent(udkComponents);
+                keys[blockCount] = udkDerivator.inputKey;
+                blocks[blockCount++] = Arrays.copyOfRange(udkComponents, 0, TDEA_BLOCK_SIZE);
+                keys[blockCount] = udkDerivator.inputKey;
+                blocks[blockCount++] = Arrays.copyOfRange(udkComponents, TDEA_BLOCK_SIZE, UDK_LENGTH);
+            }
+        }
+        byte [][] udkBlocks = TripleDES.encryptBlocks(Arrays.copyOf(keys, blockCount),
+                Arrays.copyOf(blocks, blockCount)
+        );
+        List<byte []> uniqueDerivationKeys = new ArrayList<>(derivatorCount);
+        int blockIndex = 0;
+        for (EMVUniqueDerivationKeyDerivator udkDerivator : udkDerivators) {
+            if (udkDerivator.emvudkDerivationMethod.isMETHOD_A()) {
+                byte [] uniqueDerivationKey = new byte[UDK_LENGTH];
+                System.arraycopy(udkBlocks[blockIndex++], 0, uniqueDerivationKey, 0, TDEA_BLOCK_SIZE);
+                System.arraycopy(udkBlocks[blockIndex++], 0, uniqueDerivationKey, TDEA_BLOCK_SIZE, TDEA_BLOCK_SIZE);
+                uniqueDerivationKeys.add(uniqueDerivationKey);
+            } else {
+                uniqueDerivationKeys.add(null);
+            }
+        }
+        // The Issuer Master Keys belong to the callers, only the UDK halves are zeroized
+        for (int i = 0; i < blockCount; i++) {
+            Arrays.fill(udkBlocks[i], (byte) 0);
+        }
+        return uniqueDerivationKeys;
+    }
     /**
      * Driver method for generating the requested TDEA key from the Master key.
      */
-    private String generateUdk(){
+    private byte [] generateUdk(){
 
         if (emvudkDerivationMethod.isMETHOD_A()) {
-            logInfo(log,
-                    "UDK derived using EMV: Option A.",
-                    emvudkDerivationMethod
+            logDebug(log,
+                    "UDK derived using EMV: Option A."
             );
             return getUniqueDerivationKeyOptionA();
         }
@@ -86,76 +206,79 @@ public class EMVUniqueDerivationKeyDerivator
      * This method derives a card specific Unique Derivation Key from a master key using the Option A,
      * as described in EMV Book 2 - A1.4.1 (reference version: v4.1).
      */
-    private String getUniqueDerivationKeyOptionA() {
+    private byte [] getUniqueDerivationKeyOptionA() {
 
-        String udkKeyAComponent, udkKeyBComponent;
-        String udkKeyA, udkKeyB;
-        // Build UDK A component
-        udkKeyAComponent = getUdkKeyAComponent();
-        // Build UDK B component
-        udkKeyBComponent = getUdkKeyBComponent(udkKeyAComponent);
+        byte [] udkComponents = new byte[UDK_LENGTH];
+        byte [] uniqueDerivationKey = new byte[UDK_LENGTH];
+        // Build UDK A component in the first block and UDK B component in the second block
+        buildUdkKeyAComponent(udkComponents);
+        buildUdkKeyBComponent(udkComponents);
         // Build UDK Key A and UDK Key B
-        udkKeyA = tripleDESEncrypt(udkKeyAComponent,
-                inputKey
-        );
-        udkKeyB = tripleDESEncrypt(udkKeyBComponent,
-                inputKey
+        TripleDES.encryptBlock(inputKey,
+                udkComponents,
+                0,
+                uniqueDerivationKey,
+                0
         );
-        logDebug(log,
-                "UDK components generated: Component A {} / Component B {}.",
-                udkKeyAComponent,
-                udkKeyBComponent
+        TripleDES.encryptBlock(inputKey,
+                udkComponents,
+                TDEA_BLOCK_SIZE,
+                uniqueDerivationKey,
+                TDEA_BLOCK_SIZE
         );
+        // The UDK components hold the PAN and PSN in clear, so they are never logged
         logDebug(log,
-                "UDK: Key A {} / Key B {}.",
-                udkKeyA,
-                udkKeyB
+                "UDK: Key A || Key B {}.",
+                LoggerUtility.lazy(() -> LoggerUtility.maskKey(uniqueDerivationKey))
         );
-        return udkKeyA + udkKeyB;
+        return uniqueDerivationKey;
 
     }
     /**
-     * Method used to build the UDK Key A component.
-     * @return UDK Key A component.
+     * Method used to build the UDK Key A component, i.e., the rightmost 16 digits of the PAN and the two digit
+     * PAN Sequence Number, into the first block of the components buffer.
+     * @param udkComponents Buffer receiving the UDK Key A component.
      */
-    private String getUdkKeyAComponent(){
-        if (panSequenceNumber.length() == 2) {
-            return  (pan +
-                    panSequenceNumber)
-                    .substring(2
-                    );
-        } else {
-            return (pan +
-                    "0" +
-                    panSequenceNumber)
-                    .substring(2
-                    );
-        }
+    private void buildUdkKeyAComponent(byte [] udkComponents){
+        System.arraycopy(udkKeyAComponent, 0, udkComponents, 0, TDEA_BLOCK_SIZE);
     }
     /**
-     * Method used to build the UDK Key B component.
-     * @return UDK Key B component.
+     * Method used to build the UDK Key B component, i.e., the UDK Key A component inverted (Xor with "FF"),
+     * into the second block of the components buffer.
+     * @param udkComponents Buffer holding the UDK Key A component and receiving the UDK Key B component.
      */
-    private String getUdkKeyBComponent(String udkLeftComponent){
-        Xor xor = new Xor(udkLeftComponent,
-                "F".repeat(
-                        DEFAULT_PAN_LENGTH
-                )
+    private void buildUdkKeyBComponent(byte [] udkComponents){
+        Xor.xor(udkComponents,
+                0,
+                (byte) 0xFF,
+                udkComponents,
+                TDEA_BLOCK_SIZE,
+                TDEA_BLOCK_SIZE
         );
-        return xor.doXor();
     }
     /**
-     * Perform Triple DES Encryption.
-     * @param inputData Input data to be encrypted.
-     * @param inputKey Triple DES Key to encrypt the data.
-     * @return Encrypted data String.
+     * Pack the validated PAN and PAN Sequence Number given as decimal digits into the UDK Key A component.
+     */
+    private void packUdkKeyAComponent() {
+        final int PAN_DIGITS_SKIPPED = 2 * PAN_BYTES_SKIPPED;
+        int digitOffset = PAN_DIGITS_SKIPPED;
+        for (int i = 0; i < TDEA_BLOCK_SIZE - 1; i++) {
+            udkKeyAComponent[i] = (byte) ((decimalDigit(pan.charAt(digitOffset)) << 4) |
+                    decimalDigit(pan.charAt(digitOffset + 1)));
+            digitOffset += 2;
+        }
+        if (panSequenceNumber.length() == 2) {
+            udkKeyAComponent[TDEA_BLOCK_SIZE - 1] = (byte) ((decimalDigit(panSequenceNumber.charAt(0)) << 4) |
+                    decimalDigit(panSequenceNumber.charAt(1)));
+        } else {
+            udkKeyAComponent[TDEA_BLOCK_SIZE - 1] = (byte) decimalDigit(panSequenceNumber.charAt(0));
+        }
+    }
+    /**
+     * Convert a decimal digit character to its numeric value.
      */
-    private String tripleDESEncrypt(String inputData,
-                                    String inputKey) {
-        TripleDES tripleDES = new TripleDES();
-        tripleDES.setInputData(inputData);
-        tripleDES.setKey(inputKey);
-        return tripleDES.encrypt();
+    private static int decimalDigit(char digit) {
+        return digit - '0';
     }
     /**
      * Override method for the object's default toString method.
@@ -164,8 +287,8 @@ public class EMVUniqueDerivationKeyDerivator
     @Override
     public String toString() {
         return "{" +
-                "inputKey='" + inputKey + '\'' +
-                ", pan='" + pan + '\'' +
+                "inputKey='" + LoggerUtility.maskKey(inputKey) + '\'' +
+                ", pan='" + LoggerUtility.maskPan(pan) + '\'' +
                 ", panSequenceNumber='" + panSequenceNumber + '\'' +
                 ", paymentScheme='" + paymentScheme + '\'' +
                 ", cryptogramVersionNumber='" + cryptogramVersionNumber + '\'' +
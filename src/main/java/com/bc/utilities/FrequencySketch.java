@@ -0,0 +1,103 @@
+package com.bc.utilities;
+
+/**
+ * Class implementing a count-min sketch of 4 bit counters, used to estimate how often a cache key was requested for the
+ * TinyLFU admission policy of {@link DerivedKeyCache}.
+ * - Each key is counted in 4 counters, selected by 4 hash functions, and its frequency is the minimum of the 4.
+ * - All counters are halved once the number of increments reaches 10 times the cache size, so the sketch follows
+ *   recent popularity and old counts fade away.
+ * Note: The class is not thread safe, the cache calls it while holding its lock.
+ */
+final class FrequencySketch {
+    // Constants
+    private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAXIMUM_COUNT = 15;
+    private static final int SAMPLE_SIZE_FACTOR = 10;
+    // Variables
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int incrementCount;
+    /**
+     * Constructor
+     * @param maximumSize Maximum number of entries of the cache, used to size the sketch.
+     */
+    FrequencySketch(int maximumSize) {
+        int tableSize = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1;
+        table = new long[tableSize];
+        tableMask = tableSize - 1;
+        sampleSize = SAMPLE_SIZE_FACTOR * Math.max(1, maximumSize);
+    }
+    /**
+     * Get the estimated number of times the key was counted, up to 15.
+     * @param key Cache key.
+     * @return Estimated frequency of the key.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAXIMUM_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0x0F);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+    /**
+     * Count a request for the key, halving all counters once the sample size is reached.
+     * @param key Cache key.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean incremented = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            incremented |= incrementAt(indexOf(hash, i), (start + i) << 2);
+        }
+        if (incremented && ++incrementCount == sampleSize) {
+            reset();
+        }
+    }
+    /**
+     * Increment the counter at the bit offset of a table entry, unless it reached the maximum count.
+     */
+    private boolean incrementAt(int index,
+                                int offset) {
+        long mask = 0x0FL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+    /**
+     * Halve all counters and the increment count.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        incrementCount >>>= 1;
+    }
+    /**
+     * Get the table index of the counter of a hash function for a key hash.
+     */
+    private int indexOf(int hash,
+                        int hashFunction) {
+        long indexHash = (hash + SEEDS[hashFunction]) * SEEDS[hashFunction];
+        indexHash += indexHash >>> 32;
+        return (int) indexHash & tableMask;
+    }
+    /**
+     * Spread the bits of a hash code, to protect against hash codes that differ only in a few bits.
+     */
+    private static int spread(int hashCode) {
+        int hash = ((hashCode >>> 16) ^ hashCode) * 0x45D9F3B;
+        hash = ((hash >>> 16) ^ hash) * 0x45D9F3B;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,215 @@
+package com.bc.utilities;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Class defining lookup table based methods to decode hexadecimal text to bytes and encode bytes to lowercase
+ * hexadecimal text. The decoding methods validate the characters as they are decoded, so no separate pattern check is
+ * required, and the buffer based methods write into caller supplied buffers without intermediate allocations.
+ * The ASCII byte array encoding method, used for the String encoding and the cache key fingerprints, converts 4 bytes
+ * per operation by processing the bytes of a long as independent lanes (SIMD within a register), with a scalar path
+ * for the remaining bytes.
+ */
+public final class HexCodec {
+    // Constants
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int INVALID_DIGIT = -1;
+    private static final byte[] DIGIT_VALUES = buildDigitValues();
+    private static final char[] BYTE_TO_HEX = buildByteToHex();
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final long LANES_01 = 0x0101010101010101L;
+    /**
+     * Private constructor, the class only holds static methods.
+     */
+    private HexCodec() {
+    }
+    /**
+     * Decode a hexadecimal String to a new byte array.
+     * @param hexadecimalData Hexadecimal data, upper or lower case, of even length.
+     * @return Decoded byte array.
+     * @throws IllegalArgumentException When the length is odd or a character is not a hexadecimal digit.
+     */
+    public static byte[] decode(CharSequence hexadecimalData) {
+        byte[] outputData = new byte[decodedLength(hexadecimalData.length())];
+        decode(hexadecimalData,
+                0,
+                hexadecimalData.length(),
+                outputData,
+                0
+        );
+        return outputData;
+    }
+    /**
+     * Decode hexadecimal characters into a caller supplied buffer.
+     * @param hexadecimalData Hexadecimal data, upper or lower case.
+     * @param hexadecimalOffset Offset of the first character to decode.
+     * @param hexadecimalLength Number of characters to decode, must be even.
+     * @param outputData Buffer receiving the decoded bytes.
+     * @param outputOffset Offset of the first decoded byte in the output buffer.
+     * @return Number of bytes decoded.
+     * @throws IllegalArgumentException When the length is odd or a character is not a hexadecimal digit.
+     */
+    public static int decode(CharSequence hexadecimalData,
+                             int hexadecimalOffset,
+                             int hexadecimalLength,
+                             byte[] outputData,
+                             int outputOffset) {
+        int decodedLength = decodedLength(hexadecimalLength);
+        int characterIndex = hexadecimalOffset;
+        for (int i = 0; i < decodedLength; i++) {
+            int highNibble = digitValue(hexadecimalData.charAt(characterIndex), characterIndex);
+            int lowNibble = digitValue(hexadecimalData.charAt(characterIndex + 1), characterIndex + 1);
+            outputData[outputOffset + i] = (byte) ((highNibble << 4) | lowNibble);
+            characterIndex += 2;
+        }
+        return decodedLength;
+    }
+    /**
+     * Encode a byte array to a lowercase hexadecimal String.
+     * @param inputData Data to be encoded.
+     * @return Lowercase hexadecimal String.
+     */
+    public static String encode(byte[] inputData) {
+        byte[] outputData = new byte[2 * inputData.length];
+        encodeAscii(inputData,
+                0,
+                inputData.length,
+                outputData,
+                0
+        );
+        return new String(outputData, StandardCharsets.ISO_8859_1);
+    }
+    /**
+     * Encode bytes to lowercase hexadecimal characters into a caller supplied buffer.
+     * @param inputData Buffer holding the data to be encoded.
+     * @param inputOffset Offset of the first byte to encode.
+     * @param inputLength Number of bytes to encode.
+     * @param outputData Buffer receiving 2 characters per byte.
+     * @param outputOffset Offset of the first character in the output buffer.
+     * @return Number of characters written.
+     */
+    public static int encode(byte[] inputData,
+                             int inputOffset,
+                             int inputLength,
+                             char[] outputData,
+                             int outputOffset) {
+        int characterIndex = outputOffset;
+        for (int i = inputOffset; i < inputOffset + inputLength; i++) {
+            int tableIndex = (inputData[i] & 0xFF) << 1;
+            outputData[characterIndex++] = BYTE_TO_HEX[tableIndex];
+            outputData[characterIndex++] = BYTE_TO_HEX[tableIndex + 1];
+        }
+        return characterIndex - outputOffset;
+    }
+    /**
+     * Encode bytes to lowercase hexadecimal characters, appended to a caller supplied StringBuilder.
+     * @param inputData Buffer holding the data to be encoded.
+     * @param inputOffset Offset of the first byte to encode.
+     * @param inputLength Number of bytes to encode.
+     * @param outputData StringBuilder receiving 2 characters per byte.
+     * @return The StringBuilder passed.
+     */
+    public static StringBuilder encode(byte[] inputData,
+                                       int inputOffset,
+                                       int inputLength,
+                                       StringBuilder outputData) {
+        outputData.ensureCapacity(outputData.length() + 2 * inputLength);
+        for (int i = inputOffset; i < inputOffset + inputLength; i++) {
+            int tableIndex = (inputData[i] & 0xFF) << 1;
+            outputData.append(BYTE_TO_HEX[tableIndex])
+                    .append(BYTE_TO_HEX[tableIndex + 1]);
+        }
+        return outputData;
+    }
+    /**
+     * Encode bytes to lowercase ASCII hexadecimal characters into a caller supplied buffer, 4 bytes at a time.
+     * @param inputData Buffer holding the data to be encoded.
+     * @param inputOffset Offset of the first byte to encode.
+     * @param inputLength Number of bytes to encode.
+     * @param outputData Buffer receiving 2 ASCII characters per byte.
+     * @param outputOffset Offset of the first character in the output buffer.
+     * @return Number of characters written.
+     */
+    public static int encodeAscii(byte[] inputData,
+                                  int inputOffset,
+                                  int inputLength,
+                                  byte[] outputData,
+                                  int outputOffset) {
+        int inputIndex = inputOffset;
+        int outputIndex = outputOffset;
+        int inputEnd = inputOffset + inputLength;
+        for (; inputIndex <= inputEnd - Integer.BYTES; inputIndex += Integer.BYTES) {
+            long bytes = (int) INT_VIEW.get(inputData, inputIndex) & 0xFFFFFFFFL;
+            // Spread the 4 bytes to the low byte of each 16 bit field, then split them into one nibble per byte
+            long spread = ((bytes & 0xFF000000L) << 24) |
+                    ((bytes & 0x00FF0000L) << 16) |
+                    ((bytes & 0x0000FF00L) << 8) |
+                    (bytes & 0x000000FFL);
+            long nibbles = ((spread & 0x00F000F000F000F0L) << 4) | (spread & 0x000F000F000F000FL);
+            // Nibbles of 10 and above are letters, offset by 'a' - '0' - 10
+            long letters = ((nibbles + 0x0606060606060606L) >>> 4) & LANES_01;
+            LONG_VIEW.set(outputData, outputIndex, nibbles + 0x3030303030303030L + letters * ('a' - '0' - 10));
+            outputIndex += Long.BYTES;
+        }
+        for (; inputIndex < inputEnd; inputIndex++) {
+            int tableIndex = (inputData[inputIndex] & 0xFF) << 1;
+            outputData[outputIndex++] = (byte) BYTE_TO_HEX[tableIndex];
+            outputData[outputIndex++] = (byte) BYTE_TO_HEX[tableIndex + 1];
+        }
+        return outputIndex - outputOffset;
+    }
+    /**
+     * Get the number of bytes decoded from a number of hexadecimal characters.
+     * @throws IllegalArgumentException When the number of characters is odd.
+     */
+    private static int decodedLength(int hexadecimalLength) {
+        if ((hexadecimalLength & 1) != 0) {
+            throw new IllegalArgumentException(HexCodec.class.getName() + " --> Hexadecimal data must have an even " +
+                    "number of characters, but received " + hexadecimalLength + " characters."
+            );
+        }
+        return hexadecimalLength >>> 1;
+    }
+    /**
+     * Get the value of a hexadecimal digit.
+     * @throws IllegalArgumentException When the character is not a hexadecimal digit.
+     */
+    private static int digitValue(char character,
+                                  int characterIndex) {
+        int digitValue = character < DIGIT_VALUES.length ? DIGIT_VALUES[character] : INVALID_DIGIT;
+        if (digitValue == INVALID_DIGIT) {
+            throw new IllegalArgumentException(HexCodec.class.getName() + " --> Illegal hexadecimal character '" +
+                    character + "' at index " + characterIndex + "."
+            );
+        }
+        return digitValue;
+    }
+    /**
+     * Build the ASCII indexed table of hexadecimal digit values, with invalid characters mapped to -1.
+     */
+    private static byte[] buildDigitValues() {
+        byte[] digitValues = new byte[128];
+        Arrays.fill(digitValues, (byte) INVALID_DIGIT);
+        for (int value = 0; value < 16; value++) {
+            digitValues[HEX_DIGITS[value]] = (byte) value;
+            digitValues[Character.toUpperCase(HEX_DIGITS[value])] = (byte) value;
+        }
+        return digitValues;
+    }
+    /**
+     * Build the table of the 2 hexadecimal characters of every byte value.
+     */
+    private static char[] buildByteToHex() {
+        char[] byteToHex = new char[512];
+        for (int value = 0; value < 256; value++) {
+            byteToHex[value << 1] = HEX_DIGITS[value >>> 4];
+            byteToHex[(value << 1) + 1] = HEX_DIGITS[value & 0x0F];
+        }
+        return byteToHex;
+    }
+}
@@ -0,0 +1,188 @@
+package com.bc.utilities;
+
+import com.bc.application.enumeration.ISOIEC97971PaddingMethod;
+import lombok.extern.slf4j.Slf4j;
+import java.util.Arrays;
+import static com.bc.utilities.TripleDES.TDEA_BLOCK_SIZE;
+
+/**
+ * Class implementing a streaming ISO/IEC 9797-1 MAC Algorithm 3 (Retail MAC) engine, as used for EMV Application
+ * Cryptogram generation with a double length session key.
+ * - Data blocks are chained using single DES CBC encryption under the left half of the key (Key A).
+ * - The final chaining block is decrypted under the right half of the key (Key B) and encrypted again under Key A.
+ * The state is held in a fixed 8 byte chaining block, data is Xor'ed into the chaining block as it is received, and
+ * ISO/IEC 9797-1 Method 1 or Method 2 padding is applied in place when the MAC is finalised.
+ * Note: An instance is not thread safe, but can be reused for further MAC computations after doFinal or reset.
+ */
+@Slf4j
+public class ISOIEC97971MacAlgorithm3
+        implements LoggerUtility {
+    // Constants
+    private static final byte MANDATORY_PADDING_BYTE = (byte) 0x80; // Mandatory bit 1 padding, i.e., 1000 0000.
+    // Variables
+    private final ISOIEC97971PaddingMethod paddingMethod;
+    private final byte [] keyA = new byte[TDEA_BLOCK_SIZE];
+    private final byte [] keyB = new byte[TDEA_BLOCK_SIZE];
+    private final byte [] chainingBlock = new byte[TDEA_BLOCK_SIZE];
+    private int chainingBlockOffset;
+    /**
+     * Constructor with padding method, the engine must be initialised with a key before use.
+     * @param paddingMethod ISO/IEC 9797-1 padding method applied when the MAC is finalised.
+     */
+    public ISOIEC97971MacAlgorithm3(ISOIEC97971PaddingMethod paddingMethod) {
+        this.paddingMethod = paddingMethod;
+    }
+    /**
+     * Constructor with double length key and padding method.
+     * @param key Double length TDEA key, Key A followed by Key B.
+     * @param paddingMethod ISO/IEC 9797-1 padding method applied when the MAC is finalised.
+     */
+    public ISOIEC97971MacAlgorithm3(byte [] key,
+                                    ISOIEC97971PaddingMethod paddingMethod) {
+        this(paddingMethod);
+        init(key);
+    }
+    /**
+     * Initialise the engine with a double length key and reset the chaining state.
+     * @param key Double length TDEA key, Key A followed by Key B.
+     */
+    public void init(byte [] key) {
+        if (key.length != 2 * TDEA_BLOCK_SIZE) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> MAC Algorithm 3 requires a double " +
+                    "length TDEA key, but received a key of " + key.length + " bytes."
+            );
+        }
+        System.arraycopy(key, 0, keyA, 0, TDEA_BLOCK_SIZE);
+        System.arraycopy(key, TDEA_BLOCK_SIZE, keyB, 0, TDEA_BLOCK_SIZE);
+        reset();
+    }
+    /**
+     * Process data into the MAC, every completed block is encrypted under Key A and chained into the next block.
+     * @param inputData Buffer holding the data.
+     * @param inputOffset Offset of the data in the buffer.
+     * @param inputLength Number of bytes to process.
+     */
+    public void update(byte [] inputData,
+                       int inputOffset,
+                       int inputLength) {
+        int inputEnd = inputOffset + inputLength;
+        int i = inputOffset;
+        // Complete a partially filled chaining block byte by byte
+        for (; chainingBlockOffset != 0 && i < inputEnd; i++) {
+            update(inputData[i]);
+        }
+        // Chain complete blocks, 8 bytes per Xor
+        for (; i <= inputEnd - TDEA_BLOCK_SIZE; i += TDEA_BLOCK_SIZE) {
+            Xor.xor(chainingBlock,
+                    0,
+                    inputData,
+                    i,
+                    chainingBlock,
+                    0,
+                    TDEA_BLOCK_SIZE
+            );
+            encryptChainingBlock();
+        }
+        for (; i < inputEnd; i++) {
+            update(inputData[i]);
+        }
+    }
+    /**
+     * Process a single byte into the MAC.
+     * @param inputByte Byte to be processed.
+     */
+    public void update(byte inputByte) {
+        chainingBlock[chainingBlockOffset++] ^= inputByte;
+        if (chainingBlockOffset == TDEA_BLOCK_SIZE) {
+            encryptChainingBlock();
+        }
+    }
+    /**
+     * Apply the padding, perform the final Key B decryption and Key A encryption, and write the 8 byte MAC to the
+     * output buffer. The engine is reset and may be reused with the same key.
+     * @param outputData Buffer receiving the MAC.
+     * @param outputOffset Offset of the MAC in the output buffer.
+     */
+    public void doFinal(byte [] outputData,
+                        int outputOffset) {
+        doFinal(outputData,
+                outputOffset,
+                paddingMethod
+        );
+    }
+    /**
+     * Finalise the MAC with the given padding method instead of the engine's padding method, e.g., for an ARPC Method 2
+     * MAC computed with the engine prepared for the ARQC. The engine is reset and may be reused with the same key.
+     * @param outputData Buffer receiving the MAC.
+     * @param outputOffset Offset of the MAC in the output buffer.
+     * @param finalPaddingMethod ISO/IEC 9797-1 padding method applied to this MAC.
+     */
+    public void doFinal(byte [] outputData,
+                        int outputOffset,
+                        ISOIEC97971PaddingMethod finalPaddingMethod) {
+        pad(finalPaddingMethod);
+        TripleDES.decryptBlock(keyB,
+                chainingBlock,
+                0,
+                chainingBlock,
+                0
+        );
+        TripleDES.encryptBlock(keyA,
+                chainingBlock,
+                0,
+                outputData,
+                outputOffset
+        );
+        reset();
+    }
+    /**
+     * Finalise the MAC computation and return the 8 byte MAC.
+     * @return MAC computed over the processed data.
+     */
+    public byte [] doFinal() {
+        byte [] mac = new byte[TDEA_BLOCK_SIZE];
+        doFinal(mac, 0);
+        return mac;
+    }
+    /**
+     * Reset the chaining state, retaining the key.
+     */
+    public void reset() {
+        Arrays.fill(chainingBlock, (byte) 0);
+        chainingBlockOffset = 0;
+    }
+    /**
+     * Clear the key and the chaining state held by the engine.
+     */
+    public void clear() {
+        Arrays.fill(keyA, (byte) 0);
+        Arrays.fill(keyB, (byte) 0);
+        reset();
+    }
+    /**
+     * Apply the ISO/IEC 9797-1 padding in place. The '0' padding bits do not change the chaining block, so only the
+     * mandatory '1' bit of Method 2 needs to be Xor'ed, before encrypting the final partial block.
+     * - Method 1: The final block is padded with '0' bits only if it is incomplete.
+     * - Method 2: The mandatory '1' bit is always added, followed by '0' bits to complete the block.
+     */
+    private void pad(ISOIEC97971PaddingMethod finalPaddingMethod) {
+        if (finalPaddingMethod.isMETHOD_2()) {
+            chainingBlock[chainingBlockOffset] ^= MANDATORY_PADDING_BYTE;
+            encryptChainingBlock();
+        } else if (chainingBlockOffset > 0) {
+            encryptChainingBlock();
+        }
+    }
+    /**
+     * Encrypt the chaining block under Key A (single DES) and start the next block.
+     */
+    private void encryptChainingBlock() {
+        TripleDES.encryptBlock(keyA,
+                chainingBlock,
+                0,
+                chainingBlock,
+                0
+        );
+        chainingBlockOffset = 0;
+    }
+}
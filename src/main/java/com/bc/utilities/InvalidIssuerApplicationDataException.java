@@ -0,0 +1,16 @@
+package com.bc.utilities;
+
+/**
+ * Exception thrown when the Issuer Application Data is too short to hold the data items required by its Cryptogram
+ * Version Number.
+ */
+public class InvalidIssuerApplicationDataException
+        extends IllegalArgumentException {
+    /**
+     * Constructor
+     * @param message Exception message.
+     */
+    public InvalidIssuerApplicationDataException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,336 @@
+package com.bc.utilities;
+
+import lombok.extern.slf4j.Slf4j;
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Triple DES engine implemented using the java standard Crypto libraries (JCE).
+ * Initialised encrypt and decrypt Cipher objects are kept in bounded, most recently used ordered caches keyed by the raw
+ * key bytes, so that the provider lookup and key schedule is performed once per key instead of once per block. When a
+ * cache is full, the least recently used key is evicted and its key bytes are cleared.
+ * Since Cipher objects are not thread safe, each operation borrows a cache from a {@link BoundedPool} shared by all
+ * threads, rather than keeping a cache per thread, so the caches are reused by short-lived threads, e.g., one virtual
+ * thread per request.
+ */
+@Slf4j
+public class JceTripleDESEngine
+        implements TripleDESEngine, LoggerUtility {
+    // Constants
+    private static final String DES_EDE = "DESede";
+    private static final String ALGORITHM_MODE_AND_PADDING = DES_EDE + "/ECB/NoPadding";
+    private static final int KEY_LENGTH_TDEA_SINGLE = 8;
+    private static final int KEY_LENGTH_TDEA_DOUBLE = 16;
+    private static final int KEY_LENGTH_TDEA_TRIPLE = 24;
+    private static final int TDEA_BLOCK_SIZE = 8;
+    private static final int MAXIMUM_CACHED_KEYS_PER_CACHE = 32;
+    private static final int MAXIMUM_IDLE_CIPHER_CACHES = 2 * Runtime.getRuntime().availableProcessors();
+    // Cipher caches shared by all threads, a cache is used by one thread at a time
+    private static final BoundedPool<KeyedCipherCache> CIPHER_CACHES = new BoundedPool<>(MAXIMUM_IDLE_CIPHER_CACHES,
+            () -> new KeyedCipherCache(MAXIMUM_CACHED_KEYS_PER_CACHE),
+            KeyedCipherCache::clear
+    );
+    /**
+     * Perform a Triple DES ECB encryption of the input data.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Clear text data, a multiple of 8 bytes.
+     * @return Cipher text generated from the clear text.
+     */
+    @Override
+    public byte[] encrypt(byte[] key,
+                          byte[] inputData) {
+        KeyedCipherCache cipherCache = CIPHER_CACHES.borrow();
+        try {
+            return runDESede(cipherCache.getEncryptCipher(key),
+                    inputData
+            );
+        } finally {
+            CIPHER_CACHES.release(cipherCache);
+        }
+    }
+    /**
+     * Perform a Triple DES ECB decryption of the input data.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Cipher text data, a multiple of 8 bytes.
+     * @return Clear text generated from the cipher text.
+     */
+    @Override
+    public byte[] decrypt(byte[] key,
+                          byte[] inputData) {
+        KeyedCipherCache cipherCache = CIPHER_CACHES.borrow();
+        try {
+            return runDESede(cipherCache.getDecryptCipher(key),
+                    inputData
+            );
+        } finally {
+            CIPHER_CACHES.release(cipherCache);
+        }
+    }
+    /**
+     * Encrypt a single 8 byte block, writing the cipher text to the output buffer.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Buffer holding the clear text block.
+     * @param inputOffset Offset of the clear text block in the input buffer.
+     * @param outputData Buffer receiving the cipher text block, which may be the input buffer.
+     * @param outputOffset Offset of the cipher text block in the output buffer.
+     */
+    @Override
+    public void encryptBlock(byte[] key,
+                             byte[] inputData,
+                             int inputOffset,
+                             byte[] outputData,
+                             int outputOffset) {
+        KeyedCipherCache cipherCache = CIPHER_CACHES.borrow();
+        try {
+            runDESede(cipherCache.getEncryptCipher(key),
+                    inputData,
+                    inputOffset,
+                    outputData,
+                    outputOffset
+            );
+        } finally {
+            CIPHER_CACHES.release(cipherCache);
+        }
+    }
+    /**
+     * Decrypt a single 8 byte block, writing the clear text to the output buffer.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Buffer holding the cipher text block.
+     * @param inputOffset Offset of the cipher text block in the input buffer.
+     * @param outputData Buffer receiving the clear text block, which may be the input buffer.
+     * @param outputOffset Offset of the clear text block in the output buffer.
+     */
+    @Override
+    public void decryptBlock(byte[] key,
+                             byte[] inputData,
+                             int inputOffset,
+                             byte[] outputData,
+                             int outputOffset) {
+        KeyedCipherCache cipherCache = CIPHER_CACHES.borrow();
+        try {
+            runDESede(cipherCache.getDecryptCipher(key),
+                    inputData,
+                    inputOffset,
+                    outputData,
+                    outputOffset
+            );
+        } finally {
+            CIPHER_CACHES.release(cipherCache);
+        }
+    }
+    /**
+     * Run the DESede algorithm on a single block using an already initialised Cipher object.
+     */
+    private void runDESede(Cipher des,
+                           byte[] inputData,
+                           int inputOffset,
+                           byte[] outputData,
+                           int outputOffset) {
+        try {
+            des.doFinal(inputData,
+                    inputOffset,
+                    TDEA_BLOCK_SIZE,
+                    outputData,
+                    outputOffset
+            );
+        } catch (IllegalBlockSizeException |
+                 BadPaddingException |
+                 ShortBufferException cryptoException) {
+            throw exception("Encrypt/Decrypt operation failed",
+                    cryptoException
+            );
+        }
+    }
+    /**
+     * Run the DESede algorithm using an already initialised Cipher object.
+     */
+    private byte[] runDESede(Cipher des,
+                             byte[] inputData) {
+        try {
+            return des.doFinal(inputData);
+        } catch (IllegalBlockSizeException |
+                 BadPaddingException cryptoException) {
+            throw exception("Encrypt/Decrypt operation failed",
+                    cryptoException
+            );
+        }
+    }
+    /**
+     * Method to convert a single or double length TDEA key to a triple length TDEA key, as required by the JCE DESede
+     * key specification.
+     * @param key Single, double or triple length TDEA key.
+     * @return Triple length TDEA key.
+     */
+    static byte[] expandToTripleLengthTDEAKey(byte[] key) {
+        byte[] tripleLengthKey = new byte[KEY_LENGTH_TDEA_TRIPLE];
+        switch (key.length) {
+            case KEY_LENGTH_TDEA_SINGLE:
+                System.arraycopy(key, 0, tripleLengthKey, 0, KEY_LENGTH_TDEA_SINGLE);
+                System.arraycopy(key, 0, tripleLengthKey, KEY_LENGTH_TDEA_SINGLE, KEY_LENGTH_TDEA_SINGLE);
+                System.arraycopy(key, 0, tripleLengthKey, KEY_LENGTH_TDEA_DOUBLE, KEY_LENGTH_TDEA_SINGLE);
+                break;
+            case KEY_LENGTH_TDEA_DOUBLE:
+                System.arraycopy(key, 0, tripleLengthKey, 0, KEY_LENGTH_TDEA_DOUBLE);
+                System.arraycopy(key, 0, tripleLengthKey, KEY_LENGTH_TDEA_DOUBLE, KEY_LENGTH_TDEA_SINGLE);
+                break;
+            case KEY_LENGTH_TDEA_TRIPLE:
+                System.arraycopy(key, 0, tripleLengthKey, 0, KEY_LENGTH_TDEA_TRIPLE);
+                break;
+            default:
+                throw new IllegalArgumentException(JceTripleDESEngine.class.getName() + " --> Invalid TDEA key length: " +
+                        key.length + " bytes. Expected 8, 16 or 24 bytes."
+                );
+        }
+        return tripleLengthKey;
+    }
+    /**
+     * Method to build the exception raised when a cryptographic operation fails.
+     * @param message Message to be included in the exception.
+     * @param exception Generic exception object.
+     * @return Runtime exception to be thrown by the caller.
+     */
+    private static RuntimeException exception(String message,
+                                              Exception exception) {
+        return new RuntimeException(JceTripleDESEngine.class +
+                " --> " +
+                message +
+                " Cause: " +
+                exception.getCause() +
+                " Message: " +
+                exception.getMessage()
+        );
+    }
+    /**
+     * Bounded, most recently used ordered cache of initialised Cipher objects, used by a single thread at a time.
+     * The most recently used key is always held at index 0, so repeated operations under the same key, e.g., all the
+     * blocks of a MAC, are found on the first comparison.
+     */
+    private static final class KeyedCipherCache {
+        private final CachedKey[] entries;
+        private int size;
+        /**
+         * Constructor
+         * @param maximumEntries Maximum number of keys held before the least recently used key is evicted.
+         */
+        private KeyedCipherCache(int maximumEntries) {
+            this.entries = new CachedKey[maximumEntries];
+        }
+        /**
+         * Get an initialised encrypt Cipher object for the key.
+         */
+        private Cipher getEncryptCipher(byte[] key) {
+            CachedKey cachedKey = lookup(key);
+            if (cachedKey.encryptCipher == null) {
+                cachedKey.encryptCipher = newCipher(Cipher.ENCRYPT_MODE, cachedKey.secretKey);
+            }
+            return cachedKey.encryptCipher;
+        }
+        /**
+         * Get an initialised decrypt Cipher object for the key.
+         */
+        private Cipher getDecryptCipher(byte[] key) {
+            CachedKey cachedKey = lookup(key);
+            if (cachedKey.decryptCipher == null) {
+                cachedKey.decryptCipher = newCipher(Cipher.DECRYPT_MODE, cachedKey.secretKey);
+            }
+            return cachedKey.decryptCipher;
+        }
+        /**
+         * Find the cache entry for the key and move it to the front of the cache, or create a new entry for the key
+         * evicting the least recently used entry if the cache is full.
+         * @param key Raw key bytes.
+         * @return Cache entry for the key.
+         */
+        private CachedKey lookup(byte[] key) {
+            for (int i = 0; i < size; i++) {
+                CachedKey cachedKey = entries[i];
+                if (Arrays.equals(cachedKey.key, key)) {
+                    moveToFront(i, cachedKey);
+                    return cachedKey;
+                }
+            }
+            CachedKey cachedKey = new CachedKey(key);
+            if (size == entries.length) {
+                entries[size - 1].clear();
+            } else {
+                size++;
+            }
+            moveToFront(size - 1, cachedKey);
+            return cachedKey;
+        }
+        /**
+         * Shift the entries before the index one position back and place the entry at the front of the cache.
+         */
+        private void moveToFront(int index,
+                                 CachedKey cachedKey) {
+            if (index > 0) {
+                System.arraycopy(entries, 0, entries, 1, index);
+            }
+            entries[0] = cachedKey;
+        }
+        /**
+         * Clear the key bytes of all entries, when the cache is discarded by the pool.
+         */
+        private void clear() {
+            for (int i = 0; i < size; i++) {
+                entries[i].clear();
+                entries[i] = null;
+            }
+            size = 0;
+        }
+        /**
+         * Create and initialise a DESede Cipher object in the requested mode.
+         */
+        private static Cipher newCipher(int mode,
+                                        SecretKeySpec secretKey) {
+            try {
+                Cipher des = Cipher.getInstance(ALGORITHM_MODE_AND_PADDING);
+                des.init(mode, secretKey);
+                return des;
+            } catch (NoSuchPaddingException |
+                     NoSuchAlgorithmException cipherException) {
+                throw exception("Cipher object algorithm initialization failed",
+                        cipherException
+                );
+            } catch (InvalidKeyException invalidKeyException) {
+                throw exception("Cipher object initialization failed due to invalid key",
+                        invalidKeyException
+                );
+            }
+        }
+    }
+    /**
+     * Cache entry holding a copy of the raw key bytes and the Cipher objects initialised with the key.
+     */
+    private static final class CachedKey {
+        private final byte[] key;
+        private final SecretKeySpec secretKey;
+        private Cipher encryptCipher;
+        private Cipher decryptCipher;
+        /**
+         * Constructor
+         * @param key Raw key bytes, copied so that later changes by the caller do not affect the cache.
+         */
+        private CachedKey(byte[] key) {
+            this.key = key.clone();
+            byte[] tripleLengthKey = expandToTripleLengthTDEAKey(key);
+            this.secretKey = new SecretKeySpec(tripleLengthKey, DES_EDE);
+            Arrays.fill(tripleLengthKey, (byte) 0);
+        }
+        /**
+         * Clear the key bytes held by an evicted entry.
+         */
+        private void clear() {
+            Arrays.fill(key, (byte) 0);
+            encryptCipher = null;
+            decryptCipher = null;
+        }
+    }
+}
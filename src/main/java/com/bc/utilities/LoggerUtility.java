@@ -1,8 +1,16 @@
 package com.bc.utilities;
 
 import org.slf4j.Logger;
+import java.util.function.Supplier;
 /**
  * This interface defines a standard set of default methods that will be used for logging informational, warning and debug messages.
+ * Notes:
+ * - Messages are static templates with {} placeholders, the class name prefix is only added and the arguments are only
+ *   formatted when the log level is enabled.
+ * - Arguments that are expensive to build are wrapped with {@link #lazy(Supplier)}, so they are only built when the
+ *   message is formatted.
+ * - PANs and keys are masked with {@link #maskPan(String)} and {@link #maskKey(CharSequence)}, and must never be
+ *   logged in clear.
  */
 public interface LoggerUtility {
 
@@ -12,32 +20,86 @@ public interface LoggerUtility {
     default void logDebug(Logger log,
                           String message,
                           Object... objectsToLog){
-        log.debug(getUnqualifiedClassName() + " log --> " +
-                message,
-                objectsToLog
-        );
+        if (log.isDebugEnabled()) {
+            log.debug(getUnqualifiedClassName() + " log --> " +
+                    message,
+                    objectsToLog
+            );
+        }
     }
     /**
-     * Method for logging warning messages.
+     * Method for logging warning messages, when the warning log level is enabled.
      */
     default void logWarning(Logger log,
                             String message,
                             Object... objectsToLog){
-        log.debug(getUnqualifiedClassName() + " log --> " +
-                message,
-                objectsToLog
-        );
+        if (log.isWarnEnabled()) {
+            log.warn(getUnqualifiedClassName() + " log --> " +
+                    message,
+                    objectsToLog
+            );
+        }
     }
     /**
-     * Method for logging informational messages.
+     * Method for logging informational messages, when the informational log level is enabled.
      */
     default void logInfo(Logger log,
                          String message,
                          Object... objectsToLog){
-        log.info(getUnqualifiedClassName() + " log --> " +
-                message,
-                objectsToLog
-        );
+        if (log.isInfoEnabled()) {
+            log.info(getUnqualifiedClassName() + " log --> " +
+                    message,
+                    objectsToLog
+            );
+        }
+    }
+    /**
+     * Wrap a log argument, so it is only built when the message is formatted.
+     * @param supplier Supplier of the log argument.
+     * @return Log argument, whose string representation is built by the supplier.
+     */
+    static Object lazy(Supplier<?> supplier){
+        return new Object() {
+            @Override
+            public String toString() {
+                return String.valueOf(supplier.get());
+            }
+        };
+    }
+    /**
+     * Mask a Primary Account Number for logging, keeping the first 6 and last 4 digits, as permitted by PCI DSS.
+     * @param pan Primary Account Number.
+     * @return Masked PAN, e.g., 476173******0010, or null.
+     */
+    static String maskPan(String pan){
+        final int CLEAR_PREFIX_LENGTH = 6;
+        final int CLEAR_SUFFIX_LENGTH = 4;
+        if (pan == null) {
+            return null;
+        }
+        int panLength = pan.length();
+        if (panLength <= CLEAR_PREFIX_LENGTH + CLEAR_SUFFIX_LENGTH) {
+            return "*".repeat(panLength);
+        }
+        return pan.substring(0, CLEAR_PREFIX_LENGTH) +
+                "*".repeat(panLength - CLEAR_PREFIX_LENGTH - CLEAR_SUFFIX_LENGTH) +
+                pan.substring(panLength - CLEAR_SUFFIX_LENGTH);
+    }
+    /**
+     * Mask a cryptographic key for logging, only its length is kept.
+     * @param key Key as hexadecimal digits.
+     * @return Masked key, e.g., [32 digits masked], or null.
+     */
+    static String maskKey(CharSequence key){
+        return key == null ? null : "[" + key.length() + " digits masked]";
+    }
+    /**
+     * Mask a cryptographic key for logging, only its length is kept.
+     * @param key Key as raw key bytes.
+     * @return Masked key, e.g., [32 digits masked], or null.
+     */
+    static String maskKey(byte [] key){
+        return key == null ? null : "[" + 2 * key.length + " digits masked]";
     }
     /**
      * Method to get unqualified class name, i.e., class name without the package prefix.
@@ -46,4 +108,4 @@ public interface LoggerUtility {
     private String getUnqualifiedClassName(){
         return getClass().getSimpleName();
     }
-}
\ No newline at end of file
+}
@@ -1,56 +1,105 @@
 package com.bc.utilities;
 
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
 import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.ISOIEC97971PaddingMethod;
 import lombok.extern.slf4j.Slf4j;
+import static com.bc.model.constants.IADStaticData.*;
 
 /**
  * Class defining methods for generating Payment Scheme specific Application Cryptogram (ARQC) and Response Cryptogram (ARPC).
- * Note: ARPC derivation implementation is pending.
  */
 @Slf4j
 public class MastercardApplicationCryptogramGenerator
         extends AbstractApplicationCryptogramGenerator {
 
+    // Constants
+    // Offset of the offline counters in the IAD in hexadecimal digits, following the DKI, CVN, CVR and DAC/ICC Dynamic
+    // Number
+    private static final int COUNTERS_OFFSET = MASTECARD_DKI_LENGTH +
+            MASTERCARD_CVN_LENGTH +
+            MASTERCARD_CVR_LENGTH +
+            MASTERCARD_DAC_ICC_LENGTH;
     /**
-     * Pad the Card Verification Results as the final data element for Mastercard payment scheme transaction data
-     * for Application Cryptogram generation.
-     * @param transactionDataBuilder  Transaction data for cryptogram generation.
+     * Append the Card Verification Results as the final data element for Mastercard payment scheme transaction data
+     * for Application Cryptogram generation, followed by the offline counters for CVN17 and CVN21. Encrypted counters
+     * are decrypted under the Session Key of the Application Cryptogram in the transaction data buffer.
+     * @param transactionData         Transaction data for cryptogram generation.
+     * @param sessionKey              Session Key of the Application Cryptogram.
      * @param cryptogramVersionNumber Cryptogram Version Number from Issuer Application Data.
      * @param cardVerificationResults Card Verification Results from Issuer Application Data.
-     * @param issuerApplicationData   Issuer Application Data.
-     * @return Padded transaction data for Application Cryptogram generation.
+     * @param requestRecord           Request record holding the Issuer Application Data.
      */
     @Override
-    protected StringBuilder appendFinalDataElementToTransactionData(StringBuilder transactionDataBuilder,
-                                                                    CryptogramVersionNumber cryptogramVersionNumber,
-                                                                    String cardVerificationResults,
-                                                                    String issuerApplicationData) {
+    protected void appendFinalDataElementToTransactionData(TransactionDataAssembler transactionData,
+                                                           byte [] sessionKey,
+                                                           CryptogramVersionNumber cryptogramVersionNumber,
+                                                           String cardVerificationResults,
+                                                           CryptogramRequestRecord requestRecord) {
         switch (cryptogramVersionNumber){
             case CVN10:
             case CVN14:
             case CVN16:
             case CVN20:
-                return transactionDataBuilder.append(cardVerificationResults);
-            case CVN17: // Offline counter data must also be appended to compute ARQC, this is pending implementation
-            case CVN21: // Offline counter data must also be appended to compute ARQC, this is pending implementation
-                throw new IllegalStateException(this.getClass().getName() + " --> CVN: " + cryptogramVersionNumber +
-                        " is currently not supported. Only CVNs: \"10\", \"14\", \"16\", and \"20\" are supported."
+                transactionData.appendBinary(cardVerificationResults);
+                return;
+            case CVN17:
+            case CVN21:
+                transactionData.appendBinary(cardVerificationResults);
+                appendOfflineCounters(transactionData,
+                        sessionKey,
+                        requestRecord
                 );
+                return;
             default:
-                throw new IllegalStateException(this.getClass().getName() + " --> Unexpected value for CVN. " +
+                throw new UnsupportedCryptogramVersionException(this.getClass().getName() + " --> Unexpected value for CVN. " +
                         "Expected \"10\", \"14\", \"16\", \"17\", \"20\", or \"21\" but received " + cryptogramVersionNumber + "."
                 );
         }
     }
     /**
-     * Pad Transaction data based on ISO 97971 Method2 padding for Mastercard payment scheme.
-     * @param transactionData         Transaction data to be padded.
+     * Determine ISO 97971 padding method for Mastercard payment scheme, i.e., Method2 padding for all CVNs.
      * @param cryptogramVersionNumber Cryptogram Version Number.
-     * @return Padded transaction data.
+     * @return ISO 97971 padding method.
      */
     @Override
-    protected String isoPadTransactionData(String transactionData,
-                                           CryptogramVersionNumber cryptogramVersionNumber) {
-        return  ISOIEC97971Padding.performIsoIec97971Method2Padding(transactionData);
+    protected ISOIEC97971PaddingMethod getIsoPaddingMethod(CryptogramVersionNumber cryptogramVersionNumber) {
+        return ISOIEC97971PaddingMethod.METHOD_2;
     }
-}
\ No newline at end of file
+    /**
+     * Append the plaintext offline counters, or the encrypted offline counters decrypted under the Session Key, copied
+     * from the Issuer Application Data of the request record to the transaction data.
+     * @param transactionData       Transaction data for cryptogram generation.
+     * @param sessionKey            Session Key of the Application Cryptogram.
+     * @param requestRecord         Request record holding the Issuer Application Data.
+     */
+    private void appendOfflineCounters(TransactionDataAssembler transactionData,
+                                       byte [] sessionKey,
+                                       CryptogramRequestRecord requestRecord) {
+        boolean encryptedCounters =
+                MastercardIADParser.iadContainsEncryptedCounters(requestRecord.getIssuerApplicationData());
+        int countersLength = (encryptedCounters ?
+                MASTERCARD_ENCRYPTED_COUNTERS_LENGTH :
+                MASTERCARD_PLAIN_TEXT_COUNTERS_LENGTH) / 2;
+        int issuerApplicationDataLength = requestRecord.getLength(CryptogramRequestField.ISSUER_APPLICATION_DATA);
+        if (issuerApplicationDataLength < COUNTERS_OFFSET / 2 + countersLength) {
+            throw new InvalidIssuerApplicationDataException(this.getClass().getName() + " --> Issuer Application Data of " +
+                    issuerApplicationDataLength + " bytes is too short to hold the offline counters."
+            );
+        }
+        int countersOffset = CryptogramRequestField.ISSUER_APPLICATION_DATA.getOffset() + COUNTERS_OFFSET / 2;
+        if (encryptedCounters) {
+            transactionData.appendDecrypted(requestRecord.getData(),
+                    countersOffset,
+                    countersLength,
+                    sessionKey
+            );
+        } else {
+            transactionData.append(requestRecord.getData(),
+                    countersOffset,
+                    countersLength
+            );
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.bc.utilities;
 
+import com.bc.model.constraint.HexadecimalString;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.Pattern;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -34,7 +34,7 @@ public class MastercardIADParser
         extends AbstractSelfValidator<MastercardIADParser>
         implements LoggerUtility {
     @NotEmpty
-    @Pattern(regexp = MASTERCARD_VALID_IAD_FORMAT, message = MASTERCARD_IAD_FORMAT_ERROR)
+    @HexadecimalString(lengths = {36, 40, 52, 56}, message = MASTERCARD_IAD_FORMAT_ERROR)
     private String issuerApplicationData;
     @Setter(AccessLevel.NONE)
     private Map<String, String> parsedIssuerApplicationData = new LinkedHashMap<>();
@@ -153,23 +153,20 @@ public class MastercardIADParser
         // Constants
         final String CVN_14 = "14";
         final String CVN_16 = "16";
-        final String CVN_17 = "17"; // Future release, this CVN requires offline counters to be included
+        final String CVN_17 = "17"; // Offline counters included in AC computation
         final String CVN_20 = "20";
-        final String CVN_21 = "21"; // Future release, this CVN requires offline counters to be included
+        final String CVN_21 = "21"; // Offline counters included in AC computation
         // Check CVN
         switch (cvn){
             case CVN_10:
             case CVN_14:
             case CVN_16:
-            case CVN_20:
-                return;
             case CVN_17:
+            case CVN_20:
             case CVN_21:
-                throw new IllegalStateException(this.getClass().getName() + " --> CVN " + cvn +
-                        " is currently not supported. Only CVNs: \"10\", \"14\", \"16\", and \"20\" are supported."
-                );
+                return;
             default:
-                throw new IllegalStateException(this.getClass().getName() + " --> Unexpected value for CVN . " +
+                throw new UnsupportedCryptogramVersionException(this.getClass().getName() + " --> Unexpected value for CVN . " +
                         "expected \"10\", \"14\", \"16\", \"17\", \"20\", or \"21\" but received " + cvn.toUpperCase() + "."
                 );
         }
@@ -189,7 +186,7 @@ public class MastercardIADParser
      * @param issuerApplicationData Issuer application data to be verified.
      * @return True if encrypted counters exists, else return false.
      */
-    private boolean iadContainsEncryptedCounters(String issuerApplicationData){
+    static boolean iadContainsEncryptedCounters(String issuerApplicationData){
         return issuerApplicationData.length() > 40;
     }
     /**
@@ -216,7 +213,7 @@ public class MastercardIADParser
             case EMV_CSK_SKD:
                 parsedIadDataItems.put(MASTERCARD_SKD_METHOD_NAME, EMV_CSK_METHOD_NAME);
                  break; default:
-                 throw new IllegalStateException(this.getClass().getName() + " --> Unexpected value for bits 3 and 2 in CVN right nibble. " +
+                 throw new UnsupportedCryptogramVersionException(this.getClass().getName() + " --> Unexpected value for bits 3 and 2 in CVN right nibble. " +
                          "expected \"00\", \"10\", or \"11\" but received " + sessionKeyDerivationMethod + "."
                  );
          }
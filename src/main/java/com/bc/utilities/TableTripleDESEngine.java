@@ -0,0 +1,297 @@
+package com.bc.utilities;
+
+import lombok.extern.slf4j.Slf4j;
+import java.util.Arrays;
+import static com.bc.utilities.DESTables.*;
+
+/**
+ * Triple DES engine implemented in process using precomputed lookup tables, intended for the single block operations
+ * performed by the EMV key derivation and MAC computations, where the JCE provider dispatch, buffer checks and
+ * doFinal bookkeeping cost more than the DES rounds.
+ * - The S-box and P permutation of each round are combined into a single SP table of eight 64 entry S-boxes.
+ * - The initial and final permutations are performed with byte indexed lookup tables.
+ * - Key schedules are held as 6 bit round key groups in an int array, and cached in a bounded, direct mapped cache
+ *   shared by all threads, keyed by the raw key bytes.
+ * Note: Cached key schedules are immutable and may be in use by other threads, so evicted schedules are released to
+ * the garbage collector rather than cleared.
+ */
+@Slf4j
+public class TableTripleDESEngine
+        implements TripleDESEngine, LoggerUtility {
+    // Constants
+    private static final int KEY_LENGTH_TDEA_SINGLE = 8;
+    private static final int KEY_LENGTH_TDEA_DOUBLE = 16;
+    private static final int KEY_LENGTH_TDEA_TRIPLE = 24;
+    private static final int TDEA_BLOCK_SIZE = 8;
+    private static final int ROUND_KEY_GROUPS = DES_ROUNDS * SUBSTITUTION_BOX_COUNT;
+    private static final int KEY_SCHEDULE_CACHE_SIZE = 256; // Must be a power of 2.
+    // Lookup tables
+    private static final int[] SP_TABLE = buildSPTable();
+    private static final long[][] INITIAL_PERMUTATION_TABLES = buildPermutationTables(INITIAL_PERMUTATION);
+    private static final long[][] FINAL_PERMUTATION_TABLES = buildPermutationTables(inverse(INITIAL_PERMUTATION));
+    // Key schedule cache, entries are immutable so a racing overwrite only causes a recomputation.
+    private final KeySchedule[] keyScheduleCache = new KeySchedule[KEY_SCHEDULE_CACHE_SIZE];
+    /**
+     * Perform a Triple DES ECB encryption of the input data.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Clear text data, a multiple of 8 bytes.
+     * @return Cipher text generated from the clear text.
+     */
+    @Override
+    public byte[] encrypt(byte[] key,
+                          byte[] inputData) {
+        checkDataLength(inputData);
+        byte[] outputData = new byte[inputData.length];
+        for (int offset = 0; offset < inputData.length; offset += TDEA_BLOCK_SIZE) {
+            encryptBlock(key, inputData, offset, outputData, offset);
+        }
+        return outputData;
+    }
+    /**
+     * Perform a Triple DES ECB decryption of the input data.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Cipher text data, a multiple of 8 bytes.
+     * @return Clear text generated from the cipher text.
+     */
+    @Override
+    public byte[] decrypt(byte[] key,
+                          byte[] inputData) {
+        checkDataLength(inputData);
+        byte[] outputData = new byte[inputData.length];
+        for (int offset = 0; offset < inputData.length; offset += TDEA_BLOCK_SIZE) {
+            decryptBlock(key, inputData, offset, outputData, offset);
+        }
+        return outputData;
+    }
+    /**
+     * Encrypt a single 8 byte block, as E(K1), D(K2), E(K3). The final and initial permutations between the DES
+     * operations cancel out, so they are only applied once for the block.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Buffer holding the clear text block.
+     * @param inputOffset Offset of the clear text block in the input buffer.
+     * @param outputData Buffer receiving the cipher text block, which may be the input buffer.
+     * @param outputOffset Offset of the cipher text block in the output buffer.
+     */
+    @Override
+    public void encryptBlock(byte[] key,
+                             byte[] inputData,
+                             int inputOffset,
+                             byte[] outputData,
+                             int outputOffset) {
+        processBlock(getKeySchedule(key).encryptionRoundKeys,
+                inputData,
+                inputOffset,
+                outputData,
+                outputOffset
+        );
+    }
+    /**
+     * Decrypt a single 8 byte block, as D(K3), E(K2), D(K1).
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Buffer holding the cipher text block.
+     * @param inputOffset Offset of the cipher text block in the input buffer.
+     * @param outputData Buffer receiving the clear text block, which may be the input buffer.
+     * @param outputOffset Offset of the clear text block in the output buffer.
+     */
+    @Override
+    public void decryptBlock(byte[] key,
+                             byte[] inputData,
+                             int inputOffset,
+                             byte[] outputData,
+                             int outputOffset) {
+        processBlock(getKeySchedule(key).decryptionRoundKeys,
+                inputData,
+                inputOffset,
+                outputData,
+                outputOffset
+        );
+    }
+    /**
+     * Run the DES operations of a TDEA encryption or decryption on a block, the round keys are held in the order in
+     * which they are applied, so both directions share the same round loop.
+     * @param roundKeys Round keys of each DES operation, 128 groups per DES operation.
+     * @param inputData Buffer holding the input block.
+     * @param inputOffset Offset of the input block in the input buffer.
+     * @param outputData Buffer receiving the output block.
+     * @param outputOffset Offset of the output block in the output buffer.
+     */
+    private static void processBlock(int[] roundKeys,
+                                     byte[] inputData,
+                                     int inputOffset,
+                                     byte[] outputData,
+                                     int outputOffset) {
+        long block = permute(toLong(inputData, inputOffset), INITIAL_PERMUTATION_TABLES);
+        int left = (int) (block >>> 32);
+        int right = (int) block;
+        for (int desOffset = 0; desOffset < roundKeys.length; desOffset += ROUND_KEY_GROUPS) {
+            // Two rounds per iteration, so the halves are not swapped within the DES operation.
+            for (int roundOffset = desOffset; roundOffset < desOffset + ROUND_KEY_GROUPS;
+                 roundOffset += 2 * SUBSTITUTION_BOX_COUNT) {
+                left ^= feistel(right, roundKeys, roundOffset);
+                right ^= feistel(left, roundKeys, roundOffset + SUBSTITUTION_BOX_COUNT);
+            }
+            // Output of the DES operation is R16 || L16, which is the input of the next DES operation.
+            int swap = left;
+            left = right;
+            right = swap;
+        }
+        block = ((long) left << 32) | (right & 0xFFFFFFFFL);
+        fromLong(permute(block, FINAL_PERMUTATION_TABLES), outputData, outputOffset);
+    }
+    /**
+     * DES round function. Each 6 bit group of the expanded right half is the top 6 bits of the right half rotated
+     * left by 4 * group - 1, so the expansion permutation is performed with rotations. The round key groups hold the
+     * S-box index in the upper bits, so they also select the S-box in the combined SP table.
+     */
+    private static int feistel(int right,
+                               int[] roundKeys,
+                               int roundOffset) {
+        final int[] spTable = SP_TABLE;
+        return spTable[(Integer.rotateRight(right, 1) >>> 26) ^ roundKeys[roundOffset]]
+                | spTable[(Integer.rotateLeft(right, 3) >>> 26) ^ roundKeys[roundOffset + 1]]
+                | spTable[(Integer.rotateLeft(right, 7) >>> 26) ^ roundKeys[roundOffset + 2]]
+                | spTable[(Integer.rotateLeft(right, 11) >>> 26) ^ roundKeys[roundOffset + 3]]
+                | spTable[(Integer.rotateLeft(right, 15) >>> 26) ^ roundKeys[roundOffset + 4]]
+                | spTable[(Integer.rotateLeft(right, 19) >>> 26) ^ roundKeys[roundOffset + 5]]
+                | spTable[(Integer.rotateLeft(right, 23) >>> 26) ^ roundKeys[roundOffset + 6]]
+                | spTable[(Integer.rotateLeft(right, 27) >>> 26) ^ roundKeys[roundOffset + 7]];
+    }
+    /**
+     * Permute a block using byte indexed lookup tables.
+     */
+    private static long permute(long block,
+                                long[][] permutationTables) {
+        return permutationTables[0][(int) (block >>> 56)]
+                | permutationTables[1][(int) (block >>> 48) & 0xFF]
+                | permutationTables[2][(int) (block >>> 40) & 0xFF]
+                | permutationTables[3][(int) (block >>> 32) & 0xFF]
+                | permutationTables[4][(int) (block >>> 24) & 0xFF]
+                | permutationTables[5][(int) (block >>> 16) & 0xFF]
+                | permutationTables[6][(int) (block >>> 8) & 0xFF]
+                | permutationTables[7][(int) block & 0xFF];
+    }
+    /**
+     * Get the key schedule for the key from the cache, or compute and cache the key schedule.
+     * @param key Single, double or triple length TDEA key.
+     * @return Key schedule for the key.
+     */
+    private KeySchedule getKeySchedule(byte[] key) {
+        int cacheIndex = Arrays.hashCode(key) & (KEY_SCHEDULE_CACHE_SIZE - 1);
+        KeySchedule keySchedule = keyScheduleCache[cacheIndex];
+        if (keySchedule == null || !Arrays.equals(keySchedule.key, key)) {
+            keySchedule = new KeySchedule(key);
+            keyScheduleCache[cacheIndex] = keySchedule;
+        }
+        return keySchedule;
+    }
+    /**
+     * Check that the data is a multiple of the TDEA block size.
+     */
+    private void checkDataLength(byte[] inputData) {
+        if (inputData.length % TDEA_BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Input data length must be a " +
+                    "multiple of 8 bytes, but received " + inputData.length + " bytes."
+            );
+        }
+    }
+    /**
+     * Build the combined SP table, i.e., the P permutation of each S-box output placed at the S-box position, for every
+     * 6 bit S-box input. The entries of S-box n are held at n * 64 + input.
+     */
+    private static int[] buildSPTable() {
+        int[] spTable = new int[SUBSTITUTION_BOX_COUNT * 64];
+        for (int substitutionBox = 0; substitutionBox < SUBSTITUTION_BOX_COUNT; substitutionBox++) {
+            for (int sixBitInput = 0; sixBitInput < 64; sixBitInput++) {
+                long substitutionOutput = (long) substitute(substitutionBox, sixBitInput) << (28 - 4 * substitutionBox);
+                spTable[substitutionBox * 64 + sixBitInput] =
+                        (int) DESTables.permute(substitutionOutput, 32, PERMUTATION);
+            }
+        }
+        return spTable;
+    }
+    /**
+     * Build byte indexed lookup tables for a 64 bit permutation, the permutation of a block is the Or of the table
+     * entries for each of its bytes.
+     */
+    private static long[][] buildPermutationTables(int[] permutation) {
+        long[][] permutationTables = new long[8][256];
+        for (int bytePosition = 0; bytePosition < 8; bytePosition++) {
+            for (int byteValue = 0; byteValue < 256; byteValue++) {
+                permutationTables[bytePosition][byteValue] = DESTables.permute(
+                        (long) byteValue << (56 - 8 * bytePosition), 64, permutation);
+            }
+        }
+        return permutationTables;
+    }
+    /**
+     * Compute the inverse of a permutation table.
+     */
+    private static int[] inverse(int[] permutation) {
+        int[] inversePermutation = new int[permutation.length];
+        for (int i = 0; i < permutation.length; i++) {
+            inversePermutation[permutation[i] - 1] = i + 1;
+        }
+        return inversePermutation;
+    }
+    /**
+     * Key schedule of a TDEA key, holding the round keys of the DES operations in the order in which they are applied
+     * for encryption, E(K1), D(K2), E(K3), and for decryption, D(K3), E(K2), D(K1).
+     * Each round key is held as eight 6 bit groups, one per S-box, with the S-box index added in the upper bits.
+     * Single length keys are scheduled as one DES operation, since E(K), D(K), E(K) is equal to E(K).
+     */
+    private static final class KeySchedule {
+        private final byte[] key;
+        private final int[] encryptionRoundKeys;
+        private final int[] decryptionRoundKeys;
+        /**
+         * Constructor
+         * @param key Single, double or triple length TDEA key, copied into the schedule.
+         */
+        private KeySchedule(byte[] key) {
+            this.key = key.clone();
+            switch (key.length) {
+                case KEY_LENGTH_TDEA_SINGLE:
+                    encryptionRoundKeys = new int[ROUND_KEY_GROUPS];
+                    decryptionRoundKeys = new int[ROUND_KEY_GROUPS];
+                    scheduleDESKey(key, 0, encryptionRoundKeys, 0, true);
+                    scheduleDESKey(key, 0, decryptionRoundKeys, 0, false);
+                    break;
+                case KEY_LENGTH_TDEA_DOUBLE:
+                case KEY_LENGTH_TDEA_TRIPLE:
+                    int thirdKeyOffset = key.length == KEY_LENGTH_TDEA_TRIPLE ? KEY_LENGTH_TDEA_DOUBLE : 0;
+                    encryptionRoundKeys = new int[3 * ROUND_KEY_GROUPS];
+                    decryptionRoundKeys = new int[3 * ROUND_KEY_GROUPS];
+                    scheduleDESKey(key, 0, encryptionRoundKeys, 0, true);
+                    scheduleDESKey(key, KEY_LENGTH_TDEA_SINGLE, encryptionRoundKeys, ROUND_KEY_GROUPS, false);
+                    scheduleDESKey(key, thirdKeyOffset, encryptionRoundKeys, 2 * ROUND_KEY_GROUPS, true);
+                    scheduleDESKey(key, thirdKeyOffset, decryptionRoundKeys, 0, false);
+                    scheduleDESKey(key, KEY_LENGTH_TDEA_SINGLE, decryptionRoundKeys, ROUND_KEY_GROUPS, true);
+                    scheduleDESKey(key, 0, decryptionRoundKeys, 2 * ROUND_KEY_GROUPS, false);
+                    break;
+                default:
+                    throw new IllegalArgumentException(TableTripleDESEngine.class.getName() + " --> Invalid TDEA key " +
+                            "length: " + key.length + " bytes. Expected 8, 16 or 24 bytes."
+                    );
+            }
+        }
+        /**
+         * Split the 48 bit round keys of a DES key into 6 bit groups, one for each S-box, in encryption or decryption
+         * round order.
+         */
+        private static void scheduleDESKey(byte[] key,
+                                           int keyOffset,
+                                           int[] roundKeys,
+                                           int scheduleOffset,
+                                           boolean encrypt) {
+            long[] desRoundKeys = DESTables.roundKeys(key, keyOffset);
+            for (int round = 0; round < DES_ROUNDS; round++) {
+                long roundKey = desRoundKeys[encrypt ? round : DES_ROUNDS - 1 - round];
+                for (int group = 0; group < SUBSTITUTION_BOX_COUNT; group++) {
+                    roundKeys[scheduleOffset + round * SUBSTITUTION_BOX_COUNT + group] =
+                            (group << 6) | ((int) (roundKey >>> (42 - 6 * group)) & 0x3F);
+                }
+            }
+            Arrays.fill(desRoundKeys, 0L);
+        }
+    }
+}
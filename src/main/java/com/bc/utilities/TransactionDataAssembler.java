@@ -0,0 +1,135 @@
+package com.bc.utilities;
+
+import java.util.Arrays;
+
+/**
+ * Class assembling the Application Cryptogram transaction data as raw bytes in a preallocated buffer, which is sized to
+ * a multiple of the 8 byte TDEA block so the MAC engine can pad the final block in place.
+ * - Fields decoded at the edge, e.g., the transaction data elements and the IAD of the request record, are copied.
+ * - Binary fields given as hexadecimal digits, e.g., the CVR parsed from the IAD, are decoded.
+ * Note: An instance is not thread safe, but can be reused for further transactions after reset.
+ */
+final class TransactionDataAssembler {
+    // Constants
+    // Fixed transaction data elements of 33 bytes followed by an IAD of up to 32 bytes, rounded up to a TDEA block
+    static final int MAXIMUM_LENGTH = 72;
+    // Variables
+    private final byte[] data = new byte[MAXIMUM_LENGTH];
+    private int length;
+    /**
+     * Reset the assembler for a new transaction.
+     * @return This assembler.
+     */
+    TransactionDataAssembler reset() {
+        length = 0;
+        return this;
+    }
+    /**
+     * Clear the buffer, e.g., decrypted offline counters, when the assembler is discarded.
+     */
+    void clear() {
+        Arrays.fill(data, (byte) 0);
+        length = 0;
+    }
+    /**
+     * Append a field copied from a buffer, e.g., the transaction data elements of the request record.
+     * @param source Buffer holding the field.
+     * @param offset Offset of the field in the buffer.
+     * @param byteLength Field length in bytes.
+     * @return This assembler.
+     * @throws IllegalArgumentException When the transaction data would exceed the maximum length.
+     */
+    TransactionDataAssembler append(byte[] source,
+                                    int offset,
+                                    int byteLength) {
+        ensureCapacity(byteLength);
+        System.arraycopy(source, offset, data, length, byteLength);
+        length += byteLength;
+        return this;
+    }
+    /**
+     * Append a variable length binary field given as an even number of hexadecimal digits, e.g., the IAD.
+     * @param hexadecimalData Hexadecimal digits.
+     * @return This assembler.
+     * @throws IllegalArgumentException When the value is of odd length or holds a character that is not a hexadecimal
+     *                                  digit.
+     */
+    TransactionDataAssembler appendBinary(CharSequence hexadecimalData) {
+        int byteLength = hexadecimalData.length() / 2;
+        ensureCapacity(byteLength);
+        length += HexCodec.decode(hexadecimalData,
+                0,
+                hexadecimalData.length(),
+                data,
+                length
+        );
+        return this;
+    }
+    /**
+     * Append a field of whole TDEA blocks copied from a buffer, decrypting the blocks in place, e.g., encrypted offline
+     * counters.
+     * @param source Buffer holding the cipher text.
+     * @param offset Offset of the cipher text in the buffer.
+     * @param byteLength Cipher text length in bytes.
+     * @param key Raw TDEA key bytes.
+     * @return This assembler.
+     * @throws IllegalArgumentException When the length is not a multiple of the TDEA block size.
+     */
+    TransactionDataAssembler appendDecrypted(byte[] source,
+                                             int offset,
+                                             int byteLength,
+                                             byte[] key) {
+        if (byteLength % TripleDES.TDEA_BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Cipher text of " + byteLength +
+                    " bytes is not a multiple of the TDEA block size."
+            );
+        }
+        int blockOffset = length;
+        append(source, offset, byteLength);
+        for (; blockOffset < length; blockOffset += TripleDES.TDEA_BLOCK_SIZE) {
+            TripleDES.decryptBlock(key,
+                    data,
+                    blockOffset,
+                    data,
+                    blockOffset
+            );
+        }
+        return this;
+    }
+    /**
+     * Get the buffer holding the assembled data, which is valid up to getLength.
+     * @return Transaction data buffer.
+     */
+    byte[] getData() {
+        return data;
+    }
+    /**
+     * Get the length of the assembled data.
+     * @return Number of bytes assembled.
+     */
+    int getLength() {
+        return length;
+    }
+    /**
+     * Check that the buffer has room for a field.
+     */
+    private void ensureCapacity(int byteLength) {
+        if (length + byteLength > MAXIMUM_LENGTH) {
+            throw new IllegalArgumentException(this.getClass().getName() + " --> Transaction data exceeds " +
+                    MAXIMUM_LENGTH + " bytes."
+            );
+        }
+    }
+    /**
+     * Override method for the object's default toString method.
+     * @return Assembled data as hexadecimal digits.
+     */
+    @Override
+    public String toString() {
+        return HexCodec.encode(data,
+                0,
+                length,
+                new StringBuilder(2 * length)
+        ).toString();
+    }
+}
@@ -1,231 +1,102 @@
 package com.bc.utilities;
 
-import lombok.AccessLevel;
-import lombok.Setter;
+import com.bc.application.enumeration.TripleDESEngineType;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.DecoderException;
-import org.apache.commons.codec.binary.Hex;
-import javax.crypto.BadPaddingException;
-import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.spec.SecretKeySpec;
-import java.security.InvalidKeyException;
-import java.security.Key;
-import java.security.NoSuchAlgorithmException;
+import org.eclipse.microprofile.config.ConfigProvider;
+import java.util.Locale;
 /**
  * Class implementing wrapper functions for Triple Data Encryption Standard (TDES) Algorithm functions
  * using java standard Crypto libraries.
+ * Note: The cryptographic operations are delegated to a {@link TripleDESEngine}, selected by the configuration property
+ * emv.crypto.tdea-engine: JCE (default) keeps the initialised Cipher objects per key, so no provider lookup or key
+ * schedule is performed for keys that were already used by the thread, and TABLE performs the block operations in
+ * process using precomputed lookup tables and cached key schedules.
+ * The block methods operate on raw bytes and are used by the key derivation and cryptogram generation utilities,
+ * keys and data are only handled as hexadecimal text at the REST edge.
  */
 @Slf4j
-@Setter
-public class TripleDES
-        implements LoggerUtility {
-    private String inputData;
-    private String key;
-    private final String DES_EDE = "DESede";
-    private final String MODE = "ECB";
-    private final String PADDING = "NoPadding";
-    private final boolean ENCRYPT = true;
-    private final boolean DECRYPT = false;
-    @Setter(AccessLevel.NONE)
-    private String workTdeaInputKey;
-    @Setter(AccessLevel.NONE)
-    private Cipher des;
-    @Setter(AccessLevel.NONE)
-    private Key secretKey;
-    @Setter(AccessLevel.NONE)
-    private String outputData;
+public final class TripleDES {
+    public static final int TDEA_BLOCK_SIZE = 8;
+    private static final String TDEA_ENGINE_PROPERTY = "emv.crypto.tdea-engine";
+    private static final TripleDESEngine TRIPLE_DES_ENGINE = createTripleDESEngine();
+    private static final BitslicedTripleDESEngine BITSLICED_TRIPLE_DES_ENGINE = new BitslicedTripleDESEngine();
     /**
-     * Method to perform a Triple DES encryption of a clear text using a key passed
-     * @return Cipher text generated from clear text after encryption.
+     * Private constructor, the class only holds static methods.
      */
-    public String encrypt(){
-        initialize(ENCRYPT);
-        byte [] decodedInputData = decodeInputDataTextToByteArray();
-        byte [] desEdeOutputData = runDESede(decodedInputData);
-        outputData = Hex.encodeHexString(desEdeOutputData);
-        logDebug(log, "TDEA Encryption request processed!");
-        logDebug(log, "Encrypted data: {}.", outputData);
-        return outputData;
+    private TripleDES() {
     }
     /**
-     * Method to perform a Triple DES decryption of a cipher text using a key passed
-     * @return Clear text generated from cipher text after decryption.
+     * Encrypt a single 8 byte block using a single, double or triple length TDEA key.
+     * @param key Raw TDEA key bytes.
+     * @param inputData Buffer holding the clear text block.
+     * @param inputOffset Offset of the clear text block in the input buffer.
+     * @param outputData Buffer receiving the cipher text block, which may be the input buffer.
+     * @param outputOffset Offset of the cipher text block in the output buffer.
      */
-    public String decrypt(){
-        initialize(DECRYPT);
-        byte [] decodedInputData = decodeInputDataTextToByteArray();
-        byte [] desEdeOutputData = runDESede(decodedInputData);
-        outputData = Hex.encodeHexString(desEdeOutputData);
-        logDebug(log, "TDEA Decryption request processed!");
-        logDebug(log, "Decrypted data: {}.", outputData);
-        return outputData;
-    }
-    /**
-     * Method to initialize the Cipher object to set algorithm to DESede and perform encryption or decryption.
-     * @param encrypt When set to true, will initialise the Cipher object to DESede encrypt,
-     *                else the Cipher object will be set to DESede decrypt.
-     */
-    private void initialize(boolean encrypt) {
-        initializeDESAlgorithm();
-        initializeDESedeKey();
-        if (encrypt) {
-            initializeForDesEncryption();
-        } else {
-            initializeForDesDecryption();
-        }
-    }
-    /**
-     * Initialize Cipher object des with the DESede algorithm with desired mode and padding.
-     */
-    private void initializeDESAlgorithm(){
-        StringBuilder algorithmWithModeAndPadding = new StringBuilder();
-        algorithmWithModeAndPadding.append(DES_EDE)
-                .append("/")
-                .append(MODE)
-                .append("/")
-                .append(PADDING);
-
-        try {
-            des = Cipher.getInstance(algorithmWithModeAndPadding.toString());
-        } catch (NoSuchPaddingException |
-                 NoSuchAlgorithmException cipherException) {
-            throwExceptionAndTerminate("Cipher object algorithm initialization failed",
-                    cipherException
-            );
-        }
-    }
-    /**
-     * Decode the plaintext key to byte array and initialize the Key object.
-     */
-    private void initializeDESedeKey() {
-        try {
-            convertToTripleLengthTDEAKey();
-            secretKey = new SecretKeySpec(Hex.decodeHex(
-                    workTdeaInputKey),
-                    DES_EDE
-            );
-        } catch (DecoderException decoderException){
-            throwExceptionAndTerminate("Key decoding to byte array failed - ",
-                    decoderException
-            );
-        }
+    public static void encryptBlock(byte[] key,
+                                    byte[] inputData,
+                                    int inputOffset,
+                                    byte[] outputData,
+                                    int outputOffset) {
+        TRIPLE_DES_ENGINE.encryptBlock(key,
+                inputData,
+                inputOffset,
+                outputData,
+                outputOffset
+        );
     }
     /**
-     * Initialize Cipher object for encryption.
+     * Decrypt a single 8 byte block using a single, double or triple length TDEA key.
+     * @param key Raw TDEA key bytes.
+     * @param inputData Buffer holding the cipher text block.
+     * @param inputOffset Offset of the cipher text block in the input buffer.
+     * @param outputData Buffer receiving the clear text block, which may be the input buffer.
+     * @param outputOffset Offset of the clear text block in the output buffer.
      */
-    private void initializeForDesEncryption(){
-        try {
-            des.init(Cipher.ENCRYPT_MODE,
-                    secretKey
-            );
-        } catch (InvalidKeyException invalidKeyException){
-            throwExceptionAndTerminate("Cipher object initialization failed due to invalid key",
-                    invalidKeyException);
-        }
+    public static void decryptBlock(byte[] key,
+                                    byte[] inputData,
+                                    int inputOffset,
+                                    byte[] outputData,
+                                    int outputOffset) {
+        TRIPLE_DES_ENGINE.decryptBlock(key,
+                inputData,
+                inputOffset,
+                outputData,
+                outputOffset
+        );
     }
     /**
-     * Initialize Cipher object for decryption.
+     * Encrypt independent 8 byte blocks, each under its own single, double or triple length TDEA key, using the
+     * bitsliced engine, which processes 64 blocks per pass. Used by the batch key derivation methods.
+     * @param keys Raw TDEA key bytes, one key per block.
+     * @param blocks Clear text blocks.
+     * @return Cipher text blocks, in the order of the clear text blocks.
      */
-    private void initializeForDesDecryption(){
-        try {
-            des.init(Cipher.DECRYPT_MODE,
-                    secretKey
-            );
-        } catch (InvalidKeyException invalidKeyException) {
-            throwExceptionAndTerminate("Cipher object initialization failed due to invalid key",
-                    invalidKeyException);
-        }
+    public static byte[][] encryptBlocks(byte[][] keys,
+                                         byte[][] blocks) {
+        return BITSLICED_TRIPLE_DES_ENGINE.encryptBlocks(keys,
+                blocks
+        );
     }
     /**
-     * Transform the input data to byte array.
+     * Create the Triple DES engine selected by configuration, the JCE engine is used when the property is not set or
+     * is not a valid engine type.
+     * @return Triple DES engine.
      */
-    private byte [] decodeInputDataTextToByteArray(){
-        byte [] decodedHexData = new byte[0];
+    private static TripleDESEngine createTripleDESEngine() {
+        TripleDESEngineType tripleDESEngineType = TripleDESEngineType.JCE;
         try {
-            decodedHexData = Hex.decodeHex(inputData);
-        } catch (DecoderException decoderException){
-            throwExceptionAndTerminate("Clear text data decoding to byte array failed",
-                    decoderException
-            );
-        }
-        return decodedHexData;
-    }
-    /**
-     * Run the DESede algorithm.
-     */
-    private byte [] runDESede(byte [] decodedInputData) {
-        byte [] cryptoOutputData = new byte[0];
-        try
-        {
-            cryptoOutputData = des.doFinal(decodedInputData);
-        } catch (IllegalBlockSizeException |
-                 BadPaddingException cryptoException){
-            throwExceptionAndTerminate("Encrypt/Decrypt operation failed",
-                    cryptoException);
-        }
-        return cryptoOutputData;
-    }
-    /**
-     * Method to convert a single or double length TDEA key to a triple length TDEA key.
-     * Note: Parity check is not implemented and will be done in a future release.
-     */
-    private void convertToTripleLengthTDEAKey(){
-        final int KEY_LENGTH_TDEA_SINGLE = 16;
-        final int KEY_LENGTH_TDEA_DOUBLE = 32;
-        if (key.length() == KEY_LENGTH_TDEA_SINGLE) {
-            workTdeaInputKey = key + key + key;
-            logDebug(log,
-                    "Single length TDEA Key received {}, Key expanded to triple length TDEA Key: {}.",
-                    key,
-                    workTdeaInputKey
-            );
-        } else if (key.length() == KEY_LENGTH_TDEA_DOUBLE) {
-            workTdeaInputKey = key + key.substring(0,
-                    KEY_LENGTH_TDEA_SINGLE
-            );
-            logDebug(log,
-                    "Double length TDEA Key received {}, Key expanded to triple length TDEA Key: {}.",
-                    key,
-                    workTdeaInputKey
-            );
-        } else {
-            workTdeaInputKey = key;
-            logInfo(log,
-                    "Triple length TDEA Key input: {}.",
-                    workTdeaInputKey
+            tripleDESEngineType = ConfigProvider.getConfig()
+                    .getOptionalValue(TDEA_ENGINE_PROPERTY, String.class)
+                    .map(value -> TripleDESEngineType.valueOf(value.trim().toUpperCase(Locale.ROOT)))
+                    .orElse(TripleDESEngineType.JCE);
+        } catch (RuntimeException exception) {
+            log.warn("TripleDES log --> Invalid or unavailable {} configuration, defaulting to the JCE engine: {}",
+                    TDEA_ENGINE_PROPERTY,
+                    exception.getMessage()
             );
         }
-    }
-    /**
-     * Override method for the object's default toString method.
-     * @return String representing object's attribute values.
-     */
-    @Override
-    public String toString() {
-
-        return "{" +
-                "inputData='" + inputData + '\'' +
-                ", key='" + key + '\'' +
-                ", outputData='" + outputData + '\'' +
-                '}';
-
-    }
-    /**
-     * Method to raise an exception and terminate processing.
-     * @param exception Generic exception object.
-     * @param message Message to be included in the exception.
-     */
-    private void throwExceptionAndTerminate(String message,
-                                            Exception exception) {
-        throw new RuntimeException(this.getClass() +
-                " --> " +
-                message +
-                " Cause: " +
-                exception.getCause() +
-                " Message: " +
-                exception.getMessage()
-        );
+        log.info("TripleDES log --> TDEA engine selected: {}.", tripleDESEngineType);
+        return tripleDESEngineType.isTABLE() ? new TableTripleDESEngine() : new JceTripleDESEngine();
     }
 }
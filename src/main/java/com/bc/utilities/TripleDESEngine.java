@@ -0,0 +1,53 @@
+package com.bc.utilities;
+
+/**
+ * Interface defining the Triple Data Encryption Standard (TDES) engine used by the {@link TripleDES} block methods and
+ * the EMV key derivation and cryptogram generation utilities.
+ * Note: Keys are supplied as raw single, double or triple length TDEA key bytes, and data must be a multiple of the
+ * 8 byte TDEA block size, since no padding is performed by the engine. The block methods are the primitive operations
+ * used on the cryptogram hot path, and operate on caller supplied buffers.
+ */
+public interface TripleDESEngine {
+    /**
+     * Perform a Triple DES ECB encryption of the input data.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Clear text data, a multiple of 8 bytes.
+     * @return Cipher text generated from the clear text.
+     */
+    byte[] encrypt(byte[] key,
+                   byte[] inputData);
+    /**
+     * Perform a Triple DES ECB decryption of the input data.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Cipher text data, a multiple of 8 bytes.
+     * @return Clear text generated from the cipher text.
+     */
+    byte[] decrypt(byte[] key,
+                   byte[] inputData);
+    /**
+     * Encrypt a single 8 byte block, writing the cipher text to the output buffer without allocating.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Buffer holding the clear text block.
+     * @param inputOffset Offset of the clear text block in the input buffer.
+     * @param outputData Buffer receiving the cipher text block, which may be the input buffer.
+     * @param outputOffset Offset of the cipher text block in the output buffer.
+     */
+    void encryptBlock(byte[] key,
+                      byte[] inputData,
+                      int inputOffset,
+                      byte[] outputData,
+                      int outputOffset);
+    /**
+     * Decrypt a single 8 byte block, writing the clear text to the output buffer without allocating.
+     * @param key Single, double or triple length TDEA key.
+     * @param inputData Buffer holding the cipher text block.
+     * @param inputOffset Offset of the cipher text block in the input buffer.
+     * @param outputData Buffer receiving the clear text block, which may be the input buffer.
+     * @param outputOffset Offset of the clear text block in the output buffer.
+     */
+    void decryptBlock(byte[] key,
+                      byte[] inputData,
+                      int inputOffset,
+                      byte[] outputData,
+                      int outputOffset);
+}
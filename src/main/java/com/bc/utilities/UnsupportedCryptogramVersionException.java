@@ -0,0 +1,16 @@
+package com.bc.utilities;
+
+/**
+ * Exception thrown when the Issuer Application Data holds a Cryptogram Version Number that is not supported for the
+ * Payment Scheme.
+ */
+public class UnsupportedCryptogramVersionException
+        extends IllegalStateException {
+    /**
+     * Constructor
+     * @param message Exception message.
+     */
+    public UnsupportedCryptogramVersionException(String message) {
+        super(message);
+    }
+}
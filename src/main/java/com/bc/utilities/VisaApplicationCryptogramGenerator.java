@@ -1,59 +1,68 @@
 package com.bc.utilities;
 
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
 import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.ISOIEC97971PaddingMethod;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Class defining methods for generating Payment Scheme specific Application Cryptogram (ARQC) and Response Cryptogram (ARPC).
- * Note: ARPC derivation implementation is pending.
  */
 @Slf4j
 public class VisaApplicationCryptogramGenerator
         extends AbstractApplicationCryptogramGenerator {
 
     /**
-     * Pad the Card Verification Results as the final data element for Mastercard payment scheme transaction data
-     * for Application Cryptogram generation.
-     * @param transactionDataBuilder  Transaction data for cryptogram generation.
+     * Append the Card Verification Results or the Issuer Application Data as the final data element for Visa payment
+     * scheme transaction data for Application Cryptogram generation.
+     * @param transactionData         Transaction data for cryptogram generation.
+     * @param sessionKey              Session Key of the Application Cryptogram.
      * @param cryptogramVersionNumber Cryptogram Version Number from Issuer Application Data.
      * @param cardVerificationResults Card Verification Results from Issuer Application Data.
-     * @param issuerApplicationData   Issuer Application Data.
-     * @return Padded transaction data for Application Cryptogram generation.
+     * @param requestRecord           Request record holding the Issuer Application Data.
      */
     @Override
-    protected StringBuilder appendFinalDataElementToTransactionData(StringBuilder transactionDataBuilder,
-                                                                    CryptogramVersionNumber cryptogramVersionNumber,
-                                                                    String cardVerificationResults,
-                                                                    String issuerApplicationData) {
+    protected void appendFinalDataElementToTransactionData(TransactionDataAssembler transactionData,
+                                                           byte [] sessionKey,
+                                                           CryptogramVersionNumber cryptogramVersionNumber,
+                                                           String cardVerificationResults,
+                                                           CryptogramRequestRecord requestRecord) {
         switch (cryptogramVersionNumber){
             case CVN10:
-                return transactionDataBuilder.append(cardVerificationResults);
+                transactionData.appendBinary(cardVerificationResults);
+                return;
             case CVN14:
             case CVN18:
             case CVN22:
             case CVN2C:
-                return transactionDataBuilder.append(issuerApplicationData);
+                transactionData.append(requestRecord.getData(),
+                        CryptogramRequestField.ISSUER_APPLICATION_DATA.getOffset(),
+                        requestRecord.getLength(CryptogramRequestField.ISSUER_APPLICATION_DATA)
+                );
+                return;
+            default:
+                throw new UnsupportedCryptogramVersionException(this.getClass().getName() + " --> Unexpected value for CVN. " +
+                        "Expected \"10\", \"14\", \"18\", \"22\", or \"2C\" but received " + cryptogramVersionNumber + "."
+                );
         }
-        return null;
     }
     /**
-     * Pad Transaction data based on ISO 97971 Method1 or Method2 padding for Visa payment scheme based on
+     * Determine ISO 97971 Method1 or Method2 padding method for Visa payment scheme based on
      * Cryptogram Version Number.
-     * @param transactionData         Transaction data to be padded.
      * @param cryptogramVersionNumber Cryptogram Version Number.
-     * @return Padded transaction data.
+     * @return ISO 97971 padding method.
      */
     @Override
-    protected String isoPadTransactionData(String transactionData,
-                                           CryptogramVersionNumber cryptogramVersionNumber) {
+    protected ISOIEC97971PaddingMethod getIsoPaddingMethod(CryptogramVersionNumber cryptogramVersionNumber) {
         switch (cryptogramVersionNumber){
             case CVN10:
-                return ISOIEC97971Padding.performIsoIec97971Method1Padding(transactionData);
+                return ISOIEC97971PaddingMethod.METHOD_1;
             case CVN14:
             case CVN18:
             case CVN22:
             case CVN2C:
-                return  ISOIEC97971Padding.performIsoIec97971Method2Padding(transactionData);
+                return ISOIEC97971PaddingMethod.METHOD_2;
         }
         return null;
     }
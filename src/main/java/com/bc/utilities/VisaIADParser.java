@@ -1,5 +1,6 @@
 package com.bc.utilities;
 
+import com.bc.model.constraint.HexadecimalString;
 import com.bc.application.enumeration.VisaIadElements;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
@@ -28,10 +29,8 @@ public class VisaIADParser
         extends AbstractSelfValidator<VisaIADParser>
         implements LoggerUtility {
     @NotEmpty
-    @Pattern.List({
-            @Pattern(regexp = VISA_IAD_STARTS_WITH_06_OR_1F, message = VISA_IAD_START_BYTE_ERROR),
-            @Pattern(regexp = VISA_VALID_IAD_FORMAT, message = VISA_IAD_FORMAT_ERROR)
-    })
+    @Pattern(regexp = VISA_IAD_STARTS_WITH_06_OR_1F, message = VISA_IAD_START_BYTE_ERROR)
+    @HexadecimalString(min = 14, max = 64, step = 2, message = VISA_IAD_FORMAT_ERROR)
     private String issuerApplicationData;
     @Setter(AccessLevel.NONE)
     private Map<String, String> parsedIssuerApplicationData = new LinkedHashMap<>();
@@ -152,7 +151,10 @@ public class VisaIADParser
                                 startingOffset + visaIadElement.getLength()));
             }
         }
-        log.debug("Parsed IAD: " + parsedIadDataItems);
+        logDebug(log,
+                "Parsed IAD: {}.",
+                parsedIadDataItems
+        );
     }
     /**
      * Check if Issuer Discretionary Data (IDD) is available in IAD and parse it.
@@ -245,7 +247,7 @@ public class VisaIADParser
             case VISA_CVN_2C:
                 return CVN_PREFIX + cvn;
             default:
-                throw new IllegalStateException(this.getClass().getName() + " --> Unexpected value for CVN . " +
+                throw new UnsupportedCryptogramVersionException(this.getClass().getName() + " --> Unexpected value for CVN . " +
                         "expected \"0A\", \"0E\", \"12\", \"22\", or \"2C\" but received " + cvn.toUpperCase() + "."
                 );
         }
@@ -1,26 +1,31 @@
 package com.bc.utilities;
 
+import com.bc.model.constraint.HexadecimalString;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.Pattern;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.DecoderException;
-import org.apache.commons.codec.binary.Hex;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 
 /**
  * This class defines methods for performing Exclusive Or operation against two hexadecimal values
  * that are supplied in string format.
+ * The static methods operate on byte arrays and process 8 bytes per operation through a long view of the arrays, for
+ * the batch paths that Xor large contiguous buffers.
  */
 @Slf4j
 public class Xor
         extends AbstractSelfValidator<Xor>
         implements LoggerUtility {
     @NotEmpty
-    @Pattern(regexp = "^[\\da-fA-F]+$")
+    @HexadecimalString
     private String leftOperand;
     @NotEmpty
-    @Pattern(regexp = "^[\\da-fA-F]+$")
+    @HexadecimalString
     private String rightOperand;
     private StringBuilder result;
+    // Constants
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
     /**
      * All args constructor
      */
@@ -39,14 +44,24 @@ public class Xor
      * Method that perform XOR function on two hexadecimal strings passed.
      */
     public String doXor() {
-        // Convert left and right operands to bytearray and try Xor operation on each byte
+        // Convert left and right operands to bytearray, Xor the right operand into the left operand and encode the result
         try {
-            byte [] leftOperandBytes = Hex.decodeHex(leftOperand);
-            byte [] rightOperandBytes = Hex.decodeHex(rightOperand);
-            for (int i = 0; i < leftOperandBytes.length; i++) {
-                result.append(Hex.encodeHexString(new byte[]{(byte) (leftOperandBytes[i] ^ rightOperandBytes[i])}));
-            }
-        } catch (DecoderException decoderException) {
+            byte [] leftOperandBytes = HexCodec.decode(leftOperand);
+            byte [] rightOperandBytes = HexCodec.decode(rightOperand);
+            xor(leftOperandBytes,
+                    0,
+                    rightOperandBytes,
+                    0,
+                    leftOperandBytes,
+                    0,
+                    leftOperandBytes.length
+            );
+            HexCodec.encode(leftOperandBytes,
+                    0,
+                    leftOperandBytes.length,
+                    result
+            );
+        } catch (IllegalArgumentException decoderException) {
             throwExceptionAndTerminate(
                     decoderException
             );
@@ -58,6 +73,58 @@ public class Xor
         }
         return result.toString();
     }
+    /**
+     * Xor two byte ranges into an output range, 8 bytes at a time. The output range may be one of the input ranges.
+     * @param leftOperand Buffer holding the left operand.
+     * @param leftOffset Offset of the left operand.
+     * @param rightOperand Buffer holding the right operand.
+     * @param rightOffset Offset of the right operand.
+     * @param output Buffer receiving the result.
+     * @param outputOffset Offset of the result.
+     * @param length Number of bytes to Xor.
+     */
+    public static void xor(byte [] leftOperand,
+                           int leftOffset,
+                           byte [] rightOperand,
+                           int rightOffset,
+                           byte [] output,
+                           int outputOffset,
+                           int length) {
+        int i = 0;
+        for (; i <= length - Long.BYTES; i += Long.BYTES) {
+            long result = (long) LONG_VIEW.get(leftOperand, leftOffset + i) ^
+                    (long) LONG_VIEW.get(rightOperand, rightOffset + i);
+            LONG_VIEW.set(output, outputOffset + i, result);
+        }
+        for (; i < length; i++) {
+            output[outputOffset + i] = (byte) (leftOperand[leftOffset + i] ^ rightOperand[rightOffset + i]);
+        }
+    }
+    /**
+     * Xor a byte range with a constant byte value, 8 bytes at a time, e.g., Xor with "FF" to invert a key component.
+     * The output range may be the input range.
+     * @param operand Buffer holding the operand.
+     * @param operandOffset Offset of the operand.
+     * @param value Byte value Xor'ed into every byte of the operand.
+     * @param output Buffer receiving the result.
+     * @param outputOffset Offset of the result.
+     * @param length Number of bytes to Xor.
+     */
+    public static void xor(byte [] operand,
+                           int operandOffset,
+                           byte value,
+                           byte [] output,
+                           int outputOffset,
+                           int length) {
+        long valueLanes = (value & 0xFFL) * 0x0101010101010101L;
+        int i = 0;
+        for (; i <= length - Long.BYTES; i += Long.BYTES) {
+            LONG_VIEW.set(output, outputOffset + i, (long) LONG_VIEW.get(operand, operandOffset + i) ^ valueLanes);
+        }
+        for (; i < length; i++) {
+            output[outputOffset + i] = (byte) (operand[operandOffset + i] ^ value);
+        }
+    }
     /**
      * Override method for the object's default toString method.
      * @return String representing object's attribute values.
@@ -0,0 +1,159 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.application.enumeration.AdmissionPartition;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests checking the admission limit adaptation, queueing, rejections and partition budgets.
+ */
+class AdmissionControllerTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void testLimitAdaptsToLatency() {
+        AdmissionController admissionController = controller(AdmissionPartition.NONE, 10, 0, Duration.ZERO);
+        // Fast requests using the limit grow it additively
+        for (int i = 0; i < 40; i++) {
+            List<AdmissionController.Permit> permits = acquire(admissionController, "", 10);
+            nanoTime.addAndGet(Duration.ofMillis(10).toNanos());
+            permits.forEach(AdmissionController.Permit::release);
+        }
+        assertEquals(12, admissionController.getStatistics().getLimit());
+        // Slow requests decrease it multiplicatively, once per target latency period
+        List<AdmissionController.Permit> permits = acquire(admissionController, "", 12);
+        nanoTime.addAndGet(Duration.ofMillis(100).toNanos());
+        permits.forEach(AdmissionController.Permit::release);
+        assertEquals(10, admissionController.getStatistics().getLimit());
+        for (int i = 0; i < 20; i++) {
+            AdmissionController.Permit permit = admissionController.acquire("");
+            nanoTime.addAndGet(Duration.ofMillis(100).toNanos());
+            permit.release();
+        }
+        assertEquals(4, admissionController.getStatistics().getLimit());
+    }
+
+    @Test
+    void testRequestsAboveLimitAreRejectedWhenQueueIsFullOrWaitTimesOut() {
+        AdmissionController noQueue = controller(AdmissionPartition.NONE, 4, 0, Duration.ZERO);
+        acquire(noQueue, "", 4);
+        AdmissionRejectedException queueFull = assertThrows(AdmissionRejectedException.class,
+                () -> noQueue.acquire("")
+        );
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE, queueFull.getStatus());
+        AdmissionController shortWait = controller(AdmissionPartition.NONE, 4, 1, Duration.ofMillis(10));
+        acquire(shortWait, "", 4);
+        assertThrows(AdmissionRejectedException.class, () -> shortWait.acquire(""));
+        assertEquals(2, noQueue.getStatistics().getOverloadRejectionCount() +
+                shortWait.getStatistics().getOverloadRejectionCount()
+        );
+    }
+
+    @Test
+    void testWaitingRequestIsAdmittedOnRelease() throws Exception {
+        AdmissionController admissionController = controller(AdmissionPartition.NONE, 4, 1, Duration.ofSeconds(5));
+        List<AdmissionController.Permit> permits = acquire(admissionController, "", 4);
+        Thread waitingRequest = new Thread(() -> admissionController.acquire("").release());
+        waitingRequest.start();
+        while (admissionController.getStatistics().getWaiting() == 0) {
+            Thread.sleep(1);
+        }
+        permits.get(0).release();
+        waitingRequest.join(5000);
+        assertEquals(5, admissionController.getStatistics().getAdmittedCount());
+    }
+
+    @Test
+    void testPartitionBudget() {
+        AdmissionController admissionController = controller(AdmissionPartition.BIN, 8, 0, Duration.ZERO);
+        String bin = admissionController.partitionOf(null, "4761739001010010");
+        assertEquals("476173", bin);
+        List<AdmissionController.Permit> permits = acquire(admissionController, bin, 4);
+        AdmissionRejectedException budgetExhausted = assertThrows(AdmissionRejectedException.class,
+                () -> admissionController.acquire(bin)
+        );
+        assertEquals(Response.Status.TOO_MANY_REQUESTS, budgetExhausted.getStatus());
+        // Other partitions keep their budget
+        acquire(admissionController, "541333", 4);
+        permits.get(0).release();
+        admissionController.acquire(bin);
+    }
+
+    @Test
+    void testPartitionBudgetOfQueuedRequests() throws Exception {
+        AdmissionController admissionController = controller(AdmissionPartition.CALLER, 8, 4, Duration.ofSeconds(5));
+        acquire(admissionController, "caller-a", 3);
+        List<AdmissionController.Permit> permits = acquire(admissionController, "caller-b", 4);
+        acquire(admissionController, "caller-c", 1);
+        // A partition may take at most its share of the queue
+        List<Response.Status> outcomes = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> waitingRequests = new ArrayList<>();
+        for (String partition : new String[]{"caller-a", "caller-a", "caller-d"}) {
+            Thread waitingRequest = new Thread(() -> {
+                try {
+                    admissionController.acquire(partition);
+                    outcomes.add(Response.Status.OK);
+                } catch (AdmissionRejectedException admissionRejectedException) {
+                    outcomes.add(admissionRejectedException.getStatus());
+                }
+            });
+            waitingRequest.start();
+            waitingRequests.add(waitingRequest);
+            int waiting = waitingRequests.size();
+            while (admissionController.getStatistics().getWaiting() < waiting) {
+                Thread.sleep(1);
+            }
+        }
+        AdmissionRejectedException queueBudgetExhausted = assertThrows(AdmissionRejectedException.class,
+                () -> admissionController.acquire("caller-a")
+        );
+        assertEquals(Response.Status.TOO_MANY_REQUESTS, queueBudgetExhausted.getStatus());
+        // Once admitted, the first queued request exhausts the partition budget, so the second is rejected and passes
+        // its permit on to the request of another partition
+        permits.get(0).release();
+        permits.get(1).release();
+        for (Thread waitingRequest : waitingRequests) {
+            waitingRequest.join(5000);
+        }
+        assertEquals(2, outcomes.stream().filter(Response.Status.OK::equals).count());
+        assertEquals(1, outcomes.stream().filter(Response.Status.TOO_MANY_REQUESTS::equals).count());
+        AdmissionController.Statistics statistics = admissionController.getStatistics();
+        assertEquals(8, statistics.getInFlight());
+        assertEquals(0, statistics.getWaiting());
+        assertEquals(2, statistics.getPartitionRejectionCount());
+    }
+
+    @Test
+    void testDisabledControllerAdmitsEveryRequest() {
+        AdmissionController admissionController = new AdmissionController(false, AdmissionPartition.NONE, 4, 4, 4,
+                Duration.ofMillis(50), 0.9, 0, Duration.ZERO, 1, nanoTime::get);
+        acquire(admissionController, "", 100);
+        assertEquals(0, admissionController.getStatistics().getInFlight());
+    }
+
+    private AdmissionController controller(AdmissionPartition admissionPartition,
+                                           int limit,
+                                           int queueSize,
+                                           Duration maximumWait) {
+        return new AdmissionController(true, admissionPartition, limit, 4, 12, Duration.ofMillis(50), 0.9, queueSize,
+                maximumWait, 0.5, nanoTime::get);
+    }
+
+    private static List<AdmissionController.Permit> acquire(AdmissionController admissionController,
+                                                            String partition,
+                                                            int count) {
+        List<AdmissionController.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(admissionController.acquire(partition));
+        }
+        return permits;
+    }
+}
@@ -0,0 +1,249 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.application.enumeration.AdmissionPartition;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.model.dto.GenerateACRequest;
+import com.bc.model.dto.GenerateACResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests checking that batch results are streamed in input order, that failed and rejected items do not fail the batch,
+ * that items are admitted on the reading thread, and that the records of items cancelled before starting are cleared.
+ */
+class CryptogramBatchProcessorTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final AdmissionController ADMIT_ALL = new AdmissionController(false, AdmissionPartition.NONE, 4, 4, 4,
+            Duration.ofMillis(50), 0.9, 0, Duration.ZERO, 1, System::nanoTime);
+    private final CryptogramExecutor cryptogramExecutor = new CryptogramExecutor("CPU_POOL", 4, 2);
+    private final CryptogramBatchProcessor batchProcessor =
+            new CryptogramBatchProcessor(OBJECT_MAPPER, cryptogramExecutor, 8);
+    // Echo the PAN as ARQC after a random delay, so items complete out of order, and fail on PAN "fail"
+    private final Function<GenerateACRequest, GenerateACResponse> cryptogramGenerator = generateACRequest -> {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        if ("fail".equals(generateACRequest.requestRecord.getPan())) {
+            throw new IllegalArgumentException("Failed item");
+        }
+        GenerateACResponse generateACResponse = new GenerateACResponse();
+        generateACResponse.applicationCryptogram = generateACRequest.requestRecord.getPan();
+        return generateACResponse;
+    };
+
+    @AfterEach
+    void shutdown() {
+        cryptogramExecutor.shutdown();
+    }
+
+    @Test
+    void testNdjsonResultsKeepInputOrder() throws IOException {
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String pan = i % 10 == 3 ? "fail" : "PAN" + i;
+            batch.append("{\"Pan\":\"").append(pan).append("\",\"CorrelationId\":\"c").append(i).append("\"}\n");
+        }
+        List<JsonNode> results = process(batch.toString());
+        assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            JsonNode result = results.get(i);
+            assertEquals(i, result.get("Index").asInt());
+            assertEquals("c" + i, result.get("CorrelationId").asText());
+            if (i % 10 == 3) {
+                assertNull(result.get("ARQC"));
+                assertEquals("Failed item", result.get("Errors").get(0).asText());
+            } else {
+                assertEquals("PAN" + i, result.get("ARQC").asText());
+                assertNull(result.get("Errors"));
+            }
+        }
+    }
+
+    @Test
+    void testJsonArrayWithInvalidItems() throws IOException {
+        List<JsonNode> results = process("[{\"Pan\":\"PAN0\"}, 42, {\"Pan\":[1]}, {\"Pan\":\"PAN3\"}]");
+        assertEquals(4, results.size());
+        assertEquals("PAN0", results.get(0).get("ARQC").asText());
+        assertTrue(results.get(1).has("Errors"));
+        assertTrue(results.get(2).has("Errors"));
+        assertEquals("PAN3", results.get(3).get("ARQC").asText());
+    }
+
+    @Test
+    void testTruncatedBatchAnswersItemsRead() throws IOException {
+        List<JsonNode> results = process("[{\"Pan\":\"PAN0\"}, {\"Pan\":\"PAN1\"}, {\"Pan\":");
+        assertEquals(3, results.size());
+        assertEquals("PAN1", results.get(1).get("ARQC").asText());
+        assertEquals(2, results.get(2).get("Index").asInt());
+        assertFalse(results.get(2).get("Errors").isEmpty());
+    }
+
+    @Test
+    void testItemsAreAdmittedOnReadingThreadWithPoolSmallerThanLimit() throws IOException {
+        // Two pool threads and an admission limit of eight, with items waiting for admission
+        CryptogramExecutor smallPoolExecutor = new CryptogramExecutor("CPU_POOL", 2, 2);
+        AdmissionController admissionController = new AdmissionController(true, AdmissionPartition.NONE, 8, 8, 8,
+                Duration.ofSeconds(10), 0.9, 64, Duration.ofSeconds(10), 1, System::nanoTime);
+        Thread readingThread = Thread.currentThread();
+        AtomicInteger admissionsOffReadingThread = new AtomicInteger();
+        AtomicInteger maximumInFlight = new AtomicInteger();
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            String pan = i % 10 == 3 ? "fail" : "PAN" + i;
+            batch.append("{\"Pan\":\"").append(pan).append("\"}\n");
+        }
+        List<JsonNode> results;
+        try {
+            results = process(new CryptogramBatchProcessor(OBJECT_MAPPER, smallPoolExecutor, 32),
+                    batch.toString(),
+                    generateACRequest -> {
+                        if (Thread.currentThread() != readingThread) {
+                            admissionsOffReadingThread.incrementAndGet();
+                        }
+                        AdmissionController.Permit permit = admissionController.acquire("");
+                        maximumInFlight.accumulateAndGet(admissionController.getStatistics().getInFlight(), Math::max);
+                        return permit;
+                    }
+            );
+        } finally {
+            smallPoolExecutor.shutdown();
+        }
+        assertEquals(200, results.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 10 == 3 ? null : "PAN" + i,
+                    results.get(i).has("ARQC") ? results.get(i).get("ARQC").asText() : null
+            );
+        }
+        assertEquals(0, admissionsOffReadingThread.get());
+        assertTrue(maximumInFlight.get() <= 8);
+        // Every permit is released once its item completed, failed items included
+        assertEquals(0, admissionController.getStatistics().getInFlight());
+        assertEquals(200, admissionController.getStatistics().getAdmittedCount());
+    }
+
+    @Test
+    void testRejectedItemIsAnsweredWithoutProcessing() throws IOException {
+        List<JsonNode> results = process(batchProcessor,
+                "{\"Pan\":\"PAN0\"}\n{\"Pan\":\"PAN1\",\"CorrelationId\":\"c1\"}\n{\"Pan\":\"PAN2\"}\n",
+                generateACRequest -> {
+                    if ("PAN1".equals(generateACRequest.requestRecord.getPan())) {
+                        throw new AdmissionRejectedException(Response.Status.TOO_MANY_REQUESTS, "Rejected item");
+                    }
+                    return ADMIT_ALL.acquire("");
+                }
+        );
+        assertEquals(3, results.size());
+        assertEquals("PAN0", results.get(0).get("ARQC").asText());
+        assertEquals("c1", results.get(1).get("CorrelationId").asText());
+        assertEquals("Rejected item", results.get(1).get("Errors").get(0).asText());
+        assertEquals("PAN2", results.get(2).get("ARQC").asText());
+    }
+
+    @Test
+    void testItemsCancelledBeforeStartingAreCleared() {
+        // A single pool thread held by the first item until the batch failed, the following items are still queued
+        CryptogramExecutor singleThreadExecutor = new CryptogramExecutor("CPU_POOL", 1, 16);
+        CountDownLatch firstItemStarted = new CountDownLatch(1);
+        CountDownLatch batchFailed = new CountDownLatch(1);
+        List<GenerateACRequest> admittedRequests = new ArrayList<>();
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            batch.append("{\"Pan\":\"476173900101001").append(i).append("\"}\n");
+        }
+        InputStream failingInput = new SequenceInputStream(
+                new ByteArrayInputStream(batch.toString().getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Batch input failed");
+                    }
+                }
+        );
+        try {
+            assertThrows(IOException.class, () -> new CryptogramBatchProcessor(OBJECT_MAPPER, singleThreadExecutor, 8)
+                    .process(failingInput,
+                            new ByteArrayOutputStream(),
+                            generateACRequest -> {
+                                if (!admittedRequests.isEmpty()) {
+                                    awaitUninterruptibly(firstItemStarted);
+                                }
+                                admittedRequests.add(generateACRequest);
+                                return ADMIT_ALL.acquire("");
+                            },
+                            generateACRequest -> {
+                                firstItemStarted.countDown();
+                                awaitUninterruptibly(batchFailed);
+                                return new GenerateACResponse();
+                            }
+                    )
+            );
+        } finally {
+            batchFailed.countDown();
+            singleThreadExecutor.shutdown();
+        }
+        assertEquals(4, admittedRequests.size());
+        for (int i = 1; i < 4; i++) {
+            assertFalse(admittedRequests.get(i).requestRecord.isPresent(CryptogramRequestField.PAN));
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException interruptedException) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<JsonNode> process(String batch) throws IOException {
+        return process(batchProcessor, batch, generateACRequest -> ADMIT_ALL.acquire(""));
+    }
+
+    private List<JsonNode> process(CryptogramBatchProcessor batchProcessor,
+                                   String batch,
+                                   Function<GenerateACRequest, AdmissionController.Permit> admission)
+            throws IOException {
+        ByteArrayOutputStream batchOutput = new ByteArrayOutputStream();
+        batchProcessor.process(new ByteArrayInputStream(batch.getBytes(StandardCharsets.UTF_8)),
+                batchOutput,
+                admission,
+                cryptogramGenerator
+        );
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : batchOutput.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(OBJECT_MAPPER.readTree(line));
+        }
+        return results;
+    }
+}
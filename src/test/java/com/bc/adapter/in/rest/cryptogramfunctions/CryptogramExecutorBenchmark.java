@@ -0,0 +1,160 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.EMVUDKDerivationMethod;
+import com.bc.application.enumeration.PaymentScheme;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.application.service.CryptogramFunctionsServiceFixture;
+import com.bc.utilities.EMVSessionKeyDerivator;
+import com.bc.utilities.EMVUniqueDerivationKeyDerivator;
+import com.bc.utilities.HexCodec;
+import com.bc.utilities.MastercardApplicationCryptogramGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.bc.application.service.CryptogramFunctionsServiceFixture.MASTERCARD_IAD;
+import static com.bc.application.service.CryptogramFunctionsServiceFixture.MASTERCARD_IMK;
+import static com.bc.application.service.CryptogramFunctionsServiceFixture.MASTERCARD_PAN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Closed loop benchmark comparing the throughput and latency of the execution modes, see {@link CryptogramExecutor}.
+ * Each client sends its next request once the previous one completed. A request is received on a simulated REST API
+ * worker pool, and runs a full cryptogram computation without caches, i.e., UDK derivation, Session Key derivation
+ * and a Mastercard CVN16 ARQC.
+ * The benchmark is skipped unless enabled, run it with:
+ *     mvn test -Dtest=CryptogramExecutorBenchmark -Demv.benchmark=true
+ * Optional properties: emv.benchmark.requests (default 20000), emv.benchmark.clients (default 64) and
+ * emv.benchmark.worker-threads (default 2 per available processor). VIRTUAL_THREAD falls back to CPU_POOL before
+ * Java 21.
+ */
+@EnabledIfSystemProperty(named = "emv.benchmark", matches = "true")
+class CryptogramExecutorBenchmark {
+    private static final String[] EXECUTION_MODES = {"WORKER_THREAD", "VIRTUAL_THREAD", "CPU_POOL"};
+    private static final byte[] DECODED_IMK = HexCodec.decode(MASTERCARD_IMK);
+    private static final String CVR = "A00003220000";
+
+    @Test
+    void benchmarkExecutionModes() throws Exception {
+        int requestCount = Integer.getInteger("emv.benchmark.requests", 20000);
+        int clientCount = Integer.getInteger("emv.benchmark.clients", 64);
+        int workerThreadCount = Integer.getInteger("emv.benchmark.worker-threads",
+                2 * Runtime.getRuntime().availableProcessors());
+        System.out.printf(Locale.ROOT, "Requests: %d, clients: %d, worker threads: %d, processors: %d, Java %s%n",
+                requestCount, clientCount, workerThreadCount, Runtime.getRuntime().availableProcessors(),
+                Runtime.version());
+        for (String executionMode : EXECUTION_MODES) {
+            // Warm up, then measure
+            run(executionMode, requestCount / 4, clientCount, workerThreadCount);
+            System.out.println(run(executionMode, requestCount, clientCount, workerThreadCount));
+        }
+    }
+
+    private static String run(String executionMode,
+                              int requestCount,
+                              int clientCount,
+                              int workerThreadCount) throws Exception {
+        CryptogramExecutor cryptogramExecutor = new CryptogramExecutor(executionMode, 0, 1024);
+        ExecutorService workerPool = Executors.newFixedThreadPool(workerThreadCount);
+        ExecutorService clients = Executors.newFixedThreadPool(clientCount);
+        AtomicInteger nextRequest = new AtomicInteger();
+        AtomicInteger rejectedCount = new AtomicInteger();
+        long[] latencies = new long[requestCount];
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int client = 0; client < clientCount; client++) {
+            results.add(clients.submit(() -> {
+                startLatch.await();
+                int request;
+                while ((request = nextRequest.getAndIncrement()) < requestCount) {
+                    int atc = request & 0xFFFF;
+                    long startTime = System.nanoTime();
+                    try {
+                        CompletionStage<String> response = workerPool.submit(
+                                () -> cryptogramExecutor.execute(() -> generateCryptogram(atc))
+                        ).get();
+                        assertEquals(16, response.toCompletableFuture().get().length());
+                    } catch (java.util.concurrent.ExecutionException executionException) {
+                        if (!(executionException.getCause() instanceof RejectedExecutionException)) {
+                            throw executionException;
+                        }
+                        rejectedCount.incrementAndGet();
+                    }
+                    latencies[request] = System.nanoTime() - startTime;
+                }
+                return null;
+            }));
+        }
+        long startTime = System.nanoTime();
+        startLatch.countDown();
+        try {
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            clients.shutdownNow();
+            workerPool.shutdownNow();
+            cryptogramExecutor.shutdown();
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+        Arrays.sort(latencies);
+        return String.format(Locale.ROOT,
+                "%-14s (%-14s) throughput: %8.0f requests/s, latency p50: %7.3f ms, p99: %7.3f ms, " +
+                        "max: %7.3f ms, rejected: %d",
+                executionMode,
+                cryptogramExecutor.getExecutionMode(),
+                requestCount * 1e9 / elapsedTime,
+                latencies[requestCount / 2] / 1e6,
+                latencies[(int) (requestCount * 0.99)] / 1e6,
+                latencies[requestCount - 1] / 1e6,
+                rejectedCount.get()
+        );
+    }
+
+    private static String generateCryptogram(int applicationTransactionCounter) {
+        String atc = String.format(Locale.ROOT, "%04X", applicationTransactionCounter);
+        GenerateApplicationCryptogramCommand command = command(atc);
+        byte[] uniqueDerivationKey = EMVUniqueDerivationKeyDerivator.fromValidatedInput(DECODED_IMK,
+                command.getRequestRecord(),
+                PaymentScheme.MASTERCARD,
+                CryptogramVersionNumber.CVN16,
+                EMVUDKDerivationMethod.METHOD_A
+        ).generateUniqueDerivationKeyBytes();
+        byte[] sessionKey = EMVSessionKeyDerivator.fromValidatedInput(uniqueDerivationKey,
+                command.getRequestRecord(),
+                CryptogramVersionNumber.CVN16,
+                PaymentScheme.MASTERCARD,
+                null,
+                null
+        ).generateSessionKeyBytes();
+        return new MastercardApplicationCryptogramGenerator().generateApplicationCryptogram(command,
+                sessionKey,
+                CryptogramVersionNumber.CVN16,
+                CVR,
+                PaymentScheme.MASTERCARD
+        ).getRequestCryptogram();
+    }
+
+    private static GenerateApplicationCryptogramCommand command(String applicationTransactionCounter) {
+        return new GenerateApplicationCryptogramCommand(null,
+                CryptogramFunctionsServiceFixture.requestRecord()
+                        .put(CryptogramRequestField.PAN, MASTERCARD_PAN)
+                        .put(CryptogramRequestField.ISSUER_MASTER_KEY, MASTERCARD_IMK)
+                        .put(CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER, applicationTransactionCounter)
+                        .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, MASTERCARD_IAD)
+        );
+    }
+}
@@ -0,0 +1,93 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.application.enumeration.ExecutionMode;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests checking the request execution of each execution mode.
+ */
+class CryptogramExecutorTest {
+
+    @Test
+    void testWorkerThreadRunsOnCallingThread() throws Exception {
+        CryptogramExecutor cryptogramExecutor = new CryptogramExecutor("worker_thread", 1, 1);
+        Thread callingThread = Thread.currentThread();
+        assertEquals(callingThread, cryptogramExecutor.execute(Thread::currentThread).toCompletableFuture().get());
+        cryptogramExecutor.shutdown();
+    }
+
+    @Test
+    void testCpuPoolRejectsWhenQueueIsFull() throws Exception {
+        CryptogramExecutor cryptogramExecutor = new CryptogramExecutor("CPU_POOL", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletionStage<Boolean> running = cryptogramExecutor.execute(() -> await(release));
+        CompletionStage<Boolean> queued = cryptogramExecutor.execute(() -> await(release));
+        assertThrows(RejectedExecutionException.class, () -> cryptogramExecutor.execute(() -> true));
+        release.countDown();
+        assertTrue(running.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertTrue(queued.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertNotEquals(Thread.currentThread(),
+                cryptogramExecutor.execute(Thread::currentThread).toCompletableFuture().get(5, TimeUnit.SECONDS)
+        );
+        cryptogramExecutor.shutdown();
+    }
+
+    @Test
+    void testRequestExceptionCompletesStage() {
+        CryptogramExecutor cryptogramExecutor = new CryptogramExecutor("CPU_POOL", 1, 1);
+        ExecutionException executionException = assertThrows(ExecutionException.class,
+                () -> cryptogramExecutor.execute(() -> {
+                    throw new IllegalArgumentException("Invalid request");
+                }).toCompletableFuture().get(5, TimeUnit.SECONDS)
+        );
+        assertTrue(executionException.getCause() instanceof IllegalArgumentException);
+        cryptogramExecutor.shutdown();
+    }
+
+    @Test
+    void testRequestErrorCompletesStage() {
+        CryptogramExecutor cryptogramExecutor = new CryptogramExecutor("CPU_POOL", 1, 1);
+        ExecutionException executionException = assertThrows(ExecutionException.class,
+                () -> cryptogramExecutor.execute(() -> {
+                    throw new StackOverflowError("Failed");
+                }).toCompletableFuture().get(5, TimeUnit.SECONDS)
+        );
+        assertTrue(executionException.getCause() instanceof StackOverflowError);
+        cryptogramExecutor.shutdown();
+    }
+
+    @Test
+    void testVirtualThreadModeOrFallback() throws Exception {
+        CryptogramExecutor cryptogramExecutor = new CryptogramExecutor("VIRTUAL_THREAD", 1, 1);
+        boolean virtualThreadsSupported = Runtime.version().feature() >= 21;
+        assertEquals(virtualThreadsSupported ? ExecutionMode.VIRTUAL_THREAD : ExecutionMode.CPU_POOL,
+                cryptogramExecutor.getExecutionMode()
+        );
+        assertEquals("done", cryptogramExecutor.execute(() -> "done").toCompletableFuture().get(5, TimeUnit.SECONDS));
+        cryptogramExecutor.shutdown();
+    }
+
+    @Test
+    void testInvalidModeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CryptogramExecutor("REACTIVE", 1, 1));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.bc.adapter.in.rest.cryptogramfunctions;
+
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.application.service.CryptogramFunctionsServiceFixture;
+import com.bc.model.dto.GenerateACResponse;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests checking the response cache keys, expiry, eviction and single flight coalescing, including failures.
+ */
+class CryptogramResponseCacheTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final AtomicInteger generatedCount = new AtomicInteger();
+    private final Supplier<GenerateACResponse> responseGenerator = () -> {
+        GenerateACResponse generateACResponse = new GenerateACResponse();
+        generateACResponse.applicationCryptogram = "arqc" + generatedCount.incrementAndGet();
+        return generateACResponse;
+    };
+
+    @Test
+    void testIdenticalRequestsAreServedFromCache() {
+        CryptogramResponseCache cache = new CryptogramResponseCache(true, 10, Duration.ofSeconds(30), nanoTime::get);
+        assertEquals("arqc1", cache.get(command("1A2B3C4D", "06010A03A00000"), responseGenerator).applicationCryptogram);
+        // Hexadecimal fields are case insensitive
+        assertEquals("arqc1", cache.get(command("1a2b3c4d", "06010a03a00000"), responseGenerator).applicationCryptogram);
+        assertEquals("arqc2", cache.get(command("1A2B3C4E", "06010A03A00000"), responseGenerator).applicationCryptogram);
+        assertEquals(1, cache.getStatistics().getHitCount());
+        assertEquals(2, cache.getStatistics().getMissCount());
+        assertNotEquals(CryptogramResponseCache.hash(command("1A2B3C4D", "06010A03A00000")),
+                CryptogramResponseCache.hash(command("1A2B3C4D", "06010E03A00000"))
+        );
+    }
+
+    @Test
+    void testResponsesExpireAndAreEvicted() {
+        CryptogramResponseCache cache = new CryptogramResponseCache(true, 2, Duration.ofSeconds(30), nanoTime::get);
+        cache.get(command("00000001", "06010A03A00000"), responseGenerator);
+        nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals("arqc2", cache.get(command("00000001", "06010A03A00000"), responseGenerator).applicationCryptogram);
+        assertEquals(1, cache.getStatistics().getExpirationCount());
+        cache.get(command("00000002", "06010A03A00000"), responseGenerator);
+        cache.get(command("00000003", "06010A03A00000"), responseGenerator);
+        assertEquals(2, cache.getStatistics().getSize());
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void testConcurrentIdenticalRequestsAreCoalesced() throws Exception {
+        CryptogramResponseCache cache = new CryptogramResponseCache(true, 10, Duration.ofSeconds(30), nanoTime::get);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<GenerateACResponse> slowResponseGenerator = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return responseGenerator.get();
+        };
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<GenerateACResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(executorService.submit(
+                    () -> cache.get(command("1A2B3C4D", "06010A03A00000"), slowResponseGenerator))
+            );
+        }
+        // The first request blocks in the generator, so the 7 others wait for its response
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getStatistics().getCoalescedCount() < 7 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        for (Future<GenerateACResponse> response : responses) {
+            assertEquals("arqc1", response.get(5, TimeUnit.SECONDS).applicationCryptogram);
+        }
+        executorService.shutdownNow();
+        assertEquals(1, generatedCount.get());
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        CryptogramResponseCache cache = new CryptogramResponseCache(true, 10, Duration.ofSeconds(30), nanoTime::get);
+        assertThrows(IllegalStateException.class, () -> cache.get(command("1A2B3C4D", "06010A03A00000"), () -> {
+            throw new IllegalStateException("Failed");
+        }));
+        assertEquals("arqc1", cache.get(command("1A2B3C4D", "06010A03A00000"), responseGenerator).applicationCryptogram);
+    }
+
+    @Test
+    void testErrorReleasesCoalescedRequests() throws Exception {
+        CryptogramResponseCache cache = new CryptogramResponseCache(true, 10, Duration.ofSeconds(30), nanoTime::get);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<GenerateACResponse> failingResponseGenerator = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new StackOverflowError("Failed");
+        };
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        List<Future<GenerateACResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            responses.add(executorService.submit(
+                    () -> cache.get(command("1A2B3C4D", "06010A03A00000"), failingResponseGenerator))
+            );
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getStatistics().getCoalescedCount() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        try {
+            // Both the generating and the coalesced request fail with the error instead of waiting forever
+            for (Future<GenerateACResponse> response : responses) {
+                ExecutionException executionException = assertThrows(ExecutionException.class,
+                        () -> response.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(StackOverflowError.class, executionException.getCause());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals("arqc1", cache.get(command("1A2B3C4D", "06010A03A00000"), responseGenerator).applicationCryptogram);
+    }
+
+    private static GenerateApplicationCryptogramCommand command(String unpredictableNumber,
+                                                                String issuerApplicationData) {
+        return new GenerateApplicationCryptogramCommand(null,
+                CryptogramFunctionsServiceFixture.requestRecord()
+                        .put(CryptogramRequestField.ISSUER_MASTER_KEY, CryptogramFunctionsServiceFixture.VISA_IMK)
+                        .put(CryptogramRequestField.UNPREDICTABLE_NUMBER, unpredictableNumber)
+                        .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, issuerApplicationData)
+        );
+    }
+}
@@ -0,0 +1,136 @@
+package com.bc.adapter.in.tcp;
+
+import com.bc.application.service.CryptogramFunctionsServiceFixture;
+import com.bc.application.service.impl.MastercardCryptogramFunctionsServiceImpl;
+import com.bc.application.service.impl.VisaCryptogramFunctionsServiceImpl;
+import com.bc.utilities.HexCodec;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests checking the HSM command message decoding, the error responses, and the AG and AV commands against known
+ * answer ARQCs of the domain services.
+ */
+class HsmCommandProcessorTest {
+    private static final String VISA_IMK = "0123456789ABCDEFFEDCBA9876543210";
+    private static final String VISA_ARQC = "2813E6B4507F431B";
+    private static final String MASTERCARD_ARQC = "8989969F51E7EAEA";
+    // PAN Sequence Number, amounts, Terminal Country Code, TVR, Transaction Currency Code, date, type, UN, AIP and ATC
+    private static final String TRANSACTION_FIELDS = "01" + "000000001000" + "000000000000" + "0840" + "0000008000" +
+            "0840" + "231231" + "00" + "1A2B3C4D" + "5800" + "002B";
+    private static final String VISA_FIELDS = "10" + "4761739001010010" + TRANSACTION_FIELDS + "07" + "06010A03A00000";
+    private static final String MASTERCARD_FIELDS = "10" + "5413330089600010" + TRANSACTION_FIELDS + "14" +
+            "0116A00003220000000000000000000000000000";
+    private final HsmCommandProcessor hsmCommandProcessor = new HsmCommandProcessor();
+
+    HsmCommandProcessorTest() {
+        Map<String, String> issuerKeyProperties = Map.of(
+                "emv.issuer-keys.mc-01.key", "9E15204313F7318ACB79B90BD986AD29",
+                "emv.issuer-keys.mc-01.bin", "541333",
+                "emv.issuer-keys.mc-01.dki", "01"
+        );
+        hsmCommandProcessor.visaCryptogramService = CryptogramFunctionsServiceFixture.inject(
+                new VisaCryptogramFunctionsServiceImpl(), issuerKeyProperties);
+        hsmCommandProcessor.mastercardCryptogramService = CryptogramFunctionsServiceFixture.inject(
+                new MastercardCryptogramFunctionsServiceImpl(), issuerKeyProperties);
+    }
+
+    @Test
+    void testGenerateArqc() {
+        // Issuer Master Key in the message
+        Buffer response = hsmCommandProcessor.process(message("AG", "00" + "10" + VISA_IMK + VISA_FIELDS));
+        assertEquals("0a0b0c0d", HexCodec.encode(response.getBytes(0, 4)));
+        assertEquals("AH00", response.getString(4, 8));
+        assertEquals(VISA_ARQC.toLowerCase(), HexCodec.encode(response.getBytes(8, response.length())));
+        // Issuer key id, and issuer key resolved by BIN and DKI
+        assertEquals("AH00" + MASTERCARD_ARQC, responseOf(message("AG", "01" + "05" + "6D632D3031" +
+                MASTERCARD_FIELDS)));
+        assertEquals("AH00" + MASTERCARD_ARQC, responseOf(message("AG", "02" + MASTERCARD_FIELDS)));
+        // No issuer key registered for the BIN
+        assertEquals("AH15", responseOf(message("AG", "02" + VISA_FIELDS)));
+    }
+
+    @Test
+    void testVerifyArqc() {
+        assertEquals("AW00", responseOf(message("AV", "00" + "10" + VISA_IMK + VISA_FIELDS + VISA_ARQC)));
+        assertEquals("AW00", responseOf(message("AV", "02" + MASTERCARD_FIELDS + MASTERCARD_ARQC)));
+        assertEquals("AW01", responseOf(message("AV", "02" + MASTERCARD_FIELDS + VISA_ARQC)));
+        assertEquals("AW15", responseOf(message("AV", "02" + VISA_FIELDS + VISA_ARQC)));
+    }
+
+    @Test
+    void testUnsupportedCommandEchoesHeader() {
+        Buffer response = hsmCommandProcessor.process(message("XX", ""));
+        assertEquals("0a0b0c0d", HexCodec.encode(response.getBytes(0, 4)));
+        assertEquals("XY68", response.getString(4, 8));
+    }
+
+    @Test
+    void testTruncatedCommandIsInputDataError() {
+        Buffer response = hsmCommandProcessor.process(message("AG", "00100123456789ABCDEF"));
+        assertEquals("AH15", response.getString(4, 8));
+        assertEquals(8, response.length());
+    }
+
+    @Test
+    void testInvalidFieldIsInputDataError() {
+        // PAN holding a non decimal digit
+        assertEquals("AH15", hsmCommandProcessor.process(message("AG", "02" + "10" + "476173900101001A"))
+                .getString(4, 8)
+        );
+        // Too short to hold an ARQC
+        assertEquals("AW15", hsmCommandProcessor.process(message("AV", "02")).getString(4, 8));
+    }
+
+    @Test
+    void testUnsupportedCvnIsInputDataError() {
+        // Visa IAD holding CVN 0x11, answered as by AV rather than as a processing error
+        String unsupportedCvnFields = "10" + "4761739001010010" + TRANSACTION_FIELDS + "07" + "06011103A00000";
+        assertEquals("AH15", responseOf(message("AG", "00" + "10" + VISA_IMK + unsupportedCvnFields)));
+        assertEquals("AW15", responseOf(message("AV", "00" + "10" + VISA_IMK + unsupportedCvnFields + VISA_ARQC)));
+    }
+
+    @Test
+    void testBusyResponse() {
+        assertEquals("AH90", hsmCommandProcessor.busy(message("AG", "")).getString(4, 8));
+    }
+
+    @Test
+    void testProcessingErrorResponse() {
+        assertEquals("AW99", hsmCommandProcessor.processingError(message("AV", "")).getString(4, 8));
+    }
+
+    @Test
+    void testMessageWithoutCommandCodeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> hsmCommandProcessor.process(Buffer.buffer(new byte[5])));
+    }
+
+    @Test
+    void testReaderDecodesPackedFields() {
+        HsmMessageReader reader = new HsmMessageReader(Buffer.buffer(HexCodec.decode(
+                "0F541333008960001F" + "01" + "0840" + "02ABCD" + "03414243")), 0);
+        assertEquals("541333008960001", reader.readVariableBcd());
+        assertEquals("01", HexCodec.encode(reader.readBinary(1)));
+        assertEquals("0840", HexCodec.encode(reader.readBinary(2)));
+        assertEquals("abcd", HexCodec.encode(reader.readVariableBinary()));
+        assertEquals("ABC", reader.readVariableAscii());
+        reader.ensureFullyRead();
+        assertThrows(IllegalArgumentException.class, reader::readUnsignedByte);
+    }
+
+    private String responseOf(Buffer message) {
+        Buffer response = hsmCommandProcessor.process(message);
+        return response.getString(4, 8) + HexCodec.encode(response.getBytes(8, response.length())).toUpperCase();
+    }
+
+    private static Buffer message(String commandCode,
+                                  String fields) {
+        return Buffer.buffer(HexCodec.decode("0A0B0C0D"))
+                .appendString(commandCode)
+                .appendBytes(HexCodec.decode(fields));
+    }
+}
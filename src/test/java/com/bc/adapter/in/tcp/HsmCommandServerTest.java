@@ -0,0 +1,216 @@
+package com.bc.adapter.in.tcp;
+
+import com.bc.adapter.in.rest.cryptogramfunctions.CryptogramExecutor;
+import com.bc.utilities.HexCodec;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests checking the HSM command server message framing, pipelining and flow control over a TCP connection, with a
+ * stub command processor:
+ * - EC: answered at once.
+ * - SL: answered after the number of tens of milliseconds given by the byte following the command code.
+ * - BL: answered once the gate is opened.
+ * - ER: fails with an error.
+ */
+class HsmCommandServerTest {
+    private final Vertx vertx = Vertx.vertx();
+    private final CryptogramExecutor cryptogramExecutor = new CryptogramExecutor("CPU_POOL", 4, 16);
+    private final Semaphore gate = new Semaphore(0);
+    private final AtomicInteger processedCount = new AtomicInteger();
+    private final HsmCommandServer hsmCommandServer = new HsmCommandServer();
+
+    @AfterEach
+    void shutdown() {
+        hsmCommandServer.onStop(null);
+        vertx.close();
+        cryptogramExecutor.getBatchExecutor().shutdownNow();
+    }
+
+    @Test
+    void testLengthPrefixFramingAndKeepAlive() throws Exception {
+        start(64);
+        try (Socket socket = connect()) {
+            OutputStream output = socket.getOutputStream();
+            // Keep alives are ignored, a message may arrive one byte at a time
+            output.write(new byte[]{0, 0, 0, 0});
+            for (byte messageByte : frame(message(1, "EC", ""))) {
+                output.write(messageByte);
+                output.flush();
+                Thread.sleep(1);
+            }
+            assertEquals(header(1) + "ED00", readResponse(socket));
+            // Several messages, keep alives included, in a single segment
+            ByteArrayOutputStream messages = new ByteArrayOutputStream();
+            messages.write(frame(message(2, "EC", "")));
+            messages.write(new byte[]{0, 0});
+            messages.write(frame(message(3, "EC", "01020304")));
+            output.write(messages.toByteArray());
+            Set<String> responses = new HashSet<>();
+            responses.add(readResponse(socket));
+            responses.add(readResponse(socket));
+            assertEquals(Set.of(header(2) + "ED00", header(3) + "ED00"), responses);
+        }
+    }
+
+    @Test
+    void testPipelinedResponsesAreWrittenAsTheyComplete() throws Exception {
+        start(64);
+        try (Socket socket = connect()) {
+            ByteArrayOutputStream messages = new ByteArrayOutputStream();
+            messages.write(frame(message(1, "SL", "1E")));
+            messages.write(frame(message(2, "EC", "")));
+            socket.getOutputStream().write(messages.toByteArray());
+            assertEquals(header(2) + "ED00", readResponse(socket));
+            assertEquals(header(1) + "SM00", readResponse(socket));
+        }
+    }
+
+    @Test
+    void testReadingPausesAtMaximumMessagesInFlight() throws Exception {
+        start(2);
+        try (Socket socket = connect()) {
+            ByteArrayOutputStream messages = new ByteArrayOutputStream();
+            for (int i = 1; i <= 4; i++) {
+                messages.write(frame(message(i, "BL", "")));
+            }
+            socket.getOutputStream().write(messages.toByteArray());
+            awaitProcessedCount(2);
+            Thread.sleep(200);
+            assertEquals(2, processedCount.get());
+            // Each completed message lets the next one be read
+            gate.release();
+            readResponse(socket);
+            awaitProcessedCount(3);
+            gate.release(3);
+            for (int i = 0; i < 3; i++) {
+                readResponse(socket);
+            }
+            assertEquals(4, processedCount.get());
+        }
+    }
+
+    @Test
+    void testProcessingErrorIsAnsweredAndReleasesTheMessage() throws Exception {
+        start(1);
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(frame(message(1, "ER", "")));
+            assertEquals(header(1) + "ES99", readResponse(socket));
+            // Reading resumed, although the message failed
+            socket.getOutputStream().write(frame(message(2, "EC", "")));
+            assertEquals(header(2) + "ED00", readResponse(socket));
+        }
+    }
+
+    @Test
+    void testShortMessageClosesConnection() throws Exception {
+        start(64);
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(frame(new byte[]{1, 2, 3, 4, 'E'}));
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+
+    private void start(int maximumMessagesInFlight) {
+        hsmCommandServer.vertx = vertx;
+        hsmCommandServer.cryptogramExecutor = cryptogramExecutor;
+        hsmCommandServer.hsmCommandProcessor = new StubHsmCommandProcessor();
+        hsmCommandServer.enabled = true;
+        hsmCommandServer.host = "127.0.0.1";
+        hsmCommandServer.port = 0;
+        hsmCommandServer.maximumMessagesInFlight = maximumMessagesInFlight;
+        hsmCommandServer.onStart(null);
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", hsmCommandServer.getActualPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private void awaitProcessedCount(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (processedCount.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, processedCount.get());
+    }
+
+    private static byte[] message(int header,
+                                  String commandCode,
+                                  String fields) {
+        return Buffer.buffer()
+                .appendInt(header)
+                .appendString(commandCode)
+                .appendBytes(HexCodec.decode(fields))
+                .getBytes();
+    }
+
+    private static byte[] frame(byte[] message) {
+        return Buffer.buffer()
+                .appendUnsignedShort(message.length)
+                .appendBytes(message)
+                .getBytes();
+    }
+
+    private static String header(int header) {
+        return String.format("%08x", header);
+    }
+
+    /**
+     * Read a response, returning the header as hexadecimal digits followed by the response and error codes.
+     */
+    private static String readResponse(Socket socket) throws IOException {
+        DataInputStream input = new DataInputStream(socket.getInputStream());
+        byte[] response = new byte[input.readUnsignedShort()];
+        input.readFully(response);
+        assertTrue(response.length >= 8);
+        return header(Buffer.buffer(response).getInt(0)) +
+                new String(response, 4, response.length - 4, StandardCharsets.US_ASCII);
+    }
+
+    private final class StubHsmCommandProcessor
+            extends HsmCommandProcessor {
+        @Override
+        public Buffer process(Buffer message) {
+            processedCount.incrementAndGet();
+            String commandCode = message.getString(HEADER_LENGTH, HEADER_LENGTH + COMMAND_CODE_LENGTH);
+            try {
+                switch (commandCode) {
+                    case "SL":
+                        Thread.sleep(10L * message.getUnsignedByte(HEADER_LENGTH + COMMAND_CODE_LENGTH));
+                        break;
+                    case "BL":
+                        gate.acquire();
+                        break;
+                    case "ER":
+                        throw new AssertionError("Processing failed");
+                    default:
+                        break;
+                }
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return Buffer.buffer()
+                    .appendBuffer(message, 0, HEADER_LENGTH)
+                    .appendString(commandCode.charAt(0) + String.valueOf((char) (commandCode.charAt(1) + 1)))
+                    .appendString(NO_ERROR);
+        }
+    }
+}
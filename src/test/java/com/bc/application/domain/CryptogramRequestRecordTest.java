@@ -0,0 +1,105 @@
+package com.bc.application.domain;
+
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.utilities.HexCodec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests checking that the request fields are packed into the fixed layout record, from text and from packed bytes, and
+ * that invalid fields are marked invalid rather than raising an exception.
+ */
+class CryptogramRequestRecordTest {
+
+    @Test
+    void testTextFieldsArePacked() {
+        CryptogramRequestRecord requestRecord = new CryptogramRequestRecord()
+                .put(CryptogramRequestField.AMOUNT_AUTHORISED, "1000")
+                .put(CryptogramRequestField.TERMINAL_COUNTRY_CODE, "840")
+                .put(CryptogramRequestField.TRANSACTION_DATE, "2023-12-31")
+                .put(CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER, "2b")
+                .put(CryptogramRequestField.PAN_SEQUENCE_NUMBER, "1")
+                .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, "06010A03A00000");
+        assertEquals("000000001000", field(requestRecord, CryptogramRequestField.AMOUNT_AUTHORISED));
+        assertEquals("0840", field(requestRecord, CryptogramRequestField.TERMINAL_COUNTRY_CODE));
+        assertEquals("231231", field(requestRecord, CryptogramRequestField.TRANSACTION_DATE));
+        assertEquals("002b", field(requestRecord, CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER));
+        assertEquals("01", field(requestRecord, CryptogramRequestField.PAN_SEQUENCE_NUMBER));
+        assertEquals(7, requestRecord.getLength(CryptogramRequestField.ISSUER_APPLICATION_DATA));
+        assertEquals("06010a03a00000", field(requestRecord, CryptogramRequestField.ISSUER_APPLICATION_DATA));
+        assertFalse(requestRecord.isPresent(CryptogramRequestField.AMOUNT_OTHER));
+        assertTrue(requestRecord.isValid(CryptogramRequestField.AMOUNT_OTHER));
+    }
+
+    @Test
+    void testInvalidTextFieldsAreMarkedInvalid() {
+        CryptogramRequestRecord requestRecord = new CryptogramRequestRecord()
+                .put(CryptogramRequestField.AMOUNT_AUTHORISED, "10A0")
+                .put(CryptogramRequestField.TERMINAL_VERIFICATION_RESULTS, "00000080")
+                .put(CryptogramRequestField.TRANSACTION_DATE, "2023-02-32")
+                .put(CryptogramRequestField.UNPREDICTABLE_NUMBER, "1A2B3C4G")
+                .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, "06010A03A0000")
+                .put(CryptogramRequestField.ISSUER_MASTER_KEY, "")
+                .put(CryptogramRequestField.PAN, "476173900101001");
+        for (CryptogramRequestField field : new CryptogramRequestField[] {CryptogramRequestField.AMOUNT_AUTHORISED,
+                CryptogramRequestField.TERMINAL_VERIFICATION_RESULTS, CryptogramRequestField.TRANSACTION_DATE,
+                CryptogramRequestField.UNPREDICTABLE_NUMBER, CryptogramRequestField.ISSUER_APPLICATION_DATA,
+                CryptogramRequestField.ISSUER_MASTER_KEY, CryptogramRequestField.PAN}) {
+            assertFalse(requestRecord.isValid(field), field.name());
+            assertFalse(requestRecord.isPresent(field), field.name());
+        }
+        // A valid value put again replaces the invalid value
+        requestRecord.put(CryptogramRequestField.AMOUNT_AUTHORISED, "1000");
+        assertTrue(requestRecord.isValid(CryptogramRequestField.AMOUNT_AUTHORISED));
+        assertEquals("000000001000", field(requestRecord, CryptogramRequestField.AMOUNT_AUTHORISED));
+        // A default is not put over an invalid value
+        requestRecord.putIfAbsent(CryptogramRequestField.TERMINAL_VERIFICATION_RESULTS, "0000000000");
+        assertFalse(requestRecord.isValid(CryptogramRequestField.TERMINAL_VERIFICATION_RESULTS));
+    }
+
+    @Test
+    void testPackedFieldsAreChecked() {
+        CryptogramRequestRecord requestRecord = new CryptogramRequestRecord()
+                .put(CryptogramRequestField.AMOUNT_AUTHORISED, HexCodec.decode("000000001000"), 0, 6)
+                .put(CryptogramRequestField.TRANSACTION_DATE, HexCodec.decode("231231"), 0, 3)
+                .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, HexCodec.decode("06010A03A00000"), 0, 7);
+        assertEquals("000000001000", field(requestRecord, CryptogramRequestField.AMOUNT_AUTHORISED));
+        assertEquals("231231", field(requestRecord, CryptogramRequestField.TRANSACTION_DATE));
+        assertEquals("06010a03a00000", requestRecord.getIssuerApplicationData());
+        // Non BCD digits, a digit in the padding of a currency code, an invalid month and a wrong length are invalid
+        requestRecord.put(CryptogramRequestField.AMOUNT_OTHER, HexCodec.decode("00000000100A"), 0, 6)
+                .put(CryptogramRequestField.TRANSACTION_CURRENCY_CODE, HexCodec.decode("1840"), 0, 2)
+                .put(CryptogramRequestField.PAN_SEQUENCE_NUMBER, HexCodec.decode("1A"), 0, 1)
+                .put(CryptogramRequestField.TRANSACTION_DATE, HexCodec.decode("231331"), 0, 3)
+                .put(CryptogramRequestField.TERMINAL_COUNTRY_CODE, HexCodec.decode("000840"), 0, 3);
+        assertFalse(requestRecord.isValid(CryptogramRequestField.AMOUNT_OTHER));
+        assertFalse(requestRecord.isValid(CryptogramRequestField.TRANSACTION_CURRENCY_CODE));
+        assertFalse(requestRecord.isValid(CryptogramRequestField.PAN_SEQUENCE_NUMBER));
+        assertFalse(requestRecord.isValid(CryptogramRequestField.TRANSACTION_DATE));
+        assertFalse(requestRecord.isValid(CryptogramRequestField.TERMINAL_COUNTRY_CODE));
+    }
+
+    @Test
+    void testClearZeroizesRecord() {
+        CryptogramRequestRecord requestRecord = new CryptogramRequestRecord()
+                .put(CryptogramRequestField.ISSUER_MASTER_KEY, "0123456789ABCDEFFEDCBA9876543210");
+        assertEquals(16, requestRecord.copy(CryptogramRequestField.ISSUER_MASTER_KEY).length);
+        requestRecord.clear();
+        assertFalse(requestRecord.isPresent(CryptogramRequestField.ISSUER_MASTER_KEY));
+        for (byte recordByte : requestRecord.getData()) {
+            assertEquals(0, recordByte);
+        }
+    }
+
+    private static String field(CryptogramRequestRecord requestRecord,
+                                CryptogramRequestField field) {
+        return HexCodec.encode(requestRecord.getData(),
+                field.getOffset(),
+                requestRecord.getLength(field),
+                new StringBuilder()
+        ).toString();
+    }
+}
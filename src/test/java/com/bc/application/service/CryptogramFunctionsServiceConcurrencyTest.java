@@ -0,0 +1,90 @@
+package com.bc.application.service;
+
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.application.service.impl.MastercardCryptogramFunctionsServiceImpl;
+import com.bc.application.service.impl.VisaCryptogramFunctionsServiceImpl;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static com.bc.application.service.CryptogramFunctionsServiceFixture.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stress test firing mixed Visa and Mastercard cryptogram requests from many threads at shared service instances,
+ * checking every cryptogram against its known answer.
+ */
+class CryptogramFunctionsServiceConcurrencyTest {
+    // PAN, PAN Sequence Number, IMK, IAD and expected ARQC
+    private static final String[][] KNOWN_ANSWERS = {
+            {VISA_PAN, "1", VISA_IMK, VISA_IAD, VISA_ARQC},
+            {VISA_PAN, "01", VISA_IMK, "06010E03A00000", "46422e0cc3f1b963"},
+            {VISA_PAN, "1", VISA_IMK, "06011203A000000F010000000000000000000000000000000000000000000000",
+                    "58164c97c77ca227"},
+            {VISA_PAN, "00", VISA_IMK, "1F2201000000000001000000000000000000000000000000000000000000ABCD",
+                    "d1a7b150977ed7d7"},
+            {MASTERCARD_PAN, "1", MASTERCARD_IMK, "0110A0000000000000000000000000000000", "ee2b9e47f91bc06c"},
+            {MASTERCARD_PAN, "1", MASTERCARD_IMK, MASTERCARD_IAD, MASTERCARD_ARQC},
+            {MASTERCARD_PAN, "3", MASTERCARD_IMK, "0114A00003220000000000000000000000000000", "cdea91e72c6b074e"},
+            {MASTERCARD_PAN, "03", MASTERCARD_IMK, "0120A00003220000000000000000000000000000", "cdea91e72c6b074e"},
+    };
+    private static final int THREAD_COUNT = 16;
+    private static final int REQUESTS_PER_THREAD = 50;
+
+    @Test
+    void testConcurrentRequestsGenerateKnownAnswers() throws Exception {
+        // Small caches, so concurrent requests also race on cache misses and evictions
+        UniqueDerivationKeyCache uniqueDerivationKeyCache =
+                new UniqueDerivationKeyCache(true, 2, Duration.ofHours(1), false);
+        SessionKeyCache sessionKeyCache = new SessionKeyCache(true, 2, Duration.ofMinutes(1), false);
+        IssuerKeyRegistry issuerKeyRegistry = new IssuerKeyRegistry(Map.of());
+        VisaCryptogramFunctionsServiceImpl visaService = CryptogramFunctionsServiceFixture.inject(
+                new VisaCryptogramFunctionsServiceImpl(), uniqueDerivationKeyCache, sessionKeyCache, issuerKeyRegistry);
+        MastercardCryptogramFunctionsServiceImpl mastercardService = CryptogramFunctionsServiceFixture.inject(
+                new MastercardCryptogramFunctionsServiceImpl(), uniqueDerivationKeyCache, sessionKeyCache,
+                issuerKeyRegistry);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            int offset = thread;
+            results.add(executorService.submit(() -> {
+                startLatch.await();
+                for (int request = 0; request < REQUESTS_PER_THREAD; request++) {
+                    String[] knownAnswer = KNOWN_ANSWERS[(offset + request) % KNOWN_ANSWERS.length];
+                    AbstractCryptogramFunctionsService service = knownAnswer[0].equals(VISA_PAN) ?
+                            visaService :
+                            mastercardService;
+                    String arqc = service.getApplicationCryptogram(buildCommand(knownAnswer)).getRequestCryptogram();
+                    assertEquals(knownAnswer[4], arqc, "ARQC for IAD " + knownAnswer[3]);
+                }
+                return REQUESTS_PER_THREAD;
+            }));
+        }
+        startLatch.countDown();
+        int requestCount = 0;
+        try {
+            for (Future<Integer> result : results) {
+                requestCount += result.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals(THREAD_COUNT * REQUESTS_PER_THREAD, requestCount);
+    }
+
+    private static GenerateApplicationCryptogramCommand buildCommand(String[] knownAnswer) {
+        return new GenerateApplicationCryptogramCommand(null,
+                CryptogramFunctionsServiceFixture.requestRecord()
+                        .put(CryptogramRequestField.PAN, knownAnswer[0])
+                        .put(CryptogramRequestField.PAN_SEQUENCE_NUMBER, knownAnswer[1])
+                        .put(CryptogramRequestField.ISSUER_MASTER_KEY, knownAnswer[2])
+                        .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, knownAnswer[3])
+        );
+    }
+}
@@ -0,0 +1,115 @@
+package com.bc.application.service;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.utilities.HexCodec;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Test fixture shared by the tests of the cryptogram functions: the known answer cards, the default request record,
+ * the wiring of the service dependencies outside of the CDI container and a reference retail MAC.
+ */
+public final class CryptogramFunctionsServiceFixture {
+    // Known answer cards, the ARQCs are those of the default request record
+    public static final String VISA_PAN = "4761739001010010";
+    public static final String VISA_IMK = "0123456789ABCDEFFEDCBA9876543210";
+    public static final String VISA_IAD = "06010A03A00000";
+    public static final String VISA_ARQC = "2813e6b4507f431b";
+    public static final String MASTERCARD_PAN = "5413330089600010";
+    public static final String MASTERCARD_IMK = "9E15204313F7318ACB79B90BD986AD29";
+    public static final String MASTERCARD_IAD = "0116A00003220000000000000000000000000000";
+    public static final String MASTERCARD_ARQC = "8989969f51e7eaea";
+    /**
+     * Private constructor, the class only holds static methods.
+     */
+    private CryptogramFunctionsServiceFixture() {
+    }
+    /**
+     * Build the default request record, the Visa CVN10 known answer request without Issuer Master Key. Tests put the
+     * fields they vary over the defaults.
+     * @return New request record.
+     */
+    public static CryptogramRequestRecord requestRecord() {
+        return new CryptogramRequestRecord()
+                .put(CryptogramRequestField.PAN, VISA_PAN)
+                .put(CryptogramRequestField.PAN_SEQUENCE_NUMBER, "01")
+                .put(CryptogramRequestField.AMOUNT_AUTHORISED, "1000")
+                .put(CryptogramRequestField.AMOUNT_OTHER, "000000000000")
+                .put(CryptogramRequestField.TERMINAL_COUNTRY_CODE, "840")
+                .put(CryptogramRequestField.TERMINAL_VERIFICATION_RESULTS, "0000008000")
+                .put(CryptogramRequestField.TRANSACTION_CURRENCY_CODE, "840")
+                .put(CryptogramRequestField.TRANSACTION_DATE, "2023-12-31")
+                .put(CryptogramRequestField.TRANSACTION_TYPE, "00")
+                .put(CryptogramRequestField.UNPREDICTABLE_NUMBER, "1A2B3C4D")
+                .put(CryptogramRequestField.APPLICATION_INTERCHANGE_PROFILE, "5800")
+                .put(CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER, "2B")
+                .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, VISA_IAD);
+    }
+    /**
+     * Inject enabled derived key caches and an empty issuer key registry into a service.
+     * @param service Cryptogram functions service.
+     * @return The service passed.
+     */
+    public static <T extends AbstractCryptogramFunctionsService> T inject(T service) {
+        return inject(service, Map.of());
+    }
+    /**
+     * Inject enabled derived key caches and an issuer key registry into a service.
+     * @param service Cryptogram functions service.
+     * @param issuerKeyProperties emv.issuer-keys properties of the issuer key registry.
+     * @return The service passed.
+     */
+    public static <T extends AbstractCryptogramFunctionsService> T inject(T service,
+                                                                         Map<String, String> issuerKeyProperties) {
+        return inject(service,
+                new UniqueDerivationKeyCache(true, 16, Duration.ofHours(1), false),
+                new SessionKeyCache(true, 16, Duration.ofMinutes(1), false),
+                new IssuerKeyRegistry(issuerKeyProperties)
+        );
+    }
+    /**
+     * Inject the given derived key caches and issuer key registry into a service, e.g., to share them between services.
+     * @param service Cryptogram functions service.
+     * @param uniqueDerivationKeyCache UDK cache.
+     * @param sessionKeyCache Session Key cache.
+     * @param issuerKeyRegistry Issuer key registry.
+     * @return The service passed.
+     */
+    public static <T extends AbstractCryptogramFunctionsService> T inject(
+            T service,
+            UniqueDerivationKeyCache uniqueDerivationKeyCache,
+            SessionKeyCache sessionKeyCache,
+            IssuerKeyRegistry issuerKeyRegistry) {
+        service.uniqueDerivationKeyCache = uniqueDerivationKeyCache;
+        service.sessionKeyCache = sessionKeyCache;
+        service.issuerKeyRegistry = issuerKeyRegistry;
+        return service;
+    }
+    /**
+     * ISO/IEC 9797-1 MAC Algorithm 3 with padding Method 2, computed with the JCE DES engine, as the reference for the
+     * ARQCs and ARPCs computed by the generators.
+     * @param sessionKey Double length Session Key, hexadecimal.
+     * @param data Data to MAC, hexadecimal.
+     * @return MAC, lower case hexadecimal.
+     */
+    public static String retailMac(String sessionKey,
+                                   String data) throws Exception {
+        byte[] paddedData = Arrays.copyOf(HexCodec.decode(data + "80"), (data.length() / 16 + 1) * 8);
+        byte[] keyA = HexCodec.decode(sessionKey.substring(0, 16));
+        byte[] keyB = HexCodec.decode(sessionKey.substring(16));
+        Cipher cbc = Cipher.getInstance("DES/CBC/NoPadding");
+        cbc.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(keyA, "DES"), new IvParameterSpec(new byte[8]));
+        byte[] chained = cbc.doFinal(paddedData);
+        byte[] mac = Arrays.copyOfRange(chained, chained.length - 8, chained.length);
+        Cipher ecb = Cipher.getInstance("DES/ECB/NoPadding");
+        ecb.init(Cipher.DECRYPT_MODE, new SecretKeySpec(keyB, "DES"));
+        mac = ecb.doFinal(mac);
+        ecb.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(keyA, "DES"));
+        return HexCodec.encode(ecb.doFinal(mac));
+    }
+}
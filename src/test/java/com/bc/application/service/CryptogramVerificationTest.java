@@ -0,0 +1,87 @@
+package com.bc.application.service;
+
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.CryptogramVerificationResult;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.application.service.impl.MastercardCryptogramFunctionsServiceImpl;
+import com.bc.application.service.impl.VisaCryptogramFunctionsServiceImpl;
+import com.bc.utilities.HexCodec;
+import org.junit.jupiter.api.Test;
+
+import static com.bc.application.service.CryptogramFunctionsServiceFixture.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests checking the ARQC verification of the Visa and Mastercard services against known answers.
+ */
+class CryptogramVerificationTest {
+    private final VisaCryptogramFunctionsServiceImpl visaService =
+            CryptogramFunctionsServiceFixture.inject(new VisaCryptogramFunctionsServiceImpl());
+    private final MastercardCryptogramFunctionsServiceImpl mastercardService =
+            CryptogramFunctionsServiceFixture.inject(new MastercardCryptogramFunctionsServiceImpl());
+
+    @Test
+    void testKnownAnswersAreVerified() {
+        assertEquals(CryptogramVerificationResult.VERIFIED, visaService.verifyApplicationCryptogram(
+                buildCommand(VISA_PAN, VISA_IMK, VISA_IAD), HexCodec.decode(VISA_ARQC)).getVerificationResult());
+        assertEquals(CryptogramVerificationResult.VERIFIED, mastercardService.verifyApplicationCryptogram(
+                buildCommand(MASTERCARD_PAN, MASTERCARD_IMK, MASTERCARD_IAD), HexCodec.decode(MASTERCARD_ARQC))
+                .getVerificationResult());
+    }
+
+    @Test
+    void testAlteredCryptogramIsNotVerified() {
+        byte[] applicationCryptogram = HexCodec.decode(VISA_ARQC);
+        applicationCryptogram[7] ^= 0x01;
+        assertEquals(CryptogramVerificationResult.ARQC_MISMATCH, visaService.verifyApplicationCryptogram(
+                buildCommand(VISA_PAN, VISA_IMK, VISA_IAD), applicationCryptogram).getVerificationResult());
+        assertEquals(CryptogramVerificationResult.ARQC_MISMATCH, mastercardService.verifyApplicationCryptogram(
+                buildCommand(MASTERCARD_PAN, MASTERCARD_IMK, MASTERCARD_IAD), HexCodec.decode(VISA_ARQC))
+                .getVerificationResult());
+    }
+
+    @Test
+    void testMissingIssuerKeyIsReported() {
+        assertEquals(CryptogramVerificationResult.ISSUER_KEY_NOT_FOUND, visaService.verifyApplicationCryptogram(
+                buildCommand(VISA_PAN, null, VISA_IAD), HexCodec.decode(VISA_ARQC)).getVerificationResult());
+    }
+
+    @Test
+    void testUnsupportedCvnIsReported() {
+        assertEquals(CryptogramVerificationResult.UNSUPPORTED_CVN, visaService.verifyApplicationCryptogram(
+                buildCommand(VISA_PAN, VISA_IMK, "06011103A00000"), HexCodec.decode(VISA_ARQC))
+                .getVerificationResult());
+        assertEquals(CryptogramVerificationResult.UNSUPPORTED_CVN, mastercardService.verifyApplicationCryptogram(
+                buildCommand(MASTERCARD_PAN, MASTERCARD_IMK, "0115A00003220000000000000000000000000000"),
+                HexCodec.decode(MASTERCARD_ARQC)).getVerificationResult());
+    }
+
+    @Test
+    void testInvalidIadIsReported() {
+        // A Visa IAD must start with 06 or 1F, a Mastercard IAD must be 18, 20, 26 or 28 bytes long
+        assertEquals(CryptogramVerificationResult.INVALID_IAD, visaService.verifyApplicationCryptogram(
+                buildCommand(VISA_PAN, VISA_IMK, "07010A03A00000"), HexCodec.decode(VISA_ARQC))
+                .getVerificationResult());
+        assertEquals(CryptogramVerificationResult.INVALID_IAD, mastercardService.verifyApplicationCryptogram(
+                buildCommand(MASTERCARD_PAN, MASTERCARD_IMK, MASTERCARD_IAD + "0000"),
+                HexCodec.decode(MASTERCARD_ARQC)).getVerificationResult());
+    }
+
+    @Test
+    void testCryptogramLengthIsChecked() {
+        assertThrows(IllegalArgumentException.class, () -> visaService.verifyApplicationCryptogram(
+                buildCommand(VISA_PAN, VISA_IMK, VISA_IAD), new byte[4]));
+    }
+
+    private static GenerateApplicationCryptogramCommand buildCommand(String pan,
+                                                                     String issuerMasterKey,
+                                                                     String issuerApplicationData) {
+        return new GenerateApplicationCryptogramCommand(null,
+                CryptogramFunctionsServiceFixture.requestRecord()
+                        .put(CryptogramRequestField.PAN, pan)
+                        .put(CryptogramRequestField.ISSUER_MASTER_KEY, issuerMasterKey)
+                        .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, issuerApplicationData)
+        );
+    }
+}
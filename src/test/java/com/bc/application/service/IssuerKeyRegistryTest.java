@@ -0,0 +1,163 @@
+package com.bc.application.service;
+
+import com.bc.application.domain.IssuerKey;
+import com.bc.utilities.DerivedKeyCache;
+import com.bc.utilities.HexCodec;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests checking the issuer key registry property parsing, validation and key resolution.
+ */
+class IssuerKeyRegistryTest {
+    private static final String SINGLE_LENGTH_KEY = "0123456789abcdef";
+    private static final String DOUBLE_LENGTH_KEY = "0123456789ABCDEFFEDCBA9876543210";
+    private static final String TRIPLE_LENGTH_KEY = "9E15204313F7318ACB79B90BD986AD290123456789ABCDEF";
+
+    @Test
+    void testPropertiesAreParsed() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("emv.issuer-keys.visa-01.key", " " + SINGLE_LENGTH_KEY + " ");
+        properties.put("emv.issuer-keys.visa-01.bin", "476173");
+        properties.put("emv.issuer-keys.visa-01.dki", "0a");
+        properties.put("emv.issuer-keys.mc.prod.key", TRIPLE_LENGTH_KEY);
+        properties.put("emv.issuer-key.ignored.key", DOUBLE_LENGTH_KEY);
+        properties.put("emv.issuer-keys.key", DOUBLE_LENGTH_KEY);
+        properties.put("other.property", "value");
+        IssuerKeyRegistry issuerKeyRegistry = new IssuerKeyRegistry(properties);
+        IssuerKey visaKey = issuerKeyRegistry.findByKeyId("visa-01").orElseThrow();
+        assertEquals("visa-01", visaKey.getKeyId());
+        assertEquals("476173", visaKey.getBin());
+        assertEquals("0A", visaKey.getDerivationKeyIndex());
+        assertArrayEquals(HexCodec.decode(SINGLE_LENGTH_KEY), visaKey.getIssuerMasterKey());
+        assertEquals(DerivedKeyCache.fingerprint(HexCodec.decode(SINGLE_LENGTH_KEY)), visaKey.getFingerprint());
+        // A request sending the same key in clear shares the cached UDKs of the registered key
+        assertEquals(UniqueDerivationKeyCache.fingerprintIssuerMasterKey(HexCodec.decode(SINGLE_LENGTH_KEY)),
+                visaKey.getFingerprint()
+        );
+        // Key ids may hold dots, the last segment is the attribute
+        IssuerKey mastercardKey = issuerKeyRegistry.findByKeyId("mc.prod").orElseThrow();
+        assertArrayEquals(HexCodec.decode(TRIPLE_LENGTH_KEY), mastercardKey.getIssuerMasterKey());
+        assertNull(mastercardKey.getBin());
+        assertNull(mastercardKey.getDerivationKeyIndex());
+        assertFalse(issuerKeyRegistry.findByKeyId("ignored").isPresent());
+        assertFalse(issuerKeyRegistry.findByKeyId("").isPresent());
+        assertFalse(issuerKeyRegistry.findByKeyId("unknown").isPresent());
+        // The key is never logged
+        assertFalse(visaKey.toString().contains(SINGLE_LENGTH_KEY.toUpperCase()));
+    }
+
+    @Test
+    void testKeysAreZeroizedOnShutdown() {
+        Map<String, String> properties = new HashMap<>();
+        addIssuerKey(properties, "visa-01", DOUBLE_LENGTH_KEY, "476173", "01");
+        properties.put("emv.issuer-keys.mc-01.key", TRIPLE_LENGTH_KEY);
+        IssuerKeyRegistry issuerKeyRegistry = new IssuerKeyRegistry(properties);
+        IssuerKey visaKey = issuerKeyRegistry.findByKeyId("visa-01").orElseThrow();
+        IssuerKey mastercardKey = issuerKeyRegistry.findByKeyId("mc-01").orElseThrow();
+        issuerKeyRegistry.clearKeys();
+        assertArrayEquals(new byte[16], visaKey.getIssuerMasterKey());
+        assertArrayEquals(new byte[24], mastercardKey.getIssuerMasterKey());
+    }
+
+    @Test
+    void testLongestBinMatches() {
+        Map<String, String> properties = new HashMap<>();
+        addIssuerKey(properties, "bin-6", DOUBLE_LENGTH_KEY, "541333", "01");
+        addIssuerKey(properties, "bin-8", DOUBLE_LENGTH_KEY, "54133300", "01");
+        addIssuerKey(properties, "bin-11", DOUBLE_LENGTH_KEY, "54133300896", "01");
+        addIssuerKey(properties, "bin-8-other-dki", DOUBLE_LENGTH_KEY, "54133301", "02");
+        IssuerKeyRegistry issuerKeyRegistry = new IssuerKeyRegistry(properties);
+        assertEquals("bin-11", keyIdOf(issuerKeyRegistry, "5413330089600010", "01"));
+        assertEquals("bin-8", keyIdOf(issuerKeyRegistry, "5413330012345678", "01"));
+        assertEquals("bin-6", keyIdOf(issuerKeyRegistry, "5413331012345678", "01"));
+        assertEquals("bin-6", keyIdOf(issuerKeyRegistry, "5413330112345678", "01"));
+        assertEquals("bin-8-other-dki", keyIdOf(issuerKeyRegistry, "5413330112345678", "02"));
+        assertNull(keyIdOf(issuerKeyRegistry, "5413330089600010", "03"));
+        assertNull(keyIdOf(issuerKeyRegistry, "4761739001010010", "01"));
+        assertNull(keyIdOf(issuerKeyRegistry, "54133", "01"));
+        assertNull(keyIdOf(issuerKeyRegistry, null, "01"));
+        assertNull(keyIdOf(issuerKeyRegistry, "5413330089600010", null));
+    }
+
+    @Test
+    void testDerivationKeyIndexCaseIsFolded() {
+        Map<String, String> properties = new HashMap<>();
+        addIssuerKey(properties, "lower", DOUBLE_LENGTH_KEY, "476173", "ab");
+        addIssuerKey(properties, "upper", DOUBLE_LENGTH_KEY, "476174", "CD");
+        IssuerKeyRegistry issuerKeyRegistry = new IssuerKeyRegistry(properties);
+        assertEquals("lower", keyIdOf(issuerKeyRegistry, "4761739001010010", "AB"));
+        assertEquals("lower", keyIdOf(issuerKeyRegistry, "4761739001010010", "ab"));
+        assertEquals("upper", keyIdOf(issuerKeyRegistry, "4761749001010010", "cd"));
+        assertEquals("upper", keyIdOf(issuerKeyRegistry, "4761749001010010", "Cd"));
+    }
+
+    @Test
+    void testDuplicateBinAndDerivationKeyIndexIsRejected() {
+        Map<String, String> properties = new HashMap<>();
+        addIssuerKey(properties, "first", DOUBLE_LENGTH_KEY, "476173", "0a");
+        addIssuerKey(properties, "second", SINGLE_LENGTH_KEY, "476173", "0A");
+        IllegalArgumentException illegalArgumentException = assertThrows(IllegalArgumentException.class,
+                () -> new IssuerKeyRegistry(properties)
+        );
+        assertTrue(illegalArgumentException.getMessage().contains("first and second are both registered for BIN " +
+                "476173"));
+        // The same BIN with another DKI, or the same DKI with another BIN, is accepted
+        properties.put("emv.issuer-keys.second.dki", "0B");
+        new IssuerKeyRegistry(properties);
+        properties.put("emv.issuer-keys.second.dki", "0A");
+        properties.put("emv.issuer-keys.second.bin", "4761730");
+        new IssuerKeyRegistry(properties);
+    }
+
+    @Test
+    void testInvalidPropertiesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new IssuerKeyRegistry(Map.of("emv.issuer-keys.missing-key.bin", "476173"))
+        );
+        String[] invalidKeys = {"", "0123456789ABCDE", "0123456789ABCDEFFEDCBA98765432", "0123456789ABCDEG"};
+        for (String invalidKey : invalidKeys) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new IssuerKeyRegistry(Map.of("emv.issuer-keys.invalid.key", invalidKey))
+            );
+        }
+        for (String invalidBin : new String[]{"47617", "476173900101", "47617A"}) {
+            assertThrows(IllegalArgumentException.class, () -> new IssuerKeyRegistry(Map.of(
+                    "emv.issuer-keys.invalid.key", DOUBLE_LENGTH_KEY,
+                    "emv.issuer-keys.invalid.bin", invalidBin))
+            );
+        }
+        for (String invalidDki : new String[]{"1", "001", "0G"}) {
+            assertThrows(IllegalArgumentException.class, () -> new IssuerKeyRegistry(Map.of(
+                    "emv.issuer-keys.invalid.key", DOUBLE_LENGTH_KEY,
+                    "emv.issuer-keys.invalid.dki", invalidDki))
+            );
+        }
+    }
+
+    private static void addIssuerKey(Map<String, String> properties,
+                                     String keyId,
+                                     String issuerMasterKey,
+                                     String bin,
+                                     String derivationKeyIndex) {
+        properties.put("emv.issuer-keys." + keyId + ".key", issuerMasterKey);
+        properties.put("emv.issuer-keys." + keyId + ".bin", bin);
+        properties.put("emv.issuer-keys." + keyId + ".dki", derivationKeyIndex);
+    }
+
+    private static String keyIdOf(IssuerKeyRegistry issuerKeyRegistry,
+                                  String pan,
+                                  String derivationKeyIndex) {
+        return issuerKeyRegistry.findByPanAndDerivationKeyIndex(pan, derivationKeyIndex)
+                .map(IssuerKey::getKeyId)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,82 @@
+package com.bc.application.service;
+
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.application.service.impl.MastercardCryptogramFunctionsServiceImpl;
+import com.bc.application.service.impl.VisaCryptogramFunctionsServiceImpl;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.bc.application.service.CryptogramFunctionsServiceFixture.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests checking that the services generate the known answer cryptograms with Issuer Master Keys resolved from a
+ * populated issuer key registry, by key id and by card BIN and DKI.
+ */
+class IssuerKeyResolutionTest {
+    private static final Map<String, String> ISSUER_KEY_PROPERTIES = buildIssuerKeyProperties();
+    private final VisaCryptogramFunctionsServiceImpl visaService = CryptogramFunctionsServiceFixture.inject(
+            new VisaCryptogramFunctionsServiceImpl(), ISSUER_KEY_PROPERTIES);
+    private final MastercardCryptogramFunctionsServiceImpl mastercardService = CryptogramFunctionsServiceFixture.inject(
+            new MastercardCryptogramFunctionsServiceImpl(), ISSUER_KEY_PROPERTIES);
+
+    @Test
+    void testIssuerKeyResolvedByKeyId() {
+        assertEquals(VISA_ARQC, visaService.getApplicationCryptogram(buildCommand(VISA_PAN, "visa-01", VISA_IAD))
+                .getRequestCryptogram());
+        assertEquals(MASTERCARD_ARQC, mastercardService.getApplicationCryptogram(buildCommand(MASTERCARD_PAN,
+                "mc-01", MASTERCARD_IAD)).getRequestCryptogram());
+    }
+
+    @Test
+    void testIssuerKeyResolvedByBinAndDerivationKeyIndex() {
+        // The Visa key is registered with a lower case key and DKI, the Mastercard key under the longest matching BIN
+        assertEquals(VISA_ARQC, visaService.getApplicationCryptogram(buildCommand(VISA_PAN, null, VISA_IAD))
+                .getRequestCryptogram());
+        assertEquals(MASTERCARD_ARQC, mastercardService.getApplicationCryptogram(buildCommand(MASTERCARD_PAN, null,
+                MASTERCARD_IAD)).getRequestCryptogram());
+        // Repeated requests are served from the UDK cache under the fingerprint of the registered key
+        assertEquals(MASTERCARD_ARQC, mastercardService.getApplicationCryptogram(buildCommand(MASTERCARD_PAN, null,
+                MASTERCARD_IAD)).getRequestCryptogram());
+    }
+
+    @Test
+    void testUnresolvedIssuerKeyIsReported() {
+        assertThrows(IssuerKeyNotFoundException.class,
+                () -> visaService.getApplicationCryptogram(buildCommand(VISA_PAN, "unknown", VISA_IAD))
+        );
+        // DKI 02 is not registered for the BIN
+        assertThrows(IssuerKeyNotFoundException.class,
+                () -> mastercardService.getApplicationCryptogram(buildCommand(MASTERCARD_PAN, null,
+                        "0216A00003220000000000000000000000000000"))
+        );
+    }
+
+    private static Map<String, String> buildIssuerKeyProperties() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("emv.issuer-keys.visa-01.key", VISA_IMK.toLowerCase());
+        properties.put("emv.issuer-keys.visa-01.bin", "476173");
+        properties.put("emv.issuer-keys.visa-01.dki", "01");
+        properties.put("emv.issuer-keys.mc-01.key", MASTERCARD_IMK);
+        properties.put("emv.issuer-keys.mc-01.bin", "54133300");
+        properties.put("emv.issuer-keys.mc-01.dki", "01");
+        // Shorter BIN of the same issuer, holding another key
+        properties.put("emv.issuer-keys.mc-00.key", VISA_IMK);
+        properties.put("emv.issuer-keys.mc-00.bin", "541333");
+        properties.put("emv.issuer-keys.mc-00.dki", "01");
+        return properties;
+    }
+
+    private static GenerateApplicationCryptogramCommand buildCommand(String pan,
+                                                                     String issuerKeyId,
+                                                                     String issuerApplicationData) {
+        return new GenerateApplicationCryptogramCommand(issuerKeyId,
+                CryptogramFunctionsServiceFixture.requestRecord()
+                        .put(CryptogramRequestField.PAN, pan)
+                        .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, issuerApplicationData)
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package com.bc.application.service;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.EMVUDKDerivationMethod;
+import com.bc.utilities.HexCodec;
+import org.junit.jupiter.api.Test;
+
+import static com.bc.application.service.CryptogramFunctionsServiceFixture.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests for the UDK fingerprint, which must not hold the clear PAN, and must identify the IMK, the card and the UDK
+ * derivation method, a wrongly shared entry would silently produce wrong cryptograms.
+ */
+class UniqueDerivationKeyCacheTest {
+    private static final String IMK_FINGERPRINT =
+            UniqueDerivationKeyCache.fingerprintIssuerMasterKey(HexCodec.decode(VISA_IMK));
+
+    @Test
+    void testFingerprintHoldsNoClearPan() {
+        String fingerprint = fingerprint(requestRecord(), EMVUDKDerivationMethod.METHOD_A);
+        assertFalse(fingerprint.contains(VISA_PAN));
+        assertFalse(fingerprint.contains(VISA_PAN.substring(6)));
+    }
+
+    @Test
+    void testFingerprintIdentifiesCardAndDerivationMethod() {
+        String fingerprint = fingerprint(requestRecord(), EMVUDKDerivationMethod.METHOD_A);
+        // A single digit PSN is packed as the two digit PSN, and yields the same UDK
+        assertEquals(fingerprint, fingerprint(requestRecord().put(CryptogramRequestField.PAN_SEQUENCE_NUMBER, "1"),
+                EMVUDKDerivationMethod.METHOD_A));
+        assertNotEquals(fingerprint, fingerprint(requestRecord(), EMVUDKDerivationMethod.METHOD_B));
+        assertNotEquals(fingerprint, fingerprint(requestRecord().put(CryptogramRequestField.PAN_SEQUENCE_NUMBER, "02"),
+                EMVUDKDerivationMethod.METHOD_A));
+        assertNotEquals(fingerprint, fingerprint(requestRecord().put(CryptogramRequestField.PAN, MASTERCARD_PAN),
+                EMVUDKDerivationMethod.METHOD_A));
+        assertNotEquals(fingerprint, UniqueDerivationKeyCache.fingerprint(
+                UniqueDerivationKeyCache.fingerprintIssuerMasterKey(HexCodec.decode(MASTERCARD_IMK)),
+                requestRecord(),
+                EMVUDKDerivationMethod.METHOD_A
+        ));
+    }
+
+    private static String fingerprint(CryptogramRequestRecord requestRecord,
+                                      EMVUDKDerivationMethod derivationMethod) {
+        return UniqueDerivationKeyCache.fingerprint(IMK_FINGERPRINT,
+                requestRecord,
+                derivationMethod
+        );
+    }
+}
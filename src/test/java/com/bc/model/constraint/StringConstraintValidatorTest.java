@@ -0,0 +1,72 @@
+package com.bc.model.constraint;
+
+import com.bc.model.constants.IADStaticData;
+import com.bc.model.pattern.CommonPattern;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests checking that the regular expression free string constraints accept exactly the values accepted by the
+ * patterns they replace.
+ */
+class StringConstraintValidatorTest {
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    static class Sample {
+        @HexadecimalString(min = 16, max = 48, step = 16)
+        String tdeaKey;
+        @HexadecimalString(min = 14, max = 64, step = 2)
+        String visaIad;
+        @HexadecimalString(lengths = {36, 40, 52, 56})
+        String mastercardIad;
+        @HexadecimalString(min = 1, max = 4)
+        String applicationTransactionCounter;
+        @DecimalString(min = 1, max = 12)
+        String amount;
+        @DecimalString(min = 3, max = 3)
+        String currencyCode;
+    }
+
+    @Test
+    void testConstraintsMatchPatterns() {
+        for (String value : sampleValues()) {
+            assertValid(value.matches(CommonPattern.IS_A_VALID_TDEA_KEY), "tdeaKey", value);
+            assertValid(value.matches(IADStaticData.VISA_VALID_IAD_FORMAT), "visaIad", value);
+            assertValid(value.matches(IADStaticData.MASTERCARD_VALID_IAD_FORMAT), "mastercardIad", value);
+            assertValid(value.matches(CommonPattern.IS_A_1_TO_4_DIGIT_HEXADECIMAL_NUMBER),
+                    "applicationTransactionCounter", value);
+            assertValid(value.matches(CommonPattern.IS_A_1_TO_12_DIGIT_DECIMAL_NUMBER), "amount", value);
+            assertValid(value.matches(CommonPattern.IS_A_3_DIGIT_DECIMAL_NUMBER), "currencyCode", value);
+        }
+    }
+
+    @Test
+    void testNullIsValid() {
+        assertEquals(0, VALIDATOR.validate(new Sample()).size());
+    }
+
+    private static void assertValid(boolean expected,
+                                    String property,
+                                    String value) {
+        assertEquals(expected,
+                VALIDATOR.validateValue(Sample.class, property, value).isEmpty(),
+                property + " value '" + value + "'"
+        );
+    }
+
+    private static List<String> sampleValues() {
+        List<String> values = new ArrayList<>();
+        String[] characters = {"0", "9", "a", "f", "A", "F", "g", "G", "@", "`", "/", ":", " ", "\u0660"};
+        for (int length = 0; length <= 66; length++) {
+            for (String character : characters) {
+                values.add("5".repeat(length / 2) + character + "5".repeat(Math.max(0, length - 1 - length / 2)));
+            }
+        }
+        return values;
+    }
+}
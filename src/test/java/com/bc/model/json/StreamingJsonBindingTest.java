@@ -0,0 +1,133 @@
+package com.bc.model.json;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.model.dto.GenerateACRequest;
+import com.bc.model.dto.GenerateACResponse;
+import com.bc.model.dto.VerifyACRequest;
+import com.bc.utilities.HexCodec;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests checking that the streaming request deserializer decodes the request fields into the request record, reporting
+ * invalid fields by name, and that the response serializer binds the payloads as the bean serializer did.
+ */
+class StreamingJsonBindingTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Test
+    void testRequestFieldsAreBound() throws Exception {
+        GenerateACRequest generateACRequest = OBJECT_MAPPER.readValue("{" +
+                "\"Pan\":\"4761739001010010\",\"PanSequenceNumber\":\"01\"," +
+                "\"IssuerMasterKey\":\"0123456789ABCDEFFEDCBA9876543210\",\"IssuerKeyId\":\"visa-01\"," +
+                "\"AmountAuthorised\":1000,\"AmountOther\":null,\"TerminalCountryCode\":\"840\"," +
+                "\"TerminalVerificationResults\":\"0000008000\",\"TransactionCurrencyCode\":\"840\"," +
+                "\"TransactionDate\":\"2023-12-31\",\"TransactionType\":\"00\",\"UnpredictableNumber\":\"1A2B3C4D\"," +
+                "\"ApplicationInterchangeProfile\":\"5800\",\"ApplicationTransactionCounter\":\"2B\"," +
+                "\"IssuerApplicationData\":\"06010A03A00000\",\"CorrelationId\":\"c1\"," +
+                "\"Unknown\":{\"Nested\":[1,2]}}", GenerateACRequest.class);
+        CryptogramRequestRecord requestRecord = generateACRequest.requestRecord;
+        assertEquals("4761739001010010", requestRecord.getPan());
+        assertEquals("4761739001010010", field(requestRecord, CryptogramRequestField.PAN));
+        assertEquals("01", field(requestRecord, CryptogramRequestField.PAN_SEQUENCE_NUMBER));
+        assertEquals("0123456789abcdeffedcba9876543210", field(requestRecord, CryptogramRequestField.ISSUER_MASTER_KEY));
+        assertEquals("visa-01", generateACRequest.issuerKeyId);
+        assertEquals("000000001000", field(requestRecord, CryptogramRequestField.AMOUNT_AUTHORISED));
+        assertFalse(requestRecord.isPresent(CryptogramRequestField.AMOUNT_OTHER));
+        assertEquals("0840", field(requestRecord, CryptogramRequestField.TERMINAL_COUNTRY_CODE));
+        assertEquals("0000008000", field(requestRecord, CryptogramRequestField.TERMINAL_VERIFICATION_RESULTS));
+        assertEquals("0840", field(requestRecord, CryptogramRequestField.TRANSACTION_CURRENCY_CODE));
+        assertEquals("231231", field(requestRecord, CryptogramRequestField.TRANSACTION_DATE));
+        assertEquals("00", field(requestRecord, CryptogramRequestField.TRANSACTION_TYPE));
+        assertEquals("1a2b3c4d", field(requestRecord, CryptogramRequestField.UNPREDICTABLE_NUMBER));
+        assertEquals("5800", field(requestRecord, CryptogramRequestField.APPLICATION_INTERCHANGE_PROFILE));
+        assertEquals("002b", field(requestRecord, CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER));
+        assertEquals("06010a03a00000", field(requestRecord, CryptogramRequestField.ISSUER_APPLICATION_DATA));
+        assertEquals("06010A03A00000", requestRecord.getIssuerApplicationData());
+        assertEquals("c1", generateACRequest.correlationId);
+        // The command defaults the absent AmountOther before it is validated
+        GenerateApplicationCryptogramCommand command = new GenerateApplicationCryptogramCommand(
+                generateACRequest.issuerKeyId,
+                requestRecord
+        );
+        assertEquals("visa-01", command.getIssuerKeyId());
+        assertEquals("000000000000", field(command.getRequestRecord(), CryptogramRequestField.AMOUNT_OTHER));
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() {
+        assertThrows(MismatchedInputException.class,
+                () -> OBJECT_MAPPER.readValue("{\"Pan\":[\"4761739001010010\"]}", GenerateACRequest.class)
+        );
+        assertThrows(MismatchedInputException.class,
+                () -> OBJECT_MAPPER.readValue("[]", GenerateACRequest.class)
+        );
+        assertThrows(UnrecognizedPropertyException.class,
+                () -> new ObjectMapper().readValue("{\"Unknown\":1}", GenerateACRequest.class)
+        );
+    }
+
+    @Test
+    void testInvalidFieldsAreReportedByName() throws Exception {
+        GenerateACRequest generateACRequest = OBJECT_MAPPER.readValue("{" +
+                "\"Pan\":\"47617390010100AB\",\"PanSequenceNumber\":\"01\",\"IssuerKeyId\":\"visa-01\"," +
+                "\"AmountAuthorised\":\"1000\",\"TerminalCountryCode\":\"840\"," +
+                "\"TerminalVerificationResults\":\"00000080GG\",\"TransactionCurrencyCode\":\"840\"," +
+                "\"TransactionDate\":\"2023-13-31\",\"TransactionType\":\"00\",\"UnpredictableNumber\":\"1A2B3C4D\"," +
+                "\"ApplicationInterchangeProfile\":\"5800\",\"ApplicationTransactionCounter\":\"2B\"}",
+                GenerateACRequest.class);
+        assertFalse(generateACRequest.requestRecord.isValid(CryptogramRequestField.PAN));
+        ConstraintViolationException constraintViolationException = assertThrows(ConstraintViolationException.class,
+                () -> new GenerateApplicationCryptogramCommand(generateACRequest.issuerKeyId,
+                        generateACRequest.requestRecord
+                )
+        );
+        Set<String> propertyNames = constraintViolationException.getConstraintViolations().stream()
+                .map(constraintViolation -> constraintViolation.getPropertyPath().toString())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("pan", "terminalVerificationResults", "transactionDate", "issuerApplicationData"),
+                propertyNames
+        );
+    }
+
+    @Test
+    void testResponseOmitsNullFields() throws Exception {
+        GenerateACResponse generateACResponse = new GenerateACResponse();
+        generateACResponse.applicationCryptogram = "2813e6b4507f431b";
+        assertEquals("{\"ARQC\":\"2813e6b4507f431b\"}", OBJECT_MAPPER.writeValueAsString(generateACResponse));
+        generateACResponse.applicationResponseCryptogram = "0011223344556677";
+        assertEquals("{\"ARQC\":\"2813e6b4507f431b\",\"ARPC\":\"0011223344556677\"}",
+                OBJECT_MAPPER.writeValueAsString(generateACResponse)
+        );
+    }
+
+    @Test
+    void testVerifyRequestBindsCryptogramAndRequestFields() throws Exception {
+        VerifyACRequest verifyACRequest = OBJECT_MAPPER.readValue("{\"Pan\":\"4761739001010010\"," +
+                "\"ARQC\":\"2813E6B4507F431B\",\"Unknown\":1}", VerifyACRequest.class);
+        assertEquals("4761739001010010", verifyACRequest.requestRecord.getPan());
+        assertEquals("2813E6B4507F431B", verifyACRequest.applicationCryptogram);
+    }
+
+    private static String field(CryptogramRequestRecord requestRecord,
+                                CryptogramRequestField field) {
+        return HexCodec.encode(requestRecord.getData(),
+                field.getOffset(),
+                requestRecord.getLength(field),
+                new StringBuilder()
+        ).toString();
+    }
+}
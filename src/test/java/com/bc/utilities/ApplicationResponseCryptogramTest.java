@@ -0,0 +1,96 @@
+package com.bc.utilities;
+
+import com.bc.application.domain.CryptogramResponse;
+import com.bc.application.domain.CryptogramVerificationResponse;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.CryptogramVerificationResult;
+import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.PaymentScheme;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.application.service.CryptogramFunctionsServiceFixture;
+import org.junit.jupiter.api.Test;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests checking the ARPC Method 1 and Method 2 generation against ARPCs computed with the JCE DES engines.
+ */
+class ApplicationResponseCryptogramTest {
+    private static final String SESSION_KEY = "0123456789ABCDEFFEDCBA9876543210";
+    private static final String CVN10_IAD = "06010A03A00000";
+    private static final String CVN18_IAD = "06011203A000000F010000000000000000000000000000000000000000000000";
+    private final VisaApplicationCryptogramGenerator generator = new VisaApplicationCryptogramGenerator();
+
+    @Test
+    void testArpcMethod1() throws Exception {
+        CryptogramResponse cryptogramResponse = generate(CVN10_IAD, "3030", null, null, CryptogramVersionNumber.CVN10);
+        byte[] arqc = HexCodec.decode(cryptogramResponse.getRequestCryptogram());
+        byte[] block = Arrays.copyOf(HexCodec.decode("3030"), 8);
+        for (int i = 0; i < 8; i++) {
+            block[i] ^= arqc[i];
+        }
+        Cipher cipher = Cipher.getInstance("DESede/ECB/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(HexCodec.decode(SESSION_KEY + SESSION_KEY.substring(0, 16)),
+                "DESede"));
+        assertEquals(HexCodec.encode(cipher.doFinal(block)), cryptogramResponse.getResponseCryptogram());
+    }
+
+    @Test
+    void testArpcMethod2() throws Exception {
+        CryptogramResponse cryptogramResponse = generate(CVN18_IAD, null, "00820000", "0102", CryptogramVersionNumber.CVN18);
+        String expectedArpc = CryptogramFunctionsServiceFixture.retailMac(SESSION_KEY,
+                cryptogramResponse.getRequestCryptogram() + "00820000" + "0102");
+        assertEquals(expectedArpc.substring(0, 8), cryptogramResponse.getResponseCryptogram());
+        // The ARQC is unchanged by the ARPC request data
+        assertEquals(generate(CVN18_IAD, null, null, null, CryptogramVersionNumber.CVN18).getRequestCryptogram(),
+                cryptogramResponse.getRequestCryptogram()
+        );
+    }
+
+    @Test
+    void testVerifiedCryptogramGetsArpc() {
+        CryptogramResponse cryptogramResponse = generate(CVN10_IAD, "3030", null, null, CryptogramVersionNumber.CVN10);
+        byte[] arqc = HexCodec.decode(cryptogramResponse.getRequestCryptogram());
+        CryptogramVerificationResponse verificationResponse = generator.verifyApplicationCryptogram(
+                command(CVN10_IAD, "3030", null, null), HexCodec.decode(SESSION_KEY), CryptogramVersionNumber.CVN10,
+                "03A00000", PaymentScheme.VISA, arqc);
+        assertEquals(CryptogramVerificationResult.VERIFIED, verificationResponse.getVerificationResult());
+        assertEquals(cryptogramResponse.getResponseCryptogram(), verificationResponse.getResponseCryptogram());
+        arqc[0] ^= 0x01;
+        verificationResponse = generator.verifyApplicationCryptogram(command(CVN10_IAD, "3030", null, null),
+                HexCodec.decode(SESSION_KEY), CryptogramVersionNumber.CVN10, "03A00000", PaymentScheme.VISA, arqc);
+        assertEquals(CryptogramVerificationResult.ARQC_MISMATCH, verificationResponse.getVerificationResult());
+        assertNull(verificationResponse.getResponseCryptogram());
+    }
+
+    private CryptogramResponse generate(String issuerApplicationData,
+                                        String authorisationResponseCode,
+                                        String cardStatusUpdate,
+                                        String proprietaryAuthenticationData,
+                                        CryptogramVersionNumber cryptogramVersionNumber) {
+        return generator.generateApplicationCryptogram(command(issuerApplicationData, authorisationResponseCode,
+                        cardStatusUpdate, proprietaryAuthenticationData),
+                HexCodec.decode(SESSION_KEY),
+                cryptogramVersionNumber,
+                "03A00000",
+                PaymentScheme.VISA
+        );
+    }
+
+    private static GenerateApplicationCryptogramCommand command(String issuerApplicationData,
+                                                                String authorisationResponseCode,
+                                                                String cardStatusUpdate,
+                                                                String proprietaryAuthenticationData) {
+        return new GenerateApplicationCryptogramCommand(null,
+                CryptogramFunctionsServiceFixture.requestRecord()
+                        .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, issuerApplicationData)
+                        .put(CryptogramRequestField.AUTHORISATION_RESPONSE_CODE, authorisationResponseCode)
+                        .put(CryptogramRequestField.CARD_STATUS_UPDATE, cardStatusUpdate)
+                        .put(CryptogramRequestField.PROPRIETARY_AUTHENTICATION_DATA, proprietaryAuthenticationData)
+        );
+    }
+}
@@ -0,0 +1,72 @@
+package com.bc.utilities;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the bitsliced Triple DES engine, verified against published DES vectors and the JCE engine.
+ */
+class BitslicedTripleDESEngineTest {
+    private final BitslicedTripleDESEngine bitslicedEngine = new BitslicedTripleDESEngine();
+    private final TripleDESEngine jceEngine = new JceTripleDESEngine();
+
+    @Test
+    void testSingleDESKnownAnswers() throws DecoderException {
+        byte[][] keys = {Hex.decodeHex("133457799BBCDFF1"), Hex.decodeHex("0123456789ABCDEF")};
+        byte[][] blocks = {Hex.decodeHex("0123456789ABCDEF"), Hex.decodeHex("4E6F772069732074")};
+        byte[][] cipherBlocks = bitslicedEngine.encryptBlocks(keys, blocks);
+        assertEquals("85E813540F0AB405", Hex.encodeHexString(cipherBlocks[0], false));
+        assertEquals("3FA40E8A984D4815", Hex.encodeHexString(cipherBlocks[1], false));
+    }
+
+    @Test
+    void testPartialAndMultipleBatchesAgainstJceEngine() {
+        Random random = new Random(64);
+        for (int blockCount : new int[]{1, 63, 64, 65, 200}) {
+            byte[][] keys = new byte[blockCount][];
+            byte[][] blocks = new byte[blockCount][8];
+            for (int i = 0; i < blockCount; i++) {
+                keys[i] = new byte[8 * (1 + random.nextInt(3))];
+                random.nextBytes(keys[i]);
+                random.nextBytes(blocks[i]);
+            }
+            byte[][] cipherBlocks = bitslicedEngine.encryptBlocks(keys, blocks);
+            assertEquals(blockCount, cipherBlocks.length);
+            for (int i = 0; i < blockCount; i++) {
+                assertArrayEquals(jceEngine.encrypt(keys[i], blocks[i]), cipherBlocks[i]);
+            }
+        }
+    }
+
+    @Test
+    void testTranspose() {
+        Random random = new Random(6464);
+        long[] rows = new long[64];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = random.nextLong();
+        }
+        long[] transposedRows = rows.clone();
+        BitslicedTripleDESEngine.transpose(transposedRows);
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < rows.length; j++) {
+                assertEquals((rows[j] >>> (63 - i)) & 1, (transposedRows[i] >>> (63 - j)) & 1);
+            }
+        }
+    }
+
+    @Test
+    void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bitslicedEngine.encryptBlocks(new byte[2][16], new byte[1][8]));
+        assertThrows(IllegalArgumentException.class,
+                () -> bitslicedEngine.encryptBlocks(new byte[][]{new byte[12]}, new byte[1][8]));
+        assertThrows(IllegalArgumentException.class,
+                () -> bitslicedEngine.encryptBlocks(new byte[][]{new byte[16]}, new byte[][]{new byte[7]}));
+    }
+}
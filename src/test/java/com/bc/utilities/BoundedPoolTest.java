@@ -0,0 +1,106 @@
+package com.bc.utilities;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the bounded pool reuse order, bound and discard action, and the reuse of instances by short-lived threads.
+ */
+class BoundedPoolTest {
+    private final AtomicInteger createdCount = new AtomicInteger();
+    private final List<Object> discardedInstances = new ArrayList<>();
+
+    @Test
+    void testMostRecentlyReleasedInstanceIsReused() {
+        BoundedPool<Object> pool = newPool(4);
+        Object first = pool.borrow();
+        Object second = pool.borrow();
+        assertEquals(2, createdCount.get());
+        pool.release(first);
+        pool.release(second);
+        assertSame(second, pool.borrow());
+        assertSame(first, pool.borrow());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(2, createdCount.get());
+    }
+
+    @Test
+    void testInstancesBeyondTheBoundAreDiscarded() {
+        BoundedPool<Object> pool = newPool(2);
+        List<Object> instances = List.of(pool.borrow(), pool.borrow(), pool.borrow());
+        instances.forEach(pool::release);
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(List.of(instances.get(2)), discardedInstances);
+        assertThrows(IllegalArgumentException.class, () -> newPool(0));
+    }
+
+    @Test
+    void testInstancesAreReusedByShortLivedThreads() throws Exception {
+        BoundedPool<Object> pool = newPool(4);
+        Set<Object> usedInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        // A new thread per task, as with one virtual thread per request
+        for (int i = 0; i < 100; i++) {
+            Thread thread = new Thread(() -> {
+                Object instance = pool.borrow();
+                synchronized (usedInstances) {
+                    usedInstances.add(instance);
+                }
+                pool.release(instance);
+            });
+            thread.start();
+            thread.join();
+        }
+        assertEquals(1, createdCount.get());
+        assertEquals(1, usedInstances.size());
+    }
+
+    @Test
+    void testConcurrentBorrowersNeverShareAnInstance() throws Exception {
+        BoundedPool<AtomicInteger> pool = new BoundedPool<>(4, AtomicInteger::new, instance -> { });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int task = 0; task < 8; task++) {
+                results.add(executor.submit(() -> {
+                    boolean exclusive = true;
+                    for (int i = 0; i < 10000; i++) {
+                        AtomicInteger instance = pool.borrow();
+                        exclusive &= instance.incrementAndGet() == 1;
+                        instance.decrementAndGet();
+                        pool.release(instance);
+                    }
+                    return exclusive;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(pool.getIdleCount() <= 4);
+    }
+
+    private BoundedPool<Object> newPool(int maximumIdle) {
+        return new BoundedPool<>(maximumIdle,
+                () -> {
+                    createdCount.incrementAndGet();
+                    return new Object();
+                },
+                discardedInstances::add
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package com.bc.utilities;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for the derived key cache expiry, admission, eviction and zeroization.
+ */
+class DerivedKeyCacheTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void testHitReturnsCopyOfDerivedKey() {
+        DerivedKeyCache<String> cache = newCache(2, true);
+        AtomicInteger derivations = new AtomicInteger();
+        byte[] derivedKey = cache.get("card", key -> {
+            derivations.incrementAndGet();
+            return new byte[]{1, 2, 3};
+        });
+        derivedKey[0] = 0; // Caller zeroizes its copy
+        byte[] cachedKey = cache.get("card", key -> {
+            derivations.incrementAndGet();
+            return new byte[]{9};
+        });
+        assertArrayEquals(new byte[]{1, 2, 3}, cachedKey);
+        assertNotSame(derivedKey, cachedKey);
+        assertEquals(1, derivations.get());
+        assertEquals(1, cache.getStatistics().getHitCount());
+        assertEquals(1, cache.getStatistics().getMissCount());
+    }
+
+    @Test
+    void testKeyExpiresAfterTimeToLive() {
+        DerivedKeyCache<String> cache = newCache(2, true);
+        cache.put("card", new byte[]{1});
+        nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertNull(cache.getIfPresent("card"));
+        assertEquals(1, cache.getStatistics().getExpirationCount());
+        assertEquals(0, cache.getStatistics().getSize());
+    }
+
+    @Test
+    void testFrequencyAdmissionKeepsFrequentlyUsedKeys() {
+        DerivedKeyCache<String> cache = newCache(2, true);
+        for (int i = 0; i < 5; i++) {
+            cache.get("hot-card-1", key -> new byte[]{1});
+            cache.get("hot-card-2", key -> new byte[]{2});
+        }
+        for (int i = 0; i < 20; i++) {
+            cache.get("one-off-card-" + i, key -> new byte[]{3});
+        }
+        assertNotNull(cache.getIfPresent("hot-card-1"));
+        assertNotNull(cache.getIfPresent("hot-card-2"));
+        assertEquals(20, cache.getStatistics().getRejectionCount());
+        assertEquals(0, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedKeyEvictedWithoutFrequencyAdmission() {
+        DerivedKeyCache<String> cache = newCache(2, false);
+        cache.put("card-1", new byte[]{1});
+        cache.put("card-2", new byte[]{2});
+        cache.getIfPresent("card-1");
+        cache.put("card-3", new byte[]{3});
+        assertNull(cache.getIfPresent("card-2"));
+        assertNotNull(cache.getIfPresent("card-1"));
+        assertNotNull(cache.getIfPresent("card-3"));
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void testFingerprintDoesNotExposeKey() {
+        String fingerprint = DerivedKeyCache.fingerprint(new byte[16]);
+        assertEquals(32, fingerprint.length());
+        assertEquals(fingerprint, DerivedKeyCache.fingerprint(new byte[16]));
+    }
+
+    private DerivedKeyCache<String> newCache(int maximumSize,
+                                             boolean frequencyAdmission) {
+        return new DerivedKeyCache<>("test",
+                maximumSize,
+                Duration.ofSeconds(30),
+                frequencyAdmission,
+                nanoTime::get
+        );
+    }
+}
@@ -0,0 +1,122 @@
+package com.bc.utilities;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.PaymentScheme;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests for the session key cache key composition, a wrongly shared entry would silently produce wrong cryptograms.
+ * Each cached session key is verified against the session key derived without a cache.
+ */
+class EMVSessionKeyDerivatorTest {
+    private static final byte[] UDK = HexCodec.decode("0123456789ABCDEFFEDCBA9876543210");
+    private final DerivedKeyCache<String> sessionKeyCache =
+            new DerivedKeyCache<>("session-key-test", 16, Duration.ofMinutes(1), false);
+
+    @Test
+    void testMastercardProprietaryDifferentUnpredictableNumberIsMiss() {
+        byte[] first = derive("0001", "11223344", CryptogramVersionNumber.CVN16, PaymentScheme.MASTERCARD);
+        byte[] second = derive("0001", "55667788", CryptogramVersionNumber.CVN16, PaymentScheme.MASTERCARD);
+        assertStatistics(0, 2);
+        assertFalse(Arrays.equals(first, second));
+        // The UN is compared case insensitively.
+        derive("0001", "aabbccdd", CryptogramVersionNumber.CVN16, PaymentScheme.MASTERCARD);
+        derive("0001", "AABBCCDD", CryptogramVersionNumber.CVN16, PaymentScheme.MASTERCARD);
+        assertStatistics(1, 3);
+    }
+
+    @Test
+    void testEMVCommonSessionKeyDifferentUnpredictableNumberIsHit() {
+        derive("0001", "11223344", CryptogramVersionNumber.CVN18, PaymentScheme.VISA);
+        derive("0001", "55667788", CryptogramVersionNumber.CVN18, PaymentScheme.VISA);
+        assertStatistics(1, 1);
+        derive("0002", "55667788", CryptogramVersionNumber.CVN18, PaymentScheme.VISA);
+        assertStatistics(1, 2);
+    }
+
+    @Test
+    void testEquivalentApplicationTransactionCountersShareEntry() {
+        derive("1", "11223344", CryptogramVersionNumber.CVN20, PaymentScheme.MASTERCARD);
+        derive("0001", "11223344", CryptogramVersionNumber.CVN20, PaymentScheme.MASTERCARD);
+        derive("001", "11223344", CryptogramVersionNumber.CVN20, PaymentScheme.MASTERCARD);
+        assertStatistics(2, 1);
+        derive("a", "11223344", CryptogramVersionNumber.CVN16, PaymentScheme.MASTERCARD);
+        derive("000A", "11223344", CryptogramVersionNumber.CVN16, PaymentScheme.MASTERCARD);
+        assertStatistics(3, 2);
+    }
+
+    @Test
+    void testDifferentMethodsNeverCollide() {
+        byte[] mastercardProprietary = derive("0001", "11223344", CryptogramVersionNumber.CVN16,
+                PaymentScheme.MASTERCARD);
+        byte[] emvCommonSessionKey = derive("0001", "11223344", CryptogramVersionNumber.CVN20,
+                PaymentScheme.MASTERCARD);
+        assertStatistics(0, 2);
+        assertFalse(Arrays.equals(mastercardProprietary, emvCommonSessionKey));
+        // Visa CVN18 shares the EMV CSK entry of Mastercard CVN20, since the derivation is identical.
+        derive("0001", "11223344", CryptogramVersionNumber.CVN18, PaymentScheme.VISA);
+        derive("0001", "11223344", CryptogramVersionNumber.CVN16, PaymentScheme.MASTERCARD);
+        assertStatistics(2, 2);
+    }
+
+    @Test
+    void testRequestRecordSharesEntryWithDigits() {
+        byte[] sessionKey = derive("2B", "1a2b3c4d", CryptogramVersionNumber.CVN16, PaymentScheme.MASTERCARD);
+        CryptogramRequestRecord requestRecord = new CryptogramRequestRecord()
+                .put(CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER, "002B")
+                .put(CryptogramRequestField.UNPREDICTABLE_NUMBER, "1A2B3C4D");
+        assertArrayEquals(sessionKey, EMVSessionKeyDerivator.fromValidatedInput(UDK,
+                requestRecord,
+                CryptogramVersionNumber.CVN16,
+                PaymentScheme.MASTERCARD,
+                sessionKeyCache,
+                DerivedKeyCache.fingerprint(UDK)
+        ).generateSessionKeyBytes());
+        assertStatistics(1, 1);
+        assertArrayEquals(sessionKey, EMVSessionKeyDerivator.fromValidatedInput(UDK,
+                requestRecord,
+                CryptogramVersionNumber.CVN16,
+                PaymentScheme.MASTERCARD,
+                null,
+                null
+        ).generateSessionKeyBytes());
+    }
+
+    /**
+     * Derive the session key through the cache, and check it matches the session key derived without the cache.
+     */
+    private byte[] derive(String applicationTransactionCounter,
+                          String unpredictableNumber,
+                          CryptogramVersionNumber cryptogramVersionNumber,
+                          PaymentScheme paymentScheme) {
+        byte[] sessionKey = new EMVSessionKeyDerivator(UDK,
+                applicationTransactionCounter,
+                unpredictableNumber,
+                cryptogramVersionNumber,
+                paymentScheme,
+                sessionKeyCache
+        ).generateSessionKeyBytes();
+        byte[] uncachedSessionKey = new EMVSessionKeyDerivator(UDK,
+                applicationTransactionCounter,
+                unpredictableNumber,
+                cryptogramVersionNumber,
+                paymentScheme
+        ).generateSessionKeyBytes();
+        assertArrayEquals(uncachedSessionKey, sessionKey);
+        return sessionKey;
+    }
+
+    private void assertStatistics(long hitCount,
+                                  long missCount) {
+        assertEquals(hitCount, sessionKeyCache.getStatistics().getHitCount());
+        assertEquals(missCount, sessionKeyCache.getStatistics().getMissCount());
+    }
+}
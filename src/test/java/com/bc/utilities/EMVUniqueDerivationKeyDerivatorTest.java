@@ -0,0 +1,130 @@
+package com.bc.utilities;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.EMVUDKDerivationMethod;
+import com.bc.application.enumeration.PaymentScheme;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests checking that the batch UDK derivation and the derivation from a request record match the per card derivation.
+ */
+class EMVUniqueDerivationKeyDerivatorTest {
+
+    @Test
+    void testBatchDerivationMatchesPerCardDerivation() {
+        Random random = new Random(2024);
+        List<EMVUniqueDerivationKeyDerivator> udkDerivators = new ArrayList<>();
+        // More than 64 cards, i.e., more than one bitsliced batch of blocks, with 1 and 2 digit PSNs and single, double
+        // and triple length Issuer Master Keys
+        for (int card = 0; card < 100; card++) {
+            udkDerivators.add(new EMVUniqueDerivationKeyDerivator(randomBytes(random, 8 * (1 + card % 3)),
+                    decimalDigits(random, 16),
+                    decimalDigits(random, 1 + card % 2),
+                    card % 2 == 0 ? PaymentScheme.VISA : PaymentScheme.MASTERCARD,
+                    CryptogramVersionNumber.CVN10,
+                    card % 7 == 3 ? EMVUDKDerivationMethod.METHOD_B : EMVUDKDerivationMethod.METHOD_A
+            ));
+        }
+        List<byte []> uniqueDerivationKeys = EMVUniqueDerivationKeyDerivator.generateUniqueDerivationKeysBytes(
+                udkDerivators
+        );
+        assertEquals(udkDerivators.size(), uniqueDerivationKeys.size());
+        for (int card = 0; card < udkDerivators.size(); card++) {
+            EMVUniqueDerivationKeyDerivator udkDerivator = udkDerivators.get(card);
+            if (udkDerivator.getEmvudkDerivationMethod().isMETHOD_A()) {
+                assertEquals(16, uniqueDerivationKeys.get(card).length);
+                assertArrayEquals(udkDerivator.generateUniqueDerivationKeyBytes(), uniqueDerivationKeys.get(card));
+            } else {
+                assertNull(udkDerivator.generateUniqueDerivationKeyBytes());
+                assertNull(uniqueDerivationKeys.get(card));
+            }
+        }
+    }
+
+    @Test
+    void testIssuerMasterKeyIsUsedInPlace() {
+        byte[] issuerMasterKey = HexCodec.decode("0123456789ABCDEFFEDCBA9876543210");
+        byte[] original = issuerMasterKey.clone();
+        EMVUniqueDerivationKeyDerivator udkDerivator = new EMVUniqueDerivationKeyDerivator(
+                issuerMasterKey,
+                "4761739001010010",
+                "1",
+                PaymentScheme.VISA,
+                CryptogramVersionNumber.CVN10,
+                EMVUDKDerivationMethod.METHOD_A
+        );
+        byte[] uniqueDerivationKey = udkDerivator.generateUniqueDerivationKeyBytes();
+        assertArrayEquals(uniqueDerivationKey,
+                EMVUniqueDerivationKeyDerivator.generateUniqueDerivationKeysBytes(List.of(udkDerivator)).get(0)
+        );
+        // Neither the single nor the batch derivation zeroizes the caller's key
+        assertArrayEquals(original, issuerMasterKey);
+        assertArrayEquals(uniqueDerivationKey, udkDerivator.generateUniqueDerivationKeyBytes());
+    }
+
+    @Test
+    void testRequestRecordDerivationMatchesDigitsDerivation() {
+        byte[] issuerMasterKey = HexCodec.decode("0123456789ABCDEFFEDCBA9876543210");
+        for (String panSequenceNumber : new String[] {"1", "01", "42"}) {
+            CryptogramRequestRecord requestRecord = new CryptogramRequestRecord()
+                    .put(CryptogramRequestField.PAN, "4761739001010010")
+                    .put(CryptogramRequestField.PAN_SEQUENCE_NUMBER, panSequenceNumber);
+            assertArrayEquals(new EMVUniqueDerivationKeyDerivator(issuerMasterKey,
+                            "4761739001010010",
+                            panSequenceNumber,
+                            PaymentScheme.VISA,
+                            CryptogramVersionNumber.CVN10,
+                            EMVUDKDerivationMethod.METHOD_A
+                    ).generateUniqueDerivationKeyBytes(),
+                    EMVUniqueDerivationKeyDerivator.fromValidatedInput(issuerMasterKey,
+                            requestRecord,
+                            PaymentScheme.VISA,
+                            CryptogramVersionNumber.CVN10,
+                            EMVUDKDerivationMethod.METHOD_A
+                    ).generateUniqueDerivationKeyBytes()
+            );
+        }
+    }
+
+    @Test
+    void testBatchDerivationOfNoOptionACard() {
+        List<byte []> uniqueDerivationKeys = EMVUniqueDerivationKeyDerivator.generateUniqueDerivationKeysBytes(List.of(
+                new EMVUniqueDerivationKeyDerivator(HexCodec.decode("0123456789ABCDEFFEDCBA9876543210"),
+                        "4761739001010010",
+                        "01",
+                        PaymentScheme.VISA,
+                        CryptogramVersionNumber.CVN10,
+                        EMVUDKDerivationMethod.METHOD_B
+                )
+        ));
+        assertEquals(1, uniqueDerivationKeys.size());
+        assertNull(uniqueDerivationKeys.get(0));
+        assertTrue(EMVUniqueDerivationKeyDerivator.generateUniqueDerivationKeysBytes(List.of()).isEmpty());
+    }
+
+    private static byte[] randomBytes(Random random,
+                                      int length) {
+        byte[] data = new byte[length];
+        random.nextBytes(data);
+        return data;
+    }
+
+    private static String decimalDigits(Random random,
+                                        int length) {
+        StringBuilder digits = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            digits.append(random.nextInt(10));
+        }
+        return digits.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package com.bc.utilities;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the hexadecimal codec, verified against commons-codec, covering the CharSequence, char array and
+ * StringBuilder methods, and the word at a time ASCII encoding path and their scalar remainders.
+ */
+class HexCodecTest {
+    private static final int[] OFFSETS = {0, 1, 3, 8};
+
+    @Test
+    void testDecode() {
+        assertArrayEquals(new byte[0], HexCodec.decode(""));
+        assertArrayEquals(new byte[]{0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAB, (byte) 0xCD, (byte) 0xEF},
+                HexCodec.decode("0123456789abcdef")
+        );
+        assertArrayEquals(HexCodec.decode("0123456789ABCDEF"), HexCodec.decode("0123456789aBcDeF"));
+        assertArrayEquals(new byte[]{(byte) 0xAB}, HexCodec.decode(new StringBuilder("Ab")));
+    }
+
+    @Test
+    void testDecodeIntoBufferAtOffsets() {
+        String hexadecimalData = "xx0a1B2c3D4e5F6a7B8c9Dxx";
+        byte[] outputData = new byte[14];
+        Arrays.fill(outputData, (byte) 0x55);
+        assertEquals(10, HexCodec.decode(hexadecimalData, 2, 20, outputData, 3));
+        assertEquals("5555550a1b2c3d4e5f6a7b8c9d55", HexCodec.encode(outputData));
+        assertEquals(0, HexCodec.decode(hexadecimalData, 0, 0, outputData, 14));
+    }
+
+    @Test
+    void testDecodeRejectsOddLength() {
+        IllegalArgumentException illegalArgumentException = assertThrows(IllegalArgumentException.class,
+                () -> HexCodec.decode("abc")
+        );
+        assertEquals(HexCodec.class.getName() + " --> Hexadecimal data must have an even number of characters, " +
+                "but received 3 characters.", illegalArgumentException.getMessage()
+        );
+        assertThrows(IllegalArgumentException.class, () -> HexCodec.decode("00abc0", 1, 3, new byte[2], 0));
+    }
+
+    @Test
+    void testDecodeReportsIndexOfInvalidCharacter() {
+        char[] invalidCharacters = {'g', 'G', '/', ':', '@', '`', ' ', '\u0080', '\u00e9', '\uff10', '\u0130'};
+        for (char invalidCharacter : invalidCharacters) {
+            for (int invalidIndex = 0; invalidIndex < 6; invalidIndex++) {
+                StringBuilder hexadecimalData = new StringBuilder("--00aa11--");
+                hexadecimalData.setCharAt(2 + invalidIndex, invalidCharacter);
+                IllegalArgumentException illegalArgumentException = assertThrows(IllegalArgumentException.class,
+                        () -> HexCodec.decode(hexadecimalData, 2, 6, new byte[3], 0)
+                );
+                assertEquals(HexCodec.class.getName() + " --> Illegal hexadecimal character '" + invalidCharacter +
+                        "' at index " + (2 + invalidIndex) + ".", illegalArgumentException.getMessage()
+                );
+            }
+        }
+    }
+
+    @Test
+    void testEncode() {
+        assertEquals("", HexCodec.encode(new byte[0]));
+        assertEquals("00017f80ff", HexCodec.encode(new byte[]{0, 1, 0x7F, (byte) 0x80, (byte) 0xFF}));
+        byte[] allBytes = new byte[256];
+        for (int value = 0; value < 256; value++) {
+            allBytes[value] = (byte) value;
+        }
+        assertEquals(Hex.encodeHexString(allBytes), HexCodec.encode(allBytes));
+        assertArrayEquals(allBytes, HexCodec.decode(HexCodec.encode(allBytes).toUpperCase()));
+    }
+
+    @Test
+    void testEncodeIntoCharArrayAtOffsets() {
+        byte[] inputData = {0x11, (byte) 0xA2, 0x3B, (byte) 0xC4, 0x5D};
+        char[] outputData = new char[10];
+        Arrays.fill(outputData, '*');
+        assertEquals(6, HexCodec.encode(inputData, 1, 3, outputData, 2));
+        assertEquals("**a23bc4**", new String(outputData));
+        assertEquals(0, HexCodec.encode(inputData, 5, 0, outputData, 10));
+    }
+
+    @Test
+    void testEncodeAppendsToStringBuilder() {
+        byte[] inputData = {0x11, (byte) 0xA2, 0x3B, (byte) 0xC4, 0x5D};
+        StringBuilder outputData = new StringBuilder("ARQC=");
+        assertSame(outputData, HexCodec.encode(inputData, 2, 3, outputData));
+        assertEquals("ARQC=3bc45d", outputData.toString());
+        HexCodec.encode(inputData, 0, 0, outputData);
+        assertEquals("ARQC=3bc45d", outputData.toString());
+    }
+
+    @Test
+    void testEncodeAsciiMatchesReference() {
+        Random random = new Random(7);
+        for (int length = 0; length <= 17; length++) {
+            for (int offset : OFFSETS) {
+                byte[] inputData = randomBytes(random, offset + length + 2);
+                byte[] outputData = new byte[offset + 2 * length + 2];
+                Arrays.fill(outputData, (byte) '*');
+                assertEquals(2 * length, HexCodec.encodeAscii(inputData, offset, length, outputData, offset));
+                assertEquals(Hex.encodeHexString(Arrays.copyOfRange(inputData, offset, offset + length)),
+                        new String(outputData, offset, 2 * length, StandardCharsets.ISO_8859_1)
+                );
+                // Bytes outside the output range are left untouched
+                for (int i = 0; i < offset; i++) {
+                    assertEquals('*', outputData[i]);
+                }
+                assertEquals('*', outputData[offset + 2 * length]);
+            }
+        }
+    }
+
+    private static byte[] randomBytes(Random random,
+                                      int length) {
+        byte[] data = new byte[length];
+        random.nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,87 @@
+package com.bc.utilities;
+
+import org.junit.jupiter.api.Test;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Tests of the keyed Cipher caches of the JCE engine, verified against freshly initialised Cipher objects.
+ */
+class JceTripleDESEngineTest {
+    // More keys than the 32 entries of a cache, so that every key is evicted at least once.
+    private static final int KEY_COUNT = 40;
+    private final TripleDESEngine jceEngine = new JceTripleDESEngine();
+
+    @Test
+    void testCyclingMoreKeysThanCached() throws Exception {
+        Random random = new Random(32);
+        byte[][] keys = randomKeys(random);
+        byte[] data = new byte[16];
+        random.nextBytes(data);
+        for (int round = 0; round < 3; round++) {
+            for (byte[] key : keys) {
+                assertArrayEquals(freshCipher(Cipher.ENCRYPT_MODE, key).doFinal(data), jceEngine.encrypt(key, data));
+                assertArrayEquals(freshCipher(Cipher.DECRYPT_MODE, key).doFinal(data), jceEngine.decrypt(key, data));
+            }
+        }
+    }
+
+    @Test
+    void testReuseAfterEviction() throws Exception {
+        Random random = new Random(33);
+        byte[][] keys = randomKeys(random);
+        byte[] data = new byte[8];
+        random.nextBytes(data);
+        byte[] firstKey = keys[0];
+        byte[] expected = freshCipher(Cipher.ENCRYPT_MODE, firstKey).doFinal(data);
+        assertArrayEquals(expected, jceEngine.encrypt(firstKey, data));
+        // Evict the first key, then use it again.
+        for (int i = 1; i < keys.length; i++) {
+            jceEngine.encrypt(keys[i], data);
+        }
+        assertArrayEquals(expected, jceEngine.encrypt(firstKey, data));
+        // A cached entry must not depend on the caller's key array.
+        byte[] callerKey = keys[1].clone();
+        byte[] expectedSecond = freshCipher(Cipher.ENCRYPT_MODE, callerKey).doFinal(data);
+        assertArrayEquals(expectedSecond, jceEngine.encrypt(callerKey, data));
+        Arrays.fill(callerKey, (byte) 0);
+        assertArrayEquals(expectedSecond, jceEngine.encrypt(keys[1], data));
+    }
+
+    @Test
+    void testEncryptAndDecryptWithTheSameKey() {
+        Random random = new Random(34);
+        for (int keyLength : new int[]{8, 16, 24}) {
+            byte[] key = new byte[keyLength];
+            byte[] data = new byte[24];
+            random.nextBytes(key);
+            random.nextBytes(data);
+            byte[] cipherText = jceEngine.encrypt(key, data);
+            assertArrayEquals(data, jceEngine.decrypt(key, cipherText));
+            byte[] buffer = cipherText.clone();
+            jceEngine.decryptBlock(key, buffer, 8, buffer, 8);
+            assertArrayEquals(Arrays.copyOfRange(data, 8, 16), Arrays.copyOfRange(buffer, 8, 16));
+            jceEngine.encryptBlock(key, buffer, 8, buffer, 8);
+            assertArrayEquals(cipherText, buffer);
+        }
+    }
+
+    private static byte[][] randomKeys(Random random) {
+        byte[][] keys = new byte[KEY_COUNT][16];
+        for (byte[] key : keys) {
+            random.nextBytes(key);
+        }
+        return keys;
+    }
+
+    private static Cipher freshCipher(int mode,
+                                      byte[] key) throws Exception {
+        Cipher cipher = Cipher.getInstance("DESede/ECB/NoPadding");
+        cipher.init(mode, new SecretKeySpec(JceTripleDESEngine.expandToTripleLengthTDEAKey(key), "DESede"));
+        return cipher;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bc.utilities;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the PAN and key masking, and the deferred log arguments, which keep card data out of the logs.
+ */
+class LoggerUtilityTest
+        implements LoggerUtility {
+
+    @Test
+    void testMaskPanOfNull() {
+        assertNull(LoggerUtility.maskPan(null));
+    }
+
+    @Test
+    void testShortPanIsFullyMasked() {
+        assertEquals("", LoggerUtility.maskPan(""));
+        assertEquals("******", LoggerUtility.maskPan("476173"));
+        assertEquals("**********", LoggerUtility.maskPan("4761739001"));
+    }
+
+    @Test
+    void testPanKeepsFirstSixAndLastFourDigits() {
+        assertEquals("476173*0101", LoggerUtility.maskPan("47617390101"));
+        assertEquals("476173******0010", LoggerUtility.maskPan("4761739001010010"));
+        assertEquals("541333*********0010", LoggerUtility.maskPan("5413330089600010010"));
+        assertFalse(LoggerUtility.maskPan("4761739001010010").contains("900101"));
+    }
+
+    @Test
+    void testMaskKeyKeepsOnlyTheLength() {
+        assertNull(LoggerUtility.maskKey((CharSequence) null));
+        assertNull(LoggerUtility.maskKey((byte[]) null));
+        String key = "0123456789ABCDEFFEDCBA9876543210";
+        assertEquals("[32 digits masked]", LoggerUtility.maskKey(key));
+        assertEquals("[32 digits masked]", LoggerUtility.maskKey(new StringBuilder(key)));
+        assertEquals("[32 digits masked]", LoggerUtility.maskKey(HexCodec.decode(key)));
+        assertEquals("[48 digits masked]", LoggerUtility.maskKey(new byte[24]));
+        assertFalse(LoggerUtility.maskKey(key).contains("0123"));
+        assertFalse(LoggerUtility.maskKey(key.getBytes(StandardCharsets.US_ASCII)).contains("0123"));
+    }
+
+    @Test
+    void testLazyArgumentIsNotBuiltWhenLevelIsDisabled() {
+        AtomicInteger supplierCalls = new AtomicInteger();
+        List<String> formattedMessages = new ArrayList<>();
+        Object lazyArgument = LoggerUtility.lazy(() -> "built-" + supplierCalls.incrementAndGet());
+        logDebug(logger(false, formattedMessages), "Argument {}.", lazyArgument);
+        assertEquals(0, supplierCalls.get());
+        assertTrue(formattedMessages.isEmpty());
+        logDebug(logger(true, formattedMessages), "Argument {}.", lazyArgument);
+        assertEquals(1, supplierCalls.get());
+        assertEquals(List.of("LoggerUtilityTest log --> Argument built-1."), formattedMessages);
+    }
+
+    /**
+     * Build a logger with the debug level enabled or disabled, formatting the debug messages it receives.
+     */
+    private static Logger logger(boolean debugEnabled,
+                                 List<String> formattedMessages) {
+        return (Logger) Proxy.newProxyInstance(Logger.class.getClassLoader(),
+                new Class<?>[]{Logger.class},
+                (proxy, method, arguments) -> {
+                    switch (method.getName()) {
+                        case "isDebugEnabled":
+                            return debugEnabled;
+                        case "debug":
+                            String message = (String) arguments[0];
+                            for (Object argument : (Object[]) arguments[1]) {
+                                message = message.replaceFirst("\\{}", String.valueOf(argument));
+                            }
+                            formattedMessages.add(message);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+        );
+    }
+}
@@ -0,0 +1,66 @@
+package com.bc.utilities;
+
+import com.bc.application.enumeration.CryptogramRequestField;
+import com.bc.application.enumeration.CryptogramVersionNumber;
+import com.bc.application.enumeration.PaymentScheme;
+import com.bc.application.port.in.rest.cryptogramfunctions.command.GenerateApplicationCryptogramCommand;
+import com.bc.application.service.CryptogramFunctionsServiceFixture;
+import org.junit.jupiter.api.Test;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import static com.bc.model.constants.IADStaticData.CVN_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests checking the Mastercard CVN17 and CVN21 ARQCs, with plaintext and encrypted offline counters, against ARQCs
+ * computed with the JCE DES engines.
+ */
+class MastercardOfflineCountersTest {
+    private static final String SESSION_KEY = "0123456789ABCDEFFEDCBA9876543210";
+    private static final String CVR = "A50000000000";
+    private static final String TRANSACTION_DATA = "000000001000" + "000000000000" + "0840" + "0000008000" + "0840" +
+            "231231" + "00" + "1A2B3C4D" + "5800" + "002B";
+    private final MastercardApplicationCryptogramGenerator generator = new MastercardApplicationCryptogramGenerator();
+
+    @Test
+    void testPlaintextCounters() throws Exception {
+        String counters = "0102030405060708";
+        String issuerApplicationData = "0117" + CVR + "1234" + counters + "0010";
+        assertEquals("CVN17", new MastercardIADParser(issuerApplicationData).parseIad().get(CVN_NAME));
+        assertEquals(CryptogramFunctionsServiceFixture.retailMac(SESSION_KEY, TRANSACTION_DATA + CVR + counters),
+                generate(issuerApplicationData, CryptogramVersionNumber.CVN17)
+        );
+    }
+
+    @Test
+    void testEncryptedCountersAreDecryptedUnderSessionKey() throws Exception {
+        String counters = "0102030405060708090A0B0C0D0E0F10";
+        Cipher cipher = Cipher.getInstance("DESede/ECB/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(HexCodec.decode(SESSION_KEY + SESSION_KEY.substring(0, 16)),
+                "DESede"));
+        String issuerApplicationData = "0121" + CVR + "1234" + HexCodec.encode(cipher.doFinal(HexCodec.decode(counters)));
+        assertEquals("CVN21", new MastercardIADParser(issuerApplicationData).parseIad().get(CVN_NAME));
+        assertEquals(CryptogramFunctionsServiceFixture.retailMac(SESSION_KEY, TRANSACTION_DATA + CVR + counters),
+                generate(issuerApplicationData, CryptogramVersionNumber.CVN21)
+        );
+    }
+
+    private String generate(String issuerApplicationData,
+                            CryptogramVersionNumber cryptogramVersionNumber) {
+        return generator.generateApplicationCryptogram(command(issuerApplicationData),
+                HexCodec.decode(SESSION_KEY),
+                cryptogramVersionNumber,
+                CVR,
+                PaymentScheme.MASTERCARD
+        ).getRequestCryptogram();
+    }
+
+    private static GenerateApplicationCryptogramCommand command(String issuerApplicationData) {
+        return new GenerateApplicationCryptogramCommand(null,
+                CryptogramFunctionsServiceFixture.requestRecord()
+                        .put(CryptogramRequestField.PAN, CryptogramFunctionsServiceFixture.MASTERCARD_PAN)
+                        .put(CryptogramRequestField.ISSUER_APPLICATION_DATA, issuerApplicationData)
+        );
+    }
+}
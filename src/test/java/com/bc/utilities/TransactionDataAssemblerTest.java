@@ -0,0 +1,66 @@
+package com.bc.utilities;
+
+import com.bc.application.domain.CryptogramRequestRecord;
+import com.bc.application.enumeration.CryptogramRequestField;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests checking that the transaction data assembler copies the request record fields as the hexadecimal transaction
+ * data String packed them.
+ */
+class TransactionDataAssemblerTest {
+
+    @Test
+    void testFieldsArePackedAndPadded() {
+        CryptogramRequestRecord requestRecord = new CryptogramRequestRecord()
+                .put(CryptogramRequestField.AMOUNT_AUTHORISED, "1000")
+                .put(CryptogramRequestField.AMOUNT_OTHER, "0")
+                .put(CryptogramRequestField.TERMINAL_COUNTRY_CODE, "840")
+                .put(CryptogramRequestField.TERMINAL_VERIFICATION_RESULTS, "0000008000")
+                .put(CryptogramRequestField.TRANSACTION_CURRENCY_CODE, "840")
+                .put(CryptogramRequestField.TRANSACTION_DATE, "2023-12-31")
+                .put(CryptogramRequestField.TRANSACTION_TYPE, "00")
+                .put(CryptogramRequestField.UNPREDICTABLE_NUMBER, "1a2B3c4D")
+                .put(CryptogramRequestField.APPLICATION_INTERCHANGE_PROFILE, "5800")
+                .put(CryptogramRequestField.APPLICATION_TRANSACTION_COUNTER, "ABC");
+        TransactionDataAssembler transactionData = new TransactionDataAssembler()
+                .append(requestRecord.getData(), 0, CryptogramRequestField.TRANSACTION_DATA_LENGTH)
+                .appendBinary("03A00000");
+        assertEquals(("000000001000" + "000000000000" + "0840" + "0000008000" + "0840" + "231231" + "00" +
+                "1a2b3c4d" + "5800" + "0abc" + "03a00000"), transactionData.toString());
+        assertEquals(37, transactionData.getLength());
+        assertEquals(0, transactionData.reset().getLength());
+    }
+
+    @Test
+    void testEncryptedBlocksAreDecryptedInPlace() {
+        byte[] key = HexCodec.decode("0123456789ABCDEFFEDCBA9876543210");
+        byte[] plainText = HexCodec.decode("00112233445566778899AABBCCDDEEFF");
+        byte[] cipherText = new byte[plainText.length + 1];
+        TripleDES.encryptBlock(key, plainText, 0, cipherText, 1);
+        TripleDES.encryptBlock(key, plainText, 8, cipherText, 9);
+        TransactionDataAssembler transactionData = new TransactionDataAssembler()
+                .appendBinary("5800")
+                .appendDecrypted(cipherText, 1, plainText.length, key);
+        assertEquals("5800" + "00112233445566778899aabbccddeeff", transactionData.toString());
+    }
+
+    @Test
+    void testInvalidFieldsAreRejected() {
+        TransactionDataAssembler transactionData = new TransactionDataAssembler();
+        assertThrows(IllegalArgumentException.class, () -> transactionData.appendBinary("12G4"));
+        assertThrows(IllegalArgumentException.class, () -> transactionData.appendBinary("ABC"));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionData.appendDecrypted(new byte[12], 0, 12, new byte[16])
+        );
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionData.append(new byte[TransactionDataAssembler.MAXIMUM_LENGTH + 1],
+                        0,
+                        TransactionDataAssembler.MAXIMUM_LENGTH + 1
+                )
+        );
+    }
+}
@@ -0,0 +1,85 @@
+package com.bc.utilities;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the Xor operations, checking the word at a time byte array paths and their scalar remainders against a
+ * byte by byte Xor.
+ */
+class XorTest {
+    private static final int[] OFFSETS = {0, 1, 3, 8};
+
+    @Test
+    void testDoXor() {
+        assertEquals("ffffffffffffffff", new Xor("0123456789ABCDEF", "fedcba9876543210").doXor());
+        assertEquals("0000", new Xor("A5a5", "a5A5").doXor());
+    }
+
+    @Test
+    void testXorRangesMatchesByteByByteXor() {
+        Random random = new Random(8);
+        for (int length = 0; length <= 17; length++) {
+            for (int leftOffset : OFFSETS) {
+                for (int rightOffset : OFFSETS) {
+                    byte[] leftOperand = randomBytes(random, leftOffset + length + 1);
+                    byte[] rightOperand = randomBytes(random, rightOffset + length + 1);
+                    byte[] output = randomBytes(random, rightOffset + length + 1);
+                    byte[] expectedOutput = output.clone();
+                    for (int i = 0; i < length; i++) {
+                        expectedOutput[rightOffset + i] =
+                                (byte) (leftOperand[leftOffset + i] ^ rightOperand[rightOffset + i]);
+                    }
+                    Xor.xor(leftOperand, leftOffset, rightOperand, rightOffset, output, rightOffset, length);
+                    assertArrayEquals(expectedOutput, output);
+                    // In place, into the right operand
+                    Xor.xor(leftOperand, leftOffset, rightOperand, rightOffset, rightOperand, rightOffset, length);
+                    assertArrayEquals(Arrays.copyOfRange(expectedOutput, rightOffset, rightOffset + length),
+                            Arrays.copyOfRange(rightOperand, rightOffset, rightOffset + length)
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    void testXorConstantMatchesByteByByteXor() {
+        Random random = new Random(88);
+        for (byte value : new byte[]{0, 0x5A, (byte) 0x80, (byte) 0xFF}) {
+            for (int length = 0; length <= 17; length++) {
+                for (int operandOffset : OFFSETS) {
+                    for (int outputOffset : OFFSETS) {
+                        byte[] operand = randomBytes(random, operandOffset + length + 1);
+                        byte[] output = randomBytes(random, outputOffset + length + 1);
+                        byte[] expectedOutput = output.clone();
+                        for (int i = 0; i < length; i++) {
+                            expectedOutput[outputOffset + i] = (byte) (operand[operandOffset + i] ^ value);
+                        }
+                        Xor.xor(operand, operandOffset, value, output, outputOffset, length);
+                        assertArrayEquals(expectedOutput, output);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testXorConstantInPlace() {
+        byte[] udkComponents = HexCodec.decode("761739001010010100000000000000000000");
+        Xor.xor(udkComponents, 0, (byte) 0xFF, udkComponents, 9, 9);
+        assertEquals("761739001010010100" + "89e8c6ffefeffefeff", HexCodec.encode(udkComponents));
+        Xor.xor(udkComponents, 0, (byte) 0xFF, udkComponents, 0, 9);
+        assertEquals("89e8c6ffefeffefeff" + "89e8c6ffefeffefeff", HexCodec.encode(udkComponents));
+    }
+
+    private static byte[] randomBytes(Random random,
+                                      int length) {
+        byte[] data = new byte[length];
+        random.nextBytes(data);
+        return data;
+    }
+}